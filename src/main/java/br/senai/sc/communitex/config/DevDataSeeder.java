@@ -206,6 +206,8 @@ public class DevDataSeeder implements CommandLineRunner {
         if (interacaoRepository.findByIssueIdAndUsuarioIdAndTipo(issue.getId(), user.getId(), type).isEmpty()) {
             interacaoRepository.save(DenunciaInteracao.builder()
                     .issue(issue).usuario(user).tipo(type).conteudo(content).build());
+            denunciaRepository.incrementarContadores(issue.getId(), 1,
+                    type == InteractionType.APOIO ? 1 : 0, type == InteractionType.CURTIDA ? 1 : 0);
         }
     }
 
@@ -0,0 +1,51 @@
+package br.senai.sc.communitex.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Indica se as colunas geography criadas pela migracao PostGIS estao presentes no banco atual.
+ * Em H2 (perfil dev) ou em PostgreSQL sem a extensao o resultado e falso.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PostgisSupport {
+
+    private static final String COLUNA_LOCALIZACAO_SQL = "SELECT COUNT(*) FROM information_schema.columns " +
+            "WHERE LOWER(table_name) = ? AND LOWER(column_name) = 'localizacao'";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile Boolean issuesDisponivel;
+    private volatile Boolean pracasDisponivel;
+
+    public boolean issuesDisponivel() {
+        if (issuesDisponivel == null) {
+            issuesDisponivel = possuiColunaLocalizacao("issues");
+        }
+        return issuesDisponivel;
+    }
+
+    public boolean pracasDisponivel() {
+        if (pracasDisponivel == null) {
+            pracasDisponivel = possuiColunaLocalizacao("pracas");
+        }
+        return pracasDisponivel;
+    }
+
+    private boolean possuiColunaLocalizacao(String tabela) {
+        try {
+            var total = jdbcTemplate.queryForObject(COLUNA_LOCALIZACAO_SQL, Long.class, tabela);
+            var disponivel = total != null && total > 0;
+            log.info("Consultas PostGIS para a tabela {}: {}", tabela, disponivel ? "habilitadas" : "indisponiveis");
+            return disponivel;
+        } catch (DataAccessException ex) {
+            log.warn("Nao foi possivel verificar o suporte a PostGIS para a tabela {}", tabela, ex);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package br.senai.sc.communitex.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+
+import java.net.URI;
+
+/**
+ * Cliente S3 usado quando {@code app.arquivos.storage=s3}. Com {@code app.arquivos.s3.endpoint} preenchido
+ * o cliente aponta para um servico compativel (por exemplo MinIO local) usando enderecamento por caminho.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.arquivos.storage", havingValue = "s3")
+public class S3Config {
+
+    @Bean(destroyMethod = "close")
+    public S3Client s3Client(@Value("${app.arquivos.s3.endpoint:}") String endpoint,
+                             @Value("${app.arquivos.s3.regiao:us-east-1}") String regiao,
+                             @Value("${app.arquivos.s3.access-key}") String accessKey,
+                             @Value("${app.arquivos.s3.secret-key}") String secretKey) {
+        var builder = S3Client.builder()
+                .region(Region.of(regiao))
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey)));
+        if (!endpoint.isBlank()) {
+            builder.endpointOverride(URI.create(endpoint)).forcePathStyle(true);
+        }
+        return builder.build();
+    }
+}
@@ -86,6 +86,7 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.GET, "/api/issues/*/interacoes").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/arquivos/*/conteudo").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/dashboard/publico").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/tiles/**").permitAll()
                         .requestMatchers(
                                 "/api/auth/**",
                                 "/h2-console/**",
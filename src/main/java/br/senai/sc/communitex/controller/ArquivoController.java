@@ -1,31 +1,139 @@
 package br.senai.sc.communitex.controller;
 
+import br.senai.sc.communitex.exception.ResourceNotFoundException;
+import br.senai.sc.communitex.repository.projection.ArquivoMetadados;
 import br.senai.sc.communitex.service.ArquivoService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.CacheControl;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import java.io.IOException;
+import java.time.ZoneId;
 import java.util.concurrent.TimeUnit;
 
+/**
+ * Serve o conteudo dos arquivos com validadores fortes (hash SHA-256 ou id + data de criacao), respondendo
+ * {@code 304} apenas com os metadados, sem ler o conteudo, e com suporte a um unico intervalo de bytes.
+ */
 @RestController
 @RequestMapping("/api/arquivos")
 @RequiredArgsConstructor
 public class ArquivoController {
 
+    private static final CacheControl CACHE_VARIANTE_PENDENTE = CacheControl.maxAge(1, TimeUnit.MINUTES).cachePublic();
+
     private final ArquivoService service;
 
+    @Value("${app.arquivos.cache-imutavel:false}")
+    private boolean cacheImutavel;
+
     @GetMapping("/{id}/conteudo")
-    public ResponseEntity<byte[]> conteudo(@PathVariable Long id) {
-        var arquivo = service.buscar(id);
-        return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(arquivo.getContentType()))
-                .contentLength(arquivo.getTamanhoBytes())
-                .cacheControl(CacheControl.maxAge(1, TimeUnit.DAYS).cachePublic())
-                .body(arquivo.getConteudo());
+    public void conteudo(@PathVariable Long id,
+                         @RequestParam(name = "w", required = false) Integer largura,
+                         HttpServletRequest request,
+                         HttpServletResponse response) throws IOException {
+        var arquivo = service.buscarMetadados(id, largura);
+        var definitivo = largura == null || !arquivo.getId().equals(id);
+        response.setHeader(HttpHeaders.CACHE_CONTROL,
+                (definitivo ? cacheControl() : CACHE_VARIANTE_PENDENTE).getHeaderValue());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        var etag = etag(arquivo);
+        var ultimaModificacao = ultimaModificacao(arquivo);
+        if (new ServletWebRequest(request, response).checkNotModified(etag, ultimaModificacao)) return;
+
+        response.setContentType(arquivo.getContentType());
+        var total = arquivo.getTamanhoBytes();
+        var range = intervaloUnico(request, etag, ultimaModificacao);
+        if (range == null) {
+            response.setContentLengthLong(total);
+            transmitir(response, () -> service.transmitirConteudo(arquivo, response.getOutputStream()));
+            return;
+        }
+
+        var inicio = range.getRangeStart(total);
+        var fim = range.getRangeEnd(total);
+        if (inicio >= total || fim < inicio) {
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + total);
+            response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            return;
+        }
+
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + inicio + "-" + fim + "/" + total);
+        response.setContentLengthLong(fim - inicio + 1);
+        transmitir(response, () -> service.transmitirConteudo(arquivo, inicio, fim - inicio + 1, response.getOutputStream()));
+    }
+
+    /**
+     * Conteudo ausente no backend so e descoberto depois dos cabecalhos definidos; enquanto nada foi enviado,
+     * eles sao descartados para que o {@code Content-Length} do arquivo nao acompanhe a resposta de erro.
+     */
+    private static void transmitir(HttpServletResponse response, Transmissao transmissao) throws IOException {
+        try {
+            transmissao.executar();
+        } catch (ResourceNotFoundException ex) {
+            if (!response.isCommitted()) {
+                response.reset();
+            }
+            throw ex;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Transmissao {
+        void executar() throws IOException;
+    }
+
+    private CacheControl cacheControl() {
+        return cacheImutavel
+                ? CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable()
+                : CacheControl.maxAge(1, TimeUnit.DAYS).cachePublic();
+    }
+
+    private static String etag(ArquivoMetadados arquivo) {
+        return "\"" + (arquivo.getHashSha256() != null
+                ? arquivo.getHashSha256()
+                : arquivo.getId() + "-" + ultimaModificacao(arquivo)) + "\"";
+    }
+
+    private static long ultimaModificacao(ArquivoMetadados arquivo) {
+        return arquivo.getDataCriacao().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() / 1000 * 1000;
+    }
+
+    /**
+     * Intervalo pedido em {@code Range}, ou {@code null} para responder o arquivo inteiro: sem cabecalho,
+     * com {@code If-Range} desatualizado, com sintaxe invalida ou com multiplos intervalos.
+     */
+    private static HttpRange intervaloUnico(HttpServletRequest request, String etag, long ultimaModificacao) {
+        var intervalo = request.getHeader(HttpHeaders.RANGE);
+        if (intervalo == null || !ifRangeConfere(request, etag, ultimaModificacao)) return null;
+        try {
+            var ranges = HttpRange.parseRanges(intervalo);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    private static boolean ifRangeConfere(HttpServletRequest request, String etag, long ultimaModificacao) {
+        var ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) return true;
+        if (ifRange.startsWith("\"")) return ifRange.equals(etag);
+        try {
+            return request.getDateHeader(HttpHeaders.IF_RANGE) == ultimaModificacao;
+        } catch (IllegalArgumentException ex) {
+            return false;
+        }
     }
 }
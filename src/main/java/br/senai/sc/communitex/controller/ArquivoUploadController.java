@@ -0,0 +1,125 @@
+package br.senai.sc.communitex.controller;
+
+import br.senai.sc.communitex.dto.ArquivoUploadResponseDTO;
+import br.senai.sc.communitex.exception.BusinessException;
+import br.senai.sc.communitex.service.ArquivoUploadService;
+import br.senai.sc.communitex.util.ArquivoUrls;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Protocolo de upload retomavel inspirado no tus 1.0: {@code POST} cria o upload com {@code Upload-Length},
+ * {@code HEAD} informa o {@code Upload-Offset} atual, {@code PATCH} envia um bloco a partir desse deslocamento
+ * e {@code POST /concluir} devolve o id do arquivo para ser informado em {@code arquivoId} na criacao da denuncia.
+ */
+@RestController
+@RequestMapping("/api/arquivos/uploads")
+@RequiredArgsConstructor
+@PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+@Tag(name = "Uploads", description = "Upload retomavel de imagens em blocos")
+public class ArquivoUploadController {
+
+    static final String TUS_RESUMABLE = "Tus-Resumable";
+    static final String UPLOAD_LENGTH = "Upload-Length";
+    static final String UPLOAD_OFFSET = "Upload-Offset";
+    static final String UPLOAD_METADATA = "Upload-Metadata";
+    static final String CONTENT_TYPE_BLOCO = "application/offset+octet-stream";
+    private static final String VERSAO_TUS = "1.0.0";
+
+    private final ArquivoUploadService service;
+
+    @Operation(summary = "Criar upload retomavel", security = @SecurityRequirement(name = "bearerAuth"))
+    @ApiResponse(responseCode = "201", description = "Upload criado; a URL para envio dos blocos vem em Location")
+    @PostMapping
+    public ResponseEntity<Void> criar(@RequestHeader(UPLOAD_LENGTH) long tamanho,
+                                      @RequestHeader(value = UPLOAD_METADATA, required = false) String metadados) {
+        var upload = service.criar(tamanho, nomeDoArquivo(metadados));
+        return ResponseEntity.created(URI.create("/api/arquivos/uploads/" + upload.id()))
+                .header(TUS_RESUMABLE, VERSAO_TUS)
+                .header(UPLOAD_OFFSET, "0")
+                .build();
+    }
+
+    @Operation(summary = "Consultar quantos bytes do upload ja foram recebidos", security = @SecurityRequirement(name = "bearerAuth"))
+    @RequestMapping(path = "/{id}", method = RequestMethod.HEAD)
+    public ResponseEntity<Void> consultar(@PathVariable String id) {
+        var upload = service.buscar(id);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .header(TUS_RESUMABLE, VERSAO_TUS)
+                .header(UPLOAD_OFFSET, String.valueOf(upload.deslocamento()))
+                .header(UPLOAD_LENGTH, String.valueOf(upload.tamanho()))
+                .build();
+    }
+
+    @Operation(summary = "Enviar um bloco do upload", security = @SecurityRequirement(name = "bearerAuth"))
+    @ApiResponse(responseCode = "204", description = "Bloco gravado; o novo deslocamento vem em Upload-Offset")
+    @ApiResponse(responseCode = "409", description = "Upload-Offset diferente do total ja recebido")
+    @PatchMapping(path = "/{id}", consumes = CONTENT_TYPE_BLOCO)
+    public ResponseEntity<Void> enviarBloco(@PathVariable String id,
+                                            @RequestHeader(UPLOAD_OFFSET) long deslocamento,
+                                            HttpServletRequest request) throws IOException {
+        var upload = service.anexar(id, deslocamento, request.getInputStream());
+        return ResponseEntity.noContent()
+                .header(TUS_RESUMABLE, VERSAO_TUS)
+                .header(UPLOAD_OFFSET, String.valueOf(upload.deslocamento()))
+                .build();
+    }
+
+    @Operation(summary = "Concluir upload e gerar o arquivo", security = @SecurityRequirement(name = "bearerAuth"))
+    @ApiResponse(responseCode = "201", description = "Arquivo gerado a partir do upload")
+    @ApiResponse(responseCode = "409", description = "Upload ainda incompleto")
+    @PostMapping("/{id}/concluir")
+    @ResponseStatus(HttpStatus.CREATED)
+    public ArquivoUploadResponseDTO concluir(@PathVariable String id) {
+        var arquivoId = service.concluir(id);
+        return new ArquivoUploadResponseDTO(arquivoId, ArquivoUrls.url(arquivoId));
+    }
+
+    @Operation(summary = "Cancelar upload", security = @SecurityRequirement(name = "bearerAuth"))
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void cancelar(@PathVariable String id) {
+        service.cancelar(id);
+    }
+
+    /**
+     * Le a chave {@code filename} de {@code Upload-Metadata} ({@code chave valorBase64}, separados por virgula).
+     */
+    static String nomeDoArquivo(String metadados) {
+        if (metadados == null) return null;
+        for (var par : metadados.split(",")) {
+            var partes = par.trim().split(" ", 2);
+            if (partes.length == 2 && "filename".equals(partes[0])) {
+                try {
+                    return new String(Base64.getDecoder().decode(partes[1].trim()), StandardCharsets.UTF_8);
+                } catch (IllegalArgumentException ex) {
+                    throw new BusinessException("Upload-Metadata com filename invalido");
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -5,6 +5,7 @@ import br.senai.sc.communitex.dto.AtendimentoDenunciaResponseDTO;
 import br.senai.sc.communitex.dto.ConcluirAtendimentoRequestDTO;
 import br.senai.sc.communitex.dto.ContestarAtendimentoRequestDTO;
 import br.senai.sc.communitex.dto.DenunciaResponseDTO;
+import br.senai.sc.communitex.service.ArquivoService;
 import br.senai.sc.communitex.service.AtendimentoDenunciaService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -28,6 +29,7 @@ import java.util.List;
 public class AtendimentoDenunciaController {
 
     private final AtendimentoDenunciaService service;
+    private final ArquivoService arquivoService;
 
     @PostMapping("/issues/{id}/atendimento")
     @PreAuthorize("hasRole('EMPRESA')")
@@ -47,7 +49,7 @@ public class AtendimentoDenunciaController {
             @PathVariable Long id,
             @Valid @RequestPart("dados") ConcluirAtendimentoRequestDTO request,
             @RequestPart(value = "arquivo", required = false) MultipartFile arquivo) {
-        return service.concluir(id, request, arquivo);
+        return service.concluir(id, request, arquivoService.preparar(arquivo));
     }
 
     @PostMapping("/issues/{id}/atendimento/confirmar")
@@ -1,11 +1,14 @@
 package br.senai.sc.communitex.controller;
 
+import br.senai.sc.communitex.dto.CursorPageDTO;
+import br.senai.sc.communitex.dto.DenunciaClusterDTO;
 import br.senai.sc.communitex.dto.DenunciaDetailResponseDTO;
 import br.senai.sc.communitex.dto.DenunciaInteracaoRequestDTO;
 import br.senai.sc.communitex.dto.DenunciaInteracaoResponseDTO;
 import br.senai.sc.communitex.dto.DenunciaRequestDTO;
 import br.senai.sc.communitex.dto.IssueStatusUpdateRequest;
 import br.senai.sc.communitex.dto.DenunciaResponseDTO;
+import br.senai.sc.communitex.service.ArquivoService;
 import br.senai.sc.communitex.service.DenunciaService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -41,6 +44,7 @@ import java.util.List;
 public class DenunciaController {
 
     private final DenunciaService issueService;
+    private final ArquivoService arquivoService;
 
     @Operation(
         summary = "Criar nova denúncia",
@@ -57,7 +61,7 @@ public class DenunciaController {
     public DenunciaResponseDTO create(
             @Valid @RequestPart("dados") DenunciaRequestDTO dto,
             @RequestPart(value = "arquivo", required = false) MultipartFile arquivo) {
-        return issueService.criar(dto, arquivo);
+        return issueService.criar(dto, arquivoService.preparar(arquivo));
     }
 
     @Operation(summary = "Listar todas as denúncias")
@@ -69,6 +73,23 @@ public class DenunciaController {
         return issueService.listarTodas(pageable, incluirInativas);
     }
 
+    @Operation(
+        summary = "Listar denúncias por cursor",
+        description = "Lista as denúncias da mais recente para a mais antiga sem contagem total. " +
+                "Envie o proximoCursor retornado para obter a página seguinte; ele é nulo na última página"
+    )
+    @ApiResponse(responseCode = "200", description = "Página de denúncias retornada com sucesso")
+    @ApiResponse(responseCode = "400", description = "Cursor ou limite inválidos")
+    @GetMapping("/cursor")
+    public CursorPageDTO<DenunciaResponseDTO> findAllByCursor(
+            @Parameter(description = "Cursor opaco retornado pela página anterior")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Quantidade de denúncias por página (padrão: 20, máximo: 100)")
+            @RequestParam(defaultValue = "20") Integer limite,
+            @RequestParam(defaultValue = "false") boolean incluirInativas) {
+        return issueService.listarPorCursor(cursor, limite, incluirInativas);
+    }
+
     @Operation(
         summary = "Listar denúncias por proximidade",
         description = "Retorna denúncias dentro de um raio especificado (em metros) a partir das coordenadas informadas"
@@ -85,6 +106,38 @@ public class DenunciaController {
         return issueService.buscarPorProximidade(latitude, longitude, raioMetros);
     }
 
+    @Operation(
+        summary = "Listar denúncias mais próximas",
+        description = "Retorna as N denúncias ativas mais próximas das coordenadas informadas, ordenadas por distância"
+    )
+    @ApiResponse(responseCode = "200", description = "Lista de denúncias mais próximas retornada com sucesso")
+    @GetMapping("/proximas")
+    public List<DenunciaResponseDTO> findNearest(
+            @Parameter(description = "Latitude do ponto de referência", required = true)
+            @RequestParam Double latitude,
+            @Parameter(description = "Longitude do ponto de referência", required = true)
+            @RequestParam Double longitude,
+            @Parameter(description = "Quantidade máxima de denúncias (padrão: 10, máximo: 100)")
+            @RequestParam(defaultValue = "10") Integer limite) {
+        return issueService.buscarMaisProximas(latitude, longitude, limite);
+    }
+
+    @Operation(
+        summary = "Listar clusters de denúncias",
+        description = "Retorna as denúncias ativas agrupadas em clusters para o zoom informado, com total, centroide, " +
+                "tipo predominante e quantidade por status"
+    )
+    @ApiResponse(responseCode = "200", description = "Clusters retornados com sucesso")
+    @ApiResponse(responseCode = "400", description = "bbox ou zoom inválidos")
+    @GetMapping("/clusters")
+    public List<DenunciaClusterDTO> findClusters(
+            @Parameter(description = "Área visível no formato minLongitude,minLatitude,maxLongitude,maxLatitude", required = true)
+            @RequestParam String bbox,
+            @Parameter(description = "Nível de zoom do mapa (0 a 22)", required = true)
+            @RequestParam Integer zoom) {
+        return issueService.buscarClusters(bbox, zoom);
+    }
+
     @Operation(summary = "Buscar denúncia por ID")
     @ApiResponse(responseCode = "200", description = "Denúncia encontrada com sucesso")
     @ApiResponse(responseCode = "404", description = "Denúncia não encontrada")
@@ -0,0 +1,66 @@
+package br.senai.sc.communitex.controller;
+
+import br.senai.sc.communitex.service.DenunciaExportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/api/issues")
+@RequiredArgsConstructor
+@Tag(name = "Dados abertos", description = "Exportação das denúncias ativas para parceiros e consumidores de dados abertos")
+public class DenunciaExportController {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType GEOJSON = MediaType.parseMediaType("application/geo+json");
+
+    private final DenunciaExportService exportService;
+
+    @Operation(
+        summary = "Exportar denúncias em NDJSON",
+        description = "Transmite todas as denúncias ativas, uma por linha, ordenadas pela data de atualização. " +
+                "Use o parâmetro since para obter apenas as denúncias criadas ou alteradas a partir de uma data; " +
+                "as desativadas nesse período vêm só com id, ativa = false e dataAtualizacao. " +
+                "A consulta recua uma margem antes de since, então denúncias já recebidas podem se repetir " +
+                "e devem ser aplicadas pelo id"
+    )
+    @ApiResponse(responseCode = "200", description = "Exportação transmitida com sucesso")
+    @GetMapping("/export.ndjson")
+    public ResponseEntity<StreamingResponseBody> exportNdjson(
+            @Parameter(description = "Data e hora (ISO-8601) da última carga; retorna denúncias atualizadas desde então")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since) {
+        return ResponseEntity.ok()
+                .contentType(NDJSON)
+                .body(saida -> exportService.exportarNdjson(since, saida));
+    }
+
+    @Operation(
+        summary = "Exportar denúncias em GeoJSON",
+        description = "Transmite todas as denúncias ativas como uma FeatureCollection de pontos. " +
+                "Use o parâmetro since para obter apenas as denúncias criadas ou alteradas a partir de uma data; " +
+                "as desativadas nesse período vêm só com id, ativa = false e dataAtualizacao. " +
+                "A consulta recua uma margem antes de since, então denúncias já recebidas podem se repetir " +
+                "e devem ser aplicadas pelo id"
+    )
+    @ApiResponse(responseCode = "200", description = "Exportação transmitida com sucesso")
+    @GetMapping("/export.geojson")
+    public ResponseEntity<StreamingResponseBody> exportGeoJson(
+            @Parameter(description = "Data e hora (ISO-8601) da última carga; retorna denúncias atualizadas desde então")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since) {
+        return ResponseEntity.ok()
+                .contentType(GEOJSON)
+                .body(saida -> exportService.exportarGeoJson(since, saida));
+    }
+}
@@ -1,11 +1,14 @@
 package br.senai.sc.communitex.controller;
 
+import br.senai.sc.communitex.dto.CursorPageDTO;
 import br.senai.sc.communitex.dto.PracaDetailResponseDTO;
 import br.senai.sc.communitex.dto.PracaPesquisaDTO;
 import br.senai.sc.communitex.dto.PracaRequestDTO;
 import br.senai.sc.communitex.dto.PracaResponseDTO;
+import br.senai.sc.communitex.service.ArquivoService;
 import br.senai.sc.communitex.service.PracaService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -24,11 +27,14 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/pracas")
 @RequiredArgsConstructor
@@ -36,6 +42,7 @@ import org.springframework.web.multipart.MultipartFile;
 public class PracaController {
 
     private final PracaService pracaService;
+    private final ArquivoService arquivoService;
 
     @Operation(
         summary = "Listar todas as praças",
@@ -48,6 +55,39 @@ public class PracaController {
         return pracaService.findAll(pesquisaDTO, pageable);
     }
 
+    @Operation(
+        summary = "Listar praças por cursor",
+        description = "Lista praças ordenadas por ID com os mesmos filtros da listagem, sem contagem total. " +
+                      "Envie o proximoCursor retornado para obter a página seguinte; ele é nulo na última página"
+    )
+    @ApiResponse(responseCode = "200", description = "Página de praças retornada com sucesso")
+    @ApiResponse(responseCode = "400", description = "Cursor ou limite inválidos")
+    @GetMapping("/cursor")
+    public CursorPageDTO<PracaResponseDTO> findAllByCursor(
+            @ModelAttribute PracaPesquisaDTO pesquisaDTO,
+            @Parameter(description = "Cursor opaco retornado pela página anterior")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Quantidade de praças por página (padrão: 20, máximo: 100)")
+            @RequestParam(defaultValue = "20") Integer limite) {
+        return pracaService.findAllPorCursor(pesquisaDTO, cursor, limite);
+    }
+
+    @Operation(
+        summary = "Listar praças mais próximas",
+        description = "Retorna as N praças mais próximas das coordenadas informadas, ordenadas por distância"
+    )
+    @ApiResponse(responseCode = "200", description = "Lista de praças mais próximas retornada com sucesso")
+    @GetMapping("/proximas")
+    public List<PracaResponseDTO> findNearest(
+            @Parameter(description = "Latitude do ponto de referência", required = true)
+            @RequestParam Double latitude,
+            @Parameter(description = "Longitude do ponto de referência", required = true)
+            @RequestParam Double longitude,
+            @Parameter(description = "Quantidade máxima de praças (padrão: 10, máximo: 100)")
+            @RequestParam(defaultValue = "10") Integer limite) {
+        return pracaService.findMaisProximas(latitude, longitude, limite);
+    }
+
     @Operation(summary = "Buscar praça por ID")
     @ApiResponse(responseCode = "200", description = "Praça encontrada com sucesso")
     @ApiResponse(responseCode = "404", description = "Praça não encontrada")
@@ -81,7 +121,7 @@ public class PracaController {
     public PracaResponseDTO create(
             @Valid @RequestPart("dados") PracaRequestDTO dto,
             @RequestPart(value = "arquivo", required = false) MultipartFile arquivo) {
-        return pracaService.create(dto, arquivo);
+        return pracaService.create(dto, arquivoService.preparar(arquivo));
     }
 
     @Operation(summary = "Atualizar praça existente")
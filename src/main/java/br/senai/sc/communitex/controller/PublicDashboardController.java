@@ -1,10 +1,12 @@
 package br.senai.sc.communitex.controller;
 
 import br.senai.sc.communitex.dto.PublicDashboardDTO;
-import br.senai.sc.communitex.service.PublicDashboardService;
+import br.senai.sc.communitex.service.PublicDashboardCache;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -15,11 +17,19 @@ import org.springframework.web.bind.annotation.RestController;
 @Tag(name = "Dashboard", description = "Indicadores agregados da plataforma")
 public class PublicDashboardController {
 
-    private final PublicDashboardService dashboardService;
+    private final PublicDashboardCache dashboardCache;
 
+    /**
+     * Com o mesmo ETag no If-None-Match o Spring responde 304 sem corpo.
+     */
     @GetMapping("/publico")
     @Operation(summary = "Obter indicadores publicos agregados")
-    public PublicDashboardDTO obterDashboardPublico() {
-        return dashboardService.obterDashboard();
+    public ResponseEntity<PublicDashboardDTO> obterDashboardPublico() {
+        var painel = dashboardCache.obter();
+        var validade = dashboardCache.validade();
+        return ResponseEntity.ok()
+                .eTag(painel.etag())
+                .cacheControl(CacheControl.maxAge(validade).cachePublic().staleWhileRevalidate(validade))
+                .body(painel.dados());
     }
 }
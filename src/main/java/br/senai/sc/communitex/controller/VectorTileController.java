@@ -0,0 +1,46 @@
+package br.senai.sc.communitex.controller;
+
+import br.senai.sc.communitex.service.VectorTileService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+
+@RestController
+@RequestMapping("/api/tiles")
+@RequiredArgsConstructor
+@Tag(name = "Tiles", description = "Tiles vetoriais do mapa de praças e denúncias")
+public class VectorTileController {
+
+    private static final MediaType MAPBOX_VECTOR_TILE = MediaType.parseMediaType("application/vnd.mapbox-vector-tile");
+
+    private final VectorTileService vectorTileService;
+
+    @Operation(
+        summary = "Obter tile vetorial",
+        description = "Retorna um Mapbox Vector Tile com as camadas 'pracas' (polígonos ou pontos) e " +
+                "'denuncias' (denúncias ativas agrupadas em clusters conforme o zoom)"
+    )
+    @ApiResponse(responseCode = "200", description = "Tile gerado com sucesso")
+    @ApiResponse(responseCode = "400", description = "Coordenadas de tile inválidas")
+    @GetMapping("/{z}/{x}/{y}.mvt")
+    public ResponseEntity<byte[]> obterTile(
+            @Parameter(description = "Nível de zoom (0 a 22)") @PathVariable int z,
+            @Parameter(description = "Coluna do tile") @PathVariable int x,
+            @Parameter(description = "Linha do tile") @PathVariable int y) {
+        return ResponseEntity.ok()
+                .contentType(MAPBOX_VECTOR_TILE)
+                .cacheControl(CacheControl.maxAge(Duration.ofMinutes(1)).cachePublic())
+                .body(vectorTileService.gerarTile(z, x, y));
+    }
+}
@@ -0,0 +1,6 @@
+package br.senai.sc.communitex.dto;
+
+public record ArquivoUploadResponseDTO(
+        Long arquivoId,
+        String url
+) {}
@@ -0,0 +1,9 @@
+package br.senai.sc.communitex.dto;
+
+import java.util.List;
+
+public record CursorPageDTO<T>(
+        List<T> itens,
+        String proximoCursor
+) {
+}
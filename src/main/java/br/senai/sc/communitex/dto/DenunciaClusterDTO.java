@@ -0,0 +1,15 @@
+package br.senai.sc.communitex.dto;
+
+import br.senai.sc.communitex.enums.IssueStatus;
+import br.senai.sc.communitex.enums.IssueType;
+
+import java.util.Map;
+
+public record DenunciaClusterDTO(
+    Double latitude,
+    Double longitude,
+    int total,
+    IssueType tipoPredominante,
+    Map<IssueStatus, Integer> totalPorStatus,
+    Long denunciaId
+) {}
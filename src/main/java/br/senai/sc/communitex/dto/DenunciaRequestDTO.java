@@ -21,6 +21,8 @@ public record DenunciaRequestDTO(
     Double longitude,
 
     @NotNull(message = "O tipo da denúncia é obrigatório")
-    IssueType tipo
+    IssueType tipo,
+
+    Long arquivoId
 ) {}
 
@@ -0,0 +1,8 @@
+package br.senai.sc.communitex.enums;
+
+public enum EscopoMetrica {
+    GERAL,
+    EMPRESA,
+    PESSOA_FISICA,
+    USUARIO
+}
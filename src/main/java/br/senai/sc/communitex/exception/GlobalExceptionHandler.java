@@ -68,6 +68,13 @@ public class GlobalExceptionHandler {
                 .body(problem(HttpStatus.CONFLICT, "Denúncia duplicada", ex.getMessage()));
     }
 
+    @ExceptionHandler(UploadConflictException.class)
+    public ResponseEntity<ProblemDetail> handleUploadConflictException(UploadConflictException ex) {
+        log.warn("Conflito no upload: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(problem(HttpStatus.CONFLICT, "Conflito no upload", ex.getMessage()));
+    }
+
     @ExceptionHandler({AuthenticationException.class, AuthenticationServiceException.class})
     public ResponseEntity<ProblemDetail> handleAuthenticationException(RuntimeException ex) {
         log.warn("Falha de autenticação: {}", ex.getMessage());
@@ -0,0 +1,8 @@
+package br.senai.sc.communitex.exception;
+
+public class UploadConflictException extends RuntimeException {
+
+    public UploadConflictException(String message) {
+        super(message);
+    }
+}
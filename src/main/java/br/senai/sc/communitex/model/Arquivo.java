@@ -28,9 +28,6 @@ public class Arquivo {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(nullable = false)
-    private byte[] conteudo;
-
     @Column(name = "nome_original", nullable = false, length = 255)
     private String nomeOriginal;
 
@@ -40,6 +37,38 @@ public class Arquivo {
     @Column(name = "tamanho_bytes", nullable = false)
     private Long tamanhoBytes;
 
+    /**
+     * Tamanho enviado pelo usuario quando a imagem foi convertida para WebP na entrada.
+     */
+    @Column(name = "tamanho_original_bytes")
+    private Long tamanhoOriginalBytes;
+
+    @Column(name = "hash_sha256", unique = true, length = 64)
+    private String hashSha256;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private Integer referencias = 0;
+
+    @Builder.Default
+    @Column(nullable = false, length = 20)
+    private String armazenamento = "banco";
+
+    /**
+     * Preenchido nas variantes redimensionadas, apontando para a imagem enviada pelo usuario.
+     */
+    @Column(name = "original_id")
+    private Long originalId;
+
+    @Column
+    private Integer largura;
+
+    /**
+     * Usuario que enviou um upload retomavel ainda nao usado; so ele pode referenciar o arquivo.
+     */
+    @Column(name = "enviado_por")
+    private String enviadoPor;
+
     @Column(name = "data_criacao", nullable = false, updatable = false)
     private LocalDateTime dataCriacao;
 
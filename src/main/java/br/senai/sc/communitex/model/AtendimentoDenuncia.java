@@ -52,9 +52,8 @@ public class AtendimentoDenuncia {
     @Column(name = "descricao_reparo", length = 2000)
     private String descricaoReparo;
 
-    @OneToOne(cascade = jakarta.persistence.CascadeType.ALL, orphanRemoval = true)
-    @JoinColumn(name = "arquivo_id")
-    private Arquivo arquivo;
+    @Column(name = "arquivo_id")
+    private Long arquivoId;
 
     @Column(name = "motivo_contestacao", length = 2000)
     private String motivoContestacao;
@@ -14,8 +14,8 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
-import jakarta.persistence.OneToOne;
 import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -52,9 +52,8 @@ public class Denuncia {
     @Column(nullable = false)
     private Double longitude;
 
-    @OneToOne(cascade = CascadeType.ALL, orphanRemoval = true)
-    @JoinColumn(name = "arquivo_id")
-    private Arquivo arquivo;
+    @Column(name = "arquivo_id")
+    private Long arquivoId;
 
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
@@ -67,10 +66,25 @@ public class Denuncia {
     @Column(nullable = false, updatable = false)
     private LocalDateTime dataCriacao;
 
+    @Column(nullable = false)
+    private LocalDateTime dataAtualizacao;
+
     @Builder.Default
     @Column(nullable = false)
     private Boolean ativa = true;
 
+    @Builder.Default
+    @Column(name = "total_interacoes", nullable = false, updatable = false)
+    private Integer totalInteracoes = 0;
+
+    @Builder.Default
+    @Column(name = "total_apoios", nullable = false, updatable = false)
+    private Integer totalApoios = 0;
+
+    @Builder.Default
+    @Column(name = "total_curtidas", nullable = false, updatable = false)
+    private Integer totalCurtidas = 0;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "autor_id", nullable = false)
     private Usuario autor;
@@ -82,6 +96,7 @@ public class Denuncia {
     @PrePersist
     protected void onCreate() {
         this.dataCriacao = LocalDateTime.now();
+        this.dataAtualizacao = this.dataCriacao;
         if (this.status == null) {
             this.status = IssueStatus.ABERTA;
         }
@@ -89,4 +104,9 @@ public class Denuncia {
             this.ativa = true;
         }
     }
+
+    @PreUpdate
+    protected void onUpdate() {
+        this.dataAtualizacao = LocalDateTime.now();
+    }
 }
@@ -0,0 +1,53 @@
+package br.senai.sc.communitex.model;
+
+import br.senai.sc.communitex.enums.EscopoMetrica;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * Soma de uma metrica de painel em um dia, para uma empresa, pessoa, usuario ou para a plataforma toda.
+ * O dia e a data de referencia da linha de origem (inicio da adocao, aceite do reparo, criacao da denuncia);
+ * metricas sem data propria, como as de pracas, usam o dia da alteracao.
+ */
+@Entity
+@Table(name = "metricas_diarias")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MetricaDiaria {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDate dia;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private EscopoMetrica escopo;
+
+    @Column(name = "escopo_id", nullable = false)
+    private Long escopoId;
+
+    @Column(nullable = false, length = 60)
+    private String metrica;
+
+    @Column(nullable = false)
+    private Double valor;
+}
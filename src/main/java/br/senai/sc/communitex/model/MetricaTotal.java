@@ -0,0 +1,46 @@
+package br.senai.sc.communitex.model;
+
+import br.senai.sc.communitex.enums.EscopoMetrica;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Valor corrente de uma metrica de painel, igual a soma das suas {@link MetricaDiaria}.
+ */
+@Entity
+@Table(name = "metricas_totais")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MetricaTotal {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private EscopoMetrica escopo;
+
+    @Column(name = "escopo_id", nullable = false)
+    private Long escopoId;
+
+    @Column(nullable = false, length = 60)
+    private String metrica;
+
+    @Column(nullable = false)
+    private Double valor;
+}
@@ -48,9 +48,8 @@ public class Praca {
     @Size(max = 1000)
     private String descricao;
 
-    @OneToOne(cascade = CascadeType.ALL, orphanRemoval = true)
-    @JoinColumn(name = "arquivo_id")
-    private Arquivo arquivo;
+    @Column(name = "arquivo_id")
+    private Long arquivoId;
 
     @Column(name = "metragem_m2", nullable = false)
     private Double metragemM2;
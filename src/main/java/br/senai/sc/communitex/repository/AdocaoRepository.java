@@ -1,7 +1,10 @@
 package br.senai.sc.communitex.repository;
 
+import br.senai.sc.communitex.dto.AdocaoResponseDTO;
 import br.senai.sc.communitex.enums.StatusAdocao;
 import br.senai.sc.communitex.model.Adocao;
+import br.senai.sc.communitex.repository.projection.AdocaoAgrupada;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -12,20 +15,42 @@ import java.util.List;
 import java.util.Collection;
 
 public interface AdocaoRepository extends JpaRepository<Adocao, Long> {
-    List<Adocao> findByStatus(StatusAdocao adocao);
 
-    List<Adocao> findByStatusIn(Collection<StatusAdocao> statuses);
+    String SELECT_RESPOSTA = "SELECT new br.senai.sc.communitex.dto.AdocaoResponseDTO(a.id, a.dataInicio, a.dataFim, " +
+            "a.descricaoProjeto, a.status, e.id, e.nomeFantasia, p.id, p.nome, p.cidade) " +
+            "FROM Adocao a LEFT JOIN a.empresa e LEFT JOIN a.praca p ";
+
+    List<Adocao> findByStatus(StatusAdocao adocao);
 
-    List<Adocao> findByPraca_Id(Long idPraca);
+    @Query("SELECT a.dataInicio AS inicio, a.dataFim AS fim, e.id AS empresaId, a.status AS status, " +
+            "COUNT(a) AS quantidade, COALESCE(SUM(p.metragemM2), 0) AS area " +
+            "FROM Adocao a JOIN a.empresa e JOIN a.praca p GROUP BY a.dataInicio, a.dataFim, e.id, a.status")
+    List<AdocaoAgrupada> agruparParaMetricas();
 
     @EntityGraph(attributePaths = {"praca", "empresa"})
     List<Adocao> findByEmpresaId(Long empresaId);
 
+    @Query("SELECT a FROM Adocao a JOIN FETCH a.praca WHERE a.empresa.id = :empresaId " +
+            "ORDER BY a.dataInicio DESC NULLS LAST, a.id DESC")
+    List<Adocao> findRecentesByEmpresaId(@Param("empresaId") Long empresaId, Limit limit);
+
     boolean existsByEmpresaIdAndPracaIdAndStatusIn(Long empresaId, Long pracaId, Collection<StatusAdocao> statuses);
 
-    List<Adocao> findByDataInicioGreaterThanEqualAndDataFimLessThanEqual(@Param("inicio") LocalDate inicio, @Param("fim") LocalDate fim);
+    @Query(SELECT_RESPOSTA)
+    List<AdocaoResponseDTO> findRespostas();
+
+    @Query(SELECT_RESPOSTA + "WHERE e.id = :empresaId")
+    List<AdocaoResponseDTO> findRespostasByEmpresaId(@Param("empresaId") Long empresaId);
+
+    @Query(SELECT_RESPOSTA + "WHERE e.id IN :empresaIds")
+    List<AdocaoResponseDTO> findRespostasByEmpresaIdIn(@Param("empresaIds") Collection<Long> empresaIds);
+
+    @Query(SELECT_RESPOSTA + "WHERE p.id = :pracaId")
+    List<AdocaoResponseDTO> findRespostasByPracaId(@Param("pracaId") Long pracaId);
 
+    @Query(SELECT_RESPOSTA + "WHERE a.dataInicio >= :inicio AND a.dataFim <= :fim")
+    List<AdocaoResponseDTO> findRespostasPorPeriodo(@Param("inicio") LocalDate inicio, @Param("fim") LocalDate fim);
 
-    @Query("SELECT a FROM Adocao a WHERE (:status IS NULL OR a.status = :status) AND a.dataFim BETWEEN :hoje AND :limite")
-    List<Adocao> findAdocoesByPrazoEStatus(@Param("hoje") LocalDate hoje, @Param("limite") LocalDate limite, @Param("status") StatusAdocao status);
+    @Query(SELECT_RESPOSTA + "WHERE (:status IS NULL OR a.status = :status) AND a.dataFim BETWEEN :hoje AND :limite")
+    List<AdocaoResponseDTO> findRespostasPorPrazoEStatus(@Param("hoje") LocalDate hoje, @Param("limite") LocalDate limite, @Param("status") StatusAdocao status);
 }
@@ -1,7 +1,77 @@
 package br.senai.sc.communitex.repository;
 
 import br.senai.sc.communitex.model.Arquivo;
+import br.senai.sc.communitex.repository.projection.ArquivoMetadados;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
 
 public interface ArquivoRepository extends JpaRepository<Arquivo, Long> {
+
+    String SELECT_METADADOS = "SELECT a.id AS id, a.nomeOriginal AS nomeOriginal, a.contentType AS contentType, " +
+            "a.tamanhoBytes AS tamanhoBytes, a.hashSha256 AS hashSha256, a.armazenamento AS armazenamento, " +
+            "a.dataCriacao AS dataCriacao FROM Arquivo a ";
+
+    String ORFAOS = "a.originalId IS NULL AND a.referencias <= 0 AND a.dataCriacao < :limite " +
+            "AND NOT EXISTS (SELECT 1 FROM Praca p WHERE p.arquivoId = a.id) " +
+            "AND NOT EXISTS (SELECT 1 FROM Denuncia d WHERE d.arquivoId = a.id) " +
+            "AND NOT EXISTS (SELECT 1 FROM AtendimentoDenuncia at WHERE at.arquivoId = a.id)";
+
+    @Query(SELECT_METADADOS + "WHERE a.id = :id")
+    Optional<ArquivoMetadados> findMetadadosById(@Param("id") Long id);
+
+    @Query(SELECT_METADADOS + "WHERE a.originalId = :originalId AND a.largura >= :largura ORDER BY a.largura")
+    List<ArquivoMetadados> findVariantes(@Param("originalId") Long originalId, @Param("largura") int largura, Limit limite);
+
+    @Query(SELECT_METADADOS + "WHERE a.originalId = :originalId")
+    List<ArquivoMetadados> findVariantes(@Param("originalId") Long originalId);
+
+    @Query("SELECT a.largura FROM Arquivo a WHERE a.originalId = :originalId")
+    List<Integer> findLargurasVariantes(@Param("originalId") Long originalId);
+
+    @Query(SELECT_METADADOS + "WHERE a.armazenamento = :armazenamento ORDER BY a.id")
+    List<ArquivoMetadados> findMetadadosByArmazenamento(@Param("armazenamento") String armazenamento, Limit limite);
+
+    @Query(SELECT_METADADOS + "WHERE " + ORFAOS + " ORDER BY a.id")
+    List<ArquivoMetadados> findOrfaosCriadosAntesDe(@Param("limite") LocalDateTime limite, Limit lote);
+
+    @Query("SELECT a.id FROM Arquivo a WHERE a.hashSha256 = :hash")
+    Optional<Long> findIdByHashSha256(@Param("hash") String hash);
+
+    @Query("SELECT a.id FROM Arquivo a WHERE a.hashSha256 IS NULL AND a.originalId IS NULL AND a.enviadoPor IS NULL ORDER BY a.id")
+    List<Long> findIdsSemHash(Limit limite);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Arquivo a SET a.referencias = a.referencias + 1 WHERE a.hashSha256 = :hash")
+    int incrementarReferencias(@Param("hash") String hash);
+
+    /**
+     * Passa a primeira referencia ao upload pendente somente se ele foi enviado por {@code usuario}.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Arquivo a SET a.referencias = 1, a.enviadoPor = NULL " +
+            "WHERE a.id = :id AND a.enviadoPor = :usuario AND a.referencias = 0 AND a.originalId IS NULL")
+    int referenciarPendente(@Param("id") Long id, @Param("usuario") String usuario);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Arquivo a SET a.referencias = a.referencias - 1 WHERE a.id = :id AND a.referencias > 0")
+    int decrementarReferencias(@Param("id") Long id);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Arquivo a SET a.armazenamento = :armazenamento WHERE a.id = :id")
+    int updateArmazenamento(@Param("id") Long id, @Param("armazenamento") String armazenamento);
+
+    /**
+     * Remove o arquivo somente se ele ainda for orfao, para nao apagar um arquivo que
+     * recebeu uma nova referencia depois de ter sido selecionado pela limpeza.
+     */
+    @Modifying
+    @Query("DELETE FROM Arquivo a WHERE a.id = :id AND " + ORFAOS)
+    int deleteSeOrfao(@Param("id") Long id, @Param("limite") LocalDateTime limite);
 }
@@ -2,8 +2,12 @@ package br.senai.sc.communitex.repository;
 
 import br.senai.sc.communitex.enums.AtendimentoDenunciaStatus;
 import br.senai.sc.communitex.model.AtendimentoDenuncia;
+import br.senai.sc.communitex.repository.projection.ReparoAgrupado;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -18,11 +22,17 @@ public interface AtendimentoDenunciaRepository extends JpaRepository<Atendimento
     @EntityGraph(attributePaths = {"denuncia", "denuncia.autor", "empresa"})
     List<AtendimentoDenuncia> findByEmpresaIdOrderByDataAceiteDesc(Long empresaId);
 
-    List<AtendimentoDenuncia> findByStatusNot(AtendimentoDenunciaStatus status);
+    @EntityGraph(attributePaths = {"denuncia"})
+    List<AtendimentoDenuncia> findByEmpresaIdAndDenunciaAtivaTrueOrderByDataAceiteDescIdDesc(Long empresaId, Limit limit);
+
+    @Query("SELECT CAST(a.dataAceite AS LocalDate) AS aceite, CAST(a.dataConfirmacaoAutor AS LocalDate) AS confirmacao, " +
+            "e.id AS empresaId, u.id AS autorId, a.status AS status, COUNT(a) AS quantidade, " +
+            "COALESCE(SUM((a.dataConfirmacaoAutor - a.dataAceite) BY MINUTE), 0) AS minutos " +
+            "FROM AtendimentoDenuncia a JOIN a.empresa e JOIN a.denuncia d JOIN d.autor u WHERE d.ativa = true " +
+            "GROUP BY CAST(a.dataAceite AS LocalDate), CAST(a.dataConfirmacaoAutor AS LocalDate), e.id, u.id, a.status")
+    List<ReparoAgrupado> agruparParaMetricas();
 
     long countByEmpresaIdAndStatus(Long empresaId, AtendimentoDenunciaStatus status);
 
     long countByDenunciaAutorIdAndStatus(Long autorId, AtendimentoDenunciaStatus status);
-
-    long countByDenunciaAutorIdAndStatusAndDenunciaAtivaTrue(Long autorId, AtendimentoDenunciaStatus status);
 }
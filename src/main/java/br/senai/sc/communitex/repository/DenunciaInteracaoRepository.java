@@ -2,6 +2,7 @@ package br.senai.sc.communitex.repository;
 
 import br.senai.sc.communitex.enums.InteractionType;
 import br.senai.sc.communitex.model.DenunciaInteracao;
+import br.senai.sc.communitex.repository.projection.InteracaoAgrupada;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -15,10 +16,12 @@ public interface DenunciaInteracaoRepository extends JpaRepository<DenunciaInter
 
     long countByIssueIdAndTipo(Long issueId, InteractionType tipo);
 
-    long countByUsuarioIdAndTipo(Long usuarioId, InteractionType tipo);
-
     Optional<DenunciaInteracao> findByIssueIdAndUsuarioIdAndTipo(Long issueId, Long usuarioId, InteractionType tipo);
 
     @Query("SELECT i FROM DenunciaInteracao i WHERE i.issue.id = :issueId AND i.tipo = 'COMENTARIO' ORDER BY i.dataCriacao DESC")
     List<DenunciaInteracao> findComentariosByIssueId(@Param("issueId") Long issueId);
+
+    @Query("SELECT CAST(i.dataCriacao AS LocalDate) AS criacao, u.id AS usuarioId, i.tipo AS tipo, COUNT(i) AS quantidade " +
+            "FROM DenunciaInteracao i JOIN i.usuario u GROUP BY CAST(i.dataCriacao AS LocalDate), u.id, i.tipo")
+    List<InteracaoAgrupada> agruparParaMetricas();
 }
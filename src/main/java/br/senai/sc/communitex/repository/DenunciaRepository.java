@@ -3,65 +3,108 @@ package br.senai.sc.communitex.repository;
 import br.senai.sc.communitex.enums.IssueStatus;
 import br.senai.sc.communitex.enums.IssueType;
 import br.senai.sc.communitex.model.Denuncia;
+import br.senai.sc.communitex.repository.projection.DenunciaAgrupada;
+import br.senai.sc.communitex.repository.projection.DenunciaLocalizacao;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface DenunciaRepository extends JpaRepository<Denuncia, Long> {
 
     @Override
-    @EntityGraph(attributePaths = {"autor", "interacoes", "interacoes.usuario"})
+    @EntityGraph(attributePaths = {"autor"})
     Page<Denuncia> findAll(Pageable pageable);
 
-    @EntityGraph(attributePaths = {"autor", "interacoes", "interacoes.usuario"})
+    @EntityGraph(attributePaths = {"autor"})
     Page<Denuncia> findByAtivaTrue(Pageable pageable);
 
+    @EntityGraph(attributePaths = {"autor"})
+    List<Denuncia> findAllByOrderByDataCriacaoDescIdDesc(Limit limit);
+
+    @EntityGraph(attributePaths = {"autor"})
+    List<Denuncia> findByAtivaTrueOrderByDataCriacaoDescIdDesc(Limit limit);
+
+    /**
+     * O {@code d.dataCriacao <= :dataCriacao} redundante vira o limite da varredura no indice
+     * {@code (data_criacao, id)}; so com o OR o banco percorre o indice desde a denuncia mais recente.
+     */
+    @EntityGraph(attributePaths = {"autor"})
+    @Query("SELECT d FROM Denuncia d WHERE d.dataCriacao <= :dataCriacao AND (d.dataCriacao < :dataCriacao " +
+            "OR (d.dataCriacao = :dataCriacao AND d.id < :id)) ORDER BY d.dataCriacao DESC, d.id DESC")
+    List<Denuncia> findAposCursor(
+        @Param("dataCriacao") LocalDateTime dataCriacao,
+        @Param("id") Long id,
+        Limit limit
+    );
+
+    @EntityGraph(attributePaths = {"autor"})
+    @Query("SELECT d FROM Denuncia d WHERE d.ativa = true AND d.dataCriacao <= :dataCriacao AND (d.dataCriacao < :dataCriacao " +
+            "OR (d.dataCriacao = :dataCriacao AND d.id < :id)) ORDER BY d.dataCriacao DESC, d.id DESC")
+    List<Denuncia> findAtivasAposCursor(
+        @Param("dataCriacao") LocalDateTime dataCriacao,
+        @Param("id") Long id,
+        Limit limit
+    );
+
     @Override
-    @EntityGraph(attributePaths = {"autor", "interacoes", "interacoes.usuario"})
+    @EntityGraph(attributePaths = {"autor"})
     List<Denuncia> findAll();
 
-    @EntityGraph(attributePaths = {"autor", "interacoes", "interacoes.usuario"})
+    @EntityGraph(attributePaths = {"autor"})
     List<Denuncia> findByAtivaTrue();
 
     List<Denuncia> findByTipoAndStatusNot(IssueType tipo, IssueStatus status);
 
-    @Query("SELECT d FROM Denuncia d WHERE d.ativa = true AND d.tipo = :tipo AND d.status NOT IN :statusResolvidos")
-    List<Denuncia> findUnresolvedByType(
+    @Query("SELECT d.id AS id, d.latitude AS latitude, d.longitude AS longitude, d.tipo AS tipo, d.status AS status " +
+            "FROM Denuncia d WHERE d.ativa = true AND d.tipo = :tipo AND d.status NOT IN :statusResolvidos " +
+            "AND d.latitude BETWEEN :minLatitude AND :maxLatitude " +
+            "AND d.longitude BETWEEN :minLongitude AND :maxLongitude")
+    List<DenunciaLocalizacao> findUnresolvedByTypeNaArea(
         @Param("tipo") IssueType tipo,
-        @Param("statusResolvidos") List<IssueStatus> statusResolvidos
+        @Param("statusResolvidos") List<IssueStatus> statusResolvidos,
+        @Param("minLatitude") Double minLatitude,
+        @Param("maxLatitude") Double maxLatitude,
+        @Param("minLongitude") Double minLongitude,
+        @Param("maxLongitude") Double maxLongitude
     );
 
-    @EntityGraph(attributePaths = {"autor", "interacoes", "interacoes.usuario"})
+    @EntityGraph(attributePaths = {"autor"})
     List<Denuncia> findByAutorId(Long autorId);
 
-    @EntityGraph(attributePaths = {"autor", "interacoes", "interacoes.usuario"})
-    List<Denuncia> findByAutorIdAndAtivaTrue(Long autorId);
+    @Query("SELECT CAST(d.dataCriacao AS LocalDate) AS criacao, u.id AS autorId, d.status AS status, " +
+            "COUNT(d) AS quantidade, COALESCE(SUM(d.totalApoios), 0) AS apoios FROM Denuncia d JOIN d.autor u " +
+            "WHERE d.ativa = true GROUP BY CAST(d.dataCriacao AS LocalDate), u.id, d.status")
+    List<DenunciaAgrupada> agruparParaMetricas();
 
     long countByAutorId(Long autorId);
 
     long countByAutorIdAndStatus(Long autorId, IssueStatus status);
 
-    @EntityGraph(attributePaths = {"autor", "interacoes", "interacoes.usuario"})
+    @EntityGraph(attributePaths = {"autor"})
     List<Denuncia> findTop5ByAutorIdOrderByDataCriacaoDesc(Long autorId);
 
-    @EntityGraph(attributePaths = {"autor", "interacoes", "interacoes.usuario"})
+    @EntityGraph(attributePaths = {"autor"})
     List<Denuncia> findTop5ByAutorIdAndAtivaTrueOrderByDataCriacaoDesc(Long autorId);
 
     List<Denuncia> findByStatus(IssueStatus status);
 
-    @EntityGraph(attributePaths = {"autor", "interacoes", "interacoes.usuario"})
+    @EntityGraph(attributePaths = {"autor"})
     List<Denuncia> findByStatusIn(List<IssueStatus> statuses);
 
-    @EntityGraph(attributePaths = {"autor", "interacoes", "interacoes.usuario"})
+    @EntityGraph(attributePaths = {"autor"})
     List<Denuncia> findByStatusInAndAtivaTrue(List<IssueStatus> statuses);
 
-    @EntityGraph(attributePaths = {"autor", "interacoes", "interacoes.usuario"})
+    @EntityGraph(attributePaths = {"autor"})
     List<Denuncia> findByLatitudeBetweenAndLongitudeBetween(
             Double minLatitude,
             Double maxLatitude,
@@ -69,7 +112,7 @@ public interface DenunciaRepository extends JpaRepository<Denuncia, Long> {
             Double maxLongitude
     );
 
-    @EntityGraph(attributePaths = {"autor", "interacoes", "interacoes.usuario"})
+    @EntityGraph(attributePaths = {"autor"})
     List<Denuncia> findByAtivaTrueAndLatitudeBetweenAndLongitudeBetween(
             Double minLatitude,
             Double maxLatitude,
@@ -77,5 +120,43 @@ public interface DenunciaRepository extends JpaRepository<Denuncia, Long> {
             Double maxLongitude
     );
 
+    @EntityGraph(attributePaths = {"autor"})
+    List<Denuncia> findByIdIn(Collection<Long> ids);
+
+    @Query("SELECT d.id AS id, d.latitude AS latitude, d.longitude AS longitude, d.tipo AS tipo, d.status AS status " +
+            "FROM Denuncia d WHERE d.ativa = true")
+    List<DenunciaLocalizacao> findLocalizacoesAtivas();
+
+    @Query(value = "SELECT d.id FROM issues d WHERE d.ativa = true " +
+            "AND ST_DWithin(d.localizacao, CAST(ST_SetSRID(ST_MakePoint(:longitude, :latitude), 4326) AS geography), :raio) " +
+            "ORDER BY d.localizacao <-> CAST(ST_SetSRID(ST_MakePoint(:longitude, :latitude), 4326) AS geography)",
+            nativeQuery = true)
+    List<Long> findIdsAtivasNoRaio(
+            @Param("latitude") double latitude,
+            @Param("longitude") double longitude,
+            @Param("raio") double raioMetros
+    );
+
+    @Query(value = "SELECT d.id FROM issues d WHERE d.ativa = true " +
+            "ORDER BY d.localizacao <-> CAST(ST_SetSRID(ST_MakePoint(:longitude, :latitude), 4326) AS geography) " +
+            "LIMIT :limite",
+            nativeQuery = true)
+    List<Long> findIdsAtivasMaisProximas(
+            @Param("latitude") double latitude,
+            @Param("longitude") double longitude,
+            @Param("limite") int limite
+    );
+
     Optional<Denuncia> findByTituloAndAutorId(String titulo, Long autorId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Denuncia d SET d.totalInteracoes = d.totalInteracoes + :interacoes, " +
+            "d.totalApoios = d.totalApoios + :apoios, d.totalCurtidas = d.totalCurtidas + :curtidas " +
+            "WHERE d.id = :id")
+    int incrementarContadores(
+            @Param("id") Long id,
+            @Param("interacoes") int interacoes,
+            @Param("apoios") int apoios,
+            @Param("curtidas") int curtidas
+    );
 }
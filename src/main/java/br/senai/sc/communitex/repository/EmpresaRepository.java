@@ -1,10 +1,12 @@
 package br.senai.sc.communitex.repository;
 
 import br.senai.sc.communitex.model.Empresa;
+import br.senai.sc.communitex.repository.projection.EmpresaResumo;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -14,4 +16,11 @@ public interface EmpresaRepository extends JpaRepository<Empresa, Long> {
 
     @Query("SELECT e FROM Empresa e WHERE e.usuarioRepresentante.username = :username")
     Optional<Empresa> buscarPorUsuarioRepresentanteUsername(String username);
+
+    @Query("SELECT e.id AS id, e.razaoSocial AS razaoSocial, e.cnpj AS cnpj, e.nomeFantasia AS nomeFantasia, " +
+            "e.email AS email, e.telefone AS telefone, e.cep AS cep, e.logradouro AS logradouro, e.numero AS numero, " +
+            "e.complemento AS complemento, e.bairro AS bairro, e.cidade AS cidade, e.estado AS estado, " +
+            "r.id AS representanteId, r.nome AS representanteNome, r.ativo AS representanteAtivo, " +
+            "r.email AS representanteEmail FROM Empresa e LEFT JOIN e.representanteEmpresas r")
+    List<EmpresaResumo> findResumos();
 }
@@ -0,0 +1,55 @@
+package br.senai.sc.communitex.repository;
+
+import br.senai.sc.communitex.enums.EscopoMetrica;
+import br.senai.sc.communitex.model.MetricaDiaria;
+import br.senai.sc.communitex.repository.projection.ContagemMensal;
+import br.senai.sc.communitex.repository.projection.MetricaSoma;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+public interface MetricaDiariaRepository extends JpaRepository<MetricaDiaria, Long> {
+
+    String DO_ESCOPO = "FROM MetricaDiaria m WHERE m.escopo = :escopo AND m.escopoId = :escopoId AND m.metrica IN :metricas ";
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE MetricaDiaria m SET m.valor = m.valor + :delta WHERE m.escopo = :escopo " +
+            "AND m.escopoId = :escopoId AND m.metrica = :metrica AND m.dia = :dia")
+    int somar(
+            @Param("escopo") EscopoMetrica escopo,
+            @Param("escopoId") Long escopoId,
+            @Param("metrica") String metrica,
+            @Param("dia") LocalDate dia,
+            @Param("delta") double delta
+    );
+
+    @Query("SELECT COALESCE(SUM(m.valor), 0) " + DO_ESCOPO + "AND m.dia BETWEEN :inicio AND :fim")
+    double somarNoPeriodo(
+            @Param("escopo") EscopoMetrica escopo,
+            @Param("escopoId") Long escopoId,
+            @Param("metricas") Collection<String> metricas,
+            @Param("inicio") LocalDate inicio,
+            @Param("fim") LocalDate fim
+    );
+
+    @Query("SELECT YEAR(m.dia) AS ano, MONTH(m.dia) AS mes, CAST(SUM(m.valor) AS Long) AS total " + DO_ESCOPO +
+            "GROUP BY YEAR(m.dia), MONTH(m.dia) HAVING SUM(m.valor) <> 0")
+    List<ContagemMensal> somarPorMes(
+            @Param("escopo") EscopoMetrica escopo,
+            @Param("escopoId") Long escopoId,
+            @Param("metricas") Collection<String> metricas
+    );
+
+    @Query("SELECT m.escopo AS escopo, m.escopoId AS escopoId, m.metrica AS metrica, SUM(m.valor) AS valor " +
+            "FROM MetricaDiaria m WHERE m.metrica LIKE CONCAT(:prefixo, '%') GROUP BY m.escopo, m.escopoId, m.metrica")
+    List<MetricaSoma> somarPorPrefixo(@Param("prefixo") String prefixo);
+
+    @Modifying
+    @Query("DELETE FROM MetricaDiaria m WHERE m.metrica NOT LIKE CONCAT(:prefixo, '%')")
+    int excluirExcetoPrefixo(@Param("prefixo") String prefixo);
+}
@@ -0,0 +1,26 @@
+package br.senai.sc.communitex.repository;
+
+import br.senai.sc.communitex.enums.EscopoMetrica;
+import br.senai.sc.communitex.model.MetricaTotal;
+import br.senai.sc.communitex.repository.projection.MetricaSoma;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface MetricaTotalRepository extends JpaRepository<MetricaTotal, Long> {
+
+    List<MetricaSoma> findByEscopoAndEscopoId(EscopoMetrica escopo, Long escopoId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE MetricaTotal m SET m.valor = m.valor + :delta WHERE m.escopo = :escopo " +
+            "AND m.escopoId = :escopoId AND m.metrica = :metrica")
+    int somar(
+            @Param("escopo") EscopoMetrica escopo,
+            @Param("escopoId") Long escopoId,
+            @Param("metrica") String metrica,
+            @Param("delta") double delta
+    );
+}
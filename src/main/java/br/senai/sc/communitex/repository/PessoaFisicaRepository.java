@@ -1,9 +1,12 @@
 package br.senai.sc.communitex.repository;
 
+import br.senai.sc.communitex.dto.PessoaFisicaResponseDTO;
 import br.senai.sc.communitex.model.PessoaFisica;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -11,5 +14,9 @@ public interface PessoaFisicaRepository extends JpaRepository<PessoaFisica, Long
     Optional<PessoaFisica> findByCpf(String cpf);
     Optional<PessoaFisica> findByEmail(String email);
     Optional<PessoaFisica> findByUsuarioUsername(String username);
+
+    @Query("SELECT new br.senai.sc.communitex.dto.PessoaFisicaResponseDTO(p.id, p.nome, p.cpf, p.email, p.telefone, " +
+            "p.cep, p.logradouro, p.numero, p.complemento, p.bairro, p.cidade, p.estado) FROM PessoaFisica p")
+    List<PessoaFisicaResponseDTO> findRespostas();
 }
 
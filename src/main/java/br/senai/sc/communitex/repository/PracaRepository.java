@@ -2,34 +2,88 @@ package br.senai.sc.communitex.repository;
 
 import br.senai.sc.communitex.enums.StatusPraca;
 import br.senai.sc.communitex.model.Praca;
+import br.senai.sc.communitex.repository.projection.PracaGeometria;
+import br.senai.sc.communitex.repository.projection.PracaResumo;
+import br.senai.sc.communitex.repository.projection.PracaAgrupada;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
-import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface PracaRepository extends JpaRepository<Praca, Long>, JpaSpecificationExecutor<Praca> {
+public interface PracaRepository extends JpaRepository<Praca, Long> {
 
-    @Override
-    @EntityGraph(attributePaths = {"cadastradoPor", "cadastradoPor.usuario"})
-    Page<Praca> findAll(Specification<Praca> spec, Pageable pageable);
+    String SELECT_RESUMO = "SELECT p.id AS id, p.nome AS nome, p.logradouro AS logradouro, p.bairro AS bairro, " +
+            "p.cidade AS cidade, p.latitude AS latitude, p.longitude AS longitude, p.descricao AS descricao, " +
+            "p.arquivoId AS arquivoId, p.metragemM2 AS metragemM2, p.status AS status FROM Praca p ";
 
-    long countByStatus(StatusPraca status);
+    String FILTROS = "WHERE (:id IS NULL OR p.id = :id) " +
+            "AND (:nome IS NULL OR LOWER(p.nome) LIKE :nome) " +
+            "AND (:cidade IS NULL OR LOWER(p.cidade) LIKE :cidade) ";
 
-    List<Praca> findByStatus(StatusPraca status);
+    @Query(SELECT_RESUMO + FILTROS + "ORDER BY p.id")
+    List<PracaResumo> findResumos(
+            @Param("id") Long id,
+            @Param("nome") String nome,
+            @Param("cidade") String cidade
+    );
 
-    List<Praca> findTop4ByStatusOrderByIdDesc(StatusPraca status);
+    @Query(value = SELECT_RESUMO + FILTROS, countQuery = "SELECT COUNT(p) FROM Praca p " + FILTROS)
+    Page<PracaResumo> findResumos(
+            @Param("id") Long id,
+            @Param("nome") String nome,
+            @Param("cidade") String cidade,
+            Pageable pageable
+    );
+
+    @Query(SELECT_RESUMO + FILTROS + "AND (:ultimoId IS NULL OR p.id > :ultimoId) ORDER BY p.id")
+    List<PracaResumo> findResumosAposCursor(
+            @Param("id") Long id,
+            @Param("nome") String nome,
+            @Param("cidade") String cidade,
+            @Param("ultimoId") Long ultimoId,
+            Limit limit
+    );
 
-    long countByCadastradoPorId(Long pessoaFisicaId);
+    @Query("SELECT p.status AS status, c.id AS pessoaId, COUNT(p) AS quantidade, " +
+            "COALESCE(SUM(p.metragemM2), 0) AS area FROM Praca p LEFT JOIN p.cadastradoPor c GROUP BY p.status, c.id")
+    List<PracaAgrupada> agruparParaMetricas();
 
-    long countByCadastradoPorIdAndStatus(Long pessoaFisicaId, StatusPraca status);
+    List<Praca> findTop4ByStatusOrderByIdDesc(StatusPraca status);
 
     List<Praca> findTop5ByCadastradoPorIdOrderByIdDesc(Long pessoaFisicaId);
 
+    @Query("SELECT p.id AS id, p.nome AS nome, p.status AS status, p.latitude AS latitude, " +
+            "p.longitude AS longitude, p.poligonoGeoJson AS poligonoGeoJson FROM Praca p")
+    List<PracaGeometria> findGeometrias();
+
+    @Query(value = "SELECT p.id FROM pracas p WHERE p.localizacao IS NOT NULL " +
+            "ORDER BY p.localizacao <-> CAST(ST_SetSRID(ST_MakePoint(:longitude, :latitude), 4326) AS geography) " +
+            "LIMIT :limite",
+            nativeQuery = true)
+    List<Long> findIdsMaisProximas(
+            @Param("latitude") double latitude,
+            @Param("longitude") double longitude,
+            @Param("limite") int limite
+    );
+
+    @Query("SELECT p FROM Praca p WHERE p.latitude IS NOT NULL AND p.longitude IS NOT NULL " +
+            "ORDER BY (p.latitude - :latitude) * (p.latitude - :latitude) " +
+            "+ (p.longitude - :longitude) * (p.longitude - :longitude) * :escalaLongitude")
+    List<Praca> findMaisProximasAproximado(
+            @Param("latitude") double latitude,
+            @Param("longitude") double longitude,
+            @Param("escalaLongitude") double escalaLongitude,
+            Pageable pageable
+    );
+
+    List<Praca> findByIdIn(Collection<Long> ids);
+
     Optional<Praca> findByNomeAndCidade(String nome, String cidade);
 }
 
@@ -0,0 +1,20 @@
+package br.senai.sc.communitex.repository.projection;
+
+import br.senai.sc.communitex.enums.StatusAdocao;
+
+import java.time.LocalDate;
+
+public interface AdocaoAgrupada {
+
+    LocalDate getInicio();
+
+    LocalDate getFim();
+
+    Long getEmpresaId();
+
+    StatusAdocao getStatus();
+
+    Long getQuantidade();
+
+    Double getArea();
+}
@@ -0,0 +1,20 @@
+package br.senai.sc.communitex.repository.projection;
+
+import java.time.LocalDateTime;
+
+public interface ArquivoMetadados {
+
+    Long getId();
+
+    String getNomeOriginal();
+
+    String getContentType();
+
+    Long getTamanhoBytes();
+
+    String getHashSha256();
+
+    String getArmazenamento();
+
+    LocalDateTime getDataCriacao();
+}
@@ -0,0 +1,10 @@
+package br.senai.sc.communitex.repository.projection;
+
+public interface ContagemMensal {
+
+    Integer getAno();
+
+    Integer getMes();
+
+    Long getTotal();
+}
@@ -0,0 +1,18 @@
+package br.senai.sc.communitex.repository.projection;
+
+import br.senai.sc.communitex.enums.IssueStatus;
+
+import java.time.LocalDate;
+
+public interface DenunciaAgrupada {
+
+    LocalDate getCriacao();
+
+    Long getAutorId();
+
+    IssueStatus getStatus();
+
+    Long getQuantidade();
+
+    Long getApoios();
+}
@@ -0,0 +1,17 @@
+package br.senai.sc.communitex.repository.projection;
+
+import br.senai.sc.communitex.enums.IssueStatus;
+import br.senai.sc.communitex.enums.IssueType;
+
+public interface DenunciaLocalizacao {
+
+    Long getId();
+
+    Double getLatitude();
+
+    Double getLongitude();
+
+    IssueType getTipo();
+
+    IssueStatus getStatus();
+}
@@ -0,0 +1,38 @@
+package br.senai.sc.communitex.repository.projection;
+
+public interface EmpresaResumo {
+
+    Long getId();
+
+    String getRazaoSocial();
+
+    String getCnpj();
+
+    String getNomeFantasia();
+
+    String getEmail();
+
+    String getTelefone();
+
+    String getCep();
+
+    String getLogradouro();
+
+    String getNumero();
+
+    String getComplemento();
+
+    String getBairro();
+
+    String getCidade();
+
+    String getEstado();
+
+    Long getRepresentanteId();
+
+    String getRepresentanteNome();
+
+    Boolean getRepresentanteAtivo();
+
+    String getRepresentanteEmail();
+}
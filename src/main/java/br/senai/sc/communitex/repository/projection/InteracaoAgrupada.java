@@ -0,0 +1,16 @@
+package br.senai.sc.communitex.repository.projection;
+
+import br.senai.sc.communitex.enums.InteractionType;
+
+import java.time.LocalDate;
+
+public interface InteracaoAgrupada {
+
+    LocalDate getCriacao();
+
+    Long getUsuarioId();
+
+    InteractionType getTipo();
+
+    Long getQuantidade();
+}
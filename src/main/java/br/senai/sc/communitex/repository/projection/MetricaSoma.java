@@ -0,0 +1,14 @@
+package br.senai.sc.communitex.repository.projection;
+
+import br.senai.sc.communitex.enums.EscopoMetrica;
+
+public interface MetricaSoma {
+
+    EscopoMetrica getEscopo();
+
+    Long getEscopoId();
+
+    String getMetrica();
+
+    Double getValor();
+}
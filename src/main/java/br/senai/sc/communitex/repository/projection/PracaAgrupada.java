@@ -0,0 +1,14 @@
+package br.senai.sc.communitex.repository.projection;
+
+import br.senai.sc.communitex.enums.StatusPraca;
+
+public interface PracaAgrupada {
+
+    StatusPraca getStatus();
+
+    Long getPessoaId();
+
+    Long getQuantidade();
+
+    Double getArea();
+}
@@ -0,0 +1,18 @@
+package br.senai.sc.communitex.repository.projection;
+
+import br.senai.sc.communitex.enums.StatusPraca;
+
+public interface PracaGeometria {
+
+    Long getId();
+
+    String getNome();
+
+    StatusPraca getStatus();
+
+    Double getLatitude();
+
+    Double getLongitude();
+
+    String getPoligonoGeoJson();
+}
@@ -0,0 +1,28 @@
+package br.senai.sc.communitex.repository.projection;
+
+import br.senai.sc.communitex.enums.StatusPraca;
+
+public interface PracaResumo {
+
+    Long getId();
+
+    String getNome();
+
+    String getLogradouro();
+
+    String getBairro();
+
+    String getCidade();
+
+    Double getLatitude();
+
+    Double getLongitude();
+
+    String getDescricao();
+
+    Long getArquivoId();
+
+    Double getMetragemM2();
+
+    StatusPraca getStatus();
+}
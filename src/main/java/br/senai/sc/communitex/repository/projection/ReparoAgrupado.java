@@ -0,0 +1,22 @@
+package br.senai.sc.communitex.repository.projection;
+
+import br.senai.sc.communitex.enums.AtendimentoDenunciaStatus;
+
+import java.time.LocalDate;
+
+public interface ReparoAgrupado {
+
+    LocalDate getAceite();
+
+    LocalDate getConfirmacao();
+
+    Long getEmpresaId();
+
+    Long getAutorId();
+
+    AtendimentoDenunciaStatus getStatus();
+
+    Long getQuantidade();
+
+    Long getMinutos();
+}
@@ -31,12 +31,12 @@ public class AdocaoService {
     private final AdocaoRepository adocaoRepository;
     private final EmpresaRepository empresaRepository;
     private final PracaRepository pracaRepository;
+    private final VectorTileService vectorTileService;
+    private final MetricasPainelService metricasService;
 
     @Transactional(readOnly = true)
     public List<AdocaoResponseDTO> findAll() {
-        return adocaoRepository.findAll().stream()
-                .map(this::toResponseDTO)
-                .toList();
+        return adocaoRepository.findRespostas();
     }
 
     @Transactional
@@ -59,10 +59,13 @@ public class AdocaoService {
                 .praca(praca)
                 .build();
 
+        var metricasPraca = metricasService.capturar(praca);
         atualizarStatusPraca(praca, dto.status());
-        pracaRepository.save(praca);
+        vectorTileService.sincronizarPraca(pracaRepository.save(praca));
 
         var saved = adocaoRepository.save(adocao);
+        metricasService.publicar(metricasPraca);
+        metricasService.publicarInclusao(saved);
         log.info("Adoção criada com ID: {} para praça ID: {} pela empresa ID: {}",
                 saved.getId(), praca.getId(), empresa.getId());
         return toResponseDTO(saved);
@@ -101,16 +104,12 @@ public class AdocaoService {
             throw new BusinessException("A data final não pode ser anterior à data inicial");
         }
 
-        return adocaoRepository.findByDataInicioGreaterThanEqualAndDataFimLessThanEqual(inicio, fim).stream()
-                .map(this::toResponseDTO)
-                .toList();
+        return adocaoRepository.findRespostasPorPeriodo(inicio, fim);
     }
 
     @Transactional(readOnly = true)
     public List<AdocaoResponseDTO> findByEmpresa(Long empresaId) {
-        return adocaoRepository.findByEmpresaId(empresaId).stream()
-                .map(this::toResponseDTO)
-                .toList();
+        return adocaoRepository.findRespostasByEmpresaId(empresaId);
     }
 
     @Transactional(readOnly = true)
@@ -125,16 +124,12 @@ public class AdocaoService {
         var hoje = LocalDate.now();
         var limite = hoje.plusDays(diasEfetivo);
 
-        return adocaoRepository.findAdocoesByPrazoEStatus(hoje, limite, status).stream()
-                .map(this::toResponseDTO)
-                .toList();
+        return adocaoRepository.findRespostasPorPrazoEStatus(hoje, limite, status);
     }
 
     @Transactional(readOnly = true)
     public List<AdocaoResponseDTO> findByPraca(Long pracaId) {
-        return adocaoRepository.findByPraca_Id(pracaId).stream()
-                .map(this::toResponseDTO)
-                .toList();
+        return adocaoRepository.findRespostasByPracaId(pracaId);
     }
 
     @Transactional
@@ -145,13 +140,16 @@ public class AdocaoService {
         var praca = pracaRepository.findById(dto.pracaId())
                 .orElseThrow(() -> new ResourceNotFoundException("Praça não encontrada com ID: " + dto.pracaId()));
 
+        var metricas = metricasService.capturar(adocao);
         adocao.setDataInicio(dto.dataInicio());
         adocao.setDataFim(dto.dataFim());
         adocao.setDescricaoProjeto(dto.descricaoProjeto());
         adocao.setPraca(praca);
 
+        var saved = adocaoRepository.save(adocao);
+        metricasService.publicar(metricas);
         log.info("Adoção ID: {} atualizada", id);
-        return toResponseDTO(adocaoRepository.save(adocao));
+        return toResponseDTO(saved);
     }
 
     @Transactional
@@ -159,20 +157,24 @@ public class AdocaoService {
         var adocao = adocaoRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("AdoÃ§Ã£o nÃ£o encontrada com ID: " + id));
 
+        var metricas = metricasService.capturar(adocao, adocao.getPraca());
         adocao.setStatus(status);
         atualizarStatusPraca(adocao.getPraca(), status);
-        pracaRepository.save(adocao.getPraca());
+        vectorTileService.sincronizarPraca(pracaRepository.save(adocao.getPraca()));
 
+        var saved = adocaoRepository.save(adocao);
+        metricasService.publicar(metricas);
         log.info("Status da adoÃ§Ã£o ID: {} atualizado para: {}", id, status);
-        return toResponseDTO(adocaoRepository.save(adocao));
+        return toResponseDTO(saved);
     }
 
     @Transactional
     public void delete(Long id) {
-        if (!adocaoRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Adoção não encontrada com ID: " + id);
-        }
-        adocaoRepository.deleteById(id);
+        var adocao = adocaoRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Adoção não encontrada com ID: " + id));
+        var metricas = metricasService.capturar(adocao);
+        adocaoRepository.delete(adocao);
+        metricasService.publicarExclusao(metricas);
         log.info("Adoção ID: {} excluída", id);
     }
 
@@ -181,15 +183,18 @@ public class AdocaoService {
         var adocao = adocaoRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Adoção não encontrada com ID: " + id));
 
+        var praca = adocao.getPraca();
+        var metricas = metricasService.capturar(adocao, praca);
         adocao.setStatus(StatusAdocao.FINALIZADA);
         adocao.setDataFim(LocalDate.now());
 
-        var praca = adocao.getPraca();
         praca.setStatus(StatusPraca.DISPONIVEL);
-        pracaRepository.save(praca);
+        vectorTileService.sincronizarPraca(pracaRepository.save(praca));
 
+        var saved = adocaoRepository.save(adocao);
+        metricasService.publicar(metricas);
         log.info("Adoção ID: {} finalizada", id);
-        return toResponseDTO(adocaoRepository.save(adocao));
+        return toResponseDTO(saved);
     }
 
 
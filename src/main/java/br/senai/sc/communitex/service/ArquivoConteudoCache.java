@@ -0,0 +1,68 @@
+package br.senai.sc.communitex.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Cache em memoria do conteudo dos arquivos mais acessados, limitado pelo total de bytes (W-TinyLFU do Caffeine).
+ * Como o conteudo de um id nunca muda, as entradas so saem por eviccao ou quando o arquivo e apagado.
+ * As metricas ficam no Actuator como {@code cache.*} com a tag {@code cache=arquivos}.
+ */
+@Component
+@Slf4j
+public class ArquivoConteudoCache {
+
+    private final Cache<Long, byte[]> cache;
+    private final long tamanhoMaximoItem;
+
+    public ArquivoConteudoCache(MeterRegistry meterRegistry,
+                                @Value("${app.arquivos.cache.tamanho-maximo:64MB}") DataSize tamanhoMaximo,
+                                @Value("${app.arquivos.cache.tamanho-maximo-item:2MB}") DataSize tamanhoMaximoItem) {
+        this.tamanhoMaximoItem = Math.min(tamanhoMaximoItem.toBytes(), tamanhoMaximo.toBytes());
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(tamanhoMaximo.toBytes())
+                .weigher((Long id, byte[] conteudo) -> conteudo.length)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "arquivos");
+        log.info("Cache de arquivos com limite de {} ({} por arquivo)", tamanhoMaximo, tamanhoMaximoItem);
+    }
+
+    public boolean aceita(long tamanhoBytes) {
+        return tamanhoBytes > 0 && tamanhoBytes <= tamanhoMaximoItem;
+    }
+
+    /**
+     * Devolve o conteudo em cache ou carrega uma unica vez, mesmo com varias requisicoes simultaneas pelo mesmo id.
+     * Conteudo carregado com tamanho diferente do esperado e devolvido, mas nao fica em cache.
+     */
+    public byte[] obter(Long arquivoId, long tamanhoEsperado, Supplier<byte[]> carregar) {
+        var divergente = new AtomicReference<byte[]>();
+        var conteudo = cache.get(arquivoId, id -> {
+            var carregado = carregar.get();
+            if (carregado.length == tamanhoEsperado) return carregado;
+            log.warn("Conteudo do arquivo ID: {} tem {} bytes, esperados {}; nao sera mantido em cache",
+                    id, carregado.length, tamanhoEsperado);
+            divergente.set(carregado);
+            return null;
+        });
+        return conteudo != null ? conteudo : divergente.get() != null ? divergente.get() : carregar.get();
+    }
+
+    public byte[] obterSePresente(Long arquivoId) {
+        return cache.getIfPresent(arquivoId);
+    }
+
+    public void remover(Long arquivoId) {
+        cache.invalidate(arquivoId);
+    }
+}
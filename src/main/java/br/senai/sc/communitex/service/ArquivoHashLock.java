@@ -0,0 +1,66 @@
+package br.senai.sc.communitex.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
+
+/**
+ * Serializa a deduplicacao de arquivos com o mesmo SHA-256: sem isso, dois uploads simultaneos dos mesmos bytes
+ * nao enxergam a linha um do outro (ainda nao confirmada) e o segundo viola {@code uk_arquivos_hash_sha256}.
+ * Em PostgreSQL usa advisory locks de transacao (validos entre instancias); nos demais bancos usa locks em
+ * memoria. Em ambos os casos o lock e mantido ate o fim da transacao atual.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ArquivoHashLock {
+
+    private static final int QUANTIDADE_LOCKS_LOCAIS = 64;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final List<ReentrantLock> locksLocais = IntStream.range(0, QUANTIDADE_LOCKS_LOCAIS)
+            .mapToObj(indice -> new ReentrantLock())
+            .toList();
+    private volatile Boolean postgresql;
+
+    public void bloquear(String hash) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return;
+
+        if (isPostgresql()) {
+            jdbcTemplate.query("SELECT pg_advisory_xact_lock(hashtext(?))", resultSet -> {}, hash);
+            return;
+        }
+        var lock = locksLocais.get(Math.floorMod(hash.hashCode(), QUANTIDADE_LOCKS_LOCAIS));
+        if (lock.isHeldByCurrentThread()) return;
+        lock.lock();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.unlock();
+            }
+        });
+    }
+
+    private boolean isPostgresql() {
+        if (postgresql == null) {
+            try {
+                postgresql = Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                        "PostgreSQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName())));
+            } catch (DataAccessException ex) {
+                log.warn("Nao foi possivel identificar o banco de dados; usando locks locais", ex);
+                postgresql = false;
+            }
+        }
+        return postgresql;
+    }
+}
@@ -0,0 +1,125 @@
+package br.senai.sc.communitex.service;
+
+import br.senai.sc.communitex.exception.ResourceNotFoundException;
+import br.senai.sc.communitex.repository.ArquivoRepository;
+import br.senai.sc.communitex.repository.projection.ArquivoMetadados;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.OutputStream;
+import java.security.DigestOutputStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Manutencao periodica do armazenamento de arquivos: calcula o SHA-256 dos arquivos gravados antes da
+ * deduplicacao (unificando copias identicas) e apaga os arquivos sem referencias apos um periodo de carencia.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ArquivoLimpezaService {
+
+    private static final int LOTE = 100;
+    private static final String[] TABELAS_DONAS = {"pracas", "issues", "atendimentos_denuncia"};
+
+    private final ArquivoRepository repository;
+    private final ArquivoService arquivoService;
+    private final ArquivoHashLock hashLock;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${app.arquivos.limpeza.carencia:PT1H}")
+    private Duration carencia;
+
+    @Scheduled(fixedDelayString = "${app.arquivos.limpeza.intervalo:PT1H}",
+            initialDelayString = "${app.arquivos.limpeza.atraso-inicial:PT10M}")
+    public void executar() {
+        var consolidados = calcularHashesPendentes();
+        var removidos = coletarOrfaos();
+        if (consolidados > 0 || removidos > 0) {
+            log.info("Limpeza de arquivos: {} hashes calculados, {} arquivos orfaos removidos", consolidados, removidos);
+        }
+    }
+
+    public int coletarOrfaos() {
+        var transacao = new TransactionTemplate(transactionManager);
+        var limite = LocalDateTime.now().minus(carencia);
+        var removidos = 0;
+        for (var orfao : repository.findOrfaosCriadosAntesDe(limite, Limit.of(LOTE))) {
+            var variantes = repository.findVariantes(orfao.getId());
+            var removido = transacao.execute(status -> repository.deleteSeOrfao(orfao.getId(), limite));
+            if (removido != null && removido > 0) {
+                arquivoService.excluirConteudo(orfao.getId(), orfao.getArmazenamento());
+                variantes.forEach(variante -> arquivoService.excluirConteudo(variante.getId(), variante.getArmazenamento()));
+                removidos++;
+            }
+        }
+        return removidos;
+    }
+
+    public int calcularHashesPendentes() {
+        var transacao = new TransactionTemplate(transactionManager);
+        var total = 0;
+        for (var id : repository.findIdsSemHash(Limit.of(LOTE))) {
+            var arquivo = repository.findMetadadosById(id).orElse(null);
+            if (arquivo == null) continue;
+
+            List<ArquivoMetadados> variantesApagadas;
+            try {
+                variantesApagadas = transacao.execute(status -> consolidar(arquivo));
+            } catch (ResourceNotFoundException ex) {
+                log.warn("Hash do arquivo ID: {} nao calculado: {}", id, ex.getMessage());
+                continue;
+            }
+            if (variantesApagadas != null) {
+                arquivoService.excluirConteudo(arquivo.getId(), arquivo.getArmazenamento());
+                variantesApagadas.forEach(variante -> arquivoService.excluirConteudo(variante.getId(), variante.getArmazenamento()));
+            }
+            total++;
+        }
+        return total;
+    }
+
+    /**
+     * Grava o hash do arquivo ou, se ja existe outro com o mesmo conteudo, move as referencias para ele
+     * e apaga o duplicado. Quando o arquivo foi apagado, retorna as variantes removidas em cascata junto com ele,
+     * cujo conteudo tambem precisa sair do backend; retorna {@code null} quando o arquivo foi mantido.
+     */
+    private List<ArquivoMetadados> consolidar(ArquivoMetadados arquivo) {
+        var id = arquivo.getId();
+        var hash = hashDoConteudo(arquivo);
+        hashLock.bloquear(hash);
+        var existente = repository.findIdByHashSha256(hash);
+        if (existente.isEmpty()) {
+            jdbcTemplate.update("UPDATE arquivos SET hash_sha256 = ? WHERE id = ?", hash, id);
+            return null;
+        }
+
+        var destino = existente.get();
+        for (var tabela : TABELAS_DONAS) {
+            jdbcTemplate.update("UPDATE " + tabela + " SET arquivo_id = ? WHERE arquivo_id = ?", destino, id);
+        }
+        jdbcTemplate.update("UPDATE arquivos SET referencias = referencias + " +
+                "(SELECT o.referencias FROM arquivos o WHERE o.id = ?) WHERE id = ?", id, destino);
+        var variantes = repository.findVariantes(id);
+        jdbcTemplate.update("DELETE FROM arquivos WHERE id = ?", id);
+        log.info("Arquivo ID: {} duplicado unificado no arquivo ID: {}", id, destino);
+        return variantes;
+    }
+
+    private String hashDoConteudo(ArquivoMetadados arquivo) {
+        var digest = ArquivoService.digestSha256();
+        arquivoService.transmitirConteudo(arquivo, new DigestOutputStream(OutputStream.nullOutputStream(), digest));
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
@@ -0,0 +1,78 @@
+package br.senai.sc.communitex.service;
+
+import br.senai.sc.communitex.repository.ArquivoRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Move em segundo plano o conteudo que ainda esta em {@code arquivos_conteudo} para o backend ativo
+ * (disco ou S3). Cada arquivo e copiado primeiro e so depois tem o registro atualizado e os bytes
+ * removidos do banco, entao uma falha no meio do caminho apenas faz o arquivo ser copiado de novo.
+ * Um arquivo sem a linha de conteudo nao e marcado como migrado, ja que nada foi gravado no destino.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ArquivoMigracaoService {
+
+    private static final int LOTE = 50;
+    private static final String SELECT_CONTEUDO = "SELECT conteudo FROM arquivos_conteudo WHERE arquivo_id = ?";
+
+    private final ArquivoRepository repository;
+    private final ArquivoService arquivoService;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    @Scheduled(fixedDelayString = "${app.arquivos.migracao.intervalo:PT5M}",
+            initialDelayString = "${app.arquivos.migracao.atraso-inicial:PT1M}")
+    public void executar() {
+        var destino = arquivoService.storageAtivo();
+        if (ArquivoStorageService.BANCO.equals(destino.tipo())) return;
+
+        var migrados = migrarLote(destino);
+        if (migrados > 0) {
+            log.info("{} arquivos migrados do banco para o armazenamento {}", migrados, destino.tipo());
+        }
+    }
+
+    public int migrarLote(ArquivoStorageService destino) {
+        var leitura = new TransactionTemplate(transactionManager);
+        leitura.setReadOnly(true);
+        var escrita = new TransactionTemplate(transactionManager);
+
+        var migrados = 0;
+        for (var arquivo : repository.findMetadadosByArmazenamento(ArquivoStorageService.BANCO, Limit.of(LOTE))) {
+            var id = arquivo.getId();
+            var copiados = new AtomicInteger();
+            leitura.executeWithoutResult(status -> jdbcTemplate.query(SELECT_CONTEUDO, resultSet -> {
+                try (var conteudo = resultSet.getBinaryStream(1)) {
+                    destino.gravar(id, conteudo, arquivo.getTamanhoBytes());
+                    copiados.incrementAndGet();
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            }, id));
+            if (copiados.get() != 1) {
+                log.warn("Arquivo ID: {} sem conteudo em arquivos_conteudo ({} linhas); mantido no banco", id, copiados.get());
+                continue;
+            }
+
+            escrita.executeWithoutResult(status -> {
+                repository.updateArmazenamento(id, destino.tipo());
+                jdbcTemplate.update("DELETE FROM arquivos_conteudo WHERE arquivo_id = ?", id);
+            });
+            migrados++;
+        }
+        return migrados;
+    }
+}
@@ -1,64 +1,347 @@
 package br.senai.sc.communitex.service;
 
 import br.senai.sc.communitex.exception.BusinessException;
+import br.senai.sc.communitex.exception.ForbiddenException;
 import br.senai.sc.communitex.exception.ResourceNotFoundException;
 import br.senai.sc.communitex.model.Arquivo;
 import br.senai.sc.communitex.repository.ArquivoRepository;
-import lombok.RequiredArgsConstructor;
+import br.senai.sc.communitex.repository.projection.ArquivoMetadados;
+import br.senai.sc.communitex.util.ArquivoUrls;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.util.Set;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
-@RequiredArgsConstructor
+@Slf4j
 public class ArquivoService {
 
     private static final long MAX_IMAGE_SIZE = 5 * 1024 * 1024;
-    private static final Set<String> IMAGE_CONTENT_TYPES = Set.of("image/jpeg", "image/png", "image/webp");
+    private static final int BUFFER_SIZE = 16 * 1024;
+    private static final int TAMANHO_ASSINATURA = 12;
+    private static final byte[] ASSINATURA_JPEG = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF};
+    private static final byte[] ASSINATURA_PNG = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final byte[] ASSINATURA_RIFF = {'R', 'I', 'F', 'F'};
+    private static final byte[] ASSINATURA_WEBP = {'W', 'E', 'B', 'P'};
 
     private final ArquivoRepository repository;
+    private final Map<String, ArquivoStorageService> storages;
+    private final ArquivoStorageService storageAtivo;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ArquivoConteudoCache cache;
+    private final ImagemOtimizacaoService otimizacaoService;
+    private final ArquivoHashLock hashLock;
 
-    @Transactional
-    public Arquivo salvarImagem(MultipartFile arquivo) {
+    public ArquivoService(ArquivoRepository repository, List<ArquivoStorageService> storages,
+                          @Value("${app.arquivos.storage:banco}") String armazenamento,
+                          ApplicationEventPublisher eventPublisher, ArquivoConteudoCache cache,
+                          ImagemOtimizacaoService otimizacaoService, ArquivoHashLock hashLock) {
+        this.repository = repository;
+        this.eventPublisher = eventPublisher;
+        this.cache = cache;
+        this.otimizacaoService = otimizacaoService;
+        this.hashLock = hashLock;
+        this.storages = storages.stream().collect(Collectors.toMap(ArquivoStorageService::tipo, Function.identity()));
+        this.storageAtivo = storage(armazenamento);
+    }
+
+    /**
+     * Imagem ja validada e, quando JPEG ou PNG, convertida para WebP, pronta para ser gravada. A conversao leva
+     * segundos por imagem, entao {@link #preparar(MultipartFile)} roda antes de qualquer transacao e a transacao
+     * que grava ocupa uma conexao do pool apenas pelo insert, pela gravacao no backend e pela deduplicacao.
+     */
+    public record ImagemPreparada(InputStreamSource conteudo, long tamanho, Long tamanhoOriginal,
+                                  String contentType, String nomeOriginal) {}
+
+    /**
+     * Valida e converte a imagem enviada; {@code null} quando nenhuma imagem foi enviada. Nao deve ser chamado
+     * dentro de uma transacao. O tipo da imagem vem dos primeiros bytes do conteudo, nao do {@code Content-Type}
+     * informado pelo cliente.
+     */
+    public ImagemPreparada preparar(MultipartFile arquivo) {
         if (arquivo == null || arquivo.isEmpty()) return null;
-        validarImagem(arquivo);
+        return preparar(arquivo, arquivo.getSize(), arquivo.getOriginalFilename());
+    }
+
+    /**
+     * Prepara uma imagem montada fora de uma requisicao (upload retomavel).
+     */
+    public ImagemPreparada preparar(Path conteudo, String nomeOriginal) {
         try {
-            return repository.save(Arquivo.builder()
-                    .conteudo(arquivo.getBytes())
-                    .nomeOriginal(nomeOriginal(arquivo))
-                    .contentType(arquivo.getContentType())
-                    .tamanhoBytes(arquivo.getSize())
-                    .build());
+            return preparar(new FileSystemResource(conteudo), Files.size(conteudo), nomeOriginal);
         } catch (IOException ex) {
             throw new BusinessException("Nao foi possivel processar a imagem enviada", ex);
         }
     }
 
+    /**
+     * Salva a imagem enderecada pelo SHA-256 do conteudo: se os mesmos bytes ja existem, apenas incrementa
+     * a contagem de referencias e devolve o arquivo existente, sem manter uma nova copia. Uploads simultaneos
+     * do mesmo conteudo sao serializados pelo {@link ArquivoHashLock} ate o fim da transacao.
+     */
+    @Transactional
+    public Long salvarImagem(ImagemPreparada imagem) {
+        if (imagem == null) return null;
+        return salvar(imagem);
+    }
+
+    /**
+     * Salva a imagem de um upload retomavel sem nenhuma referencia e em nome de quem a enviou: ela so passa a
+     * ser usada depois de {@link #referenciar(Long, String)} por esse mesmo usuario e, se isso nunca acontecer,
+     * e apagada pela limpeza periodica depois da carencia. A deduplicacao fica para a limpeza periodica, depois
+     * da primeira referencia, para que o id devolvido seja sempre um arquivo do proprio usuario.
+     */
+    @Transactional
+    public Long salvarImagemPendente(ImagemPreparada imagem, String enviadoPor) {
+        var salvo = novoArquivo(imagem, 0, enviadoPor);
+        gravar(salvo.getId(), imagem);
+        eventPublisher.publishEvent(new ImagemSalva(salvo.getId()));
+        return salvo.getId();
+    }
+
+    /**
+     * Registra a primeira referencia ao upload retomavel de {@code usuario}. Qualquer outro id (arquivo de outro
+     * usuario ou ja referenciado) e recusado, para que ninguem anexe a foto de outra pessoa pelo id.
+     */
+    @Transactional
+    public Long referenciar(Long id, String usuario) {
+        if (id == null) return null;
+        if (repository.referenciarPendente(id, usuario) == 0) {
+            throw new ForbiddenException("Arquivo " + id + " nao e um upload pendente do usuario autenticado");
+        }
+        return id;
+    }
+
+    /**
+     * Libera uma referencia ao arquivo. O conteudo so e apagado pela limpeza periodica
+     * ({@link ArquivoLimpezaService}) quando nenhuma praca, denuncia ou atendimento aponta mais para ele.
+     */
+    @Transactional
+    public void liberar(Long id) {
+        if (id == null) return;
+        repository.decrementarReferencias(id);
+    }
+
     @Transactional(readOnly = true)
-    public Arquivo buscar(Long id) {
-        return repository.findById(id)
+    public ArquivoMetadados buscarMetadados(Long id) {
+        return repository.findMetadadosById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Arquivo nao encontrado com ID: " + id));
     }
 
-    public String url(Arquivo arquivo) {
-        return arquivo == null || arquivo.getId() == null ? null : "/api/arquivos/" + arquivo.getId() + "/conteudo";
+    /**
+     * Devolve a menor variante com pelo menos {@code largura} pixels ou, se ela ainda nao foi gerada
+     * (ou a imagem original ja e menor), a propria imagem original.
+     */
+    @Transactional(readOnly = true)
+    public ArquivoMetadados buscarMetadados(Long id, Integer largura) {
+        if (largura == null) return buscarMetadados(id);
+        if (largura <= 0) {
+            throw new BusinessException("A largura deve ser maior que zero");
+        }
+        return repository.findVariantes(id, largura, Limit.of(1)).stream()
+                .findFirst()
+                .orElseGet(() -> buscarMetadados(id));
     }
 
-    private void validarImagem(MultipartFile arquivo) {
-        if (arquivo.getSize() > MAX_IMAGE_SIZE) {
-            throw new BusinessException("A imagem deve ter no maximo 5 MB");
+    /**
+     * Copia o conteudo para a saida. Arquivos pequenos o bastante passam pelo {@link ArquivoConteudoCache};
+     * os demais sao lidos do backend onde estao, e fora do backend de banco nenhuma conexao do pool fica
+     * presa durante a transmissao.
+     */
+    public void transmitirConteudo(ArquivoMetadados arquivo, OutputStream saida) {
+        if (!cache.aceita(arquivo.getTamanhoBytes())) {
+            storage(arquivo.getArmazenamento()).transmitir(arquivo.getId(), saida);
+            return;
         }
-        if (!IMAGE_CONTENT_TYPES.contains(arquivo.getContentType())) {
-            throw new BusinessException("Formato invalido. Envie uma imagem JPEG, PNG ou WebP");
+        var conteudo = cache.obter(arquivo.getId(), arquivo.getTamanhoBytes(), () -> {
+            var carregado = new ByteArrayOutputStream(Math.toIntExact(arquivo.getTamanhoBytes()));
+            storage(arquivo.getArmazenamento()).transmitir(arquivo.getId(), carregado);
+            return carregado.toByteArray();
+        });
+        escrever(saida, conteudo, 0, conteudo.length);
+    }
+
+    public void transmitirConteudo(ArquivoMetadados arquivo, long inicio, long tamanho, OutputStream saida) {
+        var emCache = cache.obterSePresente(arquivo.getId());
+        if (emCache != null) {
+            escrever(saida, emCache, Math.toIntExact(inicio), Math.toIntExact(tamanho));
+            return;
         }
+        storage(arquivo.getArmazenamento()).transmitir(arquivo.getId(), inicio, tamanho, saida);
+    }
+
+    public void excluirConteudo(Long id, String armazenamento) {
+        cache.remover(id);
+        storage(armazenamento).excluir(id);
+    }
+
+    public ArquivoStorageService storageAtivo() {
+        return storageAtivo;
+    }
+
+    public String url(Long arquivoId) {
+        return ArquivoUrls.url(arquivoId);
+    }
+
+    static String sha256(byte[] conteudo) {
+        return HexFormat.of().formatHex(digestSha256().digest(conteudo));
+    }
+
+    static MessageDigest digestSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 indisponivel na JVM", ex);
+        }
+    }
+
+    /**
+     * Publicado quando uma nova imagem (nao deduplicada) e gravada.
+     */
+    public record ImagemSalva(Long arquivoId) {}
+
+    private ArquivoStorageService storage(String armazenamento) {
+        var storage = storages.get(armazenamento);
+        if (storage == null) {
+            throw new IllegalStateException("Backend de arquivos nao configurado: " + armazenamento);
+        }
+        return storage;
+    }
+
+    private static void escrever(OutputStream saida, byte[] conteudo, int inicio, int tamanho) {
+        try {
+            saida.write(conteudo, inicio, tamanho);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private void excluirSeReverter(Long id) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    storageAtivo.excluir(id);
+                }
+            }
+        });
+    }
+
+    /**
+     * Identifica JPEG, PNG ou WebP pela assinatura no inicio do conteudo, sem consumir a entrada.
+     */
+    static String contentTypeDaImagem(BufferedInputStream entrada) throws IOException {
+        entrada.mark(TAMANHO_ASSINATURA);
+        var cabecalho = entrada.readNBytes(TAMANHO_ASSINATURA);
+        entrada.reset();
+        if (comecaCom(cabecalho, 0, ASSINATURA_JPEG)) return "image/jpeg";
+        if (comecaCom(cabecalho, 0, ASSINATURA_PNG)) return "image/png";
+        if (comecaCom(cabecalho, 0, ASSINATURA_RIFF) && comecaCom(cabecalho, 8, ASSINATURA_WEBP)) return "image/webp";
+        throw new BusinessException("Formato invalido. Envie uma imagem JPEG, PNG ou WebP");
+    }
+
+    /**
+     * JPEG e PNG passam pela conversao para WebP ({@link ImagemOtimizacaoService}) e ficam em memoria ja
+     * convertidos; os demais sao lidos de novo da origem, em streaming, na hora de gravar.
+     */
+    private ImagemPreparada preparar(InputStreamSource origem, long tamanho, String nomeOriginal) {
+        validarTamanho(tamanho);
+        try (var entrada = new BufferedInputStream(origem.getInputStream(), BUFFER_SIZE)) {
+            var contentType = contentTypeDaImagem(entrada);
+            if (!otimizacaoService.converte(contentType)) {
+                return new ImagemPreparada(origem, tamanho, null, contentType, nomeOriginal(nomeOriginal));
+            }
+            var otimizada = otimizacaoService.otimizar(entrada, contentType);
+            log.info("Imagem {} convertida para WebP: {} -> {} bytes", contentType, tamanho, otimizada.length);
+            return new ImagemPreparada(new ByteArrayResource(otimizada), otimizada.length, tamanho,
+                    ImagemOtimizacaoService.WEBP, nomeOriginal(nomeOriginal));
+        } catch (IOException | UncheckedIOException ex) {
+            throw new BusinessException("Nao foi possivel processar a imagem enviada", ex);
+        }
+    }
+
+    private Long salvar(ImagemPreparada imagem) {
+        var salvo = novoArquivo(imagem, 1, null);
+        var hash = gravar(salvo.getId(), imagem);
+        hashLock.bloquear(hash);
+        if (repository.incrementarReferencias(hash) > 0) {
+            storageAtivo.excluir(salvo.getId());
+            repository.delete(salvo);
+            var existente = repository.findIdByHashSha256(hash).orElseThrow();
+            log.info("Imagem reaproveitada pelo hash no arquivo ID: {}", existente);
+            return existente;
+        }
+
+        salvo.setHashSha256(hash);
+        eventPublisher.publishEvent(new ImagemSalva(salvo.getId()));
+        return salvo.getId();
+    }
+
+    private Arquivo novoArquivo(ImagemPreparada imagem, int referencias, String enviadoPor) {
+        var salvo = repository.save(Arquivo.builder()
+                .nomeOriginal(imagem.nomeOriginal())
+                .contentType(imagem.contentType())
+                .tamanhoBytes(imagem.tamanho())
+                .tamanhoOriginalBytes(imagem.tamanhoOriginal())
+                .referencias(referencias)
+                .armazenamento(storageAtivo.tipo())
+                .enviadoPor(enviadoPor)
+                .build());
+        excluirSeReverter(salvo.getId());
+        return salvo;
+    }
+
+    /**
+     * Grava o conteudo no backend ativo e devolve o SHA-256 calculado no caminho.
+     */
+    private String gravar(Long id, ImagemPreparada imagem) {
+        var digest = digestSha256();
+        try (var entrada = imagem.conteudo().getInputStream()) {
+            storageAtivo.gravar(id, new DigestInputStream(entrada, digest), imagem.tamanho());
+        } catch (IOException | UncheckedIOException ex) {
+            throw new BusinessException("Nao foi possivel processar a imagem enviada", ex);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    static void validarTamanho(long tamanhoBytes) {
+        if (tamanhoBytes > MAX_IMAGE_SIZE) {
+            throw new BusinessException("A imagem deve ter no maximo 5 MB");
+        }
+    }
+
+    private static boolean comecaCom(byte[] cabecalho, int posicao, byte[] assinatura) {
+        return cabecalho.length >= posicao + assinatura.length
+                && Arrays.equals(cabecalho, posicao, posicao + assinatura.length, assinatura, 0, assinatura.length);
     }
 
-    private String nomeOriginal(MultipartFile arquivo) {
-        return arquivo.getOriginalFilename() == null || arquivo.getOriginalFilename().isBlank()
-                ? "imagem"
-                : arquivo.getOriginalFilename();
+    private String nomeOriginal(String nomeOriginal) {
+        return nomeOriginal == null || nomeOriginal.isBlank() ? "imagem" : nomeOriginal;
     }
 }
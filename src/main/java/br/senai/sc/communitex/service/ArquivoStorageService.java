@@ -0,0 +1,31 @@
+package br.senai.sc.communitex.service;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Backend onde fica o conteudo dos arquivos. Os metadados continuam na tabela {@code arquivos},
+ * que registra em {@code armazenamento} qual backend guarda os bytes de cada arquivo.
+ */
+public interface ArquivoStorageService {
+
+    String BANCO = "banco";
+    String DISCO = "disco";
+    String S3 = "s3";
+
+    /**
+     * Identificador gravado em {@code arquivos.armazenamento} para os arquivos deste backend.
+     */
+    String tipo();
+
+    void gravar(Long arquivoId, InputStream conteudo, long tamanhoBytes);
+
+    void transmitir(Long arquivoId, OutputStream saida);
+
+    /**
+     * Transmite apenas {@code tamanho} bytes a partir da posicao {@code inicio}, para requisicoes com {@code Range}.
+     */
+    void transmitir(Long arquivoId, long inicio, long tamanho, OutputStream saida);
+
+    void excluir(Long arquivoId);
+}
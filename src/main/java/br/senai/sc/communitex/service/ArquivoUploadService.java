@@ -0,0 +1,208 @@
+package br.senai.sc.communitex.service;
+
+import br.senai.sc.communitex.exception.BusinessException;
+import br.senai.sc.communitex.exception.ForbiddenException;
+import br.senai.sc.communitex.exception.ResourceNotFoundException;
+import br.senai.sc.communitex.exception.UploadConflictException;
+import br.senai.sc.communitex.security.AuthenticatedUser;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Properties;
+import java.util.UUID;
+
+/**
+ * Uploads retomaveis no estilo tus: o cliente cria o upload informando o tamanho, envia blocos com o
+ * deslocamento atual e, ao final, conclui o upload, que vira um {@code Arquivo} sem referencias ate ser
+ * usado por uma denuncia. Os blocos ficam em disco, entao uma conexao perdida so reenvia o bloco atual
+ * e cada requisicao ocupa uma thread apenas pelo tempo de um bloco.
+ */
+@Service
+@Slf4j
+public class ArquivoUploadService {
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+    private static final String EXTENSAO_DADOS = ".parte";
+    private static final String EXTENSAO_INFO = ".info";
+
+    private final ArquivoService arquivoService;
+    private final Path diretorio;
+    private final Duration expiracao;
+
+    public ArquivoUploadService(ArquivoService arquivoService,
+                                @Value("${app.arquivos.uploads.diretorio}") Path diretorio,
+                                @Value("${app.arquivos.uploads.expiracao:PT24H}") Duration expiracao) throws IOException {
+        this.arquivoService = arquivoService;
+        this.diretorio = Files.createDirectories(diretorio.toAbsolutePath().normalize());
+        this.expiracao = expiracao;
+    }
+
+    public Upload criar(long tamanho, String nomeOriginal) {
+        if (tamanho <= 0) {
+            throw new BusinessException("O tamanho do upload deve ser maior que zero");
+        }
+        ArquivoService.validarTamanho(tamanho);
+
+        var id = UUID.randomUUID().toString();
+        var info = new Properties();
+        info.setProperty("tamanho", String.valueOf(tamanho));
+        info.setProperty("usuario", AuthenticatedUser.username());
+        if (nomeOriginal != null) {
+            info.setProperty("nome", nomeOriginal);
+        }
+        try (var escritor = Files.newBufferedWriter(caminho(id, EXTENSAO_INFO), StandardCharsets.UTF_8)) {
+            Files.createFile(caminho(id, EXTENSAO_DADOS));
+            info.store(escritor, null);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        log.info("Upload {} criado com {} bytes", id, tamanho);
+        return new Upload(id, 0, tamanho);
+    }
+
+    public Upload buscar(String id) {
+        var tamanho = Long.parseLong(info(id).getProperty("tamanho"));
+        return new Upload(id, tamanhoRecebido(id), tamanho);
+    }
+
+    /**
+     * Grava o bloco a partir de {@code deslocamento}, que precisa ser exatamente o total ja recebido.
+     * O que chegou antes de uma falha de conexao fica salvo e o cliente retoma do novo deslocamento.
+     */
+    public Upload anexar(String id, long deslocamento, InputStream bloco) {
+        var tamanho = Long.parseLong(info(id).getProperty("tamanho"));
+        try (var canal = FileChannel.open(caminho(id, EXTENSAO_DADOS), StandardOpenOption.WRITE);
+             var trava = canal.tryLock()) {
+            if (trava == null) {
+                throw new UploadConflictException("Ja existe um envio em andamento para o upload " + id);
+            }
+            var recebido = canal.size();
+            if (deslocamento != recebido) {
+                throw new UploadConflictException("Deslocamento " + deslocamento + " diferente do recebido: " + recebido);
+            }
+
+            var entrada = Channels.newChannel(bloco);
+            var buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            var posicao = recebido;
+            while (entrada.read(buffer) != -1) {
+                buffer.flip();
+                if (posicao + buffer.remaining() > tamanho) {
+                    throw new BusinessException("O bloco ultrapassa o tamanho declarado do upload");
+                }
+                while (buffer.hasRemaining()) {
+                    posicao += canal.write(buffer, posicao);
+                }
+                buffer.clear();
+            }
+            return new Upload(id, posicao, tamanho);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    public Long concluir(String id) {
+        var info = info(id);
+        var tamanho = Long.parseLong(info.getProperty("tamanho"));
+        var recebido = tamanhoRecebido(id);
+        if (recebido != tamanho) {
+            throw new UploadConflictException("Upload incompleto: " + recebido + " de " + tamanho + " bytes");
+        }
+        var arquivoId = arquivoService.salvarImagemPendente(
+                arquivoService.preparar(caminho(id, EXTENSAO_DADOS), info.getProperty("nome")), info.getProperty("usuario"));
+        remover(id);
+        log.info("Upload {} concluido como arquivo ID: {}", id, arquivoId);
+        return arquivoId;
+    }
+
+    public void cancelar(String id) {
+        info(id);
+        remover(id);
+    }
+
+    @Scheduled(fixedDelayString = "${app.arquivos.uploads.intervalo-limpeza:PT1H}",
+            initialDelayString = "${app.arquivos.uploads.intervalo-limpeza:PT1H}")
+    public int removerExpirados() {
+        var limite = Instant.now().minus(expiracao);
+        var removidos = 0;
+        try (var arquivos = Files.newDirectoryStream(diretorio, "*" + EXTENSAO_INFO)) {
+            for (var info : arquivos) {
+                var id = info.getFileName().toString().replace(EXTENSAO_INFO, "");
+                var dados = caminho(id, EXTENSAO_DADOS);
+                var ultimaAtividade = Files.exists(dados) ? Files.getLastModifiedTime(dados) : Files.getLastModifiedTime(info);
+                if (ultimaAtividade.toInstant().isBefore(limite)) {
+                    remover(id);
+                    removidos++;
+                }
+            }
+        } catch (IOException ex) {
+            log.error("Falha ao remover uploads expirados em {}", diretorio, ex);
+        }
+        if (removidos > 0) {
+            log.info("{} uploads expirados removidos", removidos);
+        }
+        return removidos;
+    }
+
+    private Properties info(String id) {
+        var info = new Properties();
+        try (var leitor = Files.newBufferedReader(caminho(id, EXTENSAO_INFO), StandardCharsets.UTF_8)) {
+            info.load(leitor);
+        } catch (NoSuchFileException ex) {
+            throw new ResourceNotFoundException("Upload nao encontrado: " + id);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        if (!AuthenticatedUser.username().equals(info.getProperty("usuario"))) {
+            throw new ForbiddenException("Upload pertence a outro usuario");
+        }
+        return info;
+    }
+
+    private long tamanhoRecebido(String id) {
+        try {
+            return Files.size(caminho(id, EXTENSAO_DADOS));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private void remover(String id) {
+        try {
+            Files.deleteIfExists(caminho(id, EXTENSAO_DADOS));
+            Files.deleteIfExists(caminho(id, EXTENSAO_INFO));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Aceita apenas UUIDs como id, o que impede que o id informado pelo cliente saia do diretorio de uploads.
+     */
+    private Path caminho(String id, String extensao) {
+        try {
+            if (!UUID.fromString(id).toString().equals(id)) {
+                throw new IllegalArgumentException(id);
+            }
+        } catch (IllegalArgumentException ex) {
+            throw new ResourceNotFoundException("Upload nao encontrado: " + id);
+        }
+        return diretorio.resolve(id + extensao);
+    }
+
+    public record Upload(String id, long deslocamento, long tamanho) {}
+}
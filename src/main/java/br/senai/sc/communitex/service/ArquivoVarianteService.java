@@ -0,0 +1,132 @@
+package br.senai.sc.communitex.service;
+
+import br.senai.sc.communitex.exception.BusinessException;
+import br.senai.sc.communitex.model.Arquivo;
+import br.senai.sc.communitex.repository.ArquivoRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.awt.Color;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Gera variantes redimensionadas (128, 480 e 1080 px de largura) das imagens enviadas, em WebP ou JPEG
+ * conforme {@link ImagemOtimizacaoService#formatoGerado()}, em um pool
+ * proprio e limitado, depois do commit do upload. Com a fila cheia a geracao e descartada e a imagem
+ * original continua sendo servida, entao o upload nunca espera pelo redimensionamento.
+ */
+@Service
+@Slf4j
+public class ArquivoVarianteService {
+
+    public static final List<Integer> LARGURAS = List.of(128, 480, 1080);
+
+    private final ArquivoRepository repository;
+    private final ArquivoService arquivoService;
+    private final ImagemOtimizacaoService otimizacaoService;
+    private final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+
+    public ArquivoVarianteService(ArquivoRepository repository, ArquivoService arquivoService,
+                                  ImagemOtimizacaoService otimizacaoService,
+                                  @Value("${app.arquivos.variantes.threads:2}") int threads,
+                                  @Value("${app.arquivos.variantes.fila:100}") int fila) {
+        this.repository = repository;
+        this.arquivoService = arquivoService;
+        this.otimizacaoService = otimizacaoService;
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(fila);
+        executor.setThreadNamePrefix("variantes-");
+        executor.initialize();
+    }
+
+    @TransactionalEventListener
+    public void aoSalvarImagem(ArquivoService.ImagemSalva evento) {
+        try {
+            executor.execute(() -> gerarVariantes(evento.arquivoId()));
+        } catch (TaskRejectedException ex) {
+            log.warn("Fila de variantes cheia; arquivo ID: {} sera servido apenas no tamanho original", evento.arquivoId());
+        }
+    }
+
+    public void gerarVariantes(Long arquivoId) {
+        try {
+            var original = arquivoService.buscarMetadados(arquivoId);
+            var bytes = new ByteArrayOutputStream(Math.toIntExact(original.getTamanhoBytes()));
+            arquivoService.transmitirConteudo(original, bytes);
+            var imagem = otimizacaoService.decodificar(bytes.toByteArray());
+            if (imagem == null) {
+                log.warn("Formato do arquivo ID: {} nao suportado para gerar variantes", arquivoId);
+                return;
+            }
+
+            var existentes = new HashSet<>(repository.findLargurasVariantes(arquivoId));
+            for (var largura : LARGURAS) {
+                if (largura >= imagem.getWidth() || existentes.contains(largura)) continue;
+                salvarVariante(arquivoId, original.getNomeOriginal(), largura,
+                        otimizacaoService.codificarGerada(redimensionar(imagem, largura)));
+            }
+        } catch (BusinessException ex) {
+            log.warn("Variantes do arquivo ID: {} nao geradas: {}", arquivoId, ex.getMessage());
+        } catch (IOException | RuntimeException ex) {
+            log.error("Falha ao gerar variantes do arquivo ID: {}", arquivoId, ex);
+        }
+    }
+
+    @PreDestroy
+    void encerrar() {
+        executor.shutdown();
+    }
+
+    private void salvarVariante(Long originalId, String nomeOriginal, int largura, byte[] conteudo) {
+        var storage = arquivoService.storageAtivo();
+        var variante = repository.save(Arquivo.builder()
+                .nomeOriginal(largura + "-" + nomeOriginal)
+                .contentType(otimizacaoService.formatoGerado())
+                .tamanhoBytes((long) conteudo.length)
+                .armazenamento(storage.tipo())
+                .originalId(originalId)
+                .largura(largura)
+                .build());
+        try {
+            storage.gravar(variante.getId(), new ByteArrayInputStream(conteudo), conteudo.length);
+        } catch (RuntimeException ex) {
+            // sem conteudo a linha faria ?w= responder 404; sem ela a largura e servida pelo original
+            repository.deleteById(variante.getId());
+            throw ex;
+        }
+    }
+
+    /**
+     * Reduz pela metade em passos bilineares ate chegar perto da largura final, o que evita o serrilhado
+     * de uma unica reducao grande sem o custo de {@code SCALE_SMOOTH}.
+     */
+    static BufferedImage redimensionar(BufferedImage imagem, int largura) {
+        var altura = Math.max(1, Math.round((float) imagem.getHeight() * largura / imagem.getWidth()));
+        var atual = imagem;
+        var larguraAtual = imagem.getWidth();
+        var alturaAtual = imagem.getHeight();
+        do {
+            larguraAtual = Math.max(largura, larguraAtual / 2);
+            alturaAtual = Math.max(altura, alturaAtual / 2);
+            var passo = new BufferedImage(larguraAtual, alturaAtual, BufferedImage.TYPE_INT_RGB);
+            var grafico = passo.createGraphics();
+            grafico.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            grafico.drawImage(atual, 0, 0, larguraAtual, alturaAtual, Color.WHITE, null);
+            grafico.dispose();
+            atual = passo;
+        } while (larguraAtual > largura || alturaAtual > altura);
+        return atual;
+    }
+}
@@ -6,14 +6,12 @@ import br.senai.sc.communitex.dto.ConcluirAtendimentoRequestDTO;
 import br.senai.sc.communitex.dto.ContestarAtendimentoRequestDTO;
 import br.senai.sc.communitex.dto.DenunciaResponseDTO;
 import br.senai.sc.communitex.enums.AtendimentoDenunciaStatus;
-import br.senai.sc.communitex.enums.InteractionType;
 import br.senai.sc.communitex.enums.IssueStatus;
 import br.senai.sc.communitex.exception.BusinessException;
 import br.senai.sc.communitex.exception.ForbiddenException;
 import br.senai.sc.communitex.exception.ResourceNotFoundException;
 import br.senai.sc.communitex.model.AtendimentoDenuncia;
 import br.senai.sc.communitex.model.Denuncia;
-import br.senai.sc.communitex.model.DenunciaInteracao;
 import br.senai.sc.communitex.model.Empresa;
 import br.senai.sc.communitex.model.Usuario;
 import br.senai.sc.communitex.repository.AtendimentoDenunciaRepository;
@@ -24,7 +22,6 @@ import br.senai.sc.communitex.security.AuthenticatedUser;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.multipart.MultipartFile;
 import br.senai.sc.communitex.util.ArquivoUrls;
 
 import java.time.LocalDateTime;
@@ -42,6 +39,8 @@ public class AtendimentoDenunciaService {
     private final EmpresaRepository empresaRepository;
     private final UsuarioRepository usuarioRepository;
     private final ArquivoService arquivoService;
+    private final DenunciaSpatialIndex spatialIndex;
+    private final MetricasPainelService metricasService;
 
     @Transactional
     public AtendimentoDenunciaResponseDTO assumir(Long denunciaId, AssumirAtendimentoRequestDTO request) {
@@ -62,9 +61,13 @@ public class AtendimentoDenunciaService {
                 .descricaoPlanejada(request.descricaoPlanejada().trim())
                 .dataAceite(LocalDateTime.now())
                 .build();
+        var metricas = metricasService.capturar(denuncia);
         denuncia.setStatus(IssueStatus.EM_ANALISE);
-        denunciaRepository.save(denuncia);
-        return toResponse(atendimentoRepository.save(atendimento));
+        spatialIndex.sincronizar(denunciaRepository.save(denuncia));
+        var saved = atendimentoRepository.save(atendimento);
+        metricasService.publicar(metricas);
+        metricasService.publicarInclusao(saved);
+        return toResponse(saved);
     }
 
     @Transactional
@@ -72,25 +75,33 @@ public class AtendimentoDenunciaService {
         var atendimento = managedAtendimento(denunciaId);
         requireDenunciaAtiva(atendimento.getDenuncia());
         requireStatus(atendimento, AtendimentoDenunciaStatus.ACEITO);
+        var metricas = metricasService.capturar(atendimento, atendimento.getDenuncia());
         atendimento.setStatus(AtendimentoDenunciaStatus.EM_ANDAMENTO);
         atendimento.setDataInicio(LocalDateTime.now());
         atendimento.getDenuncia().setStatus(IssueStatus.EM_ANDAMENTO);
-        denunciaRepository.save(atendimento.getDenuncia());
-        return toResponse(atendimentoRepository.save(atendimento));
+        spatialIndex.sincronizar(denunciaRepository.save(atendimento.getDenuncia()));
+        var saved = atendimentoRepository.save(atendimento);
+        metricasService.publicar(metricas);
+        return toResponse(saved);
     }
 
     @Transactional
-    public AtendimentoDenunciaResponseDTO concluir(Long denunciaId, ConcluirAtendimentoRequestDTO request, MultipartFile arquivo) {
+    public AtendimentoDenunciaResponseDTO concluir(Long denunciaId, ConcluirAtendimentoRequestDTO request, ArquivoService.ImagemPreparada imagem) {
         var atendimento = managedAtendimento(denunciaId);
         requireDenunciaAtiva(atendimento.getDenuncia());
         requireStatus(atendimento, AtendimentoDenunciaStatus.EM_ANDAMENTO);
+        var metricas = metricasService.capturar(atendimento, atendimento.getDenuncia());
         atendimento.setStatus(AtendimentoDenunciaStatus.CONCLUIDO_PELA_EMPRESA);
         atendimento.setDescricaoReparo(request.descricaoReparo().trim());
-        atendimento.setArquivo(arquivoService.salvarImagem(arquivo));
+        var fotoAnterior = atendimento.getArquivoId();
+        atendimento.setArquivoId(arquivoService.salvarImagem(imagem));
+        arquivoService.liberar(fotoAnterior);
         atendimento.setDataConclusaoEmpresa(LocalDateTime.now());
         atendimento.getDenuncia().setStatus(IssueStatus.AGUARDANDO_CONFIRMACAO);
-        denunciaRepository.save(atendimento.getDenuncia());
-        return toResponse(atendimentoRepository.save(atendimento));
+        spatialIndex.sincronizar(denunciaRepository.save(atendimento.getDenuncia()));
+        var saved = atendimentoRepository.save(atendimento);
+        metricasService.publicar(metricas);
+        return toResponse(saved);
     }
 
     @Transactional
@@ -98,11 +109,14 @@ public class AtendimentoDenunciaService {
         var atendimento = authorAtendimento(denunciaId);
         requireDenunciaAtiva(atendimento.getDenuncia());
         requireStatus(atendimento, AtendimentoDenunciaStatus.CONCLUIDO_PELA_EMPRESA);
+        var metricas = metricasService.capturar(atendimento, atendimento.getDenuncia());
         atendimento.setStatus(AtendimentoDenunciaStatus.CONFIRMADO_PELO_AUTOR);
         atendimento.setDataConfirmacaoAutor(LocalDateTime.now());
         atendimento.getDenuncia().setStatus(IssueStatus.RESOLVIDA);
-        denunciaRepository.save(atendimento.getDenuncia());
-        return toResponse(atendimentoRepository.save(atendimento));
+        spatialIndex.sincronizar(denunciaRepository.save(atendimento.getDenuncia()));
+        var saved = atendimentoRepository.save(atendimento);
+        metricasService.publicar(metricas);
+        return toResponse(saved);
     }
 
     @Transactional
@@ -110,11 +124,14 @@ public class AtendimentoDenunciaService {
         var atendimento = authorAtendimento(denunciaId);
         requireDenunciaAtiva(atendimento.getDenuncia());
         requireStatus(atendimento, AtendimentoDenunciaStatus.CONCLUIDO_PELA_EMPRESA);
+        var metricas = metricasService.capturar(atendimento, atendimento.getDenuncia());
         atendimento.setStatus(AtendimentoDenunciaStatus.CONTESTADO);
         atendimento.setMotivoContestacao(request.motivo().trim());
         atendimento.getDenuncia().setStatus(IssueStatus.CONTESTADA);
-        denunciaRepository.save(atendimento.getDenuncia());
-        return toResponse(atendimentoRepository.save(atendimento));
+        spatialIndex.sincronizar(denunciaRepository.save(atendimento.getDenuncia()));
+        var saved = atendimentoRepository.save(atendimento);
+        metricasService.publicar(metricas);
+        return toResponse(saved);
     }
 
     @Transactional(readOnly = true)
@@ -214,21 +231,20 @@ public class AtendimentoDenunciaService {
         return new AtendimentoDenunciaResponseDTO(
                 atendimento.getId(), denuncia.getId(), denuncia.getTitulo(), empresa.getId(), empresaNome,
                 atendimento.getStatus(), atendimento.getDescricaoPlanejada(), atendimento.getDescricaoReparo(),
-                ArquivoUrls.url(atendimento.getArquivo()), atendimento.getMotivoContestacao(), atendimento.getDataAceite(),
+                ArquivoUrls.url(atendimento.getArquivoId()), atendimento.getMotivoContestacao(), atendimento.getDataAceite(),
                 atendimento.getDataInicio(), atendimento.getDataConclusaoEmpresa(), atendimento.getDataConfirmacaoAutor(),
                 podeGerenciar, podeConfirmar
         );
     }
 
     private DenunciaResponseDTO toDenunciaDTO(Denuncia denuncia) {
-        List<DenunciaInteracao> interacoes = denuncia.getInteracoes() != null ? denuncia.getInteracoes() : List.of();
-        var apoios = interacoes.stream().filter(i -> i.getTipo() == InteractionType.APOIO).count();
         var autor = denuncia.getAutor();
         return new DenunciaResponseDTO(
                 denuncia.getId(), denuncia.getTitulo(), denuncia.getDescricao(), denuncia.getLatitude(), denuncia.getLongitude(),
-                ArquivoUrls.url(denuncia.getArquivo()), denuncia.getStatus(), denuncia.getTipo(), denuncia.getDataCriacao(),
+                ArquivoUrls.url(denuncia.getArquivoId()), denuncia.getStatus(), denuncia.getTipo(), denuncia.getDataCriacao(),
                 Boolean.TRUE.equals(denuncia.getAtiva()), autor.getId(), autor.getNome() != null ? autor.getNome() : autor.getUsername(),
-                interacoes.size(), (int) apoios
+                denuncia.getTotalInteracoes() != null ? denuncia.getTotalInteracoes() : 0,
+                denuncia.getTotalApoios() != null ? denuncia.getTotalApoios() : 0
         );
     }
 }
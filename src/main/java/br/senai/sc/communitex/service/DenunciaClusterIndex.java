@@ -0,0 +1,309 @@
+package br.senai.sc.communitex.service;
+
+import br.senai.sc.communitex.dto.DenunciaClusterDTO;
+import br.senai.sc.communitex.enums.IssueStatus;
+import br.senai.sc.communitex.enums.IssueType;
+import br.senai.sc.communitex.util.WebMercator;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Indice hierarquico de clusters (no estilo do supercluster) construido a partir do {@link DenunciaSpatialIndex}.
+ * Cada zoom agrupa os clusters do zoom seguinte que estao a menos de {@value #RAIO_PIXELS} pixels entre si,
+ * <p>
+ * Apenas a primeira leitura constroi o indice na thread da requisicao. Depois, cada alteracao do indice espacial
+ * agenda uma reconstrucao em uma thread propria enquanto as leituras continuam servindo o snapshot anterior;
+ * alteracoes que chegam durante uma reconstrucao sao agrupadas na seguinte. Ao trocar o snapshot e publicado
+ * {@link Atualizacao} com as posicoes alteradas, para quem guarda resultados derivados dos clusters.
+ */
+@Component
+@Slf4j
+public class DenunciaClusterIndex {
+
+    public static final int ZOOM_MAXIMO = 16;
+    private static final double RAIO_PIXELS = 40;
+    private static final double EXTENSAO_TILE = 512;
+    private static final int TIPOS = IssueType.values().length;
+    private static final int STATUS = IssueStatus.values().length;
+
+    private final DenunciaSpatialIndex spatialIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    private final Queue<DenunciaSpatialIndex.Alteracao> pendentes = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean agendada = new AtomicBoolean();
+
+    private volatile Snapshot snapshot;
+
+    public DenunciaClusterIndex(DenunciaSpatialIndex spatialIndex, ApplicationEventPublisher eventPublisher) {
+        this.spatialIndex = spatialIndex;
+        this.eventPublisher = eventPublisher;
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.setThreadNamePrefix("clusters-");
+        executor.initialize();
+    }
+
+    /**
+     * Publicado depois que o snapshot de clusters passou a refletir as alteracoes informadas.
+     */
+    public record Atualizacao(List<DenunciaSpatialIndex.Alteracao> alteracoes) {}
+
+    public List<DenunciaClusterDTO> buscar(double minLongitude, double minLatitude,
+                                           double maxLongitude, double maxLatitude, int zoom) {
+        var nivel = atual().niveis().get(Math.max(0, Math.min(zoom, ZOOM_MAXIMO + 1)));
+        var minY = WebMercator.y(maxLatitude);
+        var maxY = WebMercator.y(minLatitude);
+
+        var nos = new ArrayList<No>();
+        if (minLongitude <= maxLongitude) {
+            nos.addAll(nivel.buscar(WebMercator.x(minLongitude), minY, WebMercator.x(maxLongitude), maxY));
+        } else {
+            nos.addAll(nivel.buscar(WebMercator.x(minLongitude), minY, 1, maxY));
+            nos.addAll(nivel.buscar(0, minY, WebMercator.x(maxLongitude), maxY));
+        }
+        return nos.stream().map(DenunciaClusterIndex::toDTO).toList();
+    }
+
+    @EventListener
+    public void aoAlterarDenuncia(DenunciaSpatialIndex.Alteracao alteracao) {
+        pendentes.add(alteracao);
+        agendarReconstrucao();
+    }
+
+    @PreDestroy
+    void encerrar() {
+        executor.shutdown();
+    }
+
+    private Snapshot atual() {
+        var atual = snapshot;
+        if (atual == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    var versao = spatialIndex.versao();
+                    snapshot = construir(versao, spatialIndex.todas());
+                }
+                return snapshot;
+            }
+        }
+        if (atual.versao() != spatialIndex.versao()) {
+            agendarReconstrucao();
+        }
+        return atual;
+    }
+
+    private void agendarReconstrucao() {
+        if (!agendada.compareAndSet(false, true)) return;
+        try {
+            executor.execute(this::reconstruir);
+        } catch (TaskRejectedException ex) {
+            agendada.set(false);
+            log.warn("Reconstrucao do indice de clusters nao agendada; sera tentada na proxima leitura");
+        }
+    }
+
+    private void reconstruir() {
+        // liberada antes de ler o indice espacial: alteracoes a partir daqui agendam a proxima reconstrucao
+        agendada.set(false);
+        var alteracoes = new ArrayList<DenunciaSpatialIndex.Alteracao>();
+        for (var alteracao = pendentes.poll(); alteracao != null; alteracao = pendentes.poll()) {
+            alteracoes.add(alteracao);
+        }
+        try {
+            var versao = spatialIndex.versao();
+            var novo = construir(versao, spatialIndex.todas());
+            synchronized (this) {
+                snapshot = novo;
+            }
+            if (!alteracoes.isEmpty()) {
+                eventPublisher.publishEvent(new Atualizacao(alteracoes));
+            }
+        } catch (RuntimeException ex) {
+            log.error("Falha ao reconstruir o indice de clusters; mantendo o snapshot anterior", ex);
+        }
+    }
+
+    private static Snapshot construir(long versao, List<DenunciaSpatialIndex.Entrada> entradas) {
+        var pontos = new ArrayList<No>(entradas.size());
+        for (var entrada : entradas) {
+            var porTipo = new int[TIPOS];
+            var porStatus = new int[STATUS];
+            porTipo[entrada.tipo().ordinal()] = 1;
+            porStatus[entrada.status().ordinal()] = 1;
+            pontos.add(new No(WebMercator.x(entrada.longitude()), WebMercator.y(entrada.latitude()),
+                    1, porTipo, porStatus, entrada.id()));
+        }
+
+        var niveis = new Nivel[ZOOM_MAXIMO + 2];
+        niveis[ZOOM_MAXIMO + 1] = new Nivel(pontos, raio(ZOOM_MAXIMO));
+        for (int zoom = ZOOM_MAXIMO; zoom >= 0; zoom--) {
+            niveis[zoom] = new Nivel(agrupar(niveis[zoom + 1], raio(zoom)), raio(zoom));
+        }
+        log.debug("Indice de clusters reconstruido com {} denuncias", pontos.size());
+        return new Snapshot(versao, List.of(niveis));
+    }
+
+    private static List<No> agrupar(Nivel anterior, double raio) {
+        var nos = anterior.nos();
+        var visitados = new boolean[nos.size()];
+        var resultado = new ArrayList<No>();
+
+        for (int i = 0; i < nos.size(); i++) {
+            if (visitados[i]) continue;
+            visitados[i] = true;
+
+            var no = nos.get(i);
+            var vizinhos = anterior.vizinhos(no.x(), no.y(), raio).stream()
+                    .filter(j -> !visitados[j])
+                    .toList();
+            if (vizinhos.isEmpty()) {
+                resultado.add(no);
+                continue;
+            }
+
+            var total = no.total();
+            var somaX = no.x() * no.total();
+            var somaY = no.y() * no.total();
+            var porTipo = no.porTipo().clone();
+            var porStatus = no.porStatus().clone();
+            for (var j : vizinhos) {
+                visitados[j] = true;
+                var vizinho = nos.get(j);
+                total += vizinho.total();
+                somaX += vizinho.x() * vizinho.total();
+                somaY += vizinho.y() * vizinho.total();
+                somar(porTipo, vizinho.porTipo());
+                somar(porStatus, vizinho.porStatus());
+            }
+            resultado.add(new No(somaX / total, somaY / total, total, porTipo, porStatus, null));
+        }
+        return resultado;
+    }
+
+    private static DenunciaClusterDTO toDTO(No no) {
+        var tipoPredominante = 0;
+        for (int i = 1; i < TIPOS; i++) {
+            if (no.porTipo()[i] > no.porTipo()[tipoPredominante]) {
+                tipoPredominante = i;
+            }
+        }
+
+        var totalPorStatus = new EnumMap<IssueStatus, Integer>(IssueStatus.class);
+        for (var status : IssueStatus.values()) {
+            if (no.porStatus()[status.ordinal()] > 0) {
+                totalPorStatus.put(status, no.porStatus()[status.ordinal()]);
+            }
+        }
+
+        return new DenunciaClusterDTO(
+                WebMercator.latitude(no.y()),
+                WebMercator.longitude(no.x()),
+                no.total(),
+                IssueType.values()[tipoPredominante],
+                totalPorStatus,
+                no.denunciaId()
+        );
+    }
+
+    private static void somar(int[] destino, int[] origem) {
+        for (int i = 0; i < destino.length; i++) {
+            destino[i] += origem[i];
+        }
+    }
+
+    private static double raio(int zoom) {
+        return RAIO_PIXELS / (EXTENSAO_TILE * (1 << zoom));
+    }
+
+    private record Snapshot(long versao, List<Nivel> niveis) {}
+
+    private record No(double x, double y, int total, int[] porTipo, int[] porStatus, Long denunciaId) {}
+
+    private static final class Nivel {
+
+        private final List<No> nos;
+        private final double tamanhoCelula;
+        private final Map<Long, List<Integer>> grade = new HashMap<>();
+
+        private Nivel(List<No> nos, double tamanhoCelula) {
+            this.nos = nos;
+            this.tamanhoCelula = tamanhoCelula;
+            for (int i = 0; i < nos.size(); i++) {
+                var no = nos.get(i);
+                grade.computeIfAbsent(chave(celula(no.x()), celula(no.y())), chave -> new ArrayList<>()).add(i);
+            }
+        }
+
+        private List<No> nos() {
+            return nos;
+        }
+
+        private List<Integer> vizinhos(double x, double y, double raio) {
+            var resultado = new ArrayList<Integer>();
+            for (var i : indicesNoIntervalo(x - raio, y - raio, x + raio, y + raio)) {
+                var no = nos.get(i);
+                var dx = no.x() - x;
+                var dy = no.y() - y;
+                if (dx * dx + dy * dy <= raio * raio) {
+                    resultado.add(i);
+                }
+            }
+            return resultado;
+        }
+
+        private List<No> buscar(double minX, double minY, double maxX, double maxY) {
+            return indicesNoIntervalo(minX, minY, maxX, maxY).stream()
+                    .map(nos::get)
+                    .filter(no -> no.x() >= minX && no.x() <= maxX && no.y() >= minY && no.y() <= maxY)
+                    .toList();
+        }
+
+        private List<Integer> indicesNoIntervalo(double minX, double minY, double maxX, double maxY) {
+            var minCelulaX = celula(minX);
+            var maxCelulaX = celula(maxX);
+            var minCelulaY = celula(minY);
+            var maxCelulaY = celula(maxY);
+
+            var resultado = new ArrayList<Integer>();
+            if ((maxCelulaX - minCelulaX + 1) * (maxCelulaY - minCelulaY + 1) > grade.size()) {
+                for (int i = 0; i < nos.size(); i++) {
+                    resultado.add(i);
+                }
+                return resultado;
+            }
+
+            for (long celulaX = minCelulaX; celulaX <= maxCelulaX; celulaX++) {
+                for (long celulaY = minCelulaY; celulaY <= maxCelulaY; celulaY++) {
+                    var indices = grade.get(chave(celulaX, celulaY));
+                    if (indices != null) {
+                        resultado.addAll(indices);
+                    }
+                }
+            }
+            return resultado;
+        }
+
+        private long celula(double coordenada) {
+            return (long) Math.floor(coordenada / tamanhoCelula);
+        }
+
+        private static long chave(long celulaX, long celulaY) {
+            return (celulaX << 32) ^ (celulaY & 0xFFFFFFFFL);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package br.senai.sc.communitex.service;
+
+import br.senai.sc.communitex.enums.IssueType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
+
+/**
+ * Serializa a verificacao de duplicidade de denuncias do mesmo tipo em celulas vizinhas.
+ * Em PostgreSQL usa advisory locks de transacao (validos entre instancias); nos demais bancos
+ * usa locks em memoria. Em ambos os casos o lock e mantido ate o fim da transacao atual.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DenunciaDuplicateLock {
+
+    static final double TAMANHO_CELULA_GRAUS = 0.0005;
+    private static final double METROS_POR_GRAU = 111_320.0;
+    private static final int QUANTIDADE_LOCKS_LOCAIS = 256;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final List<ReentrantLock> locksLocais = IntStream.range(0, QUANTIDADE_LOCKS_LOCAIS)
+            .mapToObj(indice -> new ReentrantLock())
+            .toList();
+    private volatile Boolean postgresql;
+
+    public void bloquearVizinhanca(IssueType tipo, double latitude, double longitude, double raioMetros) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return;
+
+        var chaves = chavesDaVizinhanca(tipo, latitude, longitude, raioMetros);
+        if (isPostgresql()) {
+            chaves.forEach(chave -> jdbcTemplate.query("SELECT pg_advisory_xact_lock(?)", resultSet -> {}, chave));
+            return;
+        }
+        bloquearLocalmente(chaves);
+    }
+
+    static TreeSet<Long> chavesDaVizinhanca(IssueType tipo, double latitude, double longitude, double raioMetros) {
+        var latitudeDelta = raioMetros / METROS_POR_GRAU;
+        var longitudeScale = Math.max(Math.cos(Math.toRadians(latitude)), 0.01);
+        var longitudeDelta = raioMetros / (METROS_POR_GRAU * longitudeScale);
+
+        var chaves = new TreeSet<Long>();
+        for (long lat = celula(latitude - latitudeDelta); lat <= celula(latitude + latitudeDelta); lat++) {
+            for (long lon = celula(longitude - longitudeDelta); lon <= celula(longitude + longitudeDelta); lon++) {
+                chaves.add((((long) tipo.ordinal() * 1_000_003L) + lat) * 1_000_003L + lon);
+            }
+        }
+        return chaves;
+    }
+
+    private void bloquearLocalmente(TreeSet<Long> chaves) {
+        var locks = chaves.stream()
+                .map(chave -> (int) Math.floorMod(chave, (long) QUANTIDADE_LOCKS_LOCAIS))
+                .distinct()
+                .sorted()
+                .map(locksLocais::get)
+                .toList();
+        locks.forEach(ReentrantLock::lock);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                locks.forEach(ReentrantLock::unlock);
+            }
+        });
+    }
+
+    private boolean isPostgresql() {
+        if (postgresql == null) {
+            try {
+                postgresql = Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                        "PostgreSQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName())));
+            } catch (DataAccessException ex) {
+                log.warn("Nao foi possivel identificar o banco de dados; usando locks locais", ex);
+                postgresql = false;
+            }
+        }
+        return postgresql;
+    }
+
+    private static long celula(double graus) {
+        return (long) Math.floor(graus / TAMANHO_CELULA_GRAUS);
+    }
+}
@@ -0,0 +1,174 @@
+package br.senai.sc.communitex.service;
+
+import br.senai.sc.communitex.util.ArquivoUrls;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Exporta as denuncias ativas para dados abertos (NDJSON e GeoJSON) lendo um cursor JDBC somente-avanco
+ * e escrevendo cada linha direto na resposta, sem montar a lista em memoria.
+ * O parametro {@code desde} filtra pela data da ultima atualizacao para permitir cargas incrementais; nesse caso
+ * as denuncias desativadas no periodo tambem saem, apenas com id, {@code ativa = false} e data de atualizacao,
+ * para que o consumidor as remova da sua copia.
+ * <p>
+ * A data de atualizacao vem do relogio da aplicacao no flush, nao do commit: uma transacao aberta durante a carga
+ * pode confirmar depois com data anterior ao maior valor que o consumidor recebeu. Por isso a consulta incremental
+ * volta {@code app.exportacao.margem-atualizacao} antes de {@code desde}, e linhas ja recebidas podem vir de novo;
+ * o consumidor deve aplicar as linhas pelo id (substituindo a versao anterior), nao acrescenta-las.
+ */
+@Service
+@Slf4j
+public class DenunciaExportService {
+
+    private static final int FETCH_SIZE = 500;
+    private static final String SELECT_DENUNCIAS = "SELECT id, titulo, descricao, tipo, status, latitude, longitude, " +
+            "arquivo_id, ativa, data_criacao, data_atualizacao FROM issues ";
+    private static final String FILTRO_ATIVAS = "WHERE ativa = TRUE ";
+    private static final String FILTRO_DESDE = "WHERE data_atualizacao >= ? ";
+    private static final String ORDENACAO = "ORDER BY data_atualizacao, id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+    private final Duration margemAtualizacao;
+
+    public DenunciaExportService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                 ObjectMapper objectMapper,
+                                 @Value("${app.exportacao.margem-atualizacao:PT5M}") Duration margemAtualizacao) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionManager = transactionManager;
+        this.objectMapper = objectMapper;
+        this.margemAtualizacao = margemAtualizacao;
+    }
+
+    public void exportarNdjson(LocalDateTime desde, OutputStream saida) throws IOException {
+        try (var json = gerador(saida)) {
+            var total = percorrer(desde, resultSet -> {
+                if (resultSet.getBoolean("ativa")) {
+                    escreverPropriedades(json, resultSet, true);
+                } else {
+                    escreverRemocao(json, resultSet);
+                }
+                json.writeRaw('\n');
+            });
+            log.info("Exportacao NDJSON concluida com {} denuncias", total);
+        }
+    }
+
+    public void exportarGeoJson(LocalDateTime desde, OutputStream saida) throws IOException {
+        try (var json = gerador(saida)) {
+            json.writeStartObject();
+            json.writeStringField("type", "FeatureCollection");
+            json.writeArrayFieldStart("features");
+            var total = percorrer(desde, resultSet -> {
+                json.writeStartObject();
+                json.writeStringField("type", "Feature");
+                json.writeNumberField("id", resultSet.getLong("id"));
+                if (!resultSet.getBoolean("ativa")) {
+                    json.writeNullField("geometry");
+                    json.writeFieldName("properties");
+                    escreverRemocao(json, resultSet);
+                    json.writeEndObject();
+                    return;
+                }
+                json.writeObjectFieldStart("geometry");
+                json.writeStringField("type", "Point");
+                json.writeArrayFieldStart("coordinates");
+                json.writeNumber(resultSet.getDouble("longitude"));
+                json.writeNumber(resultSet.getDouble("latitude"));
+                json.writeEndArray();
+                json.writeEndObject();
+                json.writeFieldName("properties");
+                escreverPropriedades(json, resultSet, false);
+                json.writeEndObject();
+            });
+            json.writeEndArray();
+            json.writeEndObject();
+            log.info("Exportacao GeoJSON concluida com {} denuncias", total);
+        }
+    }
+
+    private long percorrer(LocalDateTime desde, Linha linha) {
+        var sql = SELECT_DENUNCIAS + (desde == null ? FILTRO_ATIVAS : FILTRO_DESDE) + ORDENACAO;
+        var total = new long[1];
+        RowCallbackHandler handler = resultSet -> {
+            try {
+                linha.escrever(resultSet);
+                total[0]++;
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        };
+
+        var transacao = new TransactionTemplate(transactionManager);
+        transacao.setReadOnly(true);
+        transacao.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(FETCH_SIZE);
+            if (desde != null) {
+                statement.setTimestamp(1, Timestamp.valueOf(desde.minus(margemAtualizacao)));
+            }
+            return statement;
+        }, handler));
+        return total[0];
+    }
+
+    private void escreverPropriedades(JsonGenerator json, ResultSet resultSet, boolean incluirCoordenadas)
+            throws IOException, SQLException {
+        json.writeStartObject();
+        json.writeNumberField("id", resultSet.getLong("id"));
+        json.writeStringField("titulo", resultSet.getString("titulo"));
+        json.writeStringField("descricao", resultSet.getString("descricao"));
+        json.writeStringField("tipo", resultSet.getString("tipo"));
+        json.writeStringField("status", resultSet.getString("status"));
+        json.writeBooleanField("ativa", true);
+        if (incluirCoordenadas) {
+            json.writeNumberField("latitude", resultSet.getDouble("latitude"));
+            json.writeNumberField("longitude", resultSet.getDouble("longitude"));
+        }
+        var arquivoId = resultSet.getLong("arquivo_id");
+        json.writeStringField("fotoUrl", resultSet.wasNull() ? null : ArquivoUrls.url(arquivoId));
+        json.writeStringField("dataCriacao", texto(resultSet.getTimestamp("data_criacao")));
+        json.writeStringField("dataAtualizacao", texto(resultSet.getTimestamp("data_atualizacao")));
+        json.writeEndObject();
+    }
+
+    private void escreverRemocao(JsonGenerator json, ResultSet resultSet) throws IOException, SQLException {
+        json.writeStartObject();
+        json.writeNumberField("id", resultSet.getLong("id"));
+        json.writeBooleanField("ativa", false);
+        json.writeStringField("dataAtualizacao", texto(resultSet.getTimestamp("data_atualizacao")));
+        json.writeEndObject();
+    }
+
+    private JsonGenerator gerador(OutputStream saida) throws IOException {
+        return objectMapper.getFactory().createGenerator(saida)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .setRootValueSeparator(null);
+    }
+
+    private static String texto(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime().toString();
+    }
+
+    @FunctionalInterface
+    private interface Linha {
+        void escrever(ResultSet resultSet) throws IOException, SQLException;
+    }
+}
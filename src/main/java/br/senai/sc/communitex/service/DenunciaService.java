@@ -1,5 +1,7 @@
 package br.senai.sc.communitex.service;
 
+import br.senai.sc.communitex.dto.CursorPageDTO;
+import br.senai.sc.communitex.dto.DenunciaClusterDTO;
 import br.senai.sc.communitex.dto.DenunciaDetailResponseDTO;
 import br.senai.sc.communitex.dto.DenunciaInteracaoRequestDTO;
 import br.senai.sc.communitex.dto.DenunciaInteracaoResponseDTO;
@@ -8,13 +10,12 @@ import br.senai.sc.communitex.dto.DenunciaResponseDTO;
 import br.senai.sc.communitex.enums.IssueStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
 
 public interface DenunciaService {
 
-    DenunciaResponseDTO criar(DenunciaRequestDTO dto, MultipartFile arquivo);
+    DenunciaResponseDTO criar(DenunciaRequestDTO dto, ArquivoService.ImagemPreparada imagem);
 
     DenunciaResponseDTO buscarPorId(Long id);
 
@@ -24,8 +25,14 @@ public interface DenunciaService {
 
     Page<DenunciaResponseDTO> listarTodas(Pageable pageable, boolean incluirInativas);
 
+    CursorPageDTO<DenunciaResponseDTO> listarPorCursor(String cursor, Integer limite, boolean incluirInativas);
+
     List<DenunciaResponseDTO> buscarPorProximidade(Double latitude, Double longitude, Double radiusMeters);
 
+    List<DenunciaResponseDTO> buscarMaisProximas(Double latitude, Double longitude, Integer limite);
+
+    List<DenunciaClusterDTO> buscarClusters(String bbox, Integer zoom);
+
     DenunciaResponseDTO atualizarStatus(Long id, IssueStatus status);
 
     DenunciaResponseDTO inativar(Long id);
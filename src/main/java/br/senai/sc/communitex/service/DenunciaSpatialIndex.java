@@ -0,0 +1,240 @@
+package br.senai.sc.communitex.service;
+
+import br.senai.sc.communitex.enums.IssueStatus;
+import br.senai.sc.communitex.enums.IssueType;
+import br.senai.sc.communitex.model.Denuncia;
+import br.senai.sc.communitex.repository.DenunciaRepository;
+import br.senai.sc.communitex.util.AposCommit;
+import br.senai.sc.communitex.util.Haversine;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Indice em memoria das denuncias ativas, agrupadas por celula de geohash (6 caracteres, ~1,2 km x 0,6 km).
+ * Alteracoes feitas dentro de uma transacao so sao aplicadas apos o commit.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DenunciaSpatialIndex {
+
+    private static final int BITS_POR_EIXO = 15;
+    private static final int DIVISOES = 1 << BITS_POR_EIXO;
+    private static final double METROS_POR_GRAU = 111_320.0;
+    private static final double RAIO_INICIAL_KNN_METROS = 500.0;
+    private static final double MEIA_CIRCUNFERENCIA_METROS = 20_037_508.0;
+
+    private final DenunciaRepository denunciaRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Map<Long, Map<Long, Entrada>> celulas = new ConcurrentHashMap<>();
+    private final Map<Long, Entrada> porId = new ConcurrentHashMap<>();
+    private final AtomicLong versao = new AtomicLong();
+    private volatile boolean carregado;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void aoIniciar() {
+        garantirCarregado();
+    }
+
+    public synchronized void recarregar() {
+        celulas.clear();
+        porId.clear();
+        denunciaRepository.findLocalizacoesAtivas().forEach(localizacao -> inserir(new Entrada(
+                localizacao.getId(),
+                localizacao.getLatitude(),
+                localizacao.getLongitude(),
+                localizacao.getTipo(),
+                localizacao.getStatus()
+        )));
+        carregado = true;
+        versao.incrementAndGet();
+        log.info("Indice espacial de denuncias carregado com {} denuncias ativas", porId.size());
+    }
+
+    public void sincronizar(Denuncia denuncia) {
+        if (denuncia == null || denuncia.getId() == null) return;
+        var ativa = Boolean.TRUE.equals(denuncia.getAtiva());
+        var entrada = new Entrada(denuncia.getId(), denuncia.getLatitude(), denuncia.getLongitude(),
+                denuncia.getTipo(), denuncia.getStatus());
+        AposCommit.executar(() -> {
+            if (ativa) {
+                atualizar(entrada);
+            } else {
+                remover(entrada.id());
+            }
+        });
+    }
+
+    public List<Entrada> buscarPorRaio(double latitude, double longitude, double raioMetros) {
+        garantirCarregado();
+
+        var latitudeDelta = raioMetros / METROS_POR_GRAU;
+        var longitudeScale = Math.max(Math.cos(Math.toRadians(latitude)), 0.01);
+        var longitudeDelta = raioMetros / (METROS_POR_GRAU * longitudeScale);
+
+        var resultado = new ArrayList<Resultado>();
+        for (var celula : celulasNoIntervalo(latitude - latitudeDelta, latitude + latitudeDelta,
+                longitude - longitudeDelta, longitude + longitudeDelta)) {
+            for (var entrada : celula.values()) {
+                var distancia = Haversine.distanciaMetros(latitude, longitude, entrada.latitude(), entrada.longitude());
+                if (distancia <= raioMetros) {
+                    resultado.add(new Resultado(entrada, distancia));
+                }
+            }
+        }
+        return resultado.stream()
+                .sorted(Comparator.comparingDouble(Resultado::distancia))
+                .map(Resultado::entrada)
+                .toList();
+    }
+
+    public List<Entrada> buscarMaisProximas(double latitude, double longitude, int limite) {
+        garantirCarregado();
+
+        var raio = RAIO_INICIAL_KNN_METROS;
+        while (true) {
+            var resultado = buscarPorRaio(latitude, longitude, raio);
+            if (resultado.size() >= limite || raio >= MEIA_CIRCUNFERENCIA_METROS || resultado.size() == porId.size()) {
+                return resultado.stream().limit(limite).toList();
+            }
+            raio = Math.min(raio * 4, MEIA_CIRCUNFERENCIA_METROS);
+        }
+    }
+
+    public List<Entrada> todas() {
+        garantirCarregado();
+        return List.copyOf(porId.values());
+    }
+
+    public long versao() {
+        garantirCarregado();
+        return versao.get();
+    }
+
+    private static long geohash(double latitude, double longitude) {
+        return intercalar(indiceLatitude(latitude), indiceLongitude(longitude));
+    }
+
+    private List<Map<Long, Entrada>> celulasNoIntervalo(double minLatitude, double maxLatitude,
+                                                        double minLongitude, double maxLongitude) {
+        var minLat = indiceLatitude(minLatitude);
+        var maxLat = indiceLatitude(maxLatitude);
+        var minLon = indiceLongitude(minLongitude);
+        var maxLon = indiceLongitude(maxLongitude);
+
+        var quantidade = (long) (maxLat - minLat + 1) * (maxLon - minLon + 1);
+        if (quantidade > celulas.size()) {
+            return celulas.entrySet().stream()
+                    .filter(celula -> contem(celula.getKey(), minLat, maxLat, minLon, maxLon))
+                    .map(Map.Entry::getValue)
+                    .toList();
+        }
+
+        var resultado = new ArrayList<Map<Long, Entrada>>();
+        for (int lat = minLat; lat <= maxLat; lat++) {
+            for (int lon = minLon; lon <= maxLon; lon++) {
+                var celula = celulas.get(intercalar(lat, lon));
+                if (celula != null) {
+                    resultado.add(celula);
+                }
+            }
+        }
+        return resultado;
+    }
+
+    private void garantirCarregado() {
+        if (!carregado) {
+            synchronized (this) {
+                if (!carregado) {
+                    recarregar();
+                }
+            }
+        }
+    }
+
+    private synchronized void atualizar(Entrada entrada) {
+        var anterior = retirar(entrada.id());
+        inserir(entrada);
+        versao.incrementAndGet();
+        if (anterior != null && (anterior.latitude() != entrada.latitude() || anterior.longitude() != entrada.longitude())) {
+            eventPublisher.publishEvent(new Alteracao(anterior.latitude(), anterior.longitude()));
+        }
+        eventPublisher.publishEvent(new Alteracao(entrada.latitude(), entrada.longitude()));
+    }
+
+    private synchronized void remover(Long id) {
+        var anterior = retirar(id);
+        if (anterior == null) return;
+        versao.incrementAndGet();
+        eventPublisher.publishEvent(new Alteracao(anterior.latitude(), anterior.longitude()));
+    }
+
+    private Entrada retirar(Long id) {
+        var anterior = porId.remove(id);
+        if (anterior != null) {
+            celulas.computeIfPresent(geohash(anterior.latitude(), anterior.longitude()), (chave, celula) -> {
+                celula.remove(id);
+                return celula.isEmpty() ? null : celula;
+            });
+        }
+        return anterior;
+    }
+
+    private void inserir(Entrada entrada) {
+        porId.put(entrada.id(), entrada);
+        celulas.computeIfAbsent(geohash(entrada.latitude(), entrada.longitude()), chave -> new ConcurrentHashMap<>())
+                .put(entrada.id(), entrada);
+    }
+
+    private static boolean contem(long geohash, int minLat, int maxLat, int minLon, int maxLon) {
+        int lat = 0;
+        int lon = 0;
+        for (int bit = 0; bit < BITS_POR_EIXO; bit++) {
+            lat |= (int) ((geohash >> (2 * bit)) & 1) << bit;
+            lon |= (int) ((geohash >> (2 * bit + 1)) & 1) << bit;
+        }
+        return lat >= minLat && lat <= maxLat && lon >= minLon && lon <= maxLon;
+    }
+
+    private static long intercalar(int indiceLatitude, int indiceLongitude) {
+        long hash = 0;
+        for (int bit = BITS_POR_EIXO - 1; bit >= 0; bit--) {
+            hash = (hash << 1) | ((indiceLongitude >> bit) & 1);
+            hash = (hash << 1) | ((indiceLatitude >> bit) & 1);
+        }
+        return hash;
+    }
+
+    private static int indiceLatitude(double latitude) {
+        return indice((latitude + 90) / 180);
+    }
+
+    private static int indiceLongitude(double longitude) {
+        return indice((longitude + 180) / 360);
+    }
+
+    private static int indice(double fracao) {
+        return (int) Math.min(DIVISOES - 1, Math.max(0, Math.floor(fracao * DIVISOES)));
+    }
+
+    public record Entrada(Long id, double latitude, double longitude, IssueType tipo, IssueStatus status) {}
+
+    /**
+     * Publicado apos o indice refletir a inclusao, alteracao ou remocao de uma denuncia na posicao informada.
+     */
+    public record Alteracao(double latitude, double longitude) {}
+
+    private record Resultado(Entrada entrada, double distancia) {}
+}
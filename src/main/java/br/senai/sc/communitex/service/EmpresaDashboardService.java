@@ -5,6 +5,7 @@ import br.senai.sc.communitex.dto.PracaResponseDTO;
 import br.senai.sc.communitex.dto.PropostaEmpresaDTO;
 import br.senai.sc.communitex.dto.ReparoEmpresaResumoDTO;
 import br.senai.sc.communitex.enums.AtendimentoDenunciaStatus;
+import br.senai.sc.communitex.enums.EscopoMetrica;
 import br.senai.sc.communitex.enums.StatusAdocao;
 import br.senai.sc.communitex.enums.StatusPraca;
 import br.senai.sc.communitex.exception.ForbiddenException;
@@ -17,19 +18,19 @@ import br.senai.sc.communitex.repository.EmpresaRepository;
 import br.senai.sc.communitex.repository.PracaRepository;
 import br.senai.sc.communitex.security.AuthenticatedUser;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import br.senai.sc.communitex.util.ArquivoUrls;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
-import java.util.Comparator;
-import java.util.List;
 import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 public class EmpresaDashboardService {
 
+    private static final Limit RECENTES = Limit.of(5);
     private static final Set<StatusAdocao> STATUS_EM_ANALISE = Set.of(StatusAdocao.PROPOSTA, StatusAdocao.EM_ANALISE);
     private static final Set<StatusAdocao> STATUS_ADOTADA = Set.of(StatusAdocao.APROVADA, StatusAdocao.CONCLUIDA);
     private static final Set<AtendimentoDenunciaStatus> STATUS_REPAROS_ATIVOS = Set.of(
@@ -42,38 +43,30 @@ public class EmpresaDashboardService {
     private final PracaRepository pracaRepository;
     private final AdocaoRepository adocaoRepository;
     private final AtendimentoDenunciaRepository atendimentoRepository;
+    private final MetricasPainelService metricasService;
 
     @Transactional(readOnly = true)
     public EmpresaDashboardDTO obterDashboard() {
         var empresa = getEmpresaFromAuthenticatedUser();
-        var propostas = adocaoRepository.findByEmpresaId(empresa.getId());
-        var reparos = atendimentoRepository.findByEmpresaIdOrderByDataAceiteDesc(empresa.getId()).stream()
-                .filter(reparo -> reparo.getDenuncia() != null && Boolean.TRUE.equals(reparo.getDenuncia().getAtiva()))
-                .toList();
-
-        var propostasEmAnalise = countPropostas(propostas, STATUS_EM_ANALISE);
-        var propostasAprovadas = countPropostas(propostas, STATUS_ADOTADA);
-        var propostasRejeitadas = countPropostas(propostas, Set.of(StatusAdocao.REJEITADA));
-        var areaTotal = propostas.stream()
-                .filter(proposta -> STATUS_ADOTADA.contains(proposta.getStatus()))
-                .map(Adocao::getPraca)
-                .filter(praca -> praca != null && praca.getMetragemM2() != null)
-                .mapToDouble(praca -> praca.getMetragemM2())
-                .sum();
-        var proximasDoFim = propostas.stream()
-                .filter(proposta -> STATUS_ADOTADA.contains(proposta.getStatus()))
-                .filter(proposta -> proposta.getDataFim() != null)
-                .filter(proposta -> !proposta.getDataFim().isBefore(LocalDate.now()))
-                .filter(proposta -> !proposta.getDataFim().isAfter(LocalDate.now().plusDays(30)))
-                .count();
-        var taxaAprovacao = propostas.isEmpty()
+        var totais = metricasService.totais(EscopoMetrica.EMPRESA, empresa.getId());
+        var totalPropostas = totais.quantidade(MetricasPainelService.ADOCAO);
+        var propostasEmAnalise = totais.quantidade(MetricasPainelService.ADOCAO, STATUS_EM_ANALISE);
+        var propostasAprovadas = totais.quantidade(MetricasPainelService.ADOCAO, STATUS_ADOTADA);
+        var propostasRejeitadas = totais.quantidade(MetricasPainelService.ADOCAO, StatusAdocao.REJEITADA);
+        var areaTotal = totais.soma(MetricasPainelService.ADOCAO_AREA, STATUS_ADOTADA);
+        var hoje = LocalDate.now();
+        var proximasDoFim = metricasService.somarNoPeriodo(EscopoMetrica.EMPRESA, empresa.getId(),
+                MetricasPainelService.metricas(MetricasPainelService.ADOCAO_FIM, STATUS_ADOTADA), hoje, hoje.plusDays(30));
+        var taxaAprovacao = totalPropostas == 0
                 ? 0
-                : Math.round((propostasAprovadas * 1000.0) / propostas.size()) / 10.0;
+                : Math.round((propostasAprovadas * 1000.0) / totalPropostas) / 10.0;
+        var pracasDisponiveis = metricasService.totais(EscopoMetrica.GERAL, MetricasPainelService.ESCOPO_GERAL_ID)
+                .quantidade(MetricasPainelService.PRACA, StatusPraca.DISPONIVEL);
 
         return new EmpresaDashboardDTO(
                 displayName(empresa),
-                pracaRepository.countByStatus(StatusPraca.DISPONIVEL),
-                propostas.size(),
+                pracasDisponiveis,
+                totalPropostas,
                 propostasEmAnalise,
                 propostasAprovadas,
                 propostasRejeitadas,
@@ -81,31 +74,23 @@ public class EmpresaDashboardService {
                 areaTotal,
                 taxaAprovacao,
                 proximasDoFim,
-                reparos.size(),
-                countReparos(reparos, STATUS_REPAROS_ATIVOS),
-                countReparos(reparos, Set.of(AtendimentoDenunciaStatus.ACEITO)),
-                countReparos(reparos, Set.of(AtendimentoDenunciaStatus.EM_ANDAMENTO)),
-                countReparos(reparos, Set.of(AtendimentoDenunciaStatus.CONCLUIDO_PELA_EMPRESA)),
-                countReparos(reparos, Set.of(AtendimentoDenunciaStatus.CONFIRMADO_PELO_AUTOR)),
-                countReparos(reparos, Set.of(AtendimentoDenunciaStatus.CONTESTADO)),
+                totais.quantidade(MetricasPainelService.REPARO),
+                totais.quantidade(MetricasPainelService.REPARO, STATUS_REPAROS_ATIVOS),
+                totais.quantidade(MetricasPainelService.REPARO, AtendimentoDenunciaStatus.ACEITO),
+                totais.quantidade(MetricasPainelService.REPARO, AtendimentoDenunciaStatus.EM_ANDAMENTO),
+                totais.quantidade(MetricasPainelService.REPARO, AtendimentoDenunciaStatus.CONCLUIDO_PELA_EMPRESA),
+                totais.quantidade(MetricasPainelService.REPARO, AtendimentoDenunciaStatus.CONFIRMADO_PELO_AUTOR),
+                totais.quantidade(MetricasPainelService.REPARO, AtendimentoDenunciaStatus.CONTESTADO),
                 pracaRepository.findTop4ByStatusOrderByIdDesc(StatusPraca.DISPONIVEL).stream().map(this::toPracaDTO).toList(),
-                propostas.stream()
-                        .sorted(Comparator.comparing(Adocao::getDataInicio, Comparator.nullsLast(Comparator.reverseOrder())))
-                        .limit(5)
+                adocaoRepository.findRecentesByEmpresaId(empresa.getId(), RECENTES).stream()
                         .map(this::toPropostaDTO)
                         .toList(),
-                reparos.stream().limit(5).map(this::toReparoResumoDTO).toList()
+                atendimentoRepository.findByEmpresaIdAndDenunciaAtivaTrueOrderByDataAceiteDescIdDesc(empresa.getId(), RECENTES).stream()
+                        .map(this::toReparoResumoDTO)
+                        .toList()
         );
     }
 
-    private long countPropostas(List<Adocao> propostas, Set<StatusAdocao> statuses) {
-        return propostas.stream().filter(proposta -> statuses.contains(proposta.getStatus())).count();
-    }
-
-    private long countReparos(List<AtendimentoDenuncia> reparos, Set<AtendimentoDenunciaStatus> statuses) {
-        return reparos.stream().filter(reparo -> statuses.contains(reparo.getStatus())).count();
-    }
-
     private Empresa getEmpresaFromAuthenticatedUser() {
         var username = AuthenticatedUser.username();
         return empresaRepository.buscarPorUsuarioRepresentanteUsername(username)
@@ -121,7 +106,7 @@ public class EmpresaDashboardService {
     private PracaResponseDTO toPracaDTO(br.senai.sc.communitex.model.Praca praca) {
         return new PracaResponseDTO(
                 praca.getId(), praca.getNome(), praca.getLogradouro(), praca.getBairro(), praca.getCidade(),
-                praca.getLatitude(), praca.getLongitude(), praca.getDescricao(), ArquivoUrls.url(praca.getArquivo()),
+                praca.getLatitude(), praca.getLongitude(), praca.getDescricao(), ArquivoUrls.url(praca.getArquivoId()),
                 praca.getMetragemM2(), praca.getStatus()
         );
     }
@@ -0,0 +1,218 @@
+package br.senai.sc.communitex.service;
+
+import br.senai.sc.communitex.exception.BusinessException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import java.awt.Color;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Converte as fotos JPEG e PNG recebidas para WebP com perda na qualidade configurada. A imagem e
+ * decodificada e codificada de novo sem copiar metadados, o que descarta o EXIF (inclusive a localizacao
+ * GPS de quem fez a denuncia); a orientacao do EXIF e aplicada nos pixels antes disso.
+ * A decodificacao ocupa a imagem inteira em memoria, entao o numero de conversoes simultaneas e limitado e
+ * imagens acima de {@code megapixels-maximo} sao recusadas pelas dimensoes do cabecalho, antes de decodificar:
+ * um PNG de cor solida com poucos KB pode declarar dezenas de milhares de pixels de lado.
+ */
+@Service
+@Slf4j
+public class ImagemOtimizacaoService {
+
+    public static final String WEBP = "image/webp";
+    public static final String JPEG = "image/jpeg";
+    private static final Set<String> FORMATOS_CONVERTIDOS = Set.of(JPEG, "image/png");
+    private static final float QUALIDADE_JPEG = 0.82f;
+    private static final int MARCADOR_APP1 = 0xE1;
+    private static final int MARCADOR_SOS = 0xDA;
+    private static final int TAG_ORIENTACAO = 0x0112;
+
+    private final boolean habilitada;
+    private final float qualidade;
+    private final Semaphore conversoes;
+    private final long pixelsMaximo;
+
+    public ImagemOtimizacaoService(@Value("${app.arquivos.otimizacao.habilitada:true}") boolean habilitada,
+                                   @Value("${app.arquivos.otimizacao.qualidade:0.8}") float qualidade,
+                                   @Value("${app.arquivos.otimizacao.simultaneas:2}") int simultaneas,
+                                   @Value("${app.arquivos.otimizacao.megapixels-maximo:25}") int megapixelsMaximo) {
+        if (qualidade <= 0 || qualidade > 1) {
+            throw new IllegalArgumentException("app.arquivos.otimizacao.qualidade deve estar entre 0 e 1");
+        }
+        var encoderDisponivel = ImageIO.getImageWritersByMIMEType(WEBP).hasNext();
+        if (habilitada && !encoderDisponivel) {
+            log.warn("Encoder WebP indisponivel nesta plataforma; imagens serao gravadas como enviadas");
+        }
+        this.habilitada = habilitada && encoderDisponivel;
+        this.qualidade = qualidade;
+        this.conversoes = new Semaphore(simultaneas, true);
+        this.pixelsMaximo = megapixelsMaximo * 1_000_000L;
+    }
+
+    public boolean converte(String contentType) {
+        return habilitada && FORMATOS_CONVERTIDOS.contains(contentType);
+    }
+
+    /**
+     * Decodifica a imagem e devolve o conteudo em WebP, ja na orientacao correta e sem metadados.
+     */
+    public byte[] otimizar(InputStream entrada, String contentType) throws IOException {
+        conversoes.acquireUninterruptibly();
+        try {
+            var original = entrada.readAllBytes();
+            var imagem = decodificar(original);
+            if (imagem == null) {
+                throw new BusinessException("Nao foi possivel ler a imagem enviada");
+            }
+            var orientacao = JPEG.equals(contentType) ? orientacaoExif(original) : 1;
+            return codificar(orientar(imagem, orientacao), WEBP, qualidade);
+        } finally {
+            conversoes.release();
+        }
+    }
+
+    /**
+     * Decodifica a imagem depois de conferir largura e altura no cabecalho; {@code null} quando o formato
+     * nao e suportado, como {@link ImageIO#read}.
+     */
+    public BufferedImage decodificar(byte[] conteudo) throws IOException {
+        try (var entrada = ImageIO.createImageInputStream(new ByteArrayInputStream(conteudo))) {
+            var leitores = ImageIO.getImageReaders(entrada);
+            if (!leitores.hasNext()) return null;
+            var leitor = leitores.next();
+            try {
+                leitor.setInput(entrada, true, true);
+                if ((long) leitor.getWidth(0) * leitor.getHeight(0) > pixelsMaximo) {
+                    throw new BusinessException("A imagem deve ter no maximo " + pixelsMaximo / 1_000_000 + " megapixels");
+                }
+                return leitor.read(0);
+            } finally {
+                leitor.dispose();
+            }
+        }
+    }
+
+    /**
+     * Formato usado para imagens geradas pelo sistema (variantes): WebP quando a conversao esta ativa, senao JPEG.
+     */
+    public String formatoGerado() {
+        return habilitada ? WEBP : JPEG;
+    }
+
+    public byte[] codificarGerada(BufferedImage imagem) throws IOException {
+        return habilitada ? codificar(imagem, WEBP, qualidade) : codificar(imagem, JPEG, QUALIDADE_JPEG);
+    }
+
+    static byte[] codificar(BufferedImage imagem, String formato, float qualidade) throws IOException {
+        var writer = ImageIO.getImageWritersByMIMEType(formato).next();
+        var saida = new ByteArrayOutputStream();
+        try (var imagemSaida = ImageIO.createImageOutputStream(saida)) {
+            writer.setOutput(imagemSaida);
+            var parametros = writer.getDefaultWriteParam();
+            parametros.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            parametros.setCompressionType(parametros.getCompressionTypes()[0]);
+            parametros.setCompressionQuality(qualidade);
+            writer.write(null, new IIOImage(imagem, null, null), parametros);
+        } finally {
+            writer.dispose();
+        }
+        return saida.toByteArray();
+    }
+
+    /**
+     * Le a tag Orientation (0x0112) do IFD0 no segmento APP1/Exif de um JPEG; 1 quando ausente ou invalida.
+     */
+    static int orientacaoExif(byte[] jpeg) {
+        var posicao = 2;
+        while (posicao + 4 <= jpeg.length && (jpeg[posicao] & 0xFF) == 0xFF) {
+            var marcador = jpeg[posicao + 1] & 0xFF;
+            var tamanho = ((jpeg[posicao + 2] & 0xFF) << 8) | (jpeg[posicao + 3] & 0xFF);
+            if (marcador == MARCADOR_SOS) break;
+            var inicio = posicao + 4;
+            if (marcador == MARCADOR_APP1 && tamanho >= 16 && inicio + tamanho - 2 <= jpeg.length
+                    && jpeg[inicio] == 'E' && jpeg[inicio + 1] == 'x' && jpeg[inicio + 2] == 'i' && jpeg[inicio + 3] == 'f') {
+                return orientacaoTiff(jpeg, inicio + 6, inicio + tamanho - 2);
+            }
+            posicao = inicio + tamanho - 2;
+        }
+        return 1;
+    }
+
+    private static int orientacaoTiff(byte[] dados, int tiff, int fim) {
+        try {
+            return orientacaoIfd0(dados, tiff, fim);
+        } catch (IndexOutOfBoundsException ex) {
+            return 1;
+        }
+    }
+
+    private static int orientacaoIfd0(byte[] dados, int tiff, int fim) {
+        if (tiff + 8 > fim) return 1;
+        var littleEndian = dados[tiff] == 'I';
+        // deslocamento sem sinal de 32 bits: como long, valores acima de 2^31 nao viram indices negativos
+        var ifd = tiff + inteiro(dados, tiff + 4, 4, littleEndian);
+        if (ifd < tiff + 8 || ifd + 2 > fim) return 1;
+        var entradas = (int) inteiro(dados, (int) ifd, 2, littleEndian);
+        for (int i = 0; i < entradas; i++) {
+            var entrada = (int) ifd + 2 + i * 12;
+            if (entrada + 12 > fim) break;
+            if (inteiro(dados, entrada, 2, littleEndian) == TAG_ORIENTACAO) {
+                var valor = (int) inteiro(dados, entrada + 8, 2, littleEndian);
+                return valor >= 1 && valor <= 8 ? valor : 1;
+            }
+        }
+        return 1;
+    }
+
+    private static long inteiro(byte[] dados, int posicao, int bytes, boolean littleEndian) {
+        long valor = 0;
+        for (int i = 0; i < bytes; i++) {
+            var indice = littleEndian ? posicao + bytes - 1 - i : posicao + i;
+            valor = (valor << 8) | (dados[indice] & 0xFF);
+        }
+        return valor;
+    }
+
+    /**
+     * Desenha a imagem em RGB (ou ARGB, se tiver transparencia) aplicando a orientacao EXIF, de 1 a 8.
+     */
+    static BufferedImage orientar(BufferedImage imagem, int orientacao) {
+        var largura = imagem.getWidth();
+        var altura = imagem.getHeight();
+        var transposta = orientacao >= 5;
+        var transformacao = switch (orientacao) {
+            case 2 -> new AffineTransform(-1, 0, 0, 1, largura, 0);
+            case 3 -> new AffineTransform(-1, 0, 0, -1, largura, altura);
+            case 4 -> new AffineTransform(1, 0, 0, -1, 0, altura);
+            case 5 -> new AffineTransform(0, 1, 1, 0, 0, 0);
+            case 6 -> new AffineTransform(0, 1, -1, 0, altura, 0);
+            case 7 -> new AffineTransform(0, -1, -1, 0, altura, largura);
+            case 8 -> new AffineTransform(0, -1, 1, 0, 0, largura);
+            default -> new AffineTransform();
+        };
+        var alfa = imagem.getColorModel().hasAlpha();
+        var tipo = alfa ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        if (orientacao == 1 && imagem.getType() == tipo) return imagem;
+
+        var resultado = new BufferedImage(transposta ? altura : largura, transposta ? largura : altura, tipo);
+        var grafico = resultado.createGraphics();
+        if (!alfa) {
+            grafico.setColor(Color.WHITE);
+            grafico.fillRect(0, 0, resultado.getWidth(), resultado.getHeight());
+        }
+        grafico.drawImage(imagem, transformacao, null);
+        grafico.dispose();
+        return resultado;
+    }
+}
@@ -0,0 +1,538 @@
+package br.senai.sc.communitex.service;
+
+import br.senai.sc.communitex.enums.AtendimentoDenunciaStatus;
+import br.senai.sc.communitex.enums.EscopoMetrica;
+import br.senai.sc.communitex.enums.InteractionType;
+import br.senai.sc.communitex.enums.IssueStatus;
+import br.senai.sc.communitex.enums.StatusAdocao;
+import br.senai.sc.communitex.enums.StatusPraca;
+import br.senai.sc.communitex.model.Adocao;
+import br.senai.sc.communitex.model.AtendimentoDenuncia;
+import br.senai.sc.communitex.model.Denuncia;
+import br.senai.sc.communitex.model.DenunciaInteracao;
+import br.senai.sc.communitex.model.MetricaDiaria;
+import br.senai.sc.communitex.model.MetricaTotal;
+import br.senai.sc.communitex.model.Praca;
+import br.senai.sc.communitex.repository.AdocaoRepository;
+import br.senai.sc.communitex.repository.AtendimentoDenunciaRepository;
+import br.senai.sc.communitex.repository.DenunciaInteracaoRepository;
+import br.senai.sc.communitex.repository.DenunciaRepository;
+import br.senai.sc.communitex.repository.MetricaDiariaRepository;
+import br.senai.sc.communitex.repository.MetricaTotalRepository;
+import br.senai.sc.communitex.repository.PracaRepository;
+import br.senai.sc.communitex.repository.projection.ContagemMensal;
+import br.senai.sc.communitex.repository.projection.MetricaSoma;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Mantem as tabelas de metricas lidas pelos paineis. Cada linha de origem (praca, adocao, reparo, denuncia,
+ * interacao) contribui com valores para metricas diarias de um escopo; os servicos de escrita capturam as
+ * contribuicoes antes e depois da alteracao e publicam a diferenca, aplicada depois do commit em uma thread
+ * propria, sem segurar a requisicao. Todas as noites (e na subida) as contribuicoes sao recalculadas a partir das
+ * tabelas de origem, corrigindo o que os eventos nao cobriram, como cargas feitas direto pelos repositorios.
+ * <p>
+ * Cada diferenca recebe um numero de sequencia antes do commit e a transacao guarda um lock compartilhado ate o
+ * commit terminar. A reconciliacao toma esse lock exclusivo so para ler o ultimo numero emitido e abrir o snapshot
+ * (repeatable read) das origens: numeros ate esse corte pertencem a commits ja concluidos, contados no recalculo,
+ * e sao descartados; os seguintes confirmaram depois do snapshot e sao aplicados.
+ * <p>
+ * As escritas nas metricas sao serializadas nesta instancia; com varias instancias uma insercao concorrente da
+ * mesma chave falha, e registrada em log e fica para a reconciliacao.
+ */
+@Service
+@Slf4j
+public class MetricasPainelService {
+
+    public static final long ESCOPO_GERAL_ID = 0L;
+
+    public static final String PRACA = "PRACA";
+    public static final String PRACA_AREA = "PRACA_AREA";
+    public static final String ADOCAO = "ADOCAO";
+    public static final String ADOCAO_AREA = "ADOCAO_AREA";
+    public static final String ADOCAO_FIM = "ADOCAO_FIM";
+    public static final String REPARO = "REPARO";
+    public static final String REPARO_CONFIRMADO = "REPARO_CONFIRMADO";
+    public static final String REPARO_CONFIRMADO_MINUTOS = "REPARO_CONFIRMADO_MINUTOS";
+    public static final String DENUNCIA = "DENUNCIA";
+    public static final String DENUNCIA_APOIOS = "DENUNCIA_APOIOS";
+    public static final String INTERACAO = "INTERACAO";
+
+    private static final String INSERT_DIARIA = "INSERT INTO metricas_diarias (dia, escopo, escopo_id, metrica, valor) " +
+            "VALUES (?, ?, ?, ?, ?)";
+    private static final String RECALCULAR_TOTAIS = "INSERT INTO metricas_totais (escopo, escopo_id, metrica, valor) " +
+            "SELECT escopo, escopo_id, metrica, SUM(valor) FROM metricas_diarias GROUP BY escopo, escopo_id, metrica";
+
+    private final MetricaDiariaRepository diariaRepository;
+    private final MetricaTotalRepository totalRepository;
+    private final PracaRepository pracaRepository;
+    private final AdocaoRepository adocaoRepository;
+    private final AtendimentoDenunciaRepository atendimentoRepository;
+    private final DenunciaRepository denunciaRepository;
+    private final DenunciaInteracaoRepository interacaoRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate novaTransacao;
+    private final TransactionTemplate reconciliacao;
+    private final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    private final ReentrantLock escrita = new ReentrantLock();
+    private final AtomicLong sequencia = new AtomicLong();
+    private final ReentrantReadWriteLock confirmacoes = new ReentrantReadWriteLock();
+    private volatile long corte;
+
+    public MetricasPainelService(MetricaDiariaRepository diariaRepository, MetricaTotalRepository totalRepository,
+                                 PracaRepository pracaRepository, AdocaoRepository adocaoRepository,
+                                 AtendimentoDenunciaRepository atendimentoRepository,
+                                 DenunciaRepository denunciaRepository, DenunciaInteracaoRepository interacaoRepository,
+                                 JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${app.painel.metricas.fila:10000}") int fila) {
+        this.diariaRepository = diariaRepository;
+        this.totalRepository = totalRepository;
+        this.pracaRepository = pracaRepository;
+        this.adocaoRepository = adocaoRepository;
+        this.atendimentoRepository = atendimentoRepository;
+        this.denunciaRepository = denunciaRepository;
+        this.interacaoRepository = interacaoRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.novaTransacao = new TransactionTemplate(transactionManager);
+        this.novaTransacao.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.reconciliacao = new TransactionTemplate(transactionManager);
+        this.reconciliacao.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.reconciliacao.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(fila);
+        executor.setThreadNamePrefix("metricas-");
+        executor.initialize();
+    }
+
+    public record Contribuicao(LocalDate dia, EscopoMetrica escopo, Long escopoId, String metrica, double valor) {
+    }
+
+    public record Captura(List<Object> entidades, List<Contribuicao> antes) {
+    }
+
+    public record Alteracao(List<Contribuicao> antes, List<Contribuicao> depois) {
+    }
+
+    /**
+     * Publicado depois que as metricas dos escopos foram gravadas, para quem guarda paineis ja calculados.
+     */
+    public record MetricasAtualizadas(Set<EscopoMetrica> escopos) {
+    }
+
+    /**
+     * Totais correntes de um escopo, indexados pelo nome da metrica.
+     */
+    public record Totais(Map<String, Double> valores) {
+
+        public double valor(String metrica) {
+            return valores.getOrDefault(metrica, 0.0);
+        }
+
+        public double valor(String familia, Enum<?> chave) {
+            return valor(metrica(familia, chave));
+        }
+
+        public double soma(String familia, Collection<? extends Enum<?>> chaves) {
+            return chaves.stream().mapToDouble(chave -> valor(familia, chave)).sum();
+        }
+
+        public long quantidade(String familia, Enum<?> chave) {
+            return Math.round(valor(familia, chave));
+        }
+
+        public long quantidade(String familia, Collection<? extends Enum<?>> chaves) {
+            return Math.round(soma(familia, chaves));
+        }
+
+        /**
+         * Soma de todas as chaves da familia, por exemplo todos os status de {@code REPARO}.
+         */
+        public long quantidade(String familia) {
+            var prefixo = familia + ":";
+            return Math.round(valores.entrySet().stream()
+                    .filter(valor -> valor.getKey().startsWith(prefixo))
+                    .mapToDouble(Map.Entry::getValue)
+                    .sum());
+        }
+    }
+
+    public static String metrica(String familia, Enum<?> chave) {
+        return familia + ":" + chave.name();
+    }
+
+    public static List<String> metricas(String familia, Collection<? extends Enum<?>> chaves) {
+        return chaves.stream().map(chave -> metrica(familia, chave)).toList();
+    }
+
+    /**
+     * Guarda as contribuicoes atuais das entidades (e colecoes de entidades) antes de altera-las.
+     */
+    public Captura capturar(Object... entidades) {
+        var lista = Arrays.asList(entidades);
+        return new Captura(lista, contribuicoes(lista));
+    }
+
+    /**
+     * Captura a denuncia junto com o seu atendimento, cujas metricas so contam enquanto a denuncia esta ativa.
+     */
+    public Captura capturarDenuncia(Denuncia denuncia) {
+        return capturar(denuncia, atendimentoRepository.findByDenunciaId(denuncia.getId()).orElse(null));
+    }
+
+    /**
+     * Publica a diferenca entre as contribuicoes capturadas e as atuais das mesmas entidades.
+     */
+    public void publicar(Captura captura) {
+        eventPublisher.publishEvent(new Alteracao(captura.antes(), contribuicoes(captura.entidades())));
+    }
+
+    public void publicarInclusao(Object... entidades) {
+        eventPublisher.publishEvent(new Alteracao(List.of(), contribuicoes(Arrays.asList(entidades))));
+    }
+
+    public void publicarExclusao(Captura captura) {
+        eventPublisher.publishEvent(new Alteracao(captura.antes(), List.of()));
+    }
+
+    /**
+     * Apoios recebidos mudam por contador atualizado direto no banco, entao a diferenca e publicada explicitamente.
+     */
+    public void publicarApoios(Denuncia denuncia, int delta) {
+        if (!Boolean.TRUE.equals(denuncia.getAtiva()) || delta == 0) return;
+        eventPublisher.publishEvent(new Alteracao(List.of(), List.of(new Contribuicao(
+                denuncia.getDataCriacao().toLocalDate(), EscopoMetrica.USUARIO, denuncia.getAutor().getId(),
+                DENUNCIA_APOIOS, delta))));
+    }
+
+    /**
+     * Numera a diferenca antes do commit, segurando o lock compartilhado ate o fim da transacao, e a enfileira
+     * se o commit for confirmado.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void aoAlterar(Alteracao alteracao) {
+        var deltas = somarPorChave(alteracao.depois(), alteracao.antes());
+        if (deltas.isEmpty()) return;
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            enfileirar(deltas, sequencia.incrementAndGet());
+            return;
+        }
+        confirmacoes.readLock().lock();
+        var numero = sequencia.incrementAndGet();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                confirmacoes.readLock().unlock();
+                if (status == STATUS_COMMITTED) {
+                    enfileirar(deltas, numero);
+                }
+            }
+        });
+    }
+
+    private void enfileirar(Map<Contribuicao, Double> deltas, long numero) {
+        try {
+            executor.execute(() -> aplicar(deltas, numero));
+        } catch (TaskRejectedException ex) {
+            log.warn("Fila de metricas de painel cheia; a reconciliacao corrige os totais");
+        }
+    }
+
+    /**
+     * Soma as diferencas nas metricas, a menos que a reconciliacao ja as tenha contado.
+     */
+    void aplicar(Map<Contribuicao, Double> deltas, long numero) {
+        escrita.lock();
+        try {
+            if (numero <= corte) {
+                log.debug("Diferenca de metricas {} ja incluida na reconciliacao; descartada", numero);
+                return;
+            }
+            novaTransacao.executeWithoutResult(status -> deltas.forEach(this::somar));
+            eventPublisher.publishEvent(new MetricasAtualizadas(deltas.keySet().stream()
+                    .map(Contribuicao::escopo)
+                    .collect(Collectors.toCollection(() -> EnumSet.noneOf(EscopoMetrica.class)))));
+        } catch (DataAccessException ex) {
+            log.warn("Falha ao atualizar metricas de painel; a reconciliacao corrige os totais", ex);
+        } finally {
+            escrita.unlock();
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public Totais totais(EscopoMetrica escopo, Long escopoId) {
+        return new Totais(totalRepository.findByEscopoAndEscopoId(escopo, escopoId).stream()
+                .collect(Collectors.toMap(MetricaSoma::getMetrica, MetricaSoma::getValor)));
+    }
+
+    @Transactional(readOnly = true)
+    public long somarNoPeriodo(EscopoMetrica escopo, Long escopoId, Collection<String> metricas,
+                               LocalDate inicio, LocalDate fim) {
+        return Math.round(diariaRepository.somarNoPeriodo(escopo, escopoId, metricas, inicio, fim));
+    }
+
+    @Transactional(readOnly = true)
+    public List<ContagemMensal> somarPorMes(EscopoMetrica escopo, Long escopoId, Collection<String> metricas) {
+        return diariaRepository.somarPorMes(escopo, escopoId, metricas);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${app.painel.metricas.reconciliacao:0 30 3 * * *}")
+    public void reconciliar() {
+        escrita.lock();
+        try {
+            corte = reconciliacao.execute(status -> {
+                long emitidas;
+                // espera os commits ja numerados terminarem; a primeira consulta fixa o snapshot das origens
+                confirmacoes.writeLock().lock();
+                try {
+                    emitidas = sequencia.get();
+                    jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+                } finally {
+                    confirmacoes.writeLock().unlock();
+                }
+                recalcular(LocalDate.now());
+                return emitidas;
+            });
+            eventPublisher.publishEvent(new MetricasAtualizadas(EnumSet.allOf(EscopoMetrica.class)));
+        } catch (DataAccessException ex) {
+            log.error("Falha na reconciliacao das metricas de painel", ex);
+        } finally {
+            escrita.unlock();
+        }
+    }
+
+    @PreDestroy
+    void encerrar() {
+        executor.shutdown();
+    }
+
+    /**
+     * Reconstroi as metricas datadas a partir das tabelas de origem. As de praca nao tem data propria:
+     * a diferenca para o total esperado e lancada no dia atual, preservando o historico de alteracoes.
+     */
+    private void recalcular(LocalDate hoje) {
+        var anteriores = totalRepository.findAll().stream()
+                .collect(Collectors.toMap(MetricasPainelService::chaveTotal, MetricaTotal::getValor));
+
+        var datadas = new ArrayList<Contribuicao>();
+        adocaoRepository.agruparParaMetricas().forEach(adocao -> datadas.addAll(adocao(adocao.getInicio(),
+                adocao.getFim(), adocao.getEmpresaId(), adocao.getStatus(), adocao.getQuantidade(), zero(adocao.getArea()))));
+        atendimentoRepository.agruparParaMetricas().forEach(reparo -> datadas.addAll(reparo(reparo.getAceite(),
+                reparo.getConfirmacao(), reparo.getEmpresaId(), reparo.getAutorId(), reparo.getStatus(),
+                reparo.getQuantidade(), zero(reparo.getMinutos()))));
+        denunciaRepository.agruparParaMetricas().forEach(denuncia -> datadas.addAll(denuncia(denuncia.getCriacao(),
+                denuncia.getAutorId(), denuncia.getStatus(), denuncia.getQuantidade(), zero(denuncia.getApoios()))));
+        interacaoRepository.agruparParaMetricas().forEach(interacao -> datadas.addAll(interacao(interacao.getCriacao(),
+                interacao.getUsuarioId(), interacao.getTipo(), interacao.getQuantidade())));
+
+        diariaRepository.excluirExcetoPrefixo(PRACA);
+        var linhas = somarPorChave(datadas, List.of());
+        jdbcTemplate.batchUpdate(INSERT_DIARIA, linhas.entrySet(), 500, (statement, linha) -> {
+            var chave = linha.getKey();
+            statement.setDate(1, Date.valueOf(chave.dia()));
+            statement.setString(2, chave.escopo().name());
+            statement.setLong(3, chave.escopoId());
+            statement.setString(4, chave.metrica());
+            statement.setDouble(5, linha.getValue());
+        });
+
+        var pracas = new ArrayList<Contribuicao>();
+        pracaRepository.agruparParaMetricas().forEach(praca -> pracas.addAll(praca(praca.getStatus(),
+                praca.getPessoaId(), hoje, praca.getQuantidade(), zero(praca.getArea()))));
+        var registradas = diariaRepository.somarPorPrefixo(PRACA).stream()
+                .map(soma -> new Contribuicao(hoje, soma.getEscopo(), soma.getEscopoId(), soma.getMetrica(), soma.getValor()))
+                .toList();
+        var correcoes = somarPorChave(pracas, registradas);
+        correcoes.forEach(this::somarDiaria);
+
+        totalRepository.deleteAllInBatch();
+        jdbcTemplate.update(RECALCULAR_TOTAIS);
+
+        var corrigidos = totalRepository.findAll().stream()
+                .filter(total -> Math.abs(anteriores.getOrDefault(chaveTotal(total), 0.0) - total.getValor()) > 1e-6)
+                .count();
+        log.info("Metricas de painel reconciliadas: {} linhas diarias, {} totais corrigidos", linhas.size(), corrigidos);
+    }
+
+    private void somar(Contribuicao chave, double delta) {
+        somarDiaria(chave, delta);
+        if (totalRepository.somar(chave.escopo(), chave.escopoId(), chave.metrica(), delta) == 0) {
+            totalRepository.save(MetricaTotal.builder().escopo(chave.escopo()).escopoId(chave.escopoId())
+                    .metrica(chave.metrica()).valor(delta).build());
+        }
+    }
+
+    private void somarDiaria(Contribuicao chave, double delta) {
+        if (diariaRepository.somar(chave.escopo(), chave.escopoId(), chave.metrica(), chave.dia(), delta) == 0) {
+            diariaRepository.save(MetricaDiaria.builder().dia(chave.dia()).escopo(chave.escopo())
+                    .escopoId(chave.escopoId()).metrica(chave.metrica()).valor(delta).build());
+        }
+    }
+
+    /**
+     * Soma {@code positivas - negativas} por chave (dia, escopo e metrica), descartando as que zeram.
+     * A chave devolvida e a propria contribuicao com valor zero.
+     */
+    static Map<Contribuicao, Double> somarPorChave(List<Contribuicao> positivas, List<Contribuicao> negativas) {
+        var somas = new HashMap<Contribuicao, Double>();
+        positivas.forEach(contribuicao -> somas.merge(chave(contribuicao), contribuicao.valor(), Double::sum));
+        negativas.forEach(contribuicao -> somas.merge(chave(contribuicao), -contribuicao.valor(), Double::sum));
+        somas.values().removeIf(valor -> Math.abs(valor) < 1e-9);
+        return somas;
+    }
+
+    private static Contribuicao chave(Contribuicao contribuicao) {
+        return new Contribuicao(contribuicao.dia(), contribuicao.escopo(), contribuicao.escopoId(), contribuicao.metrica(), 0);
+    }
+
+    private static long zero(Long valor) {
+        return valor != null ? valor : 0;
+    }
+
+    private static double zero(Double valor) {
+        return valor != null ? valor : 0;
+    }
+
+    private static String chaveTotal(MetricaTotal total) {
+        return total.getEscopo() + "/" + total.getEscopoId() + "/" + total.getMetrica();
+    }
+
+    static List<Contribuicao> contribuicoes(Collection<?> entidades) {
+        var resultado = new ArrayList<Contribuicao>();
+        for (var entidade : entidades) {
+            if (entidade instanceof Collection<?> colecao) {
+                resultado.addAll(contribuicoes(colecao));
+            } else if (entidade instanceof Praca praca) {
+                resultado.addAll(praca(praca.getStatus(),
+                        praca.getCadastradoPor() != null ? praca.getCadastradoPor().getId() : null,
+                        LocalDate.now(), 1, praca.getMetragemM2() != null ? praca.getMetragemM2() : 0));
+            } else if (entidade instanceof Adocao adocao) {
+                var metragem = adocao.getPraca() != null ? adocao.getPraca().getMetragemM2() : null;
+                resultado.addAll(adocao(adocao.getDataInicio(), adocao.getDataFim(),
+                        adocao.getEmpresa() != null ? adocao.getEmpresa().getId() : null,
+                        adocao.getStatus(), 1, metragem != null ? metragem : 0));
+            } else if (entidade instanceof AtendimentoDenuncia reparo) {
+                var denuncia = reparo.getDenuncia();
+                if (denuncia == null || !Boolean.TRUE.equals(denuncia.getAtiva()) || reparo.getDataAceite() == null) continue;
+                var confirmacao = reparo.getDataConfirmacaoAutor();
+                resultado.addAll(reparo(reparo.getDataAceite().toLocalDate(),
+                        confirmacao != null ? confirmacao.toLocalDate() : null,
+                        reparo.getEmpresa() != null ? reparo.getEmpresa().getId() : null,
+                        denuncia.getAutor() != null ? denuncia.getAutor().getId() : null, reparo.getStatus(), 1,
+                        confirmacao != null ? Duration.between(reparo.getDataAceite(), confirmacao).toMinutes() : 0));
+            } else if (entidade instanceof Denuncia denuncia) {
+                if (!Boolean.TRUE.equals(denuncia.getAtiva()) || denuncia.getDataCriacao() == null) continue;
+                resultado.addAll(denuncia(denuncia.getDataCriacao().toLocalDate(),
+                        denuncia.getAutor() != null ? denuncia.getAutor().getId() : null, denuncia.getStatus(), 1,
+                        denuncia.getTotalApoios() != null ? denuncia.getTotalApoios() : 0));
+            } else if (entidade instanceof DenunciaInteracao interacao) {
+                if (interacao.getDataCriacao() == null) continue;
+                resultado.addAll(interacao(interacao.getDataCriacao().toLocalDate(),
+                        interacao.getUsuario() != null ? interacao.getUsuario().getId() : null, interacao.getTipo(), 1));
+            } else if (entidade != null) {
+                throw new IllegalArgumentException("Entidade sem metricas de painel: " + entidade.getClass().getSimpleName());
+            }
+        }
+        return resultado;
+    }
+
+    static List<Contribuicao> praca(StatusPraca status, Long pessoaId, LocalDate dia, long quantidade, double area) {
+        if (status == null) return List.of();
+        var resultado = new ArrayList<Contribuicao>();
+        resultado.add(geral(dia, metrica(PRACA, status), quantidade));
+        resultado.add(geral(dia, metrica(PRACA_AREA, status), area));
+        if (pessoaId != null) {
+            resultado.add(new Contribuicao(dia, EscopoMetrica.PESSOA_FISICA, pessoaId, metrica(PRACA, status), quantidade));
+        }
+        return resultado;
+    }
+
+    static List<Contribuicao> adocao(LocalDate inicio, LocalDate fim, Long empresaId, StatusAdocao status,
+                                     long quantidade, double area) {
+        if (status == null || inicio == null) return List.of();
+        var resultado = new ArrayList<Contribuicao>();
+        resultado.add(geral(inicio, metrica(ADOCAO, status), quantidade));
+        if (empresaId != null) {
+            resultado.add(new Contribuicao(inicio, EscopoMetrica.EMPRESA, empresaId, metrica(ADOCAO, status), quantidade));
+            resultado.add(new Contribuicao(inicio, EscopoMetrica.EMPRESA, empresaId, metrica(ADOCAO_AREA, status), area));
+            if (fim != null) {
+                resultado.add(new Contribuicao(fim, EscopoMetrica.EMPRESA, empresaId, metrica(ADOCAO_FIM, status), quantidade));
+            }
+        }
+        return resultado;
+    }
+
+    static List<Contribuicao> reparo(LocalDate aceite, LocalDate confirmacao, Long empresaId, Long autorId,
+                                     AtendimentoDenunciaStatus status, long quantidade, long minutos) {
+        if (status == null || aceite == null) return List.of();
+        var resultado = new ArrayList<Contribuicao>();
+        var nome = metrica(REPARO, status);
+        resultado.add(geral(aceite, nome, quantidade));
+        if (empresaId != null) {
+            resultado.add(new Contribuicao(aceite, EscopoMetrica.EMPRESA, empresaId, nome, quantidade));
+        }
+        if (autorId != null) {
+            resultado.add(new Contribuicao(aceite, EscopoMetrica.USUARIO, autorId, nome, quantidade));
+        }
+        if (status == AtendimentoDenunciaStatus.CONFIRMADO_PELO_AUTOR && confirmacao != null) {
+            resultado.add(geral(confirmacao, REPARO_CONFIRMADO, quantidade));
+            resultado.add(geral(confirmacao, REPARO_CONFIRMADO_MINUTOS, minutos));
+        }
+        return resultado;
+    }
+
+    static List<Contribuicao> denuncia(LocalDate criacao, Long autorId, IssueStatus status, long quantidade, long apoios) {
+        if (status == null || autorId == null) return List.of();
+        return List.of(
+                new Contribuicao(criacao, EscopoMetrica.USUARIO, autorId, metrica(DENUNCIA, status), quantidade),
+                new Contribuicao(criacao, EscopoMetrica.USUARIO, autorId, DENUNCIA_APOIOS, apoios)
+        );
+    }
+
+    static List<Contribuicao> interacao(LocalDate criacao, Long usuarioId, InteractionType tipo, long quantidade) {
+        if (tipo == null || usuarioId == null) return List.of();
+        return List.of(new Contribuicao(criacao, EscopoMetrica.USUARIO, usuarioId, metrica(INTERACAO, tipo), quantidade));
+    }
+
+    private static Contribuicao geral(LocalDate dia, String metrica, double valor) {
+        return new Contribuicao(dia, EscopoMetrica.GERAL, ESCOPO_GERAL_ID, metrica, valor);
+    }
+}
@@ -0,0 +1,77 @@
+package br.senai.sc.communitex.service;
+
+import br.senai.sc.communitex.dto.PublicDashboardDTO;
+import br.senai.sc.communitex.enums.EscopoMetrica;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HexFormat;
+
+/**
+ * Painel publico ja calculado, compartilhado por todos os visitantes. Requisicoes simultaneas sem painel em cache
+ * esperam um unico calculo; depois de {@code validade} o painel antigo continua sendo servido enquanto um novo e
+ * calculado em segundo plano, e so e descartado apos {@code validade-maxima}. Alteracoes nas metricas do escopo
+ * geral (status de adocoes, confirmacao de reparos, pracas) disparam o recalculo na hora.
+ * As metricas ficam no Actuator como {@code cache.*} com a tag {@code cache=painel-publico}.
+ * O ETag e o SHA-256 do JSON do painel, entao so repete quando o conteudo e o mesmo.
+ */
+@Component
+public class PublicDashboardCache {
+
+    private static final String CHAVE = "publico";
+
+    public record Painel(PublicDashboardDTO dados, String etag) {
+    }
+
+    private final LoadingCache<String, Painel> cache;
+    private final Duration validade;
+    private final ObjectMapper objectMapper;
+
+    public PublicDashboardCache(PublicDashboardService dashboardService, MeterRegistry meterRegistry, ObjectMapper objectMapper,
+                                @Value("${app.painel.publico.validade:PT1M}") Duration validade,
+                                @Value("${app.painel.publico.validade-maxima:PT1H}") Duration validadeMaxima) {
+        this.validade = validade;
+        this.objectMapper = objectMapper;
+        this.cache = Caffeine.newBuilder()
+                .refreshAfterWrite(validade)
+                .expireAfterWrite(validadeMaxima)
+                .recordStats()
+                .build(chave -> painel(dashboardService.obterDashboard()));
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "painel-publico");
+    }
+
+    public Painel obter() {
+        return cache.get(CHAVE);
+    }
+
+    public Duration validade() {
+        return validade;
+    }
+
+    /**
+     * Recalcula em segundo plano; ate terminar, as requisicoes continuam recebendo o painel anterior.
+     */
+    @EventListener
+    public void aoAtualizarMetricas(MetricasPainelService.MetricasAtualizadas evento) {
+        if (evento.escopos().contains(EscopoMetrica.GERAL)) {
+            cache.refresh(CHAVE);
+        }
+    }
+
+    private Painel painel(PublicDashboardDTO dados) {
+        try {
+            var hash = ArquivoService.digestSha256().digest(objectMapper.writeValueAsBytes(dados));
+            return new Painel(dados, "\"" + HexFormat.of().formatHex(hash) + "\"");
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Nao foi possivel serializar o painel publico", ex);
+        }
+    }
+}
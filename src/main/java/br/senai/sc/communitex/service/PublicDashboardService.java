@@ -3,118 +3,114 @@ package br.senai.sc.communitex.service;
 import br.senai.sc.communitex.dto.PublicDashboardDTO;
 import br.senai.sc.communitex.dto.PublicDashboardMonthlyDTO;
 import br.senai.sc.communitex.enums.AtendimentoDenunciaStatus;
+import br.senai.sc.communitex.enums.EscopoMetrica;
 import br.senai.sc.communitex.enums.StatusAdocao;
 import br.senai.sc.communitex.enums.StatusPraca;
-import br.senai.sc.communitex.model.Adocao;
-import br.senai.sc.communitex.model.AtendimentoDenuncia;
-import br.senai.sc.communitex.repository.AdocaoRepository;
-import br.senai.sc.communitex.repository.AtendimentoDenunciaRepository;
-import br.senai.sc.communitex.repository.PracaRepository;
+import br.senai.sc.communitex.repository.projection.ContagemMensal;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.Duration;
 import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
-import java.util.Set;
 import java.util.stream.Stream;
 
+/**
+ * Indicadores publicos lidos das metricas de painel do escopo geral: totais correntes em uma consulta e a evolucao
+ * mensal a partir das metricas diarias agrupadas por mes, sem ler pracas, adocoes ou atendimentos.
+ */
 @Service
 @RequiredArgsConstructor
 public class PublicDashboardService {
 
-    private static final Set<StatusAdocao> STATUS_HISTORICO_ADOCAO = Set.of(
+    private static final List<StatusAdocao> STATUS_HISTORICO_ADOCAO = List.of(
             StatusAdocao.APROVADA,
             StatusAdocao.CONCLUIDA,
             StatusAdocao.FINALIZADA
     );
 
-    private final PracaRepository pracaRepository;
-    private final AdocaoRepository adocaoRepository;
-    private final AtendimentoDenunciaRepository atendimentoRepository;
+    private final MetricasPainelService metricasService;
 
     @Transactional(readOnly = true)
     public PublicDashboardDTO obterDashboard() {
-        var totalPracas = pracaRepository.count();
-        var pracasAdotadas = pracaRepository.findByStatus(StatusPraca.ADOTADA);
-        var adocoes = adocaoRepository.findByStatusIn(STATUS_HISTORICO_ADOCAO);
-        var reparos = atendimentoRepository.findByStatusNot(AtendimentoDenunciaStatus.CANCELADO).stream()
-                .filter(reparo -> reparo.getDenuncia() != null && Boolean.TRUE.equals(reparo.getDenuncia().getAtiva()))
-                .toList();
-        var confirmados = reparos.stream()
-                .filter(reparo -> reparo.getStatus() == AtendimentoDenunciaStatus.CONFIRMADO_PELO_AUTOR)
-                .toList();
-        var confirmadosComData = confirmados.stream()
-                .filter(reparo -> reparo.getDataConfirmacaoAutor() != null)
-                .toList();
-
-        var areaAdotada = pracasAdotadas.stream()
-                .filter(praca -> praca.getMetragemM2() != null)
-                .mapToDouble(praca -> praca.getMetragemM2())
-                .sum();
-        var tempoMedioHoras = confirmadosComData.stream()
-                .filter(reparo -> reparo.getDataAceite() != null)
-                .mapToLong(reparo -> Duration.between(reparo.getDataAceite(), reparo.getDataConfirmacaoAutor()).toMinutes())
-                .average()
-                .orElse(0) / 60.0;
+        var totais = metricasService.totais(EscopoMetrica.GERAL, MetricasPainelService.ESCOPO_GERAL_ID);
+        var adocoesPorMes = metricasService.somarPorMes(EscopoMetrica.GERAL, MetricasPainelService.ESCOPO_GERAL_ID,
+                MetricasPainelService.metricas(MetricasPainelService.ADOCAO, STATUS_HISTORICO_ADOCAO));
+        var confirmadosPorMes = metricasService.somarPorMes(EscopoMetrica.GERAL, MetricasPainelService.ESCOPO_GERAL_ID,
+                List.of(MetricasPainelService.REPARO_CONFIRMADO));
+
+        var totalPracas = totais.quantidade(MetricasPainelService.PRACA);
+        var pracasAdotadas = totais.quantidade(MetricasPainelService.PRACA, StatusPraca.ADOTADA);
+        var totalReparos = totais.quantidade(MetricasPainelService.REPARO)
+                - totais.quantidade(MetricasPainelService.REPARO, AtendimentoDenunciaStatus.CANCELADO);
+        var reparosConfirmados = totais.quantidade(MetricasPainelService.REPARO, AtendimentoDenunciaStatus.CONFIRMADO_PELO_AUTOR);
+        var confirmacoes = totais.valor(MetricasPainelService.REPARO_CONFIRMADO);
+        var tempoMedioHoras = confirmacoes == 0
+                ? 0
+                : totais.valor(MetricasPainelService.REPARO_CONFIRMADO_MINUTOS) / confirmacoes / 60.0;
 
         return new PublicDashboardDTO(
                 totalPracas,
-                pracasAdotadas.size(),
-                roundOneDecimal(areaAdotada),
-                confirmados.size(),
+                pracasAdotadas,
+                roundOneDecimal(totais.valor(MetricasPainelService.PRACA_AREA, StatusPraca.ADOTADA)),
+                reparosConfirmados,
                 roundOneDecimal(tempoMedioHoras),
-                percentage(pracasAdotadas.size(), totalPracas),
-                percentage(confirmados.size(), reparos.size()),
-                buildMonthlyEvolution(adocoes, confirmadosComData)
+                percentage(pracasAdotadas, totalPracas),
+                percentage(reparosConfirmados, totalReparos),
+                buildMonthlyEvolution(adocoesPorMes, confirmadosPorMes, YearMonth.now())
         );
     }
 
-    private List<PublicDashboardMonthlyDTO> buildMonthlyEvolution(
-            List<Adocao> adocoes,
-            List<AtendimentoDenuncia> confirmados
+    /**
+     * Histograma por mes seguido de soma acumulada: cada contagem cai no indice do seu mes a partir do primeiro mes
+     * com dados e uma unica passada gera a serie ate {@code ultimo}, preenchendo os meses vazios.
+     * Contagens posteriores a {@code ultimo} sao ignoradas.
+     */
+    static List<PublicDashboardMonthlyDTO> buildMonthlyEvolution(
+            List<ContagemMensal> adocoes,
+            List<ContagemMensal> confirmados,
+            YearMonth ultimo
     ) {
-        var firstAdoption = adocoes.stream()
-                .map(Adocao::getDataInicio)
-                .filter(date -> date != null)
-                .map(YearMonth::from)
-                .min(Comparator.naturalOrder());
-        var firstRepair = confirmados.stream()
-                .map(AtendimentoDenuncia::getDataConfirmacaoAutor)
-                .filter(date -> date != null)
-                .map(YearMonth::from)
+        var firstMonth = Stream.concat(adocoes.stream(), confirmados.stream())
+                .map(PublicDashboardService::mes)
                 .min(Comparator.naturalOrder());
 
-        var firstMonth = Stream.concat(firstAdoption.stream(), firstRepair.stream())
-                .min(Comparator.naturalOrder());
+        if (firstMonth.isEmpty() || firstMonth.get().isAfter(ultimo)) return List.of();
 
-        if (firstMonth.isEmpty()) return List.of();
+        var inicio = firstMonth.get();
+        var meses = (int) inicio.until(ultimo, ChronoUnit.MONTHS) + 1;
+        var adocoesPorMes = histograma(adocoes, inicio, meses);
+        var confirmadosPorMes = histograma(confirmados, inicio, meses);
 
-        var result = new ArrayList<PublicDashboardMonthlyDTO>();
-        var current = firstMonth.get();
-        var last = YearMonth.now();
+        var result = new ArrayList<PublicDashboardMonthlyDTO>(meses);
         long adoptionTotal = 0;
         long repairTotal = 0;
-
-        while (!current.isAfter(last)) {
-            var month = current;
-            adoptionTotal += adocoes.stream()
-                    .map(Adocao::getDataInicio)
-                    .filter(date -> date != null && YearMonth.from(date).equals(month))
-                    .count();
-            repairTotal += confirmados.stream()
-                    .map(AtendimentoDenuncia::getDataConfirmacaoAutor)
-                    .filter(date -> date != null && YearMonth.from(date).equals(month))
-                    .count();
-            result.add(new PublicDashboardMonthlyDTO(month.toString(), adoptionTotal, repairTotal));
-            current = current.plusMonths(1);
+        for (int i = 0; i < meses; i++) {
+            adoptionTotal += adocoesPorMes[i];
+            repairTotal += confirmadosPorMes[i];
+            result.add(new PublicDashboardMonthlyDTO(inicio.plusMonths(i).toString(), adoptionTotal, repairTotal));
         }
         return result;
     }
 
+    private static long[] histograma(List<ContagemMensal> contagens, YearMonth inicio, int meses) {
+        var totais = new long[meses];
+        for (var contagem : contagens) {
+            var indice = inicio.until(mes(contagem), ChronoUnit.MONTHS);
+            if (indice < meses) {
+                totais[(int) indice] += contagem.getTotal();
+            }
+        }
+        return totais;
+    }
+
+    private static YearMonth mes(ContagemMensal contagem) {
+        return YearMonth.of(contagem.getAno(), contagem.getMes());
+    }
+
     private double percentage(long value, long total) {
         return total == 0 ? 0 : roundOneDecimal(value * 100.0 / total);
     }
@@ -5,13 +5,11 @@ import br.senai.sc.communitex.dto.PracaResponseDTO;
 import br.senai.sc.communitex.dto.UsuarioDashboardDTO;
 import br.senai.sc.communitex.enums.InteractionType;
 import br.senai.sc.communitex.enums.AtendimentoDenunciaStatus;
+import br.senai.sc.communitex.enums.EscopoMetrica;
 import br.senai.sc.communitex.enums.IssueStatus;
 import br.senai.sc.communitex.enums.StatusPraca;
 import br.senai.sc.communitex.exception.ForbiddenException;
 import br.senai.sc.communitex.model.Denuncia;
-import br.senai.sc.communitex.model.DenunciaInteracao;
-import br.senai.sc.communitex.repository.DenunciaInteracaoRepository;
-import br.senai.sc.communitex.repository.AtendimentoDenunciaRepository;
 import br.senai.sc.communitex.repository.DenunciaRepository;
 import br.senai.sc.communitex.repository.PessoaFisicaRepository;
 import br.senai.sc.communitex.repository.PracaRepository;
@@ -21,7 +19,6 @@ import org.springframework.stereotype.Service;
 import br.senai.sc.communitex.util.ArquivoUrls;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
 import java.util.Set;
 
 @Service
@@ -33,8 +30,7 @@ public class UsuarioDashboardService {
     private final PessoaFisicaRepository pessoaFisicaRepository;
     private final PracaRepository pracaRepository;
     private final DenunciaRepository denunciaRepository;
-    private final DenunciaInteracaoRepository interacaoRepository;
-    private final AtendimentoDenunciaRepository atendimentoRepository;
+    private final MetricasPainelService metricasService;
 
     @Transactional(readOnly = true)
     public UsuarioDashboardDTO obterDashboard() {
@@ -45,66 +41,55 @@ public class UsuarioDashboardService {
             throw new ForbiddenException("A pessoa fisica autenticada nao possui usuario associado");
         }
 
-        var denuncias = denunciaRepository.findByAutorIdAndAtivaTrue(usuario.getId());
-        var denunciasRealizadas = denuncias.size();
-        var denunciasAbertas = countDenuncias(denuncias, Set.of(IssueStatus.ABERTA));
-        var denunciasEmAndamento = countDenuncias(denuncias, STATUS_EM_ANDAMENTO);
-        var denunciasResolvidas = countDenuncias(denuncias, Set.of(IssueStatus.RESOLVIDA));
-        var apoiosRecebidos = denuncias.stream()
-                .flatMap(denuncia -> interactions(denuncia).stream())
-                .filter(interacao -> interacao.getTipo() == InteractionType.APOIO)
-                .count();
+        var pracas = metricasService.totais(EscopoMetrica.PESSOA_FISICA, pessoa.getId());
+        var totais = metricasService.totais(EscopoMetrica.USUARIO, usuario.getId());
+        var denunciasRealizadas = totais.quantidade(MetricasPainelService.DENUNCIA);
+        var denunciasResolvidas = totais.quantidade(MetricasPainelService.DENUNCIA, IssueStatus.RESOLVIDA);
         var taxaResolucao = denunciasRealizadas == 0
                 ? 0
                 : Math.round((denunciasResolvidas * 1000.0) / denunciasRealizadas) / 10.0;
 
         return new UsuarioDashboardDTO(
                 pessoa.getNome(),
-                pracaRepository.countByCadastradoPorId(pessoa.getId()),
-                pracaRepository.countByCadastradoPorIdAndStatus(pessoa.getId(), StatusPraca.DISPONIVEL),
-                pracaRepository.countByCadastradoPorIdAndStatus(pessoa.getId(), StatusPraca.EM_PROCESSO),
-                pracaRepository.countByCadastradoPorIdAndStatus(pessoa.getId(), StatusPraca.ADOTADA),
+                pracas.quantidade(MetricasPainelService.PRACA),
+                pracas.quantidade(MetricasPainelService.PRACA, StatusPraca.DISPONIVEL),
+                pracas.quantidade(MetricasPainelService.PRACA, StatusPraca.EM_PROCESSO),
+                pracas.quantidade(MetricasPainelService.PRACA, StatusPraca.ADOTADA),
                 denunciasRealizadas,
-                denunciasAbertas,
-                denunciasEmAndamento,
+                totais.quantidade(MetricasPainelService.DENUNCIA, IssueStatus.ABERTA),
+                totais.quantidade(MetricasPainelService.DENUNCIA, STATUS_EM_ANDAMENTO),
                 denunciasResolvidas,
-                apoiosRecebidos,
-                interacaoRepository.countByUsuarioIdAndTipo(usuario.getId(), InteractionType.APOIO),
-                interacaoRepository.countByUsuarioIdAndTipo(usuario.getId(), InteractionType.COMENTARIO),
+                Math.round(totais.valor(MetricasPainelService.DENUNCIA_APOIOS)),
+                totais.quantidade(MetricasPainelService.INTERACAO, InteractionType.APOIO),
+                totais.quantidade(MetricasPainelService.INTERACAO, InteractionType.COMENTARIO),
                 taxaResolucao,
-                atendimentoRepository.countByDenunciaAutorIdAndStatusAndDenunciaAtivaTrue(usuario.getId(), AtendimentoDenunciaStatus.CONCLUIDO_PELA_EMPRESA),
-                atendimentoRepository.countByDenunciaAutorIdAndStatusAndDenunciaAtivaTrue(usuario.getId(), AtendimentoDenunciaStatus.CONFIRMADO_PELO_AUTOR),
-                atendimentoRepository.countByDenunciaAutorIdAndStatusAndDenunciaAtivaTrue(usuario.getId(), AtendimentoDenunciaStatus.CONTESTADO),
+                totais.quantidade(MetricasPainelService.REPARO, AtendimentoDenunciaStatus.CONCLUIDO_PELA_EMPRESA),
+                totais.quantidade(MetricasPainelService.REPARO, AtendimentoDenunciaStatus.CONFIRMADO_PELO_AUTOR),
+                totais.quantidade(MetricasPainelService.REPARO, AtendimentoDenunciaStatus.CONTESTADO),
                 pracaRepository.findTop5ByCadastradoPorIdOrderByIdDesc(pessoa.getId()).stream().map(this::toPracaDTO).toList(),
                 denunciaRepository.findTop5ByAutorIdAndAtivaTrueOrderByDataCriacaoDesc(usuario.getId()).stream().map(this::toDenunciaDTO).toList()
         );
     }
 
-    private long countDenuncias(List<Denuncia> denuncias, Set<IssueStatus> statuses) {
-        return denuncias.stream().filter(denuncia -> statuses.contains(denuncia.getStatus())).count();
-    }
-
     private PracaResponseDTO toPracaDTO(br.senai.sc.communitex.model.Praca praca) {
         return new PracaResponseDTO(
                 praca.getId(), praca.getNome(), praca.getLogradouro(), praca.getBairro(), praca.getCidade(),
-                praca.getLatitude(), praca.getLongitude(), praca.getDescricao(), ArquivoUrls.url(praca.getArquivo()),
+                praca.getLatitude(), praca.getLongitude(), praca.getDescricao(), ArquivoUrls.url(praca.getArquivoId()),
                 praca.getMetragemM2(), praca.getStatus()
         );
     }
 
     private DenunciaResponseDTO toDenunciaDTO(Denuncia denuncia) {
-        var interacoes = interactions(denuncia);
-        var apoios = interacoes.stream().filter(interacao -> interacao.getTipo() == InteractionType.APOIO).count();
         var autor = denuncia.getAutor();
         return new DenunciaResponseDTO(
                 denuncia.getId(), denuncia.getTitulo(), denuncia.getDescricao(), denuncia.getLatitude(), denuncia.getLongitude(),
-                ArquivoUrls.url(denuncia.getArquivo()), denuncia.getStatus(), denuncia.getTipo(), denuncia.getDataCriacao(),
+                ArquivoUrls.url(denuncia.getArquivoId()), denuncia.getStatus(), denuncia.getTipo(), denuncia.getDataCriacao(),
                 Boolean.TRUE.equals(denuncia.getAtiva()), autor.getId(), autor.getNome() != null ? autor.getNome() : autor.getUsername(),
-                interacoes.size(), (int) apoios
+                counter(denuncia.getTotalInteracoes()), counter(denuncia.getTotalApoios())
         );
     }
 
-    private List<DenunciaInteracao> interactions(Denuncia denuncia) {
-        return denuncia.getInteracoes() != null ? denuncia.getInteracoes() : List.of();
+    private int counter(Integer value) {
+        return value != null ? value : 0;
     }
 }
@@ -0,0 +1,244 @@
+package br.senai.sc.communitex.service;
+
+import br.senai.sc.communitex.dto.DenunciaClusterDTO;
+import br.senai.sc.communitex.exception.BusinessException;
+import br.senai.sc.communitex.model.Praca;
+import br.senai.sc.communitex.repository.PracaRepository;
+import br.senai.sc.communitex.repository.projection.PracaGeometria;
+import br.senai.sc.communitex.util.AposCommit;
+import br.senai.sc.communitex.util.VectorTileEncoder;
+import br.senai.sc.communitex.util.WebMercator;
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gera Mapbox Vector Tiles com as pracas (camada "pracas") e os clusters de denuncias ativas (camada "denuncias").
+ * Os tiles ficam em cache LRU e sao invalidados apenas na regiao afetada quando uma praca ou denuncia muda.
+ * As geometrias das pracas sao carregadas na primeira renderizacao; alteracoes confirmadas durante essa carga
+ * esperam por ela e sao aplicadas em seguida, para nao se perderem entre a consulta e o snapshot.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class VectorTileService {
+
+    public static final int ZOOM_MAXIMO = 22;
+    private static final int MAX_TILES_EM_CACHE = 4096;
+    private static final double BUFFER = 64.0 / VectorTileEncoder.EXTENT;
+    private static final double MARGEM_INVALIDACAO = 0.25;
+
+    private final PracaRepository pracaRepository;
+    private final PracaGeometryService geometryService;
+    private final DenunciaClusterIndex clusterIndex;
+
+    private final Map<Tile, byte[]> cache = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Tile, byte[]> eldest) {
+            return size() > MAX_TILES_EM_CACHE;
+        }
+    });
+    private final AtomicLong geracao = new AtomicLong();
+    private final Map<Long, GeometriaPraca> pracas = new ConcurrentHashMap<>();
+    private volatile boolean pracasCarregadas;
+
+    public byte[] gerarTile(int z, int x, int y) {
+        if (z < 0 || z > ZOOM_MAXIMO) {
+            throw new BusinessException("O zoom deve estar entre 0 e " + ZOOM_MAXIMO);
+        }
+        if (x < 0 || y < 0 || x >= 1 << z || y >= 1 << z) {
+            throw new BusinessException("Coordenadas de tile fora dos limites para o zoom " + z);
+        }
+
+        var tile = new Tile(z, x, y);
+        var emCache = cache.get(tile);
+        if (emCache != null) return emCache;
+
+        var geracaoInicial = geracao.get();
+        var bytes = renderizar(tile);
+        if (geracao.get() == geracaoInicial) {
+            cache.put(tile, bytes);
+        }
+        return bytes;
+    }
+
+    public void sincronizarPraca(Praca praca) {
+        if (praca == null || praca.getId() == null) return;
+        var nova = geometria(praca.getId(), praca.getNome(), praca.getStatus() == null ? null : praca.getStatus().name(),
+                praca.getLatitude(), praca.getLongitude(), praca.getPoligonoGeoJson());
+        AposCommit.executar(() -> {
+            synchronized (this) {
+                if (!pracasCarregadas) return;
+                var anterior = pracas.put(nova.id(), nova);
+                invalidar(anterior);
+                invalidar(nova);
+            }
+        });
+    }
+
+    public void removerPraca(Long id) {
+        AposCommit.executar(() -> {
+            synchronized (this) {
+                invalidar(pracas.remove(id));
+            }
+        });
+    }
+
+    @EventListener
+    public void aoAtualizarClusters(DenunciaClusterIndex.Atualizacao atualizacao) {
+        for (var alteracao : atualizacao.alteracoes()) {
+            var x = WebMercator.x(alteracao.longitude());
+            var y = WebMercator.y(alteracao.latitude());
+            invalidar(x, y, x, y);
+        }
+    }
+
+    private byte[] renderizar(Tile tile) {
+        var escala = (double) (1 << tile.z());
+        var buffer = BUFFER / escala;
+        var minX = tile.x() / escala - buffer;
+        var maxX = (tile.x() + 1) / escala + buffer;
+        var minY = tile.y() / escala - buffer;
+        var maxY = (tile.y() + 1) / escala + buffer;
+
+        var encoder = new VectorTileEncoder();
+        var camadaPracas = encoder.camada("pracas");
+        for (var praca : pracas().values()) {
+            if (praca.maxX() < minX || praca.minX() > maxX || praca.maxY() < minY || praca.minY() > maxY) continue;
+
+            var propriedades = new LinkedHashMap<String, String>();
+            propriedades.put("nome", praca.nome());
+            propriedades.put("status", praca.status());
+
+            var desenhado = false;
+            if (praca.xs() != null) {
+                var xs = new int[praca.xs().length];
+                var ys = new int[praca.ys().length];
+                for (int i = 0; i < xs.length; i++) {
+                    xs[i] = coordenadaTile(praca.xs()[i], escala, tile.x());
+                    ys[i] = coordenadaTile(praca.ys()[i], escala, tile.y());
+                }
+                desenhado = camadaPracas.poligono(praca.id(), propriedades, xs, ys);
+            }
+            if (!desenhado && praca.centroX() >= minX && praca.centroX() <= maxX
+                    && praca.centroY() >= minY && praca.centroY() <= maxY) {
+                camadaPracas.ponto(praca.id(), propriedades,
+                        coordenadaTile(praca.centroX(), escala, tile.x()), coordenadaTile(praca.centroY(), escala, tile.y()));
+            }
+        }
+
+        var camadaDenuncias = encoder.camada("denuncias");
+        var clusters = clusterIndex.buscar(
+                WebMercator.longitude(Math.max(0, minX)), WebMercator.latitude(Math.min(1, maxY)),
+                WebMercator.longitude(Math.min(1, maxX)), WebMercator.latitude(Math.max(0, minY)),
+                tile.z());
+        for (var cluster : clusters) {
+            camadaDenuncias.ponto(cluster.denunciaId(), propriedades(cluster),
+                    coordenadaTile(WebMercator.x(cluster.longitude()), escala, tile.x()),
+                    coordenadaTile(WebMercator.y(cluster.latitude()), escala, tile.y()));
+        }
+        return encoder.encode();
+    }
+
+    private Map<String, String> propriedades(DenunciaClusterDTO cluster) {
+        var propriedades = new LinkedHashMap<String, String>();
+        propriedades.put("total", String.valueOf(cluster.total()));
+        propriedades.put("tipo", cluster.tipoPredominante().name());
+        if (cluster.totalPorStatus().size() == 1) {
+            propriedades.put("status", cluster.totalPorStatus().keySet().iterator().next().name());
+        }
+        return propriedades;
+    }
+
+    private Map<Long, GeometriaPraca> pracas() {
+        if (!pracasCarregadas) {
+            // o monitor tambem e tomado por sincronizarPraca e removerPraca apos o commit, entao quem confirmar
+            // durante a consulta espera a carga terminar e e aplicado sobre ela
+            synchronized (this) {
+                if (!pracasCarregadas) {
+                    pracaRepository.findGeometrias().forEach(praca -> pracas.put(praca.getId(), geometria(praca)));
+                    pracasCarregadas = true;
+                    log.info("Geometrias de {} pracas carregadas para os tiles vetoriais", pracas.size());
+                }
+            }
+        }
+        return pracas;
+    }
+
+    private GeometriaPraca geometria(PracaGeometria praca) {
+        return geometria(praca.getId(), praca.getNome(), praca.getStatus() == null ? null : praca.getStatus().name(),
+                praca.getLatitude(), praca.getLongitude(), praca.getPoligonoGeoJson());
+    }
+
+    private GeometriaPraca geometria(Long id, String nome, String status, Double latitude, Double longitude,
+                                     String poligonoGeoJson) {
+        var centroX = longitude == null ? 0 : WebMercator.x(longitude);
+        var centroY = latitude == null ? 0 : WebMercator.y(latitude);
+        double[] xs = null;
+        double[] ys = null;
+        var minX = centroX;
+        var maxX = centroX;
+        var minY = centroY;
+        var maxY = centroY;
+
+        JsonNode poligono = null;
+        try {
+            poligono = geometryService.readGeoJson(poligonoGeoJson);
+        } catch (BusinessException ex) {
+            log.warn("Poligono invalido na praca ID: {}; usando o ponto central no tile", id);
+        }
+        if (poligono != null) {
+            var anel = poligono.path("coordinates").path(0);
+            var vertices = Math.max(anel.size() - 1, 0);
+            xs = new double[vertices];
+            ys = new double[vertices];
+            for (int i = 0; i < vertices; i++) {
+                xs[i] = WebMercator.x(anel.get(i).get(0).asDouble());
+                ys[i] = WebMercator.y(anel.get(i).get(1).asDouble());
+                minX = Math.min(minX, xs[i]);
+                maxX = Math.max(maxX, xs[i]);
+                minY = Math.min(minY, ys[i]);
+                maxY = Math.max(maxY, ys[i]);
+            }
+        }
+        return new GeometriaPraca(id, nome, status, xs, ys, centroX, centroY, minX, maxX, minY, maxY);
+    }
+
+    private void invalidar(GeometriaPraca praca) {
+        if (praca != null) {
+            invalidar(praca.minX(), praca.minY(), praca.maxX(), praca.maxY());
+        }
+    }
+
+    private void invalidar(double minX, double minY, double maxX, double maxY) {
+        geracao.incrementAndGet();
+        synchronized (cache) {
+            cache.keySet().removeIf(tile -> tile.intersecta(minX, minY, maxX, maxY));
+        }
+    }
+
+    private static int coordenadaTile(double coordenada, double escala, int indiceTile) {
+        return (int) Math.round((coordenada * escala - indiceTile) * VectorTileEncoder.EXTENT);
+    }
+
+    private record Tile(int z, int x, int y) {
+
+        private boolean intersecta(double minX, double minY, double maxX, double maxY) {
+            var escala = (double) (1 << z);
+            var margem = MARGEM_INVALIDACAO / escala;
+            return maxX >= x / escala - margem && minX <= (x + 1) / escala + margem
+                    && maxY >= y / escala - margem && minY <= (y + 1) / escala + margem;
+        }
+    }
+
+    private record GeometriaPraca(Long id, String nome, String status, double[] xs, double[] ys,
+                                  double centroX, double centroY, double minX, double maxX, double minY, double maxY) {}
+}
@@ -17,6 +17,7 @@ import br.senai.sc.communitex.repository.PracaRepository;
 import br.senai.sc.communitex.security.AuthenticatedUser;
 import br.senai.sc.communitex.enums.NotificationChannel;
 import br.senai.sc.communitex.service.IAdocaoService;
+import br.senai.sc.communitex.service.MetricasPainelService;
 import br.senai.sc.communitex.service.NotificationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -43,6 +44,7 @@ public class AdocaoServiceImpl implements IAdocaoService {
     private final PracaRepository pracaRepository;
     private final EmpresaRepository empresaRepository;
     private final NotificationService notificationService;
+    private final MetricasPainelService metricasService;
 
     @Override
     @Transactional
@@ -78,6 +80,7 @@ public class AdocaoServiceImpl implements IAdocaoService {
                 .build();
 
         var adocaoSalva = adocaoRepository.save(adocao);
+        metricasService.publicarInclusao(adocaoSalva);
 
         if (responsavel != null) {
             notificationService.notificarInteresseAdocao(responsavel, empresa, praca, requestDTO.proposta(), NotificationChannel.EMAIL);
@@ -0,0 +1,99 @@
+package br.senai.sc.communitex.service.impl;
+
+import br.senai.sc.communitex.exception.ResourceNotFoundException;
+import br.senai.sc.communitex.service.ArquivoStorageService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Mantem o conteudo na tabela {@code arquivos_conteudo}. E o backend padrao e a origem
+ * da migracao para os backends externos.
+ */
+@Service
+@RequiredArgsConstructor
+public class BancoArquivoStorageServiceImpl implements ArquivoStorageService {
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+    private static final String INSERT_CONTEUDO = "INSERT INTO arquivos_conteudo (arquivo_id, conteudo) VALUES (?, ?)";
+    private static final String SELECT_CONTEUDO = "SELECT conteudo FROM arquivos_conteudo WHERE arquivo_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public String tipo() {
+        return BANCO;
+    }
+
+    /**
+     * Entrega a entrada ao driver com {@code setBinaryStream}, que le o conteudo direto para a conexao
+     * em vez de exigir o array de bytes completo na heap.
+     */
+    @Override
+    public void gravar(Long arquivoId, InputStream conteudo, long tamanhoBytes) {
+        jdbcTemplate.update(INSERT_CONTEUDO, statement -> {
+            statement.setLong(1, arquivoId);
+            statement.setBinaryStream(2, conteudo, tamanhoBytes);
+        });
+    }
+
+    /**
+     * Copia o conteudo direto do JDBC para a saida em blocos de tamanho fixo,
+     * sem carregar a entidade nem o array de bytes completo no contexto de persistencia.
+     * Sem linha de conteudo nada e escrito e a ausencia vira {@link ResourceNotFoundException}.
+     */
+    @Override
+    public void transmitir(Long arquivoId, OutputStream saida) {
+        var encontrado = new boolean[1];
+        jdbcTemplate.query(SELECT_CONTEUDO, resultSet -> {
+            encontrado[0] = true;
+            try (var entrada = resultSet.getBinaryStream(1)) {
+                var buffer = new byte[BUFFER_SIZE];
+                int lidos;
+                while ((lidos = entrada.read(buffer)) != -1) {
+                    saida.write(buffer, 0, lidos);
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }, arquivoId);
+        verificarEncontrado(arquivoId, encontrado[0]);
+    }
+
+    @Override
+    public void transmitir(Long arquivoId, long inicio, long tamanho, OutputStream saida) {
+        var encontrado = new boolean[1];
+        jdbcTemplate.query(SELECT_CONTEUDO, resultSet -> {
+            encontrado[0] = true;
+            try (var entrada = resultSet.getBinaryStream(1)) {
+                entrada.skipNBytes(inicio);
+                var buffer = new byte[BUFFER_SIZE];
+                var restante = tamanho;
+                int lidos;
+                while (restante > 0 && (lidos = entrada.read(buffer, 0, (int) Math.min(buffer.length, restante))) != -1) {
+                    saida.write(buffer, 0, lidos);
+                    restante -= lidos;
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }, arquivoId);
+        verificarEncontrado(arquivoId, encontrado[0]);
+    }
+
+    @Override
+    public void excluir(Long arquivoId) {
+        jdbcTemplate.update("DELETE FROM arquivos_conteudo WHERE arquivo_id = ?", arquivoId);
+    }
+
+    private static void verificarEncontrado(Long arquivoId, boolean encontrado) {
+        if (!encontrado) {
+            throw new ResourceNotFoundException("Conteudo do arquivo ID: " + arquivoId + " nao encontrado no banco");
+        }
+    }
+}
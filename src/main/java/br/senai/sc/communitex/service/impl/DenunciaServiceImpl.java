@@ -1,5 +1,8 @@
 package br.senai.sc.communitex.service.impl;
 
+import br.senai.sc.communitex.config.PostgisSupport;
+import br.senai.sc.communitex.dto.CursorPageDTO;
+import br.senai.sc.communitex.dto.DenunciaClusterDTO;
 import br.senai.sc.communitex.dto.DenunciaDetailResponseDTO;
 import br.senai.sc.communitex.dto.DenunciaInteracaoRequestDTO;
 import br.senai.sc.communitex.dto.DenunciaInteracaoResponseDTO;
@@ -18,37 +21,56 @@ import br.senai.sc.communitex.repository.DenunciaInteracaoRepository;
 import br.senai.sc.communitex.repository.DenunciaRepository;
 import br.senai.sc.communitex.repository.UsuarioRepository;
 import br.senai.sc.communitex.security.AuthenticatedUser;
+import br.senai.sc.communitex.service.DenunciaClusterIndex;
+import br.senai.sc.communitex.service.DenunciaDuplicateLock;
 import br.senai.sc.communitex.service.DenunciaService;
 import br.senai.sc.communitex.service.ArquivoService;
+import br.senai.sc.communitex.service.DenunciaSpatialIndex;
+import br.senai.sc.communitex.service.MetricasPainelService;
 import br.senai.sc.communitex.util.ArquivoUrls;
+import br.senai.sc.communitex.util.CursorToken;
+import br.senai.sc.communitex.util.Haversine;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.multipart.MultipartFile;
 
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class DenunciaServiceImpl implements DenunciaService {
 
-    private static final double EARTH_RADIUS_METERS = 6_371_000;
     private static final double DUPLICATE_RADIUS_METERS = 20.0;
+    private static final double METERS_PER_DEGREE = 111_320.0;
+    private static final int MAX_NEAREST_LIMIT = 100;
+    private static final int MAX_CLUSTER_ZOOM = 22;
+    private static final int MAX_CURSOR_LIMIT = 100;
     private static final List<IssueStatus> RESOLVED_STATUSES = List.of(IssueStatus.RESOLVIDA, IssueStatus.REJEITADA);
 
     private final DenunciaRepository issueRepository;
     private final DenunciaInteracaoRepository interactionRepository;
     private final UsuarioRepository usuarioRepository;
     private final ArquivoService arquivoService;
+    private final DenunciaSpatialIndex spatialIndex;
+    private final PostgisSupport postgisSupport;
+    private final DenunciaDuplicateLock duplicateLock;
+    private final DenunciaClusterIndex clusterIndex;
+    private final MetricasPainelService metricasService;
 
     @Override
     @Transactional
-    public DenunciaResponseDTO criar(DenunciaRequestDTO dto, MultipartFile arquivo) {
+    public DenunciaResponseDTO criar(DenunciaRequestDTO dto, ArquivoService.ImagemPreparada imagem) {
         var autor = getAuthenticatedUser();
 
         if ("ROLE_EMPRESA".equals(autor.getRole())) {
@@ -62,17 +84,31 @@ public class DenunciaServiceImpl implements DenunciaService {
                 .descricao(dto.descricao())
                 .latitude(dto.latitude())
                 .longitude(dto.longitude())
-                .arquivo(arquivo == null || arquivo.isEmpty() ? null : arquivoService.salvarImagem(arquivo))
+                .arquivoId(imagemDaDenuncia(dto, imagem, autor.getUsername()))
                 .tipo(dto.tipo())
                 .status(IssueStatus.ABERTA)
                 .autor(autor)
                 .build();
 
         var saved = issueRepository.save(issue);
+        spatialIndex.sincronizar(saved);
+        metricasService.publicarInclusao(saved);
         log.info("Denúncia criada com ID: {} pelo usuário: {}", saved.getId(), autor.getUsername());
         return toResponseDTO(saved);
     }
 
+    /**
+     * A imagem chega no proprio multipart ou, em conexoes instaveis, antes por upload retomavel,
+     * caso em que a denuncia apenas referencia o {@code arquivoId} gerado.
+     */
+    private Long imagemDaDenuncia(DenunciaRequestDTO dto, ArquivoService.ImagemPreparada imagem, String autor) {
+        var enviouArquivo = imagem != null;
+        if (enviouArquivo && dto.arquivoId() != null) {
+            throw new BusinessException("Envie a imagem no formulário ou o arquivoId de um upload, não ambos");
+        }
+        return enviouArquivo ? arquivoService.salvarImagem(imagem) : arquivoService.referenciar(dto.arquivoId(), autor);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public DenunciaResponseDTO buscarPorId(Long id) {
@@ -104,26 +140,79 @@ public class DenunciaServiceImpl implements DenunciaService {
                 .map(this::toResponseDTO);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<DenunciaResponseDTO> listarPorCursor(String cursor, Integer limite, boolean incluirInativas) {
+        if (incluirInativas && !isAdmin()) {
+            throw new ForbiddenException("Apenas administradores podem visualizar denuncias inativas");
+        }
+        if (limite == null || limite <= 0 || limite > MAX_CURSOR_LIMIT) {
+            throw new BusinessException("O limite deve estar entre 1 e " + MAX_CURSOR_LIMIT);
+        }
+
+        var limit = Limit.of(limite + 1);
+        List<Denuncia> denuncias;
+        if (cursor == null || cursor.isBlank()) {
+            denuncias = incluirInativas
+                    ? issueRepository.findAllByOrderByDataCriacaoDescIdDesc(limit)
+                    : issueRepository.findByAtivaTrueOrderByDataCriacaoDescIdDesc(limit);
+        } else {
+            var chave = CursorToken.decodificar(cursor, 2);
+            LocalDateTime dataCriacao;
+            Long id;
+            try {
+                dataCriacao = LocalDateTime.parse(chave[0]);
+                id = Long.valueOf(chave[1]);
+            } catch (DateTimeParseException | NumberFormatException ex) {
+                throw new BusinessException("Cursor de paginacao invalido");
+            }
+            denuncias = incluirInativas
+                    ? issueRepository.findAposCursor(dataCriacao, id, limit)
+                    : issueRepository.findAtivasAposCursor(dataCriacao, id, limit);
+        }
+
+        var temMais = denuncias.size() > limite;
+        var pagina = temMais ? denuncias.subList(0, limite) : denuncias;
+        var ultima = pagina.isEmpty() ? null : pagina.get(pagina.size() - 1);
+        return new CursorPageDTO<>(
+                pagina.stream().map(this::toResponseDTO).toList(),
+                temMais ? CursorToken.codificar(ultima.getDataCriacao(), ultima.getId()) : null
+        );
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<DenunciaResponseDTO> buscarPorProximidade(Double latitude, Double longitude, Double radiusMeters) {
         validarBuscaPorProximidade(latitude, longitude, radiusMeters);
 
-        var latitudeDelta = radiusMeters / 111_320.0;
-        var longitudeScale = Math.max(Math.cos(Math.toRadians(latitude)), 0.01);
-        var longitudeDelta = radiusMeters / (111_320.0 * longitudeScale);
-
-        return issueRepository.findByAtivaTrueAndLatitudeBetweenAndLongitudeBetween(
-                        latitude - latitudeDelta,
-                        latitude + latitudeDelta,
-                        longitude - longitudeDelta,
-                        longitude + longitudeDelta
-                ).stream()
-            .filter(issue -> calcularDistanciaHaversine(
-                        latitude, longitude,
-                        issue.getLatitude(), issue.getLongitude()) <= radiusMeters)
-                .map(this::toResponseDTO)
-                .toList();
+        var ids = postgisSupport.issuesDisponivel()
+                ? issueRepository.findIdsAtivasNoRaio(latitude, longitude, radiusMeters)
+                : idsDoIndice(spatialIndex.buscarPorRaio(latitude, longitude, radiusMeters));
+        return carregarNaOrdem(ids);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<DenunciaResponseDTO> buscarMaisProximas(Double latitude, Double longitude, Integer limite) {
+        validarCoordenadas(latitude, longitude);
+        if (limite == null || limite <= 0 || limite > MAX_NEAREST_LIMIT) {
+            throw new BusinessException("O limite deve estar entre 1 e " + MAX_NEAREST_LIMIT);
+        }
+
+        var ids = postgisSupport.issuesDisponivel()
+                ? issueRepository.findIdsAtivasMaisProximas(latitude, longitude, limite)
+                : idsDoIndice(spatialIndex.buscarMaisProximas(latitude, longitude, limite));
+        return carregarNaOrdem(ids);
+    }
+
+    @Override
+    public List<DenunciaClusterDTO> buscarClusters(String bbox, Integer zoom) {
+        if (zoom == null || zoom < 0 || zoom > MAX_CLUSTER_ZOOM) {
+            throw new BusinessException("O zoom deve estar entre 0 e " + MAX_CLUSTER_ZOOM);
+        }
+
+        var limites = lerBbox(bbox);
+        return clusterIndex.buscar(limites[0], limites[1], limites[2], limites[3], zoom);
     }
 
     @Override
@@ -135,27 +224,39 @@ public class DenunciaServiceImpl implements DenunciaService {
         if (status == IssueStatus.RESOLVIDA) {
             throw new BusinessException("A resolucao exige confirmacao da empresa responsavel e do autor da denuncia");
         }
+        var metricas = metricasService.capturar(issue);
         issue.setStatus(status);
+        var saved = issueRepository.save(issue);
+        spatialIndex.sincronizar(saved);
+        metricasService.publicar(metricas);
         log.info("Status da denúncia ID: {} atualizado para: {}", id, status);
-        return toResponseDTO(issueRepository.save(issue));
+        return toResponseDTO(saved);
     }
 
     @Override
     @Transactional
     public DenunciaResponseDTO inativar(Long id) {
         var issue = buscarDenunciaPorId(id);
+        var metricas = metricasService.capturarDenuncia(issue);
         issue.setAtiva(false);
+        var saved = issueRepository.save(issue);
+        spatialIndex.sincronizar(saved);
+        metricasService.publicar(metricas);
         log.info("Denúncia ID: {} inativada", id);
-        return toResponseDTO(issueRepository.save(issue));
+        return toResponseDTO(saved);
     }
 
     @Override
     @Transactional
     public DenunciaResponseDTO reativar(Long id) {
         var issue = buscarDenunciaPorId(id);
+        var metricas = metricasService.capturarDenuncia(issue);
         issue.setAtiva(true);
+        var saved = issueRepository.save(issue);
+        spatialIndex.sincronizar(saved);
+        metricasService.publicar(metricas);
         log.info("Denúncia ID: {} reativada", id);
-        return toResponseDTO(issueRepository.save(issue));
+        return toResponseDTO(saved);
     }
 
     @Override
@@ -177,6 +278,8 @@ public class DenunciaServiceImpl implements DenunciaService {
                 .build();
 
         var saved = interactionRepository.save(interaction);
+        incrementarContadores(issue, dto.tipo(), 1);
+        metricasService.publicarInclusao(saved);
         log.info("Interação {} adicionada à denúncia ID: {} pelo usuário: {}", dto.tipo(), issueId, usuario.getUsername());
         return toInteractionResponseDTO(saved);
     }
@@ -194,7 +297,10 @@ public class DenunciaServiceImpl implements DenunciaService {
             throw new ForbiddenException("Você não tem permissão para remover esta interação");
         }
 
+        var metricas = metricasService.capturar(interaction);
         interactionRepository.delete(interaction);
+        incrementarContadores(interaction.getIssue(), interaction.getTipo(), -1);
+        metricasService.publicarExclusao(metricas);
         log.info("Interação ID: {} removida da denúncia ID: {} pelo usuário: {}", interactionId, issueId, usuario.getUsername());
     }
 
@@ -209,10 +315,19 @@ public class DenunciaServiceImpl implements DenunciaService {
     }
 
     private void verificarDuplicidadeDaDenuncia(DenunciaRequestDTO dto) {
-        var unresolvedSameType = issueRepository.findUnresolvedByType(dto.tipo(), RESOLVED_STATUSES);
+        duplicateLock.bloquearVizinhanca(dto.tipo(), dto.latitude(), dto.longitude(), DUPLICATE_RADIUS_METERS);
+
+        var latitudeDelta = DUPLICATE_RADIUS_METERS / METERS_PER_DEGREE;
+        var longitudeDelta = DUPLICATE_RADIUS_METERS
+                / (METERS_PER_DEGREE * Math.max(Math.cos(Math.toRadians(dto.latitude())), 0.01));
+        var candidates = issueRepository.findUnresolvedByTypeNaArea(
+                dto.tipo(), RESOLVED_STATUSES,
+                dto.latitude() - latitudeDelta, dto.latitude() + latitudeDelta,
+                dto.longitude() - longitudeDelta, dto.longitude() + longitudeDelta
+        );
 
-        for (var existing : unresolvedSameType) {
-            var distance = calcularDistanciaHaversine(
+        for (var existing : candidates) {
+            var distance = Haversine.distanciaMetros(
                     dto.latitude(), dto.longitude(),
                     existing.getLatitude(), existing.getLongitude()
             );
@@ -227,33 +342,65 @@ public class DenunciaServiceImpl implements DenunciaService {
         }
     }
 
-    private double calcularDistanciaHaversine(double lat1, double lon1, double lat2, double lon2) {
-        var lat1Rad = Math.toRadians(lat1);
-        var lat2Rad = Math.toRadians(lat2);
-        var deltaLat = Math.toRadians(lat2 - lat1);
-        var deltaLon = Math.toRadians(lon2 - lon1);
-
-        var a = Math.sin(deltaLat / 2) * Math.sin(deltaLat / 2) +
-                Math.cos(lat1Rad) * Math.cos(lat2Rad) *
-                Math.sin(deltaLon / 2) * Math.sin(deltaLon / 2);
+    private List<Long> idsDoIndice(List<DenunciaSpatialIndex.Entrada> entradas) {
+        return entradas.stream()
+                .map(DenunciaSpatialIndex.Entrada::id)
+                .toList();
+    }
 
-        var c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    private List<DenunciaResponseDTO> carregarNaOrdem(List<Long> ids) {
+        if (ids.isEmpty()) return List.of();
 
-        return EARTH_RADIUS_METERS * c;
+        var denuncias = issueRepository.findByIdIn(ids).stream()
+                .filter(this::isAtiva)
+                .collect(Collectors.toMap(Denuncia::getId, Function.identity()));
+        return ids.stream()
+                .map(denuncias::get)
+                .filter(Objects::nonNull)
+                .map(this::toResponseDTO)
+                .toList();
     }
 
-    private void validarBuscaPorProximidade(Double latitude, Double longitude, Double radiusMeters) {
+    private void validarCoordenadas(Double latitude, Double longitude) {
         if (latitude == null || latitude < -90 || latitude > 90) {
             throw new BusinessException("Latitude inválida");
         }
         if (longitude == null || longitude < -180 || longitude > 180) {
             throw new BusinessException("Longitude inválida");
         }
+    }
+
+    private void validarBuscaPorProximidade(Double latitude, Double longitude, Double radiusMeters) {
+        validarCoordenadas(latitude, longitude);
         if (radiusMeters == null || radiusMeters <= 0 || radiusMeters > 50_000) {
             throw new BusinessException("O raio deve estar entre 1 e 50000 metros");
         }
     }
 
+    private double[] lerBbox(String bbox) {
+        var partes = bbox == null ? new String[0] : bbox.split(",");
+        if (partes.length != 4) {
+            throw new BusinessException("O bbox deve ser informado como minLongitude,minLatitude,maxLongitude,maxLatitude");
+        }
+
+        var limites = new double[4];
+        try {
+            for (int i = 0; i < 4; i++) {
+                limites[i] = Double.parseDouble(partes[i].trim());
+                if (!Double.isFinite(limites[i])) throw new NumberFormatException();
+            }
+        } catch (NumberFormatException ex) {
+            throw new BusinessException("O bbox deve conter apenas valores numéricos");
+        }
+
+        validarCoordenadas(limites[1], limites[0]);
+        validarCoordenadas(limites[3], limites[2]);
+        if (limites[1] > limites[3]) {
+            throw new BusinessException("A latitude mínima do bbox deve ser menor que a máxima");
+        }
+        return limites;
+    }
+
     private Denuncia buscarDenunciaPorId(Long id) {
         return issueRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Denúncia não encontrada com ID: " + id));
@@ -318,48 +465,44 @@ public class DenunciaServiceImpl implements DenunciaService {
     }
 
     private DenunciaResponseDTO toResponseDTO(Denuncia issue) {
-        var interacoes = obterInteracoesDaDenuncia(issue);
-
         return new DenunciaResponseDTO(
                 issue.getId(),
                 issue.getTitulo(),
                 issue.getDescricao(),
                 issue.getLatitude(),
                 issue.getLongitude(),
-                ArquivoUrls.url(issue.getArquivo()),
+                ArquivoUrls.url(issue.getArquivoId()),
                 issue.getStatus(),
                 issue.getTipo(),
                 issue.getDataCriacao(),
                 isAtiva(issue),
                 issue.getAutor().getId(),
                 obterNomeUsuario(issue.getAutor()),
-                interacoes.size(),
-                contarInteracoesPorTipo(interacoes, InteractionType.APOIO)
+                contador(issue.getTotalInteracoes()),
+                contador(issue.getTotalApoios())
         );
     }
 
     private DenunciaDetailResponseDTO toDetailResponseDTO(Denuncia issue) {
-            var interacoes = obterInteracoesDaDenuncia(issue).stream()
+        var interacoes = obterInteracoesDaDenuncia(issue).stream()
                 .map(this::toInteractionResponseDTO)
                 .toList();
 
-            var interacoesDaDenuncia = obterInteracoesDaDenuncia(issue);
-
         return new DenunciaDetailResponseDTO(
                 issue.getId(),
                 issue.getTitulo(),
                 issue.getDescricao(),
                 issue.getLatitude(),
                 issue.getLongitude(),
-                ArquivoUrls.url(issue.getArquivo()),
+                ArquivoUrls.url(issue.getArquivoId()),
                 issue.getStatus(),
                 issue.getTipo(),
                 issue.getDataCriacao(),
                 isAtiva(issue),
                 issue.getAutor().getId(),
                 obterNomeUsuario(issue.getAutor()),
-                contarInteracoesPorTipo(interacoesDaDenuncia, InteractionType.APOIO),
-                contarInteracoesPorTipo(interacoesDaDenuncia, InteractionType.CURTIDA),
+                contador(issue.getTotalApoios()),
+                contador(issue.getTotalCurtidas()),
                 interacoes
         );
     }
@@ -379,10 +522,15 @@ public class DenunciaServiceImpl implements DenunciaService {
         return issue.getInteracoes() != null ? issue.getInteracoes() : List.of();
     }
 
-    private int contarInteracoesPorTipo(List<DenunciaInteracao> interacoes, InteractionType tipo) {
-        return (int) interacoes.stream()
-                .filter(interacao -> interacao.getTipo() == tipo)
-                .count();
+    private void incrementarContadores(Denuncia issue, InteractionType tipo, int delta) {
+        var apoios = tipo == InteractionType.APOIO ? delta : 0;
+        issueRepository.incrementarContadores(issue.getId(), delta, apoios,
+                tipo == InteractionType.CURTIDA ? delta : 0);
+        metricasService.publicarApoios(issue, apoios);
+    }
+
+    private int contador(Integer valor) {
+        return valor != null ? valor : 0;
     }
 
     private String obterNomeUsuario(Usuario usuario) {
@@ -0,0 +1,98 @@
+package br.senai.sc.communitex.service.impl;
+
+import br.senai.sc.communitex.exception.ResourceNotFoundException;
+import br.senai.sc.communitex.service.ArquivoStorageService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Guarda cada arquivo em disco, distribuido em 256 subdiretorios pelo id. A leitura usa
+ * {@link FileChannel#transferTo}, que copia do page cache para o canal de saida sem passar
+ * por buffers na heap.
+ */
+@Service
+@ConditionalOnProperty(name = "app.arquivos.storage", havingValue = ArquivoStorageService.DISCO)
+@Slf4j
+public class DiscoArquivoStorageServiceImpl implements ArquivoStorageService {
+
+    private final Path diretorio;
+
+    public DiscoArquivoStorageServiceImpl(@Value("${app.arquivos.disco.diretorio}") Path diretorio) throws IOException {
+        this.diretorio = Files.createDirectories(diretorio.toAbsolutePath().normalize());
+        log.info("Arquivos armazenados em disco no diretorio {}", this.diretorio);
+    }
+
+    @Override
+    public String tipo() {
+        return DISCO;
+    }
+
+    @Override
+    public void gravar(Long arquivoId, InputStream conteudo, long tamanhoBytes) {
+        var destino = caminho(arquivoId);
+        try {
+            Files.createDirectories(destino.getParent());
+            var temporario = Files.createTempFile(destino.getParent(), arquivoId + "-", ".tmp");
+            try {
+                Files.copy(conteudo, temporario, StandardCopyOption.REPLACE_EXISTING);
+                Files.move(temporario, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporario);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public void transmitir(Long arquivoId, OutputStream saida) {
+        transmitir(arquivoId, 0, Long.MAX_VALUE, saida);
+    }
+
+    /**
+     * O arquivo e aberto antes de qualquer byte ser escrito, entao um arquivo ausente vira
+     * {@link ResourceNotFoundException} enquanto a resposta ainda pode virar um 404.
+     */
+    @Override
+    public void transmitir(Long arquivoId, long inicio, long tamanho, OutputStream saida) {
+        try (var canal = FileChannel.open(caminho(arquivoId), StandardOpenOption.READ)) {
+            var destino = Channels.newChannel(saida);
+            var fim = Math.min(canal.size(), inicio + Math.min(tamanho, canal.size()));
+            var posicao = inicio;
+            while (posicao < fim) {
+                posicao += canal.transferTo(posicao, fim - posicao, destino);
+            }
+        } catch (NoSuchFileException ex) {
+            throw new ResourceNotFoundException("Conteudo do arquivo ID: " + arquivoId + " nao encontrado em disco");
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public void excluir(Long arquivoId) {
+        try {
+            Files.deleteIfExists(caminho(arquivoId));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    Path caminho(Long arquivoId) {
+        return diretorio.resolve("%02x".formatted(arquivoId & 0xFF)).resolve(String.valueOf(arquivoId));
+    }
+}
@@ -10,7 +10,9 @@ import br.senai.sc.communitex.model.Empresa;
 import br.senai.sc.communitex.model.Adocao;
 import br.senai.sc.communitex.model.RepresentanteEmpresa;
 import br.senai.sc.communitex.model.Usuario;
+import br.senai.sc.communitex.repository.AdocaoRepository;
 import br.senai.sc.communitex.repository.EmpresaRepository;
+import br.senai.sc.communitex.repository.projection.EmpresaResumo;
 import br.senai.sc.communitex.service.EmpresaService;
 import br.senai.sc.communitex.service.RegistrationService;
 import br.senai.sc.communitex.service.UsuarioService;
@@ -23,6 +25,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 import java.util.Objects;
 import java.util.Locale;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -30,6 +33,7 @@ import java.util.Locale;
 public class EmpresaServiceImpl implements EmpresaService {
 
     private final EmpresaRepository empresaRepository;
+    private final AdocaoRepository adocaoRepository;
     private final UsuarioService usuarioService;
     private final PasswordEncoder passwordEncoder;
 
@@ -43,8 +47,16 @@ public class EmpresaServiceImpl implements EmpresaService {
     @Override
     @Transactional(readOnly = true)
     public List<EmpresaResponseDTO> listarTodas() {
-        return empresaRepository.findAll().stream()
-                .map(this::toResponseDTO)
+        var empresas = empresaRepository.findResumos();
+        if (empresas.isEmpty()) {
+            return List.of();
+        }
+
+        var adocoesPorEmpresa = adocaoRepository.findRespostasByEmpresaIdIn(
+                        empresas.stream().map(EmpresaResumo::getId).toList()).stream()
+                .collect(Collectors.groupingBy(AdocaoResponseDTO::empresaId));
+        return empresas.stream()
+                .map(empresa -> toResponseDTO(empresa, adocoesPorEmpresa.getOrDefault(empresa.getId(), List.of())))
                 .toList();
     }
 
@@ -201,6 +213,35 @@ public class EmpresaServiceImpl implements EmpresaService {
         );
     }
 
+    private EmpresaResponseDTO toResponseDTO(EmpresaResumo empresa, List<AdocaoResponseDTO> adocoes) {
+        var representanteDTO = empresa.getRepresentanteId() == null ? null : new RepresentanteEmpresaResponseDTO(
+            empresa.getRepresentanteId(),
+            empresa.getRepresentanteNome(),
+            empresa.getRepresentanteAtivo(),
+            empresa.getRepresentanteEmail(),
+            empresa.getId(),
+            empresa.getNomeFantasia()
+        );
+
+        return new EmpresaResponseDTO(
+                empresa.getId(),
+                empresa.getRazaoSocial(),
+                empresa.getCnpj(),
+                empresa.getNomeFantasia(),
+                empresa.getEmail(),
+                empresa.getTelefone(),
+                empresa.getCep(),
+                empresa.getLogradouro(),
+                empresa.getNumero(),
+                empresa.getComplemento(),
+                empresa.getBairro(),
+                empresa.getCidade(),
+                empresa.getEstado(),
+            representanteDTO,
+            adocoes
+        );
+    }
+
     private AdocaoResponseDTO toAdocaoDTO(Adocao adocao) {
         var praca = adocao.getPraca();
 
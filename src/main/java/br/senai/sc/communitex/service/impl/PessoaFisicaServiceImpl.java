@@ -41,9 +41,7 @@ public class PessoaFisicaServiceImpl implements PessoaFisicaService {
     @Override
     @Transactional(readOnly = true)
     public List<PessoaFisicaResponseDTO> findAll() {
-        return pessoaFisicaRepository.findAll().stream()
-                .map(this::toResponseDTO)
-                .toList();
+        return pessoaFisicaRepository.findRespostas();
     }
 
     @Override
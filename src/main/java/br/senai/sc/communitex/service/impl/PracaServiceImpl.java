@@ -1,50 +1,68 @@
 package br.senai.sc.communitex.service.impl;
 
+import br.senai.sc.communitex.config.PostgisSupport;
 import br.senai.sc.communitex.dto.AdocaoHistoricoDTO;
+import br.senai.sc.communitex.dto.CursorPageDTO;
 import br.senai.sc.communitex.dto.PessoaFisicaSimpleDTO;
 import br.senai.sc.communitex.dto.PracaDetailResponseDTO;
 import br.senai.sc.communitex.dto.PracaPesquisaDTO;
 import br.senai.sc.communitex.dto.PracaRequestDTO;
 import br.senai.sc.communitex.dto.PracaResponseDTO;
 import br.senai.sc.communitex.enums.StatusPraca;
+import br.senai.sc.communitex.exception.BusinessException;
 import br.senai.sc.communitex.exception.ForbiddenException;
 import br.senai.sc.communitex.exception.ResourceNotFoundException;
 import br.senai.sc.communitex.model.PessoaFisica;
 import br.senai.sc.communitex.model.Praca;
 import br.senai.sc.communitex.repository.PracaRepository;
+import br.senai.sc.communitex.repository.projection.PracaResumo;
 import br.senai.sc.communitex.security.AuthenticatedUser;
 import br.senai.sc.communitex.service.PessoaFisicaService;
 import br.senai.sc.communitex.service.PracaService;
 import br.senai.sc.communitex.service.PracaGeometryService;
 import br.senai.sc.communitex.service.ArquivoService;
+import br.senai.sc.communitex.service.MetricasPainelService;
+import br.senai.sc.communitex.service.VectorTileService;
 import br.senai.sc.communitex.util.ArquivoUrls;
-import br.senai.sc.communitex.specification.PracaSpecification;
+import br.senai.sc.communitex.util.CursorToken;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class PracaServiceImpl implements PracaService {
 
+    private static final int MAX_NEAREST_LIMIT = 100;
+    private static final int MAX_CURSOR_LIMIT = 100;
+
     private final PracaRepository pracaRepository;
     private final PessoaFisicaService pessoaFisicaService;
     private final ArquivoService arquivoService;
     private final PracaGeometryService geometryService;
+    private final PostgisSupport postgisSupport;
+    private final VectorTileService vectorTileService;
+    private final MetricasPainelService metricasService;
 
     @Override
     @Transactional(readOnly = true)
     public List<PracaResponseDTO> findAll(PracaPesquisaDTO pesquisaDTO) {
-        return pracaRepository.findAll(PracaSpecification.comFiltros(pesquisaDTO)).stream()
+        var filtros = Filtros.de(pesquisaDTO);
+        return pracaRepository.findResumos(filtros.id(), filtros.nome(), filtros.cidade()).stream()
                 .map(this::toResponseDTO)
                 .toList();
     }
@@ -52,10 +70,39 @@ public class PracaServiceImpl implements PracaService {
     @Override
     @Transactional(readOnly = true)
     public Page<PracaResponseDTO> findAll(PracaPesquisaDTO pesquisaDTO, Pageable pageable) {
-        return pracaRepository.findAll(PracaSpecification.comFiltros(pesquisaDTO), pageable)
+        var filtros = Filtros.de(pesquisaDTO);
+        return pracaRepository.findResumos(filtros.id(), filtros.nome(), filtros.cidade(), pageable)
                 .map(this::toResponseDTO);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<PracaResponseDTO> findAllPorCursor(PracaPesquisaDTO pesquisaDTO, String cursor, Integer limite) {
+        if (limite == null || limite <= 0 || limite > MAX_CURSOR_LIMIT) {
+            throw new BusinessException("O limite deve estar entre 1 e " + MAX_CURSOR_LIMIT);
+        }
+
+        Long ultimoId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                ultimoId = Long.valueOf(CursorToken.decodificar(cursor, 1)[0]);
+            } catch (NumberFormatException ex) {
+                throw new BusinessException("Cursor de paginacao invalido");
+            }
+        }
+
+        var filtros = Filtros.de(pesquisaDTO);
+        var pracas = pracaRepository.findResumosAposCursor(filtros.id(), filtros.nome(), filtros.cidade(), ultimoId,
+                Limit.of(limite + 1));
+
+        var temMais = pracas.size() > limite;
+        var pagina = temMais ? pracas.subList(0, limite) : pracas;
+        return new CursorPageDTO<>(
+                pagina.stream().map(this::toResponseDTO).toList(),
+                temMais ? CursorToken.codificar(pagina.get(pagina.size() - 1).getId()) : null
+        );
+    }
+
     @Override
     @Transactional(readOnly = true)
     public PracaResponseDTO findById(Long id) {
@@ -64,6 +111,34 @@ public class PracaServiceImpl implements PracaService {
                 .orElseThrow(() -> new ResourceNotFoundException("Praça não encontrada com ID: " + id));
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<PracaResponseDTO> findMaisProximas(Double latitude, Double longitude, Integer limite) {
+        if (latitude == null || latitude < -90 || latitude > 90 || longitude == null || longitude < -180 || longitude > 180) {
+            throw new BusinessException("Latitude ou longitude fora dos limites permitidos");
+        }
+        if (limite == null || limite <= 0 || limite > MAX_NEAREST_LIMIT) {
+            throw new BusinessException("O limite deve estar entre 1 e " + MAX_NEAREST_LIMIT);
+        }
+
+        if (!postgisSupport.pracasDisponivel()) {
+            var escalaLongitude = Math.pow(Math.cos(Math.toRadians(latitude)), 2);
+            return pracaRepository.findMaisProximasAproximado(latitude, longitude, escalaLongitude, PageRequest.of(0, limite))
+                    .stream()
+                    .map(this::toResponseDTO)
+                    .toList();
+        }
+
+        var ids = pracaRepository.findIdsMaisProximas(latitude, longitude, limite);
+        var pracas = pracaRepository.findByIdIn(ids).stream()
+                .collect(Collectors.toMap(Praca::getId, Function.identity()));
+        return ids.stream()
+                .map(pracas::get)
+                .filter(Objects::nonNull)
+                .map(this::toResponseDTO)
+                .toList();
+    }
+
     @Override
     @Transactional(readOnly = true)
     public PracaDetailResponseDTO findByIdWithDetails(Long id) {
@@ -75,7 +150,7 @@ public class PracaServiceImpl implements PracaService {
 
     @Override
     @Transactional
-    public PracaResponseDTO create(PracaRequestDTO dto, MultipartFile arquivo) {
+    public PracaResponseDTO create(PracaRequestDTO dto, ArquivoService.ImagemPreparada imagem) {
         var pessoaFisica = getPessoaFisicaFromAuthenticatedUser();
         var geometry = geometryService.process(dto.poligono(), dto.latitude(), dto.longitude(), dto.metragemM2());
 
@@ -88,13 +163,15 @@ public class PracaServiceImpl implements PracaService {
                 .longitude(geometry.longitude())
                 .poligonoGeoJson(geometry.polygonGeoJson())
                 .descricao(dto.descricao())
-                .arquivo(salvarImagem(arquivo))
+                .arquivoId(arquivoService.salvarImagem(imagem))
                 .metragemM2(geometry.metragemM2())
                 .status(StatusPraca.DISPONIVEL)
                 .cadastradoPor(pessoaFisica)
                 .build();
 
         var saved = pracaRepository.save(praca);
+        vectorTileService.sincronizarPraca(saved);
+        metricasService.publicarInclusao(saved);
         log.info("Praça criada com ID: {} pelo usuário: {}", saved.getId(),
                 pessoaFisica != null ? pessoaFisica.getNome() : AuthenticatedUser.username());
         return toResponseDTO(saved);
@@ -106,25 +183,32 @@ public class PracaServiceImpl implements PracaService {
         var praca = pracaRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Praça não encontrada com ID: " + id));
         var geometry = geometryService.process(dto.poligono(), dto.latitude(), dto.longitude(), dto.metragemM2());
+        var metricas = metricasService.capturar(praca, praca.getAdocoes());
 
-        BeanUtils.copyProperties(dto, praca, "id", "status", "cadastradoPor", "adocoes", "arquivo",
+        BeanUtils.copyProperties(dto, praca, "id", "status", "cadastradoPor", "adocoes", "arquivoId",
                 "latitude", "longitude", "metragemM2", "poligono");
         praca.setLatitude(geometry.latitude());
         praca.setLongitude(geometry.longitude());
         praca.setMetragemM2(geometry.metragemM2());
         praca.setPoligonoGeoJson(geometry.polygonGeoJson());
 
+        var saved = pracaRepository.save(praca);
+        vectorTileService.sincronizarPraca(saved);
+        metricasService.publicar(metricas);
         log.info("Praça ID: {} atualizada", id);
-        return toResponseDTO(pracaRepository.save(praca));
+        return toResponseDTO(saved);
     }
 
     @Override
     @Transactional
     public void delete(Long id) {
-        if (!pracaRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Praça não encontrada com ID: " + id);
-        }
-        pracaRepository.deleteById(id);
+        var praca = pracaRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Praça não encontrada com ID: " + id));
+        var metricas = metricasService.capturar(praca, praca.getAdocoes());
+        pracaRepository.delete(praca);
+        metricasService.publicarExclusao(metricas);
+        arquivoService.liberar(praca.getArquivoId());
+        vectorTileService.removerPraca(id);
         log.info("Praça ID: {} excluída", id);
     }
 
@@ -156,7 +240,23 @@ public class PracaServiceImpl implements PracaService {
                 praca.getLatitude(),
                 praca.getLongitude(),
                 praca.getDescricao(),
-                ArquivoUrls.url(praca.getArquivo()),
+                ArquivoUrls.url(praca.getArquivoId()),
+                praca.getMetragemM2(),
+                praca.getStatus()
+        );
+    }
+
+    private PracaResponseDTO toResponseDTO(PracaResumo praca) {
+        return new PracaResponseDTO(
+                praca.getId(),
+                praca.getNome(),
+                praca.getLogradouro(),
+                praca.getBairro(),
+                praca.getCidade(),
+                praca.getLatitude(),
+                praca.getLongitude(),
+                praca.getDescricao(),
+                ArquivoUrls.url(praca.getArquivoId()),
                 praca.getMetragemM2(),
                 praca.getStatus()
         );
@@ -193,7 +293,7 @@ public class PracaServiceImpl implements PracaService {
                 praca.getLongitude(),
                 geometryService.readGeoJson(praca.getPoligonoGeoJson()),
                 praca.getDescricao(),
-                ArquivoUrls.url(praca.getArquivo()),
+                ArquivoUrls.url(praca.getArquivoId()),
                 praca.getMetragemM2(),
                 praca.getStatus(),
                 cadastradoPorDTO,
@@ -201,9 +301,17 @@ public class PracaServiceImpl implements PracaService {
         );
     }
 
-    private br.senai.sc.communitex.model.Arquivo salvarImagem(MultipartFile arquivo) {
-        if (arquivo == null || arquivo.isEmpty()) return null;
-        return arquivoService.salvarImagem(arquivo);
-    }
+    private record Filtros(Long id, String nome, String cidade) {
+
+        private static Filtros de(PracaPesquisaDTO pesquisaDTO) {
+            if (pesquisaDTO == null) {
+                return new Filtros(null, null, null);
+            }
+            return new Filtros(pesquisaDTO.id(), padraoLike(pesquisaDTO.nome()), padraoLike(pesquisaDTO.cidade()));
+        }
 
+        private static String padraoLike(String valor) {
+            return valor == null || valor.trim().isEmpty() ? null : "%" + valor.toLowerCase(Locale.ROOT) + "%";
+        }
+    }
 }
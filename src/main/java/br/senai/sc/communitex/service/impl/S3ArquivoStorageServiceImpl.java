@@ -0,0 +1,79 @@
+package br.senai.sc.communitex.service.impl;
+
+import br.senai.sc.communitex.exception.ResourceNotFoundException;
+import br.senai.sc.communitex.service.ArquivoStorageService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.core.sync.ResponseTransformer;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Guarda o conteudo em um bucket compativel com S3 (AWS S3 ou MinIO), com a chave {@code <prefixo><id>}.
+ */
+@Service
+@ConditionalOnProperty(name = "app.arquivos.storage", havingValue = ArquivoStorageService.S3)
+public class S3ArquivoStorageServiceImpl implements ArquivoStorageService {
+
+    private final S3Client s3Client;
+    private final String bucket;
+    private final String prefixo;
+
+    public S3ArquivoStorageServiceImpl(S3Client s3Client,
+                                       @Value("${app.arquivos.s3.bucket}") String bucket,
+                                       @Value("${app.arquivos.s3.prefixo:arquivos/}") String prefixo) {
+        this.s3Client = s3Client;
+        this.bucket = bucket;
+        this.prefixo = prefixo;
+    }
+
+    @Override
+    public String tipo() {
+        return S3;
+    }
+
+    @Override
+    public void gravar(Long arquivoId, InputStream conteudo, long tamanhoBytes) {
+        s3Client.putObject(PutObjectRequest.builder().bucket(bucket).key(chave(arquivoId)).build(),
+                RequestBody.fromInputStream(conteudo, tamanhoBytes));
+    }
+
+    @Override
+    public void transmitir(Long arquivoId, OutputStream saida) {
+        transmitir(arquivoId, GetObjectRequest.builder().bucket(bucket).key(chave(arquivoId)).build(), saida);
+    }
+
+    @Override
+    public void transmitir(Long arquivoId, long inicio, long tamanho, OutputStream saida) {
+        var intervalo = "bytes=" + inicio + "-" + (inicio + tamanho - 1);
+        transmitir(arquivoId, GetObjectRequest.builder().bucket(bucket).key(chave(arquivoId)).range(intervalo).build(), saida);
+    }
+
+    @Override
+    public void excluir(Long arquivoId) {
+        s3Client.deleteObject(DeleteObjectRequest.builder().bucket(bucket).key(chave(arquivoId)).build());
+    }
+
+    /**
+     * O S3 responde {@code NoSuchKey} antes de qualquer byte do corpo, entao a resposta ainda pode virar um 404.
+     */
+    private void transmitir(Long arquivoId, GetObjectRequest requisicao, OutputStream saida) {
+        try {
+            s3Client.getObject(requisicao, ResponseTransformer.toOutputStream(saida));
+        } catch (NoSuchKeyException ex) {
+            throw new ResourceNotFoundException("Conteudo do arquivo ID: " + arquivoId + " nao encontrado no bucket");
+        }
+    }
+
+    private String chave(Long arquivoId) {
+        return prefixo + arquivoId;
+    }
+}
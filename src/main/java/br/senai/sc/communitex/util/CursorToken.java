@@ -0,0 +1,39 @@
+package br.senai.sc.communitex.util;
+
+import br.senai.sc.communitex.exception.BusinessException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Codifica a chave da ultima linha de uma pagina em um token opaco (base64url) usado na paginacao por cursor.
+ */
+public final class CursorToken {
+
+    private static final String SEPARADOR = "|";
+
+    private CursorToken() {
+    }
+
+    public static String codificar(Object... partes) {
+        var chave = new StringBuilder();
+        for (int i = 0; i < partes.length; i++) {
+            if (i > 0) chave.append(SEPARADOR);
+            chave.append(partes[i]);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(chave.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String[] decodificar(String cursor, int partes) {
+        try {
+            var chave = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            var valores = chave.split("\\" + SEPARADOR, -1);
+            if (valores.length != partes) {
+                throw new BusinessException("Cursor de paginacao invalido");
+            }
+            return valores;
+        } catch (IllegalArgumentException ex) {
+            throw new BusinessException("Cursor de paginacao invalido");
+        }
+    }
+}
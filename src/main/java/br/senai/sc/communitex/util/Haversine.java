@@ -0,0 +1,24 @@
+package br.senai.sc.communitex.util;
+
+public final class Haversine {
+
+    private static final double EARTH_RADIUS_METERS = 6_371_000;
+
+    private Haversine() {
+    }
+
+    public static double distanciaMetros(double lat1, double lon1, double lat2, double lon2) {
+        var lat1Rad = Math.toRadians(lat1);
+        var lat2Rad = Math.toRadians(lat2);
+        var deltaLat = Math.toRadians(lat2 - lat1);
+        var deltaLon = Math.toRadians(lon2 - lon1);
+
+        var a = Math.sin(deltaLat / 2) * Math.sin(deltaLat / 2) +
+                Math.cos(lat1Rad) * Math.cos(lat2Rad) *
+                Math.sin(deltaLon / 2) * Math.sin(deltaLon / 2);
+
+        var c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+
+        return EARTH_RADIUS_METERS * c;
+    }
+}
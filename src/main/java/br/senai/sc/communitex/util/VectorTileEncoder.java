@@ -0,0 +1,183 @@
+package br.senai.sc.communitex.util;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Codificador minimo de Mapbox Vector Tiles (especificacao 2.1) para pontos e poligonos simples,
+ * com propriedades do tipo texto. As coordenadas ja devem estar no sistema do tile (0 a {@link #EXTENT}).
+ */
+public final class VectorTileEncoder {
+
+    public static final int EXTENT = 4096;
+
+    private static final int GEOMETRIA_PONTO = 1;
+    private static final int GEOMETRIA_POLIGONO = 3;
+    private static final int MOVE_TO = 1;
+    private static final int LINE_TO = 2;
+    private static final int CLOSE_PATH = 7;
+
+    private final Map<String, Camada> camadas = new LinkedHashMap<>();
+
+    public Camada camada(String nome) {
+        return camadas.computeIfAbsent(nome, Camada::new);
+    }
+
+    public byte[] encode() {
+        var tile = new Protobuf();
+        camadas.values().stream()
+                .filter(camada -> !camada.feicoes.isEmpty())
+                .forEach(camada -> tile.mensagem(3, camada.encode()));
+        return tile.toByteArray();
+    }
+
+    public static final class Camada {
+
+        private final String nome;
+        private final List<byte[]> feicoes = new ArrayList<>();
+        private final Map<String, Integer> chaves = new LinkedHashMap<>();
+        private final Map<String, Integer> valores = new LinkedHashMap<>();
+
+        private Camada(String nome) {
+            this.nome = nome;
+        }
+
+        public void ponto(Long id, Map<String, String> propriedades, int x, int y) {
+            var geometria = List.of(comando(MOVE_TO, 1), zigZag(x), zigZag(y));
+            feicoes.add(feicao(id, propriedades, GEOMETRIA_PONTO, geometria));
+        }
+
+        /**
+         * Adiciona um poligono com um unico anel (sem repetir o primeiro vertice no final).
+         * Retorna {@code false} quando o anel degenera para menos de 3 vertices apos a quantizacao.
+         */
+        public boolean poligono(Long id, Map<String, String> propriedades, int[] xs, int[] ys) {
+            var anelX = new ArrayList<Integer>();
+            var anelY = new ArrayList<Integer>();
+            for (int i = 0; i < xs.length; i++) {
+                var ultimo = anelX.size() - 1;
+                if (ultimo < 0 || anelX.get(ultimo) != xs[i] || anelY.get(ultimo) != ys[i]) {
+                    anelX.add(xs[i]);
+                    anelY.add(ys[i]);
+                }
+            }
+            while (anelX.size() > 1 && anelX.get(0).equals(anelX.get(anelX.size() - 1))
+                    && anelY.get(0).equals(anelY.get(anelY.size() - 1))) {
+                anelX.remove(anelX.size() - 1);
+                anelY.remove(anelY.size() - 1);
+            }
+            if (anelX.size() < 3) return false;
+
+            long area = 0;
+            for (int i = 0; i < anelX.size(); i++) {
+                var proximo = (i + 1) % anelX.size();
+                area += (long) anelX.get(i) * anelY.get(proximo) - (long) anelX.get(proximo) * anelY.get(i);
+            }
+            if (area == 0) return false;
+            if (area < 0) {
+                Collections.reverse(anelX);
+                Collections.reverse(anelY);
+            }
+
+            var geometria = new ArrayList<Integer>();
+            geometria.add(comando(MOVE_TO, 1));
+            geometria.add(zigZag(anelX.get(0)));
+            geometria.add(zigZag(anelY.get(0)));
+            geometria.add(comando(LINE_TO, anelX.size() - 1));
+            for (int i = 1; i < anelX.size(); i++) {
+                geometria.add(zigZag(anelX.get(i) - anelX.get(i - 1)));
+                geometria.add(zigZag(anelY.get(i) - anelY.get(i - 1)));
+            }
+            geometria.add(comando(CLOSE_PATH, 1));
+            feicoes.add(feicao(id, propriedades, GEOMETRIA_POLIGONO, geometria));
+            return true;
+        }
+
+        private byte[] feicao(Long id, Map<String, String> propriedades, int tipo, List<Integer> geometria) {
+            var tags = new ArrayList<Integer>();
+            propriedades.forEach((chave, valor) -> {
+                if (valor == null) return;
+                tags.add(chaves.computeIfAbsent(chave, k -> chaves.size()));
+                tags.add(valores.computeIfAbsent(valor, v -> valores.size()));
+            });
+
+            var feicao = new Protobuf();
+            if (id != null) feicao.varint(1, id);
+            feicao.empacotado(2, tags);
+            feicao.varint(3, tipo);
+            feicao.empacotado(4, geometria);
+            return feicao.toByteArray();
+        }
+
+        private byte[] encode() {
+            var camada = new Protobuf();
+            camada.varint(15, 2);
+            camada.texto(1, nome);
+            feicoes.forEach(feicao -> camada.mensagem(2, feicao));
+            chaves.keySet().forEach(chave -> camada.texto(3, chave));
+            valores.keySet().forEach(valor -> {
+                var valorMensagem = new Protobuf();
+                valorMensagem.texto(1, valor);
+                camada.mensagem(4, valorMensagem.toByteArray());
+            });
+            camada.varint(5, EXTENT);
+            return camada.toByteArray();
+        }
+    }
+
+    private static int comando(int id, int quantidade) {
+        return (id & 0x7) | (quantidade << 3);
+    }
+
+    private static int zigZag(int valor) {
+        return (valor << 1) ^ (valor >> 31);
+    }
+
+    private static final class Protobuf {
+
+        private final ByteArrayOutputStream saida = new ByteArrayOutputStream();
+
+        private void varint(int campo, long valor) {
+            chave(campo, 0);
+            escreverVarint(valor);
+        }
+
+        private void texto(int campo, String valor) {
+            mensagem(campo, valor.getBytes(StandardCharsets.UTF_8));
+        }
+
+        private void mensagem(int campo, byte[] bytes) {
+            chave(campo, 2);
+            escreverVarint(bytes.length);
+            saida.writeBytes(bytes);
+        }
+
+        private void empacotado(int campo, List<Integer> valores) {
+            if (valores.isEmpty()) return;
+            var conteudo = new Protobuf();
+            valores.forEach(valor -> conteudo.escreverVarint(Integer.toUnsignedLong(valor)));
+            mensagem(campo, conteudo.toByteArray());
+        }
+
+        private void chave(int campo, int tipo) {
+            escreverVarint(((long) campo << 3) | tipo);
+        }
+
+        private void escreverVarint(long valor) {
+            while ((valor & ~0x7FL) != 0) {
+                saida.write((int) ((valor & 0x7F) | 0x80));
+                valor >>>= 7;
+            }
+            saida.write((int) valor);
+        }
+
+        private byte[] toByteArray() {
+            return saida.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package br.senai.sc.communitex.util;
+
+/**
+ * Projecao Web Mercator normalizada: x e y variam de 0 a 1, com y crescendo para o sul.
+ */
+public final class WebMercator {
+
+    private WebMercator() {
+    }
+
+    public static double x(double longitude) {
+        return longitude / 360 + 0.5;
+    }
+
+    public static double y(double latitude) {
+        var seno = Math.sin(Math.toRadians(latitude));
+        var y = 0.5 - 0.25 * Math.log((1 + seno) / (1 - seno)) / Math.PI;
+        return Math.max(0, Math.min(1, y));
+    }
+
+    public static double longitude(double x) {
+        return (x - 0.5) * 360;
+    }
+
+    public static double latitude(double y) {
+        return Math.toDegrees(Math.atan(Math.sinh(Math.PI * (1 - 2 * y))));
+    }
+}
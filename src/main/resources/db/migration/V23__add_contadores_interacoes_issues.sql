@@ -0,0 +1,8 @@
+ALTER TABLE issues ADD COLUMN IF NOT EXISTS total_interacoes INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE issues ADD COLUMN IF NOT EXISTS total_apoios INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE issues ADD COLUMN IF NOT EXISTS total_curtidas INTEGER NOT NULL DEFAULT 0;
+
+UPDATE issues SET
+    total_interacoes = (SELECT COUNT(*) FROM issue_interactions i WHERE i.issue_id = issues.id),
+    total_apoios = (SELECT COUNT(*) FROM issue_interactions i WHERE i.issue_id = issues.id AND i.tipo = 'APOIO'),
+    total_curtidas = (SELECT COUNT(*) FROM issue_interactions i WHERE i.issue_id = issues.id AND i.tipo = 'CURTIDA');
@@ -0,0 +1 @@
+CREATE INDEX idx_issues_ativa_data_criacao_id ON issues(ativa, data_criacao, id);
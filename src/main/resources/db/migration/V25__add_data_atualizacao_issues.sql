@@ -0,0 +1,7 @@
+ALTER TABLE issues ADD COLUMN IF NOT EXISTS data_atualizacao TIMESTAMP;
+
+UPDATE issues SET data_atualizacao = data_criacao WHERE data_atualizacao IS NULL;
+
+ALTER TABLE issues ALTER COLUMN data_atualizacao SET NOT NULL;
+
+CREATE INDEX idx_issues_ativa_data_atualizacao_id ON issues(ativa, data_atualizacao, id);
@@ -0,0 +1,10 @@
+CREATE TABLE arquivos_conteudo (
+    arquivo_id BIGINT PRIMARY KEY,
+    conteudo BYTEA NOT NULL,
+    CONSTRAINT fk_arquivo_conteudo_arquivo FOREIGN KEY (arquivo_id) REFERENCES arquivos(id) ON DELETE CASCADE
+);
+
+INSERT INTO arquivos_conteudo (arquivo_id, conteudo)
+SELECT id, conteudo FROM arquivos;
+
+ALTER TABLE arquivos DROP COLUMN conteudo;
@@ -0,0 +1,10 @@
+ALTER TABLE arquivos ADD COLUMN hash_sha256 VARCHAR(64);
+ALTER TABLE arquivos ADD COLUMN referencias INTEGER DEFAULT 0 NOT NULL;
+
+UPDATE arquivos SET referencias =
+    (SELECT COUNT(*) FROM pracas p WHERE p.arquivo_id = arquivos.id)
+  + (SELECT COUNT(*) FROM issues i WHERE i.arquivo_id = arquivos.id)
+  + (SELECT COUNT(*) FROM atendimentos_denuncia a WHERE a.arquivo_id = arquivos.id);
+
+CREATE UNIQUE INDEX uk_arquivos_hash_sha256 ON arquivos(hash_sha256);
+CREATE INDEX idx_arquivos_referencias ON arquivos(referencias);
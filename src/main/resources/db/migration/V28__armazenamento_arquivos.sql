@@ -0,0 +1,3 @@
+ALTER TABLE arquivos ADD COLUMN armazenamento VARCHAR(20) DEFAULT 'banco' NOT NULL;
+
+CREATE INDEX idx_arquivos_armazenamento_id ON arquivos(armazenamento, id);
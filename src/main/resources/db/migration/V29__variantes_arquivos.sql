@@ -0,0 +1,6 @@
+ALTER TABLE arquivos ADD COLUMN original_id BIGINT;
+ALTER TABLE arquivos ADD COLUMN largura INTEGER;
+
+ALTER TABLE arquivos ADD CONSTRAINT fk_arquivo_original FOREIGN KEY (original_id) REFERENCES arquivos(id) ON DELETE CASCADE;
+
+CREATE INDEX idx_arquivos_original_id_largura ON arquivos(original_id, largura);
@@ -0,0 +1,2 @@
+-- Tamanho recebido no upload, antes da conversao para WebP; nulo quando o conteudo foi gravado como enviado.
+ALTER TABLE arquivos ADD COLUMN tamanho_original_bytes BIGINT;
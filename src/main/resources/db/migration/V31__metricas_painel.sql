@@ -0,0 +1,20 @@
+-- Agregados diarios e totais correntes lidos pelos paineis; mantidos por eventos e reconciliados todas as noites
+
+CREATE TABLE metricas_diarias (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    dia         DATE NOT NULL,
+    escopo      VARCHAR(20) NOT NULL,
+    escopo_id   BIGINT NOT NULL,
+    metrica     VARCHAR(60) NOT NULL,
+    valor       DOUBLE PRECISION NOT NULL,
+    CONSTRAINT uk_metricas_diarias UNIQUE (escopo, escopo_id, metrica, dia)
+);
+
+CREATE TABLE metricas_totais (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    escopo      VARCHAR(20) NOT NULL,
+    escopo_id   BIGINT NOT NULL,
+    metrica     VARCHAR(60) NOT NULL,
+    valor       DOUBLE PRECISION NOT NULL,
+    CONSTRAINT uk_metricas_totais UNIQUE (escopo, escopo_id, metrica)
+);
@@ -0,0 +1,2 @@
+CREATE INDEX idx_adocoes_empresa_data_inicio ON adocoes(empresa_id, data_inicio, id);
+CREATE INDEX idx_atendimentos_empresa_data_aceite ON atendimentos_denuncia(empresa_id, data_aceite, id);
@@ -0,0 +1 @@
+ALTER TABLE arquivos ADD COLUMN enviado_por VARCHAR(255);
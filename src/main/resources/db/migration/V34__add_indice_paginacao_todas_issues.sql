@@ -0,0 +1 @@
+CREATE INDEX idx_issues_data_criacao_id ON issues(data_criacao, id);
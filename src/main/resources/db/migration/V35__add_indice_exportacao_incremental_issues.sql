@@ -0,0 +1 @@
+CREATE INDEX idx_issues_data_atualizacao_id ON issues(data_atualizacao, id);
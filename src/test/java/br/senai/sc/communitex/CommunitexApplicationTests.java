@@ -9,11 +9,19 @@ import br.senai.sc.communitex.repository.EmpresaRepository;
 import br.senai.sc.communitex.repository.PessoaFisicaRepository;
 import br.senai.sc.communitex.repository.PracaRepository;
 import br.senai.sc.communitex.repository.UsuarioRepository;
+import br.senai.sc.communitex.service.ArquivoLimpezaService;
+import br.senai.sc.communitex.service.PublicDashboardService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
 import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -21,12 +29,18 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
 @AutoConfigureMockMvc
+@ExtendWith(OutputCaptureExtension.class)
 class CommunitexApplicationTests {
 
 	@Autowired
@@ -59,9 +73,21 @@ class CommunitexApplicationTests {
 	@Autowired
 	private PasswordEncoder passwordEncoder;
 
+	@Autowired
+	private PublicDashboardService publicDashboardService;
+
 	@Autowired
 	private MockMvc mockMvc;
 
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private ArquivoLimpezaService arquivoLimpezaService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
 	@Test
 	void givenApplicationContext_whenStart_thenLoadsSuccessfully() {
 	}
@@ -97,6 +123,129 @@ class CommunitexApplicationTests {
 				.andExpect(status().isOk());
 	}
 
+	@Test
+	void givenSeededRepairs_whenRequestPublicDashboard_thenReadsMetricRollups() throws Exception {
+		var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.setStatisticsEnabled(true);
+		statistics.clear();
+		try {
+			var dashboard = publicDashboardService.obterDashboard();
+
+			assertEquals(2, dashboard.reparosConfirmados());
+			assertEquals(312.0, dashboard.tempoMedioReparoHoras());
+			assertEquals(3, statistics.getPrepareStatementCount());
+			assertEquals(0, statistics.getEntityLoadCount());
+		} finally {
+			statistics.setStatisticsEnabled(false);
+		}
+	}
+
+	@Test
+	void givenCachedPublicDashboard_whenRequestedAgain_thenServesSnapshotWithoutQueries() throws Exception {
+		var etag = mockMvc.perform(get("/api/dashboard/publico"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.reparosConfirmados").value(2))
+				.andReturn().getResponse().getHeader("ETag");
+		var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.setStatisticsEnabled(true);
+		statistics.clear();
+		try {
+			mockMvc.perform(get("/api/dashboard/publico").header("If-None-Match", etag))
+					.andExpect(status().isNotModified());
+
+			assertEquals(0, statistics.getPrepareStatementCount());
+		} finally {
+			statistics.setStatisticsEnabled(false);
+		}
+	}
+
+	@Test
+	void givenSeededIssues_whenListPage_thenPaginatesInDatabaseWithPageAndCountQueries(CapturedOutput output) throws Exception {
+		var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.setStatisticsEnabled(true);
+		statistics.clear();
+		try {
+			mockMvc.perform(get("/api/issues").param("size", "2"))
+					.andExpect(status().isOk())
+					.andExpect(jsonPath("$.content.length()").value(2));
+
+			assertEquals(2, statistics.getPrepareStatementCount());
+			assertFalse(output.getAll().contains("HHH90003004"));
+		} finally {
+			statistics.setStatisticsEnabled(false);
+		}
+	}
+
+	@Test
+	void givenSeededIssues_whenListByCursor_thenRunsSingleQueryWithoutCount() throws Exception {
+		var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.setStatisticsEnabled(true);
+		statistics.clear();
+		try {
+			mockMvc.perform(get("/api/issues/cursor").param("limite", "2"))
+					.andExpect(status().isOk())
+					.andExpect(jsonPath("$.itens.length()").value(2));
+
+			assertEquals(1, statistics.getPrepareStatementCount());
+		} finally {
+			statistics.setStatisticsEnabled(false);
+		}
+	}
+
+	@Test
+	void givenSeededIssues_whenExportNdjson_thenStreamsOneLinePerActiveIssue() throws Exception {
+		var ativas = denunciaRepository.findByAtivaTrue().size();
+
+		var resultado = mockMvc.perform(get("/api/issues/export.ndjson"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		var corpo = mockMvc.perform(asyncDispatch(resultado))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType("application/x-ndjson"))
+				.andReturn().getResponse().getContentAsString();
+
+		var linhas = corpo.lines().toList();
+		assertEquals(ativas, linhas.size());
+		assertTrue(linhas.get(0).startsWith("{\"id\":"));
+
+		var futuro = mockMvc.perform(get("/api/issues/export.ndjson").param("since", "2999-01-01T00:00:00"))
+				.andReturn();
+		assertEquals("", mockMvc.perform(asyncDispatch(futuro)).andReturn().getResponse().getContentAsString());
+	}
+
+	@Test
+	void givenSeededIssues_whenExportGeoJson_thenStreamsFeatureCollection() throws Exception {
+		var ativas = denunciaRepository.findByAtivaTrue().size();
+
+		var resultado = mockMvc.perform(get("/api/issues/export.geojson"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		mockMvc.perform(asyncDispatch(resultado))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.type").value("FeatureCollection"))
+				.andExpect(jsonPath("$.features.length()").value(ativas))
+				.andExpect(jsonPath("$.features[0].geometry.type").value("Point"));
+	}
+
+	@Test
+	void givenLegacyDuplicateFiles_whenCleanupRuns_thenMergesByHashAndCollectsOrphans() {
+		var conteudo = new byte[]{7, 7, 7};
+		for (var id : List.of(-9001L, -9002L)) {
+			jdbcTemplate.update("INSERT INTO arquivos (id, nome_original, content_type, tamanho_bytes, referencias, data_criacao) " +
+					"VALUES (?, 'legado.png', 'image/png', 3, 0, TIMESTAMP '2000-01-01 00:00:00')", id);
+			jdbcTemplate.update("INSERT INTO arquivos_conteudo (arquivo_id, conteudo) VALUES (?, ?)", id, conteudo);
+		}
+		var legados = "SELECT COUNT(*) FROM arquivos WHERE id IN (-9001, -9002)";
+
+		arquivoLimpezaService.calcularHashesPendentes();
+		assertEquals(1, jdbcTemplate.queryForObject(legados, Integer.class));
+		assertEquals(1, jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM arquivos_conteudo WHERE arquivo_id IN (-9001, -9002)", Integer.class));
+
+		arquivoLimpezaService.coletarOrfaos();
+		assertEquals(0, jdbcTemplate.queryForObject(legados, Integer.class));
+	}
+
 	private List<Long> repositoryCounts() {
 		return List.of(
 				usuarioRepository.count(),
@@ -0,0 +1,129 @@
+package br.senai.sc.communitex.controller;
+
+import br.senai.sc.communitex.exception.ResourceNotFoundException;
+import br.senai.sc.communitex.repository.projection.ArquivoMetadados;
+import br.senai.sc.communitex.service.ArquivoService;
+import br.senai.sc.communitex.service.JwtService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ArquivoController.class)
+@AutoConfigureMockMvc(addFilters = false)
+class ArquivoControllerTest {
+
+    private static final String HASH = "039058c6f2c0cb492c533b0a4d14ef77cc0f78abccced5287d84a1a2011cfb81";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private ArquivoService arquivoService;
+
+    @MockitoBean
+    private JwtService jwtService;
+
+    private ArquivoMetadados arquivo;
+
+    @BeforeEach
+    void setUp() {
+        arquivo = mock(ArquivoMetadados.class);
+        when(arquivo.getId()).thenReturn(7L);
+        when(arquivo.getContentType()).thenReturn("image/png");
+        when(arquivo.getTamanhoBytes()).thenReturn(5L);
+        when(arquivo.getHashSha256()).thenReturn(HASH);
+        when(arquivo.getDataCriacao()).thenReturn(LocalDateTime.of(2025, 1, 10, 12, 0));
+        when(arquivoService.buscarMetadados(eq(7L), any())).thenReturn(arquivo);
+        doAnswer(invocation -> {
+            invocation.getArgument(1, OutputStream.class).write(new byte[]{1, 2, 3, 4, 5});
+            return null;
+        }).when(arquivoService).transmitirConteudo(eq(arquivo), any(OutputStream.class));
+    }
+
+    @Test
+    void givenArquivo_whenConteudo_thenRetornaBytesComValidadores() throws Exception {
+        mockMvc.perform(get("/api/arquivos/7/conteudo"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"" + HASH + "\""))
+                .andExpect(header().exists("Last-Modified"))
+                .andExpect(header().string("Accept-Ranges", "bytes"))
+                .andExpect(header().string("Cache-Control", "max-age=86400, public"))
+                .andExpect(content().bytes(new byte[]{1, 2, 3, 4, 5}));
+    }
+
+    @Test
+    void givenConteudoAusenteNoBackend_whenConteudo_thenRetorna404SemOTamanhoDoArquivo() throws Exception {
+        doThrow(new ResourceNotFoundException("Conteudo do arquivo ID: 7 nao encontrado em disco"))
+                .when(arquivoService).transmitirConteudo(eq(arquivo), any(OutputStream.class));
+
+        mockMvc.perform(get("/api/arquivos/7/conteudo"))
+                .andExpect(status().isNotFound())
+                .andExpect(header().doesNotExist("ETag"))
+                .andExpect(result -> assertNotEquals(5L, result.getResponse().getContentLengthLong()));
+    }
+
+    @Test
+    void givenIfNoneMatchIgual_whenConteudo_thenRetorna304SemLerConteudo() throws Exception {
+        mockMvc.perform(get("/api/arquivos/7/conteudo").header("If-None-Match", "\"" + HASH + "\""))
+                .andExpect(status().isNotModified());
+
+        verify(arquivoService, never()).transmitirConteudo(any(), any(OutputStream.class));
+        verify(arquivoService, never()).transmitirConteudo(any(), anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void givenRange_whenConteudo_thenRetornaConteudoParcial() throws Exception {
+        doAnswer(invocation -> {
+            invocation.getArgument(3, OutputStream.class).write(new byte[]{2, 3});
+            return null;
+        }).when(arquivoService).transmitirConteudo(eq(arquivo), eq(1L), eq(2L), any(OutputStream.class));
+
+        mockMvc.perform(get("/api/arquivos/7/conteudo").header("Range", "bytes=1-2"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string("Content-Range", "bytes 1-2/5"))
+                .andExpect(content().bytes(new byte[]{2, 3}));
+    }
+
+    @Test
+    void givenIfRangeDesatualizado_whenConteudo_thenRetornaArquivoInteiro() throws Exception {
+        mockMvc.perform(get("/api/arquivos/7/conteudo").header("Range", "bytes=1-2").header("If-Range", "\"outro\""))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(new byte[]{1, 2, 3, 4, 5}));
+    }
+
+    @Test
+    void givenRangeForaDoArquivo_whenConteudo_thenRetorna416() throws Exception {
+        mockMvc.perform(get("/api/arquivos/7/conteudo").header("Range", "bytes=10-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string("Content-Range", "bytes */5"));
+    }
+
+    @Test
+    void givenVarianteAindaNaoGerada_whenConteudo_thenUsaCacheCurto() throws Exception {
+        mockMvc.perform(get("/api/arquivos/7/conteudo").param("w", "480"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "max-age=60, public"));
+    }
+}
@@ -0,0 +1,94 @@
+package br.senai.sc.communitex.controller;
+
+import br.senai.sc.communitex.exception.UploadConflictException;
+import br.senai.sc.communitex.service.ArquivoUploadService;
+import br.senai.sc.communitex.service.JwtService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.InputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ArquivoUploadController.class)
+@AutoConfigureMockMvc(addFilters = false)
+class ArquivoUploadControllerTest {
+
+    private static final String ID = "0f8fad5b-d9cb-469f-a165-70867728950e";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private ArquivoUploadService uploadService;
+
+    @MockitoBean
+    private JwtService jwtService;
+
+    @Test
+    void criaUploadComTamanhoENomeDoArquivo() throws Exception {
+        when(uploadService.criar(1024, "foto.jpg")).thenReturn(new ArquivoUploadService.Upload(ID, 0, 1024));
+
+        mockMvc.perform(post("/api/arquivos/uploads")
+                        .header("Upload-Length", "1024")
+                        .header("Upload-Metadata", "filetype aW1hZ2UvanBlZw==, filename Zm90by5qcGc="))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Location", "/api/arquivos/uploads/" + ID))
+                .andExpect(header().string("Upload-Offset", "0"))
+                .andExpect(header().string("Tus-Resumable", "1.0.0"));
+    }
+
+    @Test
+    void enviaBlocoEDevolveNovoDeslocamento() throws Exception {
+        when(uploadService.anexar(eq(ID), eq(512L), any(InputStream.class)))
+                .thenReturn(new ArquivoUploadService.Upload(ID, 1024, 1024));
+
+        mockMvc.perform(patch("/api/arquivos/uploads/" + ID)
+                        .contentType("application/offset+octet-stream")
+                        .header("Upload-Offset", "512")
+                        .content(new byte[512]))
+                .andExpect(status().isNoContent())
+                .andExpect(header().string("Upload-Offset", "1024"));
+    }
+
+    @Test
+    void deslocamentoDivergenteRespondeConflito() throws Exception {
+        when(uploadService.anexar(eq(ID), eq(0L), any(InputStream.class)))
+                .thenThrow(new UploadConflictException("Deslocamento 0 diferente do recebido: 512"));
+
+        mockMvc.perform(patch("/api/arquivos/uploads/" + ID)
+                        .contentType("application/offset+octet-stream")
+                        .header("Upload-Offset", "0")
+                        .content(new byte[16]))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void concluiUploadDevolvendoArquivo() throws Exception {
+        when(uploadService.concluir(ID)).thenReturn(42L);
+
+        mockMvc.perform(post("/api/arquivos/uploads/" + ID + "/concluir"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.arquivoId").value(42))
+                .andExpect(jsonPath("$.url").value("/api/arquivos/42/conteudo"));
+    }
+
+    @Test
+    void metadadosSemFilenameNaoDefinemNome() {
+        assertNull(ArquivoUploadController.nomeDoArquivo("filetype aW1hZ2UvanBlZw=="));
+        assertEquals("a b.png", ArquivoUploadController.nomeDoArquivo("filename YSBiLnBuZw=="));
+    }
+}
@@ -10,6 +10,7 @@ import br.senai.sc.communitex.enums.IssueStatus;
 import br.senai.sc.communitex.enums.IssueType;
 import br.senai.sc.communitex.exception.DuplicateIssueException;
 import br.senai.sc.communitex.exception.ResourceNotFoundException;
+import br.senai.sc.communitex.service.ArquivoService;
 import br.senai.sc.communitex.service.JwtService;
 import br.senai.sc.communitex.service.DenunciaService;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -50,12 +51,15 @@ class IssueControllerTest {
     @MockitoBean
     private DenunciaService issueService;
 
+    @MockitoBean
+    private ArquivoService arquivoService;
+
     @MockitoBean
     private JwtService jwtService;
 
     @Test
         void dadoPedidoValidoAoCriar_deveRetornarCriado() throws Exception {
-        var request = new DenunciaRequestDTO("Buraco", "Buraco perigoso", -27.6, -48.5, IssueType.BURACO);
+        var request = new DenunciaRequestDTO("Buraco", "Buraco perigoso", -27.6, -48.5, IssueType.BURACO, null);
         var response = new DenunciaResponseDTO(
                 1L,
                 "Buraco",
@@ -73,7 +77,7 @@ class IssueControllerTest {
                 0
         );
 
-        when(issueService.criar(any(DenunciaRequestDTO.class), nullable(org.springframework.web.multipart.MultipartFile.class))).thenReturn(response);
+        when(issueService.criar(any(DenunciaRequestDTO.class), nullable(ArquivoService.ImagemPreparada.class))).thenReturn(response);
 
         mockMvc.perform(multipart("/api/issues")
                         .file(jsonPart("dados", objectMapper.writeValueAsString(request))))
@@ -101,9 +105,9 @@ class IssueControllerTest {
 
     @Test
         void dadaDenunciaDuplicadaAoCriar_deveRetornarConflict() throws Exception {
-        var request = new DenunciaRequestDTO("Buraco", "Buraco perigoso", -27.6, -48.5, IssueType.BURACO);
+        var request = new DenunciaRequestDTO("Buraco", "Buraco perigoso", -27.6, -48.5, IssueType.BURACO, null);
 
-        when(issueService.criar(any(DenunciaRequestDTO.class), nullable(org.springframework.web.multipart.MultipartFile.class)))
+        when(issueService.criar(any(DenunciaRequestDTO.class), nullable(ArquivoService.ImagemPreparada.class)))
                 .thenThrow(new DuplicateIssueException("Já existe denúncia similar"));
 
         mockMvc.perform(multipart("/api/issues")
@@ -5,6 +5,7 @@ import br.senai.sc.communitex.dto.PracaRequestDTO;
 import br.senai.sc.communitex.dto.PracaResponseDTO;
 import br.senai.sc.communitex.enums.StatusPraca;
 import br.senai.sc.communitex.exception.ResourceNotFoundException;
+import br.senai.sc.communitex.service.ArquivoService;
 import br.senai.sc.communitex.service.JwtService;
 import br.senai.sc.communitex.service.PracaService;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -47,6 +48,9 @@ class PracaControllerTest {
     @MockitoBean
     private PracaService pracaService;
 
+    @MockitoBean
+    private ArquivoService arquivoService;
+
     @MockitoBean
     private JwtService jwtService;
 
@@ -67,7 +71,7 @@ class PracaControllerTest {
         var request = new PracaRequestDTO("Praca Central", "Rua A", "Centro", "Floripa", -27.6, -48.5, null, "Descricao", 1000.0, StatusPraca.DISPONIVEL);
         var response = new PracaResponseDTO(1L, "Praca Central", "Rua A", "Centro", "Floripa", -27.6, -48.5, "Descricao", null, 1000.0, StatusPraca.DISPONIVEL);
 
-        when(pracaService.create(any(PracaRequestDTO.class), nullable(org.springframework.web.multipart.MultipartFile.class))).thenReturn(response);
+        when(pracaService.create(any(PracaRequestDTO.class), nullable(ArquivoService.ImagemPreparada.class))).thenReturn(response);
 
         mockMvc.perform(multipart("/api/pracas")
                         .file(jsonPart("dados", objectMapper.writeValueAsString(request))))
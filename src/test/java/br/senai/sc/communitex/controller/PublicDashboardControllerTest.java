@@ -3,7 +3,7 @@ package br.senai.sc.communitex.controller;
 import br.senai.sc.communitex.dto.PublicDashboardDTO;
 import br.senai.sc.communitex.dto.PublicDashboardMonthlyDTO;
 import br.senai.sc.communitex.service.JwtService;
-import br.senai.sc.communitex.service.PublicDashboardService;
+import br.senai.sc.communitex.service.PublicDashboardCache;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -11,10 +11,12 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.Duration;
 import java.util.List;
 
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -26,17 +28,14 @@ class PublicDashboardControllerTest {
     private MockMvc mockMvc;
 
     @MockitoBean
-    private PublicDashboardService dashboardService;
+    private PublicDashboardCache dashboardCache;
 
     @MockitoBean
     private JwtService jwtService;
 
     @Test
     void givenPublicRequest_whenObterDashboard_thenReturnsOnlyAggregatedData() throws Exception {
-        when(dashboardService.obterDashboard()).thenReturn(new PublicDashboardDTO(
-                10, 4, 7200, 8, 18.5, 40, 80,
-                List.of(new PublicDashboardMonthlyDTO("2026-06", 4, 8))
-        ));
+        stubPainel();
 
         mockMvc.perform(get("/api/dashboard/publico"))
                 .andExpect(status().isOk())
@@ -46,4 +45,30 @@ class PublicDashboardControllerTest {
                 .andExpect(jsonPath("$.empresaNome").doesNotExist())
                 .andExpect(jsonPath("$.usuarioNome").doesNotExist());
     }
+
+    @Test
+    void givenCachedDashboard_whenRequested_thenReturnsEtagAndCacheControl() throws Exception {
+        stubPainel();
+
+        mockMvc.perform(get("/api/dashboard/publico"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"abc\""))
+                .andExpect(header().string("Cache-Control", "max-age=60, public, stale-while-revalidate=60"));
+    }
+
+    @Test
+    void givenMatchingEtag_whenRequested_thenReturnsNotModified() throws Exception {
+        stubPainel();
+
+        mockMvc.perform(get("/api/dashboard/publico").header("If-None-Match", "\"abc\""))
+                .andExpect(status().isNotModified());
+    }
+
+    private void stubPainel() {
+        when(dashboardCache.obter()).thenReturn(new PublicDashboardCache.Painel(new PublicDashboardDTO(
+                10, 4, 7200, 8, 18.5, 40, 80,
+                List.of(new PublicDashboardMonthlyDTO("2026-06", 4, 8))
+        ), "\"abc\""));
+        when(dashboardCache.validade()).thenReturn(Duration.ofMinutes(1));
+    }
 }
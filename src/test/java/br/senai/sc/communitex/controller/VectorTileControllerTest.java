@@ -0,0 +1,41 @@
+package br.senai.sc.communitex.controller;
+
+import br.senai.sc.communitex.service.JwtService;
+import br.senai.sc.communitex.service.VectorTileService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(VectorTileController.class)
+@AutoConfigureMockMvc(addFilters = false)
+class VectorTileControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private VectorTileService vectorTileService;
+
+    @MockitoBean
+    private JwtService jwtService;
+
+    @Test
+    void givenTileCoordinates_whenObterTile_thenReturnsMvtBytes() throws Exception {
+        when(vectorTileService.gerarTile(14, 6007, 9373)).thenReturn(new byte[] {0x1a, 0x00});
+
+        mockMvc.perform(get("/api/tiles/14/6007/9373.mvt"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/vnd.mapbox-vector-tile"))
+                .andExpect(header().string("Cache-Control", "max-age=60, public"))
+                .andExpect(content().bytes(new byte[] {0x1a, 0x00}));
+    }
+}
@@ -1,5 +1,6 @@
 package br.senai.sc.communitex.service;
 
+import br.senai.sc.communitex.dto.AdocaoResponseDTO;
 import br.senai.sc.communitex.enums.StatusAdocao;
 import br.senai.sc.communitex.enums.StatusPraca;
 import br.senai.sc.communitex.exception.ResourceNotFoundException;
@@ -33,6 +34,10 @@ class AdocaoServiceTest {
     private EmpresaRepository empresaRepository;
     @Mock
     private PracaRepository pracaRepository;
+    @Mock
+    private VectorTileService vectorTileService;
+    @Mock
+    private MetricasPainelService metricasService;
     @InjectMocks
     private AdocaoService service;
 
@@ -40,13 +45,16 @@ class AdocaoServiceTest {
     void listsAdoptionsAndHandlesMissingRelations() {
         var adocao = Adocao.builder().id(1L).dataInicio(LocalDate.now())
                 .status(StatusAdocao.PROPOSTA).build();
-        when(adocaoRepository.findAll()).thenReturn(List.of(adocao));
+        when(adocaoRepository.findById(1L)).thenReturn(Optional.of(adocao));
+        when(adocaoRepository.findRespostas()).thenReturn(List.of(new AdocaoResponseDTO(
+                1L, adocao.getDataInicio(), null, null, StatusAdocao.PROPOSTA, null, null, null, null, null)));
 
         var result = service.findAll();
+        var detalhe = service.findById(1L);
 
         assertEquals(1, result.size());
-        assertNull(result.get(0).empresaId());
-        assertNull(result.get(0).pracaId());
+        assertNull(detalhe.empresaId());
+        assertNull(detalhe.pracaId());
     }
 
     @Test
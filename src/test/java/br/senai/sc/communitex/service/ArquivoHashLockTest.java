@@ -0,0 +1,61 @@
+package br.senai.sc.communitex.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(MockitoExtension.class)
+class ArquivoHashLockTest {
+
+    private static final String HASH = "7f47b756761a46e6d4a4d96f0d8a4448f8449235009d1f3ad1493f5c773c19e8";
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void segundoUploadDoMesmoConteudoAguardaOFimDaTransacaoDoPrimeiro() throws Exception {
+        var lock = new ArquivoHashLock(jdbcTemplate);
+        TransactionSynchronizationManager.initSynchronization();
+        lock.bloquear(HASH);
+
+        var iniciou = new CountDownLatch(1);
+        var concorrente = CompletableFuture.runAsync(() -> {
+            TransactionSynchronizationManager.initSynchronization();
+            try {
+                iniciou.countDown();
+                lock.bloquear(HASH);
+                TransactionSynchronizationManager.getSynchronizations()
+                        .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+            } finally {
+                TransactionSynchronizationManager.clearSynchronization();
+            }
+        });
+
+        assertTrue(iniciou.await(1, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        assertFalse(concorrente.isDone());
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        concorrente.get(1, TimeUnit.SECONDS);
+    }
+}
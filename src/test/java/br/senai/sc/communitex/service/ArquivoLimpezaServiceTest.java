@@ -0,0 +1,62 @@
+package br.senai.sc.communitex.service;
+
+import br.senai.sc.communitex.repository.ArquivoRepository;
+import br.senai.sc.communitex.repository.projection.ArquivoMetadados;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ArquivoLimpezaServiceTest {
+
+    @Mock
+    private ArquivoRepository repository;
+    @Mock
+    private ArquivoService arquivoService;
+    @Mock
+    private ArquivoHashLock hashLock;
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private ArquivoLimpezaService service;
+
+    @Test
+    void duplicadoUnificadoApagaOConteudoDasVariantesRemovidasEmCascata() {
+        var duplicado = metadados(7L, ArquivoStorageService.BANCO);
+        var variante = metadados(8L, ArquivoStorageService.DISCO);
+        when(repository.findIdsSemHash(Limit.of(100))).thenReturn(List.of(7L));
+        when(repository.findMetadadosById(7L)).thenReturn(Optional.of(duplicado));
+        when(repository.findIdByHashSha256(anyString())).thenReturn(Optional.of(3L));
+        when(repository.findVariantes(7L)).thenReturn(List.of(variante));
+
+        assertEquals(1, service.calcularHashesPendentes());
+
+        verify(jdbcTemplate).update("DELETE FROM arquivos WHERE id = ?", 7L);
+        verify(arquivoService).excluirConteudo(7L, ArquivoStorageService.BANCO);
+        verify(arquivoService).excluirConteudo(8L, ArquivoStorageService.DISCO);
+    }
+
+    private static ArquivoMetadados metadados(Long id, String armazenamento) {
+        var arquivo = mock(ArquivoMetadados.class);
+        when(arquivo.getId()).thenReturn(id);
+        when(arquivo.getArmazenamento()).thenReturn(armazenamento);
+        return arquivo;
+    }
+}
@@ -0,0 +1,83 @@
+package br.senai.sc.communitex.service;
+
+import br.senai.sc.communitex.repository.ArquivoRepository;
+import br.senai.sc.communitex.repository.projection.ArquivoMetadados;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.sql.ResultSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ArquivoMigracaoServiceTest {
+
+    @Mock
+    private ArquivoRepository repository;
+    @Mock
+    private ArquivoService arquivoService;
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private ArquivoStorageService destino;
+
+    @InjectMocks
+    private ArquivoMigracaoService service;
+
+    private final ArquivoMetadados arquivo = mock(ArquivoMetadados.class);
+
+    @BeforeEach
+    void setUp() {
+        when(arquivo.getId()).thenReturn(7L);
+        when(repository.findMetadadosByArmazenamento(ArquivoStorageService.BANCO, Limit.of(50))).thenReturn(List.of(arquivo));
+    }
+
+    @Test
+    void copiaConteudoEMarcaArquivoComoMigrado() throws Exception {
+        when(arquivo.getTamanhoBytes()).thenReturn(3L);
+        when(destino.tipo()).thenReturn(ArquivoStorageService.DISCO);
+        var resultSet = mock(ResultSet.class);
+        when(resultSet.getBinaryStream(1)).thenReturn(new ByteArrayInputStream(new byte[]{1, 2, 3}));
+        doAnswer(invocation -> {
+            invocation.getArgument(1, RowCallbackHandler.class).processRow(resultSet);
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), eq(7L));
+
+        assertEquals(1, service.migrarLote(destino));
+
+        verify(destino).gravar(eq(7L), any(InputStream.class), eq(3L));
+        verify(repository).updateArmazenamento(7L, ArquivoStorageService.DISCO);
+        verify(jdbcTemplate).update("DELETE FROM arquivos_conteudo WHERE arquivo_id = ?", 7L);
+    }
+
+    @Test
+    void arquivoSemLinhaDeConteudoContinuaNoBanco() {
+        assertEquals(0, service.migrarLote(destino));
+
+        verify(destino, never()).gravar(anyLong(), any(), anyLong());
+        verify(repository, never()).updateArmazenamento(anyLong(), any());
+        verify(jdbcTemplate, never()).update(anyString(), eq(7L));
+    }
+}
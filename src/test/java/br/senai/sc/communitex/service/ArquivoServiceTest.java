@@ -1,65 +1,309 @@
 package br.senai.sc.communitex.service;
 
 import br.senai.sc.communitex.exception.BusinessException;
+import br.senai.sc.communitex.exception.ForbiddenException;
+import br.senai.sc.communitex.exception.ResourceNotFoundException;
 import br.senai.sc.communitex.model.Arquivo;
 import br.senai.sc.communitex.repository.ArquivoRepository;
+import br.senai.sc.communitex.repository.projection.ArquivoMetadados;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.unit.DataSize;
 
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class ArquivoServiceTest {
 
+    private static final byte[] PNG = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n', 1, 2, 3};
+
     @Mock
     private ArquivoRepository repository;
 
-    @InjectMocks
+    @Mock
+    private ArquivoStorageService storage;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ArquivoHashLock hashLock;
+
     private ArquivoService service;
 
+    @BeforeEach
+    void setUp() {
+        when(storage.tipo()).thenReturn(ArquivoStorageService.BANCO);
+        var cache = new ArquivoConteudoCache(new SimpleMeterRegistry(), DataSize.ofMegabytes(1), DataSize.ofKilobytes(64));
+        service = new ArquivoService(repository, List.of(storage), ArquivoStorageService.BANCO, eventPublisher, cache,
+                new ImagemOtimizacaoService(false, 0.8f, 1, 25), hashLock);
+    }
+
+    @Test
+    void salvaMetadadosEConteudoNoStorageAtivo() throws Exception {
+        var upload = new MockMultipartFile("arquivo", "imagem.png", "application/octet-stream", PNG);
+        when(repository.save(any(Arquivo.class))).thenAnswer(invocation -> {
+            var arquivo = invocation.getArgument(0, Arquivo.class);
+            arquivo.setId(7L);
+            return arquivo;
+        });
+        var gravado = new ByteArrayOutputStream();
+        doAnswer(invocation -> invocation.getArgument(1, InputStream.class).transferTo(gravado))
+                .when(storage).gravar(eq(7L), any(InputStream.class), eq(11L));
+
+        var id = service.salvarImagem(service.preparar(upload));
+
+        var metadados = ArgumentCaptor.forClass(Arquivo.class);
+        verify(repository).save(metadados.capture());
+        assertEquals(7L, id);
+        assertEquals(11L, metadados.getValue().getTamanhoBytes());
+        assertEquals("image/png", metadados.getValue().getContentType());
+        assertEquals(1, metadados.getValue().getReferencias());
+        assertEquals(ArquivoStorageService.BANCO, metadados.getValue().getArmazenamento());
+        assertEquals("7f47b756761a46e6d4a4d96f0d8a4448f8449235009d1f3ad1493f5c773c19e8", metadados.getValue().getHashSha256());
+        assertArrayEquals(PNG, gravado.toByteArray());
+        assertEquals("/api/arquivos/7/conteudo", service.url(id));
+        verify(eventPublisher).publishEvent(new ArquivoService.ImagemSalva(7L));
+    }
+
     @Test
-    void salvaImagemValidaComoBlob() {
-        var upload = new MockMultipartFile("arquivo", "imagem.png", "image/png", new byte[]{1, 2, 3});
+    void converteFotoJpegParaWebpRegistrandoOsDoisTamanhos() throws Exception {
+        var cache = new ArquivoConteudoCache(new SimpleMeterRegistry(), DataSize.ofMegabytes(1), DataSize.ofKilobytes(64));
+        service = new ArquivoService(repository, List.of(storage), ArquivoStorageService.BANCO, eventPublisher, cache,
+                new ImagemOtimizacaoService(true, 0.8f, 1, 25), hashLock);
+        var jpeg = ImagemOtimizacaoServiceTest.comExif(
+                ImagemOtimizacaoServiceTest.jpeg(ImagemOtimizacaoServiceTest.foto(200, 100)), 1);
+        var upload = new MockMultipartFile("arquivo", "foto.jpg", "image/jpeg", jpeg);
         when(repository.save(any(Arquivo.class))).thenAnswer(invocation -> {
             var arquivo = invocation.getArgument(0, Arquivo.class);
             arquivo.setId(7L);
             return arquivo;
         });
+        var gravado = new ByteArrayOutputStream();
+        doAnswer(invocation -> invocation.getArgument(1, InputStream.class).transferTo(gravado))
+                .when(storage).gravar(eq(7L), any(InputStream.class), anyLong());
 
-        var arquivo = service.salvarImagem(upload);
+        var imagem = service.preparar(upload);
+        verifyNoInteractions(repository);
+        service.salvarImagem(imagem);
 
-        assertEquals(3L, arquivo.getTamanhoBytes());
-        assertEquals("image/png", arquivo.getContentType());
-        assertEquals("/api/arquivos/7/conteudo", service.url(arquivo));
+        var metadados = ArgumentCaptor.forClass(Arquivo.class);
+        verify(repository).save(metadados.capture());
+        assertEquals("image/webp", metadados.getValue().getContentType());
+        assertEquals(jpeg.length, metadados.getValue().getTamanhoOriginalBytes());
+        assertEquals(gravado.size(), metadados.getValue().getTamanhoBytes());
+        assertEquals(ArquivoService.sha256(gravado.toByteArray()), metadados.getValue().getHashSha256());
+    }
+
+    @Test
+    void buscaMenorVarianteComLarguraSuficiente() {
+        var variante = mock(ArquivoMetadados.class);
+        when(repository.findVariantes(7L, 300, Limit.of(1))).thenReturn(List.of(variante));
+
+        assertSame(variante, service.buscarMetadados(7L, 300));
+    }
+
+    @Test
+    void usaOriginalQuandoNaoHaVarianteComLarguraSuficiente() {
+        var original = mock(ArquivoMetadados.class);
+        when(repository.findVariantes(7L, 2000, Limit.of(1))).thenReturn(List.of());
+        when(repository.findMetadadosById(7L)).thenReturn(Optional.of(original));
+
+        assertSame(original, service.buscarMetadados(7L, 2000));
+    }
+
+    @Test
+    void rejeitaLarguraInvalida() {
+        assertThrows(BusinessException.class, () -> service.buscarMetadados(7L, 0));
+    }
+
+    @Test
+    void reaproveitaArquivoComMesmoHashDescartandoACopiaGravada() {
+        var upload = new MockMultipartFile("arquivo", "copia.png", "image/png", PNG);
+        var hash = "7f47b756761a46e6d4a4d96f0d8a4448f8449235009d1f3ad1493f5c773c19e8";
+        var novo = Arquivo.builder().id(8L).build();
+        when(repository.save(any(Arquivo.class))).thenReturn(novo);
+        doAnswer(invocation -> invocation.getArgument(1, InputStream.class).transferTo(OutputStream.nullOutputStream()))
+                .when(storage).gravar(eq(8L), any(InputStream.class), eq(11L));
+        when(repository.incrementarReferencias(hash)).thenReturn(1);
+        when(repository.findIdByHashSha256(hash)).thenReturn(Optional.of(7L));
+
+        assertEquals(7L, service.salvarImagem(service.preparar(upload)));
+        var ordem = inOrder(hashLock, repository);
+        ordem.verify(hashLock).bloquear(hash);
+        ordem.verify(repository).incrementarReferencias(hash);
+        verify(storage).excluir(8L);
+        verify(repository).delete(novo);
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void uploadPendenteFicaEmNomeDeQuemEnviouSemReferenciasNemDeduplicacao() {
+        var upload = new MockMultipartFile("arquivo", "foto.png", "image/png", PNG);
+        when(repository.save(any(Arquivo.class))).thenAnswer(invocation -> {
+            var arquivo = invocation.getArgument(0, Arquivo.class);
+            arquivo.setId(7L);
+            return arquivo;
+        });
+
+        assertEquals(7L, service.salvarImagemPendente(service.preparar(upload), "cidadao@communitex.com"));
+
+        var metadados = ArgumentCaptor.forClass(Arquivo.class);
+        verify(repository).save(metadados.capture());
+        assertEquals("cidadao@communitex.com", metadados.getValue().getEnviadoPor());
+        assertEquals(0, metadados.getValue().getReferencias());
+        assertNull(metadados.getValue().getHashSha256());
+        verify(repository, never()).incrementarReferencias(any());
+        verify(storage).gravar(eq(7L), any(InputStream.class), eq(11L));
+    }
+
+    @Test
+    void referenciaApenasUploadPendenteDoProprioUsuario() {
+        when(repository.referenciarPendente(7L, "cidadao@communitex.com")).thenReturn(1);
+        when(repository.referenciarPendente(8L, "cidadao@communitex.com")).thenReturn(0);
+
+        assertEquals(7L, service.referenciar(7L, "cidadao@communitex.com"));
+        assertThrows(ForbiddenException.class, () -> service.referenciar(8L, "cidadao@communitex.com"));
+    }
+
+    @Test
+    void identificaFormatoPelaAssinaturaDoConteudo() throws Exception {
+        var jpeg = new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0, 0, 0x10};
+        var webp = "RIFF\0\0\0\0WEBPVP8 ".getBytes(StandardCharsets.ISO_8859_1);
+        var entrada = new BufferedInputStream(new ByteArrayInputStream(jpeg));
+
+        assertEquals("image/jpeg", ArquivoService.contentTypeDaImagem(entrada));
+        assertArrayEquals(jpeg, entrada.readAllBytes());
+        assertEquals("image/webp", ArquivoService.contentTypeDaImagem(new BufferedInputStream(new ByteArrayInputStream(webp))));
+        assertEquals("image/png", ArquivoService.contentTypeDaImagem(new BufferedInputStream(new ByteArrayInputStream(PNG))));
+    }
+
+    @Test
+    void liberarApenasDecrementaReferencias() {
+        service.liberar(7L);
+
+        verify(repository).decrementarReferencias(7L);
+        verify(storage, never()).excluir(any());
+    }
+
+    @Test
+    void transmiteConteudoPeloStorageDoArquivo() {
+        var arquivo = mock(ArquivoMetadados.class);
+        when(arquivo.getId()).thenReturn(7L);
+        when(arquivo.getArmazenamento()).thenReturn(ArquivoStorageService.BANCO);
+        var saida = new ByteArrayOutputStream();
+
+        service.transmitirConteudo(arquivo, saida);
+
+        verify(storage).transmitir(7L, saida);
+    }
+
+    @Test
+    void conteudoPequenoEServidoDoCacheNasLeiturasSeguintes() {
+        var arquivo = mock(ArquivoMetadados.class);
+        when(arquivo.getId()).thenReturn(7L);
+        when(arquivo.getTamanhoBytes()).thenReturn(3L);
+        when(arquivo.getArmazenamento()).thenReturn(ArquivoStorageService.BANCO);
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(1).write(new byte[]{1, 2, 3});
+            return null;
+        }).when(storage).transmitir(eq(7L), any(OutputStream.class));
+
+        var primeira = new ByteArrayOutputStream();
+        service.transmitirConteudo(arquivo, primeira);
+        var segunda = new ByteArrayOutputStream();
+        service.transmitirConteudo(arquivo, segunda);
+        var intervalo = new ByteArrayOutputStream();
+        service.transmitirConteudo(arquivo, 1, 2, intervalo);
+
+        assertArrayEquals(new byte[]{1, 2, 3}, primeira.toByteArray());
+        assertArrayEquals(new byte[]{1, 2, 3}, segunda.toByteArray());
+        assertArrayEquals(new byte[]{2, 3}, intervalo.toByteArray());
+        verify(storage).transmitir(eq(7L), any(OutputStream.class));
+        verify(storage, never()).transmitir(anyLong(), anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void conteudoComTamanhoDiferenteDoRegistradoNaoFicaEmCache() {
+        var arquivo = mock(ArquivoMetadados.class);
+        when(arquivo.getId()).thenReturn(7L);
+        when(arquivo.getTamanhoBytes()).thenReturn(3L);
+        when(arquivo.getArmazenamento()).thenReturn(ArquivoStorageService.BANCO);
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(1).write(new byte[]{1});
+            return null;
+        }).when(storage).transmitir(eq(7L), any(OutputStream.class));
+
+        service.transmitirConteudo(arquivo, new ByteArrayOutputStream());
+        service.transmitirConteudo(arquivo, new ByteArrayOutputStream());
+
+        verify(storage, times(2)).transmitir(eq(7L), any(OutputStream.class));
+    }
+
+    @Test
+    void rejeitaArmazenamentoNaoConfigurado() {
+        var arquivo = mock(ArquivoMetadados.class);
+        when(arquivo.getArmazenamento()).thenReturn(ArquivoStorageService.S3);
+
+        assertThrows(IllegalStateException.class, () -> service.transmitirConteudo(arquivo, new ByteArrayOutputStream()));
     }
 
     @Test
     void arquivoOpcionalPodeSerNulo() {
+        assertNull(service.preparar(null));
         assertNull(service.salvarImagem(null));
         verify(repository, never()).save(any());
     }
 
     @Test
-    void rejeitaFormatoInvalido() {
-        var upload = new MockMultipartFile("arquivo", "arquivo.txt", "text/plain", new byte[]{1});
-        assertThrows(BusinessException.class, () -> service.salvarImagem(upload));
+    void rejeitaConteudoQueNaoEImagemMesmoComContentTypeDeImagem() {
+        var upload = new MockMultipartFile("arquivo", "arquivo.png", "image/png", "<html>".getBytes(StandardCharsets.UTF_8));
+        assertThrows(BusinessException.class, () -> service.preparar(upload));
         verify(repository, never()).save(any());
     }
 
     @Test
     void rejeitaImagemMaiorQueCincoMb() {
         var upload = new MockMultipartFile("arquivo", "imagem.png", "image/png", new byte[5 * 1024 * 1024 + 1]);
-        assertThrows(BusinessException.class, () -> service.salvarImagem(upload));
+        assertThrows(BusinessException.class, () -> service.preparar(upload));
         verify(repository, never()).save(any());
     }
+
+    @Test
+    void rejeitaMetadadosDeArquivoInexistente() {
+        when(repository.findMetadadosById(99L)).thenReturn(Optional.empty());
+        assertThrows(ResourceNotFoundException.class, () -> service.buscarMetadados(99L));
+    }
 }
@@ -0,0 +1,136 @@
+package br.senai.sc.communitex.service;
+
+import br.senai.sc.communitex.exception.BusinessException;
+import br.senai.sc.communitex.exception.ForbiddenException;
+import br.senai.sc.communitex.exception.ResourceNotFoundException;
+import br.senai.sc.communitex.exception.UploadConflictException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ArquivoUploadServiceTest {
+
+    @Mock
+    private ArquivoService arquivoService;
+
+    @TempDir
+    private Path diretorio;
+
+    private ArquivoUploadService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        service = new ArquivoUploadService(arquivoService, diretorio, Duration.ofHours(24));
+        autenticar("cidadao@communitex.com");
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void montaUploadEmBlocosEConcluiComoArquivo() {
+        var upload = service.criar(5, "foto.jpg");
+
+        assertEquals(3, service.anexar(upload.id(), 0, new ByteArrayInputStream(new byte[]{1, 2, 3})).deslocamento());
+        assertEquals(3, service.buscar(upload.id()).deslocamento());
+        assertEquals(5, service.anexar(upload.id(), 3, new ByteArrayInputStream(new byte[]{4, 5})).deslocamento());
+
+        var imagem = new ArquivoService.ImagemPreparada(null, 5, null, "image/jpeg", "foto.jpg");
+        when(arquivoService.preparar(any(Path.class), eq("foto.jpg"))).thenAnswer(invocation -> {
+            assertArrayEquals(new byte[]{1, 2, 3, 4, 5}, Files.readAllBytes(invocation.getArgument(0, Path.class)));
+            return imagem;
+        });
+        when(arquivoService.salvarImagemPendente(imagem, "cidadao@communitex.com")).thenReturn(42L);
+        assertEquals(42L, service.concluir(upload.id()));
+        assertThrows(ResourceNotFoundException.class, () -> service.buscar(upload.id()));
+    }
+
+    @Test
+    void rejeitaBlocoForaDoDeslocamentoRecebido() {
+        var upload = service.criar(5, null);
+        service.anexar(upload.id(), 0, new ByteArrayInputStream(new byte[]{1, 2}));
+
+        assertThrows(UploadConflictException.class,
+                () -> service.anexar(upload.id(), 0, new ByteArrayInputStream(new byte[]{1, 2})));
+        assertEquals(2, service.buscar(upload.id()).deslocamento());
+    }
+
+    @Test
+    void rejeitaBlocoQueUltrapassaOTamanhoDeclarado() {
+        var upload = service.criar(2, null);
+
+        assertThrows(BusinessException.class,
+                () -> service.anexar(upload.id(), 0, new ByteArrayInputStream(new byte[]{1, 2, 3})));
+    }
+
+    @Test
+    void naoConcluiUploadIncompleto() {
+        var upload = service.criar(5, null);
+        service.anexar(upload.id(), 0, new ByteArrayInputStream(new byte[]{1}));
+
+        assertThrows(UploadConflictException.class, () -> service.concluir(upload.id()));
+        verify(arquivoService, never()).salvarImagemPendente(any(), any());
+    }
+
+    @Test
+    void uploadSoPodeSerUsadoPeloCriador() {
+        var upload = service.criar(5, null);
+        autenticar("outro@communitex.com");
+
+        assertThrows(ForbiddenException.class, () -> service.buscar(upload.id()));
+    }
+
+    @Test
+    void idForaDoFormatoUuidNaoSaiDoDiretorio() {
+        assertThrows(ResourceNotFoundException.class, () -> service.buscar("../application"));
+    }
+
+    @Test
+    void rejeitaUploadMaiorQueOLimiteDeImagem() {
+        assertThrows(BusinessException.class, () -> service.criar(6 * 1024 * 1024, null));
+    }
+
+    @Test
+    void removeUploadsSemAtividadeAposAExpiracao() throws Exception {
+        var antigo = service.criar(5, null);
+        var recente = service.criar(5, null);
+        var horaAntiga = FileTime.from(Instant.now().minus(Duration.ofDays(2)));
+        Files.setLastModifiedTime(diretorio.resolve(antigo.id() + ".parte"), horaAntiga);
+
+        assertEquals(1, service.removerExpirados());
+        assertThrows(ResourceNotFoundException.class, () -> service.buscar(antigo.id()));
+        assertEquals(0, service.buscar(recente.id()).deslocamento());
+    }
+
+    private void autenticar(String username) {
+        SecurityContextHolder.getContext().setAuthentication(
+                UsernamePasswordAuthenticationToken.authenticated(username, "secret", List.of())
+        );
+    }
+}
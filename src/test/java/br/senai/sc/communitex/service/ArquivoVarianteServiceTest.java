@@ -0,0 +1,137 @@
+package br.senai.sc.communitex.service;
+
+import br.senai.sc.communitex.model.Arquivo;
+import br.senai.sc.communitex.repository.ArquivoRepository;
+import br.senai.sc.communitex.repository.projection.ArquivoMetadados;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ArquivoVarianteServiceTest {
+
+    @Mock
+    private ArquivoRepository repository;
+
+    @Mock
+    private ArquivoService arquivoService;
+
+    @Mock
+    private ArquivoStorageService storage;
+
+    private ArquivoVarianteService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new ArquivoVarianteService(repository, arquivoService, new ImagemOtimizacaoService(false, 0.8f, 1, 25), 1, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.encerrar();
+    }
+
+    @Test
+    void geraVariantesJpegMenoresQueOriginal() throws Exception {
+        imagemOriginal(600, 400);
+        when(repository.findLargurasVariantes(7L)).thenReturn(List.of());
+        when(arquivoService.storageAtivo()).thenReturn(storage);
+        when(storage.tipo()).thenReturn(ArquivoStorageService.BANCO);
+        var proximoId = new long[]{100};
+        when(repository.save(any(Arquivo.class))).thenAnswer(invocation -> {
+            var arquivo = invocation.getArgument(0, Arquivo.class);
+            arquivo.setId(proximoId[0]++);
+            return arquivo;
+        });
+        var larguras = new ArrayList<Integer>();
+        doAnswer(invocation -> {
+            larguras.add(ImageIO.read(invocation.getArgument(1, InputStream.class)).getWidth());
+            return null;
+        }).when(storage).gravar(anyLong(), any(InputStream.class), anyLong());
+
+        service.gerarVariantes(7L);
+
+        var salvos = ArgumentCaptor.forClass(Arquivo.class);
+        verify(repository, times(2)).save(salvos.capture());
+        assertEquals(List.of(128, 480), salvos.getAllValues().stream().map(Arquivo::getLargura).toList());
+        assertEquals(7L, salvos.getValue().getOriginalId());
+        assertEquals("image/jpeg", salvos.getValue().getContentType());
+        assertEquals(List.of(128, 480), larguras);
+    }
+
+    @Test
+    void naoRegeraVariantesExistentes() throws Exception {
+        imagemOriginal(600, 400);
+        when(repository.findLargurasVariantes(7L)).thenReturn(List.of(128, 480));
+
+        service.gerarVariantes(7L);
+
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void excluiVarianteQuandoGravacaoFalha() throws Exception {
+        imagemOriginal(600, 400);
+        when(repository.findLargurasVariantes(7L)).thenReturn(List.of());
+        when(arquivoService.storageAtivo()).thenReturn(storage);
+        when(storage.tipo()).thenReturn(ArquivoStorageService.BANCO);
+        when(repository.save(any(Arquivo.class))).thenAnswer(invocation -> {
+            var arquivo = invocation.getArgument(0, Arquivo.class);
+            arquivo.setId(100L);
+            return arquivo;
+        });
+        doThrow(new IllegalStateException("disco cheio"))
+                .when(storage).gravar(anyLong(), any(InputStream.class), anyLong());
+
+        service.gerarVariantes(7L);
+
+        verify(repository).deleteById(100L);
+    }
+
+    @Test
+    void redimensionaMantendoProporcao() {
+        var imagem = new BufferedImage(2000, 1000, BufferedImage.TYPE_INT_ARGB);
+
+        var variante = ArquivoVarianteService.redimensionar(imagem, 480);
+
+        assertEquals(480, variante.getWidth());
+        assertEquals(240, variante.getHeight());
+    }
+
+    private ArquivoMetadados imagemOriginal(int largura, int altura) throws Exception {
+        var png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(largura, altura, BufferedImage.TYPE_INT_RGB), "png", png);
+        var original = mock(ArquivoMetadados.class);
+        when(original.getTamanhoBytes()).thenReturn((long) png.size());
+        when(arquivoService.buscarMetadados(7L)).thenReturn(original);
+        doAnswer(invocation -> {
+            invocation.getArgument(1, OutputStream.class).write(png.toByteArray());
+            return null;
+        }).when(arquivoService).transmitirConteudo(eq(original), any(OutputStream.class));
+        return original;
+    }
+}
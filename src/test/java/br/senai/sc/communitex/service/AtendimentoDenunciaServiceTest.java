@@ -41,6 +41,10 @@ class AtendimentoDenunciaServiceTest {
     private EmpresaRepository empresaRepository;
     @Mock
     private UsuarioRepository usuarioRepository;
+    @Mock
+    private DenunciaSpatialIndex spatialIndex;
+    @Mock
+    private MetricasPainelService metricasService;
 
     @InjectMocks
     private AtendimentoDenunciaService service;
@@ -0,0 +1,102 @@
+package br.senai.sc.communitex.service;
+
+import br.senai.sc.communitex.dto.DenunciaClusterDTO;
+import br.senai.sc.communitex.enums.IssueStatus;
+import br.senai.sc.communitex.enums.IssueType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DenunciaClusterIndexTest {
+
+    @Mock
+    private DenunciaSpatialIndex spatialIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private DenunciaClusterIndex clusterIndex;
+
+    @BeforeEach
+    void setUp() {
+        clusterIndex = new DenunciaClusterIndex(spatialIndex, eventPublisher);
+        when(spatialIndex.versao()).thenReturn(1L);
+        when(spatialIndex.todas()).thenReturn(List.of(
+                entrada(1L, -27.5969, -48.5495, IssueType.BURACO, IssueStatus.ABERTA),
+                entrada(2L, -27.5970, -48.5496, IssueType.BURACO, IssueStatus.EM_ANALISE),
+                entrada(3L, -27.5971, -48.5494, IssueType.LIXO, IssueStatus.ABERTA),
+                entrada(4L, -23.5505, -46.6333, IssueType.ILUMINACAO, IssueStatus.ABERTA)
+        ));
+    }
+
+    @AfterEach
+    void tearDown() {
+        clusterIndex.encerrar();
+    }
+
+    @Test
+    void dadoZoomBaixo_aoBuscar_deveAgruparDenunciasProximas() {
+        var clusters = clusterIndex.buscar(-50, -30, -45, -20, 5);
+
+        assertEquals(2, clusters.size());
+        var cluster = clusters.stream().filter(c -> c.total() == 3).findFirst().orElseThrow();
+        assertEquals(IssueType.BURACO, cluster.tipoPredominante());
+        assertEquals(Map.of(IssueStatus.ABERTA, 2, IssueStatus.EM_ANALISE, 1), cluster.totalPorStatus());
+        assertEquals(-27.597, cluster.latitude(), 0.001);
+        assertNull(cluster.denunciaId());
+    }
+
+    @Test
+    void dadoZoomMaximo_aoBuscar_deveRetornarDenunciasIndividuaisDentroDoBbox() {
+        var clusters = clusterIndex.buscar(-48.6, -27.7, -48.5, -27.5, 22);
+
+        assertEquals(3, clusters.size());
+        assertTrue(clusters.stream().allMatch(c -> c.total() == 1 && c.denunciaId() != null));
+        assertEquals(List.of(1L, 2L, 3L), clusters.stream().map(DenunciaClusterDTO::denunciaId).sorted().toList());
+    }
+
+    @Test
+    void dadoIndiceInalterado_aoBuscarNovamente_deveReutilizarClusters() {
+        clusterIndex.buscar(-180, -85, 180, 85, 0);
+        clusterIndex.buscar(-180, -85, 180, 85, 3);
+
+        verify(spatialIndex, times(1)).todas();
+    }
+
+    @Test
+    void dadaDenunciaAlterada_aoBuscar_deveServirSnapshotAnteriorEnquantoReconstroiEmSegundoPlano() {
+        clusterIndex.buscar(-180, -85, 180, 85, 0);
+        when(spatialIndex.versao()).thenReturn(2L);
+        when(spatialIndex.todas()).thenReturn(List.of(entrada(5L, -27.5969, -48.5495, IssueType.BURACO, IssueStatus.ABERTA)));
+
+        var anteriores = clusterIndex.buscar(-180, -85, 180, 85, 22);
+        var alteracao = new DenunciaSpatialIndex.Alteracao(-27.5969, -48.5495);
+        clusterIndex.aoAlterarDenuncia(alteracao);
+
+        assertEquals(List.of(1L, 2L, 3L, 4L), anteriores.stream().map(DenunciaClusterDTO::denunciaId).sorted().toList());
+        verify(eventPublisher, timeout(5000)).publishEvent(new DenunciaClusterIndex.Atualizacao(List.of(alteracao)));
+        assertEquals(List.of(5L), clusterIndex.buscar(-180, -85, 180, 85, 22).stream()
+                .map(DenunciaClusterDTO::denunciaId).toList());
+    }
+
+    private DenunciaSpatialIndex.Entrada entrada(Long id, double latitude, double longitude,
+                                                 IssueType tipo, IssueStatus status) {
+        return new DenunciaSpatialIndex.Entrada(id, latitude, longitude, tipo, status);
+    }
+}
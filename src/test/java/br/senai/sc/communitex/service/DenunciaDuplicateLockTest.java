@@ -0,0 +1,71 @@
+package br.senai.sc.communitex.service;
+
+import br.senai.sc.communitex.enums.IssueType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(MockitoExtension.class)
+class DenunciaDuplicateLockTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void dadosPontosAMenosDoRaio_aoCalcularChaves_devemCompartilharCelula() {
+        var primeiro = DenunciaDuplicateLock.chavesDaVizinhanca(IssueType.BURACO, -27.5969, -48.5495, 20);
+        var segundo = DenunciaDuplicateLock.chavesDaVizinhanca(IssueType.BURACO, -27.59675, -48.5495, 20);
+        var outroTipo = DenunciaDuplicateLock.chavesDaVizinhanca(IssueType.ILUMINACAO, -27.5969, -48.5495, 20);
+
+        assertTrue(primeiro.size() <= 4);
+        assertTrue(primeiro.stream().anyMatch(segundo::contains));
+        assertTrue(primeiro.stream().noneMatch(outroTipo::contains));
+    }
+
+    @Test
+    void dadoLockAdquiridoNaTransacao_aoCriarOutraNoMesmoLocal_deveAguardarFimDaTransacao() throws Exception {
+        var lock = new DenunciaDuplicateLock(jdbcTemplate);
+        TransactionSynchronizationManager.initSynchronization();
+        lock.bloquearVizinhanca(IssueType.BURACO, -27.5969, -48.5495, 20);
+
+        var iniciou = new CountDownLatch(1);
+        var concorrente = CompletableFuture.runAsync(() -> {
+            TransactionSynchronizationManager.initSynchronization();
+            try {
+                iniciou.countDown();
+                lock.bloquearVizinhanca(IssueType.BURACO, -27.59685, -48.5495, 20);
+                TransactionSynchronizationManager.getSynchronizations()
+                        .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+            } finally {
+                TransactionSynchronizationManager.clearSynchronization();
+            }
+        });
+
+        assertTrue(iniciou.await(1, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        assertFalse(concorrente.isDone());
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        concorrente.get(1, TimeUnit.SECONDS);
+    }
+}
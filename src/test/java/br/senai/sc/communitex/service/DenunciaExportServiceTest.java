@@ -0,0 +1,166 @@
+package br.senai.sc.communitex.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DenunciaExportServiceTest {
+
+    private static final LocalDateTime DESDE = LocalDateTime.of(2025, 3, 1, 0, 0);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private PreparedStatement statement;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private DenunciaExportService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new DenunciaExportService(jdbcTemplate, transactionManager, objectMapper, Duration.ofMinutes(5));
+    }
+
+    @Test
+    void cargaIncrementalIncluiDesativadasSemConteudo() throws Exception {
+        linhas(ativa(1L), desativada(2L));
+        var saida = new ByteArrayOutputStream();
+
+        service.exportarNdjson(DESDE, saida);
+
+        var linhas = saida.toString().lines().map(this::ler).toList();
+        assertEquals(2, linhas.size());
+        assertTrue(linhas.get(0).get("ativa").asBoolean());
+        assertEquals("Buraco na calcada", linhas.get(0).get("titulo").asText());
+        assertEquals(-27.6, linhas.get(0).get("latitude").asDouble());
+        assertEquals(2L, linhas.get(1).get("id").asLong());
+        assertFalse(linhas.get(1).get("ativa").asBoolean());
+        assertEquals("2025-03-02T10:00", linhas.get(1).get("dataAtualizacao").asText());
+        assertFalse(linhas.get(1).has("titulo"));
+
+        var sql = consulta();
+        assertTrue(sql.contains("WHERE data_atualizacao >= ?"));
+        assertFalse(sql.contains("ativa = TRUE"));
+        verify(statement).setTimestamp(1, Timestamp.valueOf(DESDE.minusMinutes(5)));
+    }
+
+    @Test
+    void cargaCompletaExportaApenasAtivasComoPontos() throws Exception {
+        linhas(ativa(1L));
+        var saida = new ByteArrayOutputStream();
+
+        service.exportarGeoJson(null, saida);
+
+        var colecao = ler(saida.toString());
+        assertEquals("FeatureCollection", colecao.get("type").asText());
+        var feicao = colecao.get("features").get(0);
+        assertEquals(1L, feicao.get("id").asLong());
+        assertEquals("Point", feicao.get("geometry").get("type").asText());
+        assertEquals(-48.5, feicao.get("geometry").get("coordinates").get(0).asDouble());
+        assertEquals(-27.6, feicao.get("geometry").get("coordinates").get(1).asDouble());
+        assertFalse(feicao.get("properties").has("latitude"));
+        assertEquals("/api/arquivos/10/conteudo", feicao.get("properties").get("fotoUrl").asText());
+        assertTrue(consulta().contains("WHERE ativa = TRUE"));
+    }
+
+    @Test
+    void cargaIncrementalGeoJsonTrazDesativadaSemGeometria() throws Exception {
+        linhas(desativada(2L));
+        var saida = new ByteArrayOutputStream();
+
+        service.exportarGeoJson(DESDE, saida);
+
+        var feicao = ler(saida.toString()).get("features").get(0);
+        assertEquals(2L, feicao.get("id").asLong());
+        assertTrue(feicao.get("geometry").isNull());
+        assertFalse(feicao.get("properties").get("ativa").asBoolean());
+    }
+
+    private void linhas(ResultSet... linhas) throws SQLException {
+        when(connection.prepareStatement(anyString(), eq(ResultSet.TYPE_FORWARD_ONLY), eq(ResultSet.CONCUR_READ_ONLY)))
+                .thenReturn(statement);
+        doAnswer(invocation -> {
+            invocation.getArgument(0, PreparedStatementCreator.class).createPreparedStatement(connection);
+            var handler = invocation.getArgument(1, RowCallbackHandler.class);
+            for (var linha : linhas) {
+                handler.processRow(linha);
+            }
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+
+    private String consulta() throws SQLException {
+        var sql = ArgumentCaptor.forClass(String.class);
+        verify(connection).prepareStatement(sql.capture(), eq(ResultSet.TYPE_FORWARD_ONLY), eq(ResultSet.CONCUR_READ_ONLY));
+        return sql.getValue();
+    }
+
+    private JsonNode ler(String json) {
+        try {
+            return objectMapper.readTree(json);
+        } catch (Exception ex) {
+            throw new AssertionError(ex);
+        }
+    }
+
+    private static ResultSet ativa(long id) throws SQLException {
+        var linha = mock(ResultSet.class);
+        when(linha.getBoolean("ativa")).thenReturn(true);
+        when(linha.getLong("id")).thenReturn(id);
+        when(linha.getString("titulo")).thenReturn("Buraco na calcada");
+        when(linha.getString("descricao")).thenReturn("Buraco perto do banco");
+        when(linha.getString("tipo")).thenReturn("INFRAESTRUTURA");
+        when(linha.getString("status")).thenReturn("ABERTA");
+        when(linha.getDouble("latitude")).thenReturn(-27.6);
+        when(linha.getDouble("longitude")).thenReturn(-48.5);
+        when(linha.getLong("arquivo_id")).thenReturn(10L);
+        when(linha.getTimestamp("data_criacao")).thenReturn(Timestamp.valueOf(DESDE));
+        when(linha.getTimestamp("data_atualizacao")).thenReturn(Timestamp.valueOf(DESDE.plusHours(1)));
+        return linha;
+    }
+
+    private static ResultSet desativada(long id) throws SQLException {
+        var linha = mock(ResultSet.class);
+        when(linha.getLong("id")).thenReturn(id);
+        when(linha.getTimestamp("data_atualizacao")).thenReturn(Timestamp.valueOf(DESDE.plusDays(1).plusHours(10)));
+        return linha;
+    }
+}
@@ -0,0 +1,98 @@
+package br.senai.sc.communitex.service;
+
+import br.senai.sc.communitex.enums.IssueStatus;
+import br.senai.sc.communitex.enums.IssueType;
+import br.senai.sc.communitex.model.Denuncia;
+import br.senai.sc.communitex.repository.DenunciaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DenunciaSpatialIndexTest {
+
+    @Mock
+    private DenunciaRepository denunciaRepository;
+
+    private DenunciaSpatialIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new DenunciaSpatialIndex(denunciaRepository, evento -> {});
+        when(denunciaRepository.findLocalizacoesAtivas()).thenReturn(List.of());
+        index.recarregar();
+    }
+
+    @Test
+    void dadasDenunciasEmCelulasVizinhas_aoBuscarPorRaio_deveFiltrarPelaDistanciaExataEOrdenar() {
+        index.sincronizar(denuncia(1L, -27.5969, -48.5495, true));
+        index.sincronizar(denuncia(2L, -27.5960, -48.5495, true));
+        index.sincronizar(denuncia(3L, -27.5969, -48.5380, true));
+        index.sincronizar(denuncia(4L, -27.7000, -48.7000, true));
+
+        var ids = index.buscarPorRaio(-27.5962, -48.5495, 200).stream()
+                .map(DenunciaSpatialIndex.Entrada::id)
+                .toList();
+
+        assertEquals(List.of(2L, 1L), ids);
+        assertEquals(3, index.buscarPorRaio(-27.5962, -48.5495, 1_500).size());
+    }
+
+    @Test
+    void dadaDenunciaAtualizadaNoLugar_aoSincronizar_deveAvancarAVersaoEPublicarUmaVez() {
+        var eventos = new ArrayList<Object>();
+        index = new DenunciaSpatialIndex(denunciaRepository, eventos::add);
+        index.recarregar();
+        index.sincronizar(denuncia(1L, -27.5969, -48.5495, true));
+        var versao = index.versao();
+        eventos.clear();
+
+        index.sincronizar(denuncia(1L, -27.5969, -48.5495, true));
+
+        assertEquals(versao + 1, index.versao());
+        assertEquals(List.of(new DenunciaSpatialIndex.Alteracao(-27.5969, -48.5495)), eventos);
+    }
+
+    @Test
+    void dadaDenunciaInativadaOuMovida_aoSincronizar_deveAtualizarCelulas() {
+        index.sincronizar(denuncia(1L, -27.5969, -48.5495, true));
+        index.sincronizar(denuncia(1L, -27.6500, -48.6000, true));
+
+        assertTrue(index.buscarPorRaio(-27.5969, -48.5495, 100).isEmpty());
+        assertEquals(1, index.buscarPorRaio(-27.6500, -48.6000, 100).size());
+
+        index.sincronizar(denuncia(1L, -27.6500, -48.6000, false));
+
+        assertTrue(index.buscarPorRaio(-27.6500, -48.6000, 100).isEmpty());
+    }
+
+    @Test
+    void dadoRaioAmplo_aoBuscar_naoDeveConsultarOBancoNovamente() {
+        index.sincronizar(denuncia(1L, -27.5969, -48.5495, true));
+
+        assertEquals(1, index.buscarPorRaio(-27.5969, -48.5495, 50_000).size());
+        verify(denunciaRepository, times(1)).findLocalizacoesAtivas();
+    }
+
+    private Denuncia denuncia(Long id, double latitude, double longitude, boolean ativa) {
+        return Denuncia.builder()
+                .id(id)
+                .latitude(latitude)
+                .longitude(longitude)
+                .tipo(IssueType.BURACO)
+                .status(IssueStatus.ABERTA)
+                .ativa(ativa)
+                .build();
+    }
+}
@@ -1,6 +1,7 @@
 package br.senai.sc.communitex.service;
 
 import br.senai.sc.communitex.enums.AtendimentoDenunciaStatus;
+import br.senai.sc.communitex.enums.EscopoMetrica;
 import br.senai.sc.communitex.enums.StatusAdocao;
 import br.senai.sc.communitex.enums.StatusPraca;
 import br.senai.sc.communitex.model.Adocao;
@@ -19,15 +20,20 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -41,6 +47,8 @@ class EmpresaDashboardServiceTest {
     private AdocaoRepository adocaoRepository;
     @Mock
     private AtendimentoDenunciaRepository atendimentoRepository;
+    @Mock
+    private MetricasPainelService metricasService;
 
     @InjectMocks
     private EmpresaDashboardService dashboardService;
@@ -68,10 +76,18 @@ class EmpresaDashboardServiceTest {
                 UsernamePasswordAuthenticationToken.authenticated("empresa", "secret", List.of())
         );
         when(empresaRepository.buscarPorUsuarioRepresentanteUsername("empresa")).thenReturn(Optional.of(empresa));
-        when(adocaoRepository.findByEmpresaId(3L)).thenReturn(List.of(aprovada, rejeitada));
-        when(atendimentoRepository.findByEmpresaIdOrderByDataAceiteDesc(3L))
+        when(adocaoRepository.findRecentesByEmpresaId(3L, Limit.of(5))).thenReturn(List.of(aprovada, rejeitada));
+        when(atendimentoRepository.findByEmpresaIdAndDenunciaAtivaTrueOrderByDataAceiteDescIdDesc(3L, Limit.of(5)))
                 .thenReturn(List.of(contestado, aguardandoConfirmacao, emAndamento, aceito, confirmado));
-        when(pracaRepository.countByStatus(StatusPraca.DISPONIVEL)).thenReturn(6L);
+        when(metricasService.totais(EscopoMetrica.EMPRESA, 3L)).thenReturn(new MetricasPainelService.Totais(Map.of(
+                "ADOCAO:APROVADA", 1.0, "ADOCAO:REJEITADA", 1.0, "ADOCAO_AREA:APROVADA", 1250.0, "ADOCAO_AREA:REJEITADA", 1250.0,
+                "REPARO:ACEITO", 1.0, "REPARO:EM_ANDAMENTO", 1.0, "REPARO:CONCLUIDO_PELA_EMPRESA", 1.0,
+                "REPARO:CONFIRMADO_PELO_AUTOR", 1.0, "REPARO:CONTESTADO", 1.0)));
+        when(metricasService.totais(EscopoMetrica.GERAL, MetricasPainelService.ESCOPO_GERAL_ID))
+                .thenReturn(new MetricasPainelService.Totais(Map.of("PRACA:DISPONIVEL", 6.0, "PRACA:ADOTADA", 1.0)));
+        when(metricasService.somarNoPeriodo(eq(EscopoMetrica.EMPRESA), eq(3L),
+                argThat(metricas -> Set.copyOf(metricas).equals(Set.of("ADOCAO_FIM:APROVADA", "ADOCAO_FIM:CONCLUIDA"))),
+                eq(LocalDate.now()), eq(LocalDate.now().plusDays(30)))).thenReturn(1L);
         when(pracaRepository.findTop4ByStatusOrderByIdDesc(StatusPraca.DISPONIVEL)).thenReturn(List.of());
 
         var result = dashboardService.obterDashboard();
@@ -103,12 +119,17 @@ class EmpresaDashboardServiceTest {
                 UsernamePasswordAuthenticationToken.authenticated("empresa", "secret", List.of())
         );
         when(empresaRepository.buscarPorUsuarioRepresentanteUsername("empresa")).thenReturn(Optional.of(empresa));
-        when(adocaoRepository.findByEmpresaId(3L)).thenReturn(List.of());
-        when(atendimentoRepository.findByEmpresaIdOrderByDataAceiteDesc(3L)).thenReturn(List.of());
+        when(adocaoRepository.findRecentesByEmpresaId(3L, Limit.of(5))).thenReturn(List.of());
+        when(atendimentoRepository.findByEmpresaIdAndDenunciaAtivaTrueOrderByDataAceiteDescIdDesc(3L, Limit.of(5))).thenReturn(List.of());
+        when(metricasService.totais(EscopoMetrica.EMPRESA, 3L)).thenReturn(new MetricasPainelService.Totais(Map.of()));
+        when(metricasService.totais(EscopoMetrica.GERAL, MetricasPainelService.ESCOPO_GERAL_ID))
+                .thenReturn(new MetricasPainelService.Totais(Map.of()));
         when(pracaRepository.findTop4ByStatusOrderByIdDesc(StatusPraca.DISPONIVEL)).thenReturn(List.of());
 
         var result = dashboardService.obterDashboard();
 
+        assertThat(result.totalPropostas()).isZero();
+        assertThat(result.taxaAprovacao()).isZero();
         assertThat(result.totalReparos()).isZero();
         assertThat(result.reparosAtivos()).isZero();
         assertThat(result.reparosRecentes()).isEmpty();
@@ -0,0 +1,90 @@
+package br.senai.sc.communitex.service;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vazao da conversao para WebP em uma unica thread, ou seja, imagens por segundo por nucleo.
+ * {@code decodificarJpeg} isola o custo da leitura do JPEG dentro de {@code converterParaWebp}.
+ * Os contadores {@code bytesJpeg} e {@code bytesWebp} somam o tamanho de entrada e de saida das conversoes;
+ * a taxa de compressao e {@code bytesJpeg / bytesWebp}.
+ * <p>
+ * {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=ImagemOtimizacao}
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(1)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class ImagemOtimizacaoBenchmark {
+
+    /**
+     * Qualidade tipica do JPEG gerado pela camera dos celulares.
+     */
+    private static final float QUALIDADE_CAMERA = 0.95f;
+
+    @Param({"1600x1200", "4032x3024"})
+    private String resolucao;
+
+    @Param({"0.75", "0.9"})
+    private float qualidade;
+
+    private byte[] jpeg;
+    private ImagemOtimizacaoService service;
+
+    @Setup
+    public void preparar() throws Exception {
+        var dimensoes = resolucao.split("x");
+        var foto = ImagemOtimizacaoServiceTest.foto(Integer.parseInt(dimensoes[0]), Integer.parseInt(dimensoes[1]));
+        jpeg = ImagemOtimizacaoServiceTest.comExif(
+                ImagemOtimizacaoService.codificar(foto, ImagemOtimizacaoService.JPEG, QUALIDADE_CAMERA), 1);
+        service = new ImagemOtimizacaoService(true, qualidade, 1, 25);
+    }
+
+    @Benchmark
+    public byte[] converterParaWebp(Tamanhos tamanhos) throws IOException {
+        var webp = service.otimizar(new ByteArrayInputStream(jpeg), ImagemOtimizacaoService.JPEG);
+        tamanhos.bytesJpeg += jpeg.length;
+        tamanhos.bytesWebp += webp.length;
+        return webp;
+    }
+
+    @Benchmark
+    public BufferedImage decodificarJpeg() throws IOException {
+        return ImageIO.read(new ByteArrayInputStream(jpeg));
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Tamanhos {
+
+        public long bytesJpeg;
+        public long bytesWebp;
+
+        @Setup(Level.Iteration)
+        public void zerar() {
+            bytesJpeg = 0;
+            bytesWebp = 0;
+        }
+    }
+}
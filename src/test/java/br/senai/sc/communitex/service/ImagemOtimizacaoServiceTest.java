@@ -0,0 +1,157 @@
+package br.senai.sc.communitex.service;
+
+import br.senai.sc.communitex.exception.BusinessException;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImagemOtimizacaoServiceTest {
+
+    private final ImagemOtimizacaoService service = new ImagemOtimizacaoService(true, 0.8f, 1, 25);
+
+    @Test
+    void converteJpegParaWebpMenorSemMetadados() throws Exception {
+        var jpeg = comExif(jpeg(foto(400, 300)), 1);
+
+        var webp = service.otimizar(new ByteArrayInputStream(jpeg), ImagemOtimizacaoService.JPEG);
+
+        assertEquals("RIFF", new String(webp, 0, 4, StandardCharsets.US_ASCII));
+        assertEquals("WEBP", new String(webp, 8, 4, StandardCharsets.US_ASCII));
+        assertTrue(webp.length < jpeg.length, () -> webp.length + " >= " + jpeg.length);
+        assertFalse(new String(webp, StandardCharsets.ISO_8859_1).contains("Exif"));
+        var lida = ImageIO.read(new ByteArrayInputStream(webp));
+        assertNotNull(lida);
+        assertEquals(400, lida.getWidth());
+    }
+
+    @Test
+    void aplicaOrientacaoExifAntesDeDescartarOsMetadados() throws Exception {
+        var jpeg = comExif(jpeg(foto(400, 300)), 6);
+        assertEquals(6, ImagemOtimizacaoService.orientacaoExif(jpeg));
+
+        var lida = ImageIO.read(new ByteArrayInputStream(service.otimizar(new ByteArrayInputStream(jpeg), ImagemOtimizacaoService.JPEG)));
+
+        assertEquals(300, lida.getWidth());
+        assertEquals(400, lida.getHeight());
+    }
+
+    @Test
+    void recusaImagemQueDeclaraMaisPixelsQueOLimiteSemDecodificar() {
+        var png = cabecalhoPng(30000, 30000);
+
+        var erro = assertThrows(BusinessException.class,
+                () -> service.otimizar(new ByteArrayInputStream(png), "image/png"));
+
+        assertEquals("A imagem deve ter no maximo 25 megapixels", erro.getMessage());
+    }
+
+    @Test
+    void rotacaoDeNoventaGrausLevaOCantoSuperiorEsquerdoParaADireita() {
+        var imagem = new BufferedImage(4, 2, BufferedImage.TYPE_INT_RGB);
+        imagem.setRGB(0, 0, Color.RED.getRGB());
+
+        var girada = ImagemOtimizacaoService.orientar(imagem, 6);
+
+        assertEquals(2, girada.getWidth());
+        assertEquals(4, girada.getHeight());
+        assertEquals(Color.RED.getRGB(), girada.getRGB(1, 0));
+    }
+
+    @Test
+    void exifComDeslocamentoDoIfdAcimaDe2Elevado31TemOrientacaoPadrao() throws Exception {
+        var jpeg = comExif(jpeg(foto(400, 300)), 6);
+        // deslocamento do IFD0: SOI, marcador e tamanho do APP1, "Exif\0\0" e os 4 primeiros bytes do TIFF
+        jpeg[16] = (byte) 0x80;
+        jpeg[17] = 0;
+        jpeg[18] = 0;
+        jpeg[19] = 0;
+
+        assertEquals(1, ImagemOtimizacaoService.orientacaoExif(jpeg));
+        var lida = ImageIO.read(new ByteArrayInputStream(service.otimizar(new ByteArrayInputStream(jpeg), ImagemOtimizacaoService.JPEG)));
+        assertEquals(400, lida.getWidth());
+    }
+
+    @Test
+    void jpegSemExifTemOrientacaoPadrao() throws Exception {
+        assertEquals(1, ImagemOtimizacaoService.orientacaoExif(jpeg(foto(16, 16))));
+    }
+
+    @Test
+    void desabilitadaMantemFormatoEnviadoEGeraVariantesJpeg() {
+        var desabilitada = new ImagemOtimizacaoService(false, 0.8f, 1, 25);
+
+        assertFalse(desabilitada.converte(ImagemOtimizacaoService.JPEG));
+        assertEquals(ImagemOtimizacaoService.JPEG, desabilitada.formatoGerado());
+        assertTrue(service.converte("image/png"));
+        assertFalse(service.converte(ImagemOtimizacaoService.WEBP));
+    }
+
+    static BufferedImage foto(int largura, int altura) {
+        var imagem = new BufferedImage(largura, altura, BufferedImage.TYPE_INT_RGB);
+        var aleatorio = new Random(42);
+        for (int y = 0; y < altura; y++) {
+            for (int x = 0; x < largura; x++) {
+                var ruido = aleatorio.nextInt(24);
+                imagem.setRGB(x, y, new Color((x * 255 / largura + ruido) % 256, (y * 255 / altura + ruido) % 256, 128).getRGB());
+            }
+        }
+        return imagem;
+    }
+
+    static byte[] jpeg(BufferedImage imagem) throws Exception {
+        var saida = new ByteArrayOutputStream();
+        ImageIO.write(imagem, "jpeg", saida);
+        return saida.toByteArray();
+    }
+
+    /**
+     * Assinatura PNG e chunk IHDR declarando as dimensoes, sem nenhum dado de pixel depois.
+     */
+    static byte[] cabecalhoPng(int largura, int altura) {
+        var ihdr = ByteBuffer.allocate(17).put("IHDR".getBytes(StandardCharsets.US_ASCII))
+                .putInt(largura).putInt(altura).put((byte) 8).put((byte) 2).put((byte) 0).put((byte) 0).put((byte) 0);
+        var crc = new CRC32();
+        crc.update(ihdr.array());
+        return ByteBuffer.allocate(33).put(new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'})
+                .putInt(13).put(ihdr.array()).putInt((int) crc.getValue()).array();
+    }
+
+    /**
+     * Insere logo apos o SOI um segmento APP1/Exif big-endian com a tag Orientation e 4 KB de dados extras,
+     * simulando o bloco de metadados das fotos de celular.
+     */
+    static byte[] comExif(byte[] jpeg, int orientacao) {
+        var tiff = new byte[]{'M', 'M', 0, 42, 0, 0, 0, 8, 0, 1,
+                0x01, 0x12, 0, 3, 0, 0, 0, 1, 0, (byte) orientacao, 0, 0, 0, 0, 0, 0};
+        var exif = new ByteArrayOutputStream();
+        exif.writeBytes("Exif\0\0".getBytes(StandardCharsets.US_ASCII));
+        exif.writeBytes(tiff);
+        exif.writeBytes(new byte[4096]);
+        var tamanho = exif.size() + 2;
+
+        var saida = new ByteArrayOutputStream();
+        saida.write(0xFF);
+        saida.write(0xD8);
+        saida.write(0xFF);
+        saida.write(0xE1);
+        saida.write(tamanho >> 8);
+        saida.write(tamanho & 0xFF);
+        saida.writeBytes(exif.toByteArray());
+        saida.write(jpeg, 2, jpeg.length - 2);
+        return saida.toByteArray();
+    }
+}
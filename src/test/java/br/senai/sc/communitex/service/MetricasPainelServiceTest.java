@@ -0,0 +1,235 @@
+package br.senai.sc.communitex.service;
+
+import br.senai.sc.communitex.enums.AtendimentoDenunciaStatus;
+import br.senai.sc.communitex.enums.EscopoMetrica;
+import br.senai.sc.communitex.enums.IssueStatus;
+import br.senai.sc.communitex.enums.StatusAdocao;
+import br.senai.sc.communitex.model.Adocao;
+import br.senai.sc.communitex.model.AtendimentoDenuncia;
+import br.senai.sc.communitex.model.Denuncia;
+import br.senai.sc.communitex.model.Empresa;
+import br.senai.sc.communitex.model.MetricaDiaria;
+import br.senai.sc.communitex.model.MetricaTotal;
+import br.senai.sc.communitex.model.Praca;
+import br.senai.sc.communitex.model.Usuario;
+import br.senai.sc.communitex.repository.AdocaoRepository;
+import br.senai.sc.communitex.repository.AtendimentoDenunciaRepository;
+import br.senai.sc.communitex.repository.DenunciaInteracaoRepository;
+import br.senai.sc.communitex.repository.DenunciaRepository;
+import br.senai.sc.communitex.repository.MetricaDiariaRepository;
+import br.senai.sc.communitex.repository.MetricaTotalRepository;
+import br.senai.sc.communitex.repository.PracaRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MetricasPainelServiceTest {
+
+    private static final LocalDate ACEITE = LocalDate.of(2025, 3, 1);
+
+    @Mock
+    private MetricaDiariaRepository diariaRepository;
+    @Mock
+    private MetricaTotalRepository totalRepository;
+    @Mock
+    private PracaRepository pracaRepository;
+    @Mock
+    private AdocaoRepository adocaoRepository;
+    @Mock
+    private AtendimentoDenunciaRepository atendimentoRepository;
+    @Mock
+    private DenunciaRepository denunciaRepository;
+    @Mock
+    private DenunciaInteracaoRepository interacaoRepository;
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private MetricasPainelService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new MetricasPainelService(diariaRepository, totalRepository, pracaRepository, adocaoRepository,
+                atendimentoRepository, denunciaRepository, interacaoRepository, jdbcTemplate, eventPublisher,
+                transactionManager, 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.encerrar();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void reparoConfirmadoContaNoAceiteParaCadaEscopoENaConfirmacaoParaOTempoMedio() {
+        var reparo = reparo(true);
+
+        var contribuicoes = MetricasPainelService.contribuicoes(List.of(reparo));
+
+        assertThat(contribuicoes)
+                .extracting(MetricasPainelService.Contribuicao::dia, MetricasPainelService.Contribuicao::escopo,
+                        MetricasPainelService.Contribuicao::metrica, MetricasPainelService.Contribuicao::valor)
+                .containsExactlyInAnyOrder(
+                        tuple(ACEITE, EscopoMetrica.GERAL, "REPARO:CONFIRMADO_PELO_AUTOR", 1.0),
+                        tuple(ACEITE, EscopoMetrica.EMPRESA, "REPARO:CONFIRMADO_PELO_AUTOR", 1.0),
+                        tuple(ACEITE, EscopoMetrica.USUARIO, "REPARO:CONFIRMADO_PELO_AUTOR", 1.0),
+                        tuple(ACEITE.plusDays(2), EscopoMetrica.GERAL, MetricasPainelService.REPARO_CONFIRMADO, 1.0),
+                        tuple(ACEITE.plusDays(2), EscopoMetrica.GERAL, MetricasPainelService.REPARO_CONFIRMADO_MINUTOS, 2880.0)
+                );
+    }
+
+    @Test
+    void denunciaInativaNaoContribuiNemComOAtendimento() {
+        var reparo = reparo(false);
+
+        assertThat(MetricasPainelService.contribuicoes(List.of(reparo.getDenuncia(), reparo))).isEmpty();
+    }
+
+    @Test
+    void mudancaDeStatusPublicaSoADiferenca() {
+        var adocao = Adocao.builder()
+                .id(1L).status(StatusAdocao.PROPOSTA).dataInicio(ACEITE).dataFim(ACEITE.plusYears(1))
+                .empresa(Empresa.builder().id(3L).build())
+                .praca(Praca.builder().id(2L).metragemM2(100.0).build())
+                .build();
+        var captura = service.capturar(adocao);
+        adocao.setStatus(StatusAdocao.APROVADA);
+
+        service.publicar(captura);
+
+        var evento = ArgumentCaptor.forClass(MetricasPainelService.Alteracao.class);
+        verify(eventPublisher).publishEvent(evento.capture());
+        var deltas = MetricasPainelService.somarPorChave(evento.getValue().depois(), evento.getValue().antes());
+        assertThat(deltas).hasSize(8);
+        assertThat(deltas.entrySet())
+                .filteredOn(delta -> delta.getKey().escopo() == EscopoMetrica.EMPRESA)
+                .extracting(delta -> delta.getKey().metrica(), Map.Entry::getValue)
+                .containsExactlyInAnyOrder(
+                        tuple("ADOCAO:PROPOSTA", -1.0), tuple("ADOCAO:APROVADA", 1.0),
+                        tuple("ADOCAO_AREA:PROPOSTA", -100.0), tuple("ADOCAO_AREA:APROVADA", 100.0),
+                        tuple("ADOCAO_FIM:PROPOSTA", -1.0), tuple("ADOCAO_FIM:APROVADA", 1.0)
+                );
+    }
+
+    @Test
+    void aoAlterarSomaNasLinhasExistentesEInsereAsQueFaltam() {
+        var dia = LocalDate.of(2025, 3, 1);
+        var apoio = new MetricasPainelService.Contribuicao(dia, EscopoMetrica.USUARIO, 7L, MetricasPainelService.DENUNCIA_APOIOS, 1);
+        when(diariaRepository.somar(EscopoMetrica.USUARIO, 7L, MetricasPainelService.DENUNCIA_APOIOS, dia, 1.0)).thenReturn(0);
+        when(totalRepository.somar(EscopoMetrica.USUARIO, 7L, MetricasPainelService.DENUNCIA_APOIOS, 1.0)).thenReturn(1);
+
+        service.aoAlterar(new MetricasPainelService.Alteracao(List.of(), List.of(apoio)));
+
+        verify(eventPublisher, timeout(5000)).publishEvent(new MetricasPainelService.MetricasAtualizadas(Set.of(EscopoMetrica.USUARIO)));
+        var diaria = ArgumentCaptor.forClass(MetricaDiaria.class);
+        verify(diariaRepository).save(diaria.capture());
+        assertThat(diaria.getValue().getValor()).isEqualTo(1.0);
+        verify(totalRepository, never()).save(any(MetricaTotal.class));
+    }
+
+    @Test
+    void diferencaPublicadaAntesDaReconciliacaoNaoESomadaDepoisDela() {
+        var apoio = new MetricasPainelService.Contribuicao(ACEITE, EscopoMetrica.USUARIO, 7L, MetricasPainelService.DENUNCIA_APOIOS, 1);
+        var deltas = Map.of(apoio, 1.0);
+        when(diariaRepository.somar(EscopoMetrica.USUARIO, 7L, MetricasPainelService.DENUNCIA_APOIOS, ACEITE, 1.0)).thenReturn(1);
+        when(totalRepository.somar(EscopoMetrica.USUARIO, 7L, MetricasPainelService.DENUNCIA_APOIOS, 1.0)).thenReturn(1);
+        service.aoAlterar(new MetricasPainelService.Alteracao(List.of(), List.of(apoio)));
+        verify(totalRepository, timeout(5000)).somar(EscopoMetrica.USUARIO, 7L, MetricasPainelService.DENUNCIA_APOIOS, 1.0);
+
+        service.reconciliar();
+        service.aplicar(deltas, 1);
+        service.aplicar(deltas, 2);
+
+        verify(diariaRepository, times(2)).somar(EscopoMetrica.USUARIO, 7L, MetricasPainelService.DENUNCIA_APOIOS, ACEITE, 1.0);
+        verify(totalRepository, times(2)).somar(EscopoMetrica.USUARIO, 7L, MetricasPainelService.DENUNCIA_APOIOS, 1.0);
+    }
+
+    @Test
+    void reconciliacaoAguardaOCommitJaNumeradoEDescartaSuaDiferenca() throws Exception {
+        var apoio = new MetricasPainelService.Contribuicao(ACEITE, EscopoMetrica.USUARIO, 7L, MetricasPainelService.DENUNCIA_APOIOS, 1);
+        TransactionSynchronizationManager.initSynchronization();
+        service.aoAlterar(new MetricasPainelService.Alteracao(List.of(), List.of(apoio)));
+
+        var reconciliacao = CompletableFuture.runAsync(service::reconciliar);
+        Thread.sleep(100);
+        assertThat(reconciliacao).isNotDone();
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        reconciliacao.get(5, TimeUnit.SECONDS);
+
+        verify(diariaRepository, after(300).never()).somar(any(), any(), any(), any(), anyDouble());
+        verify(totalRepository, never()).somar(any(), any(), any(), anyDouble());
+    }
+
+    @Test
+    void aoAlterarSemDiferencaNaoEscreve() {
+        var contribuicao = new MetricasPainelService.Contribuicao(ACEITE, EscopoMetrica.USUARIO, 7L, "DENUNCIA:ABERTA", 1);
+
+        service.aoAlterar(new MetricasPainelService.Alteracao(List.of(contribuicao), List.of(contribuicao)));
+
+        verifyNoInteractions(diariaRepository, totalRepository, transactionManager);
+    }
+
+    @Test
+    void totaisSomamAsChavesDaFamilia() {
+        var totais = new MetricasPainelService.Totais(Map.of(
+                "REPARO:ACEITO", 2.0, "REPARO:CANCELADO", 1.0, MetricasPainelService.REPARO_CONFIRMADO, 5.0,
+                "ADOCAO:APROVADA", 1.0, "ADOCAO:CONCLUIDA", 2.0));
+
+        assertThat(totais.quantidade(MetricasPainelService.REPARO)).isEqualTo(3);
+        assertThat(totais.quantidade(MetricasPainelService.ADOCAO, List.of(StatusAdocao.APROVADA, StatusAdocao.CONCLUIDA)))
+                .isEqualTo(3);
+        assertThat(totais.quantidade(MetricasPainelService.REPARO, AtendimentoDenunciaStatus.EM_ANDAMENTO)).isZero();
+    }
+
+    private AtendimentoDenuncia reparo(boolean denunciaAtiva) {
+        var autor = Usuario.builder().id(7L).build();
+        var denuncia = Denuncia.builder()
+                .id(9L).status(IssueStatus.RESOLVIDA).ativa(denunciaAtiva).autor(autor)
+                .dataCriacao(ACEITE.minusDays(1).atStartOfDay()).totalApoios(0)
+                .build();
+        return AtendimentoDenuncia.builder()
+                .id(20L).denuncia(denuncia).empresa(Empresa.builder().id(3L).build())
+                .status(AtendimentoDenunciaStatus.CONFIRMADO_PELO_AUTOR)
+                .dataAceite(LocalDateTime.of(ACEITE, LocalTime.NOON))
+                .dataConfirmacaoAutor(LocalDateTime.of(ACEITE.plusDays(2), LocalTime.NOON))
+                .build();
+    }
+}
@@ -0,0 +1,114 @@
+package br.senai.sc.communitex.service;
+
+import br.senai.sc.communitex.dto.PublicDashboardDTO;
+import br.senai.sc.communitex.enums.EscopoMetrica;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PublicDashboardCacheTest {
+
+    private static final PublicDashboardDTO ANTIGO = painel(1);
+    private static final PublicDashboardDTO NOVO = painel(2);
+
+    @Mock
+    private PublicDashboardService dashboardService;
+
+    private PublicDashboardCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new PublicDashboardCache(dashboardService, new SimpleMeterRegistry(), new ObjectMapper(), Duration.ofMinutes(1), Duration.ofHours(1));
+    }
+
+    @Test
+    void requisicoesSimultaneasSemCacheCalculamUmaVez() throws Exception {
+        var liberar = new CountDownLatch(1);
+        when(dashboardService.obterDashboard()).thenAnswer(invocation -> {
+            liberar.await(5, TimeUnit.SECONDS);
+            return ANTIGO;
+        });
+        var executor = Executors.newFixedThreadPool(8);
+        try {
+            var respostas = new ArrayList<Future<PublicDashboardCache.Painel>>();
+            for (int i = 0; i < 8; i++) {
+                respostas.add(executor.submit(cache::obter));
+            }
+            liberar.countDown();
+            for (var resposta : respostas) {
+                assertThat(resposta.get(5, TimeUnit.SECONDS).dados()).isEqualTo(ANTIGO);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(dashboardService, times(1)).obterDashboard();
+    }
+
+    @Test
+    void alteracaoNoEscopoGeralServeOPainelAntigoEnquantoRecalcula() throws Exception {
+        var liberar = new CountDownLatch(1);
+        when(dashboardService.obterDashboard()).thenReturn(ANTIGO).thenAnswer(invocation -> {
+            liberar.await(5, TimeUnit.SECONDS);
+            return NOVO;
+        });
+        var antigo = cache.obter();
+
+        cache.aoAtualizarMetricas(new MetricasPainelService.MetricasAtualizadas(Set.of(EscopoMetrica.GERAL)));
+
+        assertThat(cache.obter()).isEqualTo(antigo);
+        liberar.countDown();
+        var limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (cache.obter().dados() != NOVO && System.nanoTime() < limite) {
+            Thread.sleep(10);
+        }
+        assertThat(cache.obter().dados()).isEqualTo(NOVO);
+        assertThat(cache.obter().etag()).isNotEqualTo(antigo.etag());
+    }
+
+    @Test
+    void alteracaoSoEmOutrosEscoposNaoRecalcula() {
+        when(dashboardService.obterDashboard()).thenReturn(ANTIGO);
+        cache.obter();
+
+        cache.aoAtualizarMetricas(new MetricasPainelService.MetricasAtualizadas(Set.of(EscopoMetrica.USUARIO)));
+        cache.obter();
+
+        verify(dashboardService, times(1)).obterDashboard();
+    }
+
+    @Test
+    void etagEOSha256DoConteudoDoPainel() {
+        when(dashboardService.obterDashboard()).thenReturn(ANTIGO);
+
+        var etag = cache.obter().etag();
+
+        assertThat(etag).matches("\"[0-9a-f]{64}\"");
+        var igual = new PublicDashboardCache(dashboardService, new SimpleMeterRegistry(), new ObjectMapper(),
+                Duration.ofMinutes(1), Duration.ofHours(1));
+        assertThat(igual.obter().etag()).isEqualTo(etag);
+    }
+
+    private static PublicDashboardDTO painel(long totalPracas) {
+        return new PublicDashboardDTO(totalPracas, 0, 0, 0, 0, 0, 0, List.of());
+    }
+}
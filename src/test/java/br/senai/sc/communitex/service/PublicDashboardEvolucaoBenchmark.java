@@ -0,0 +1,109 @@
+package br.senai.sc.communitex.service;
+
+import br.senai.sc.communitex.dto.PublicDashboardMonthlyDTO;
+import br.senai.sc.communitex.repository.projection.ContagemMensal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Evolucao mensal do painel publico com 10 anos de historico sintetico.
+ * {@code linhasPorMes} reproduz o calculo antigo, que percorria todas as linhas a cada mes;
+ * {@code histogramaDasLinhas} agrupa as mesmas linhas em uma passada antes da soma acumulada e
+ * {@code histogramaDasContagens} parte das contagens por mes, como chegam do {@code GROUP BY}.
+ * <p>
+ * {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=PublicDashboardEvolucao}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class PublicDashboardEvolucaoBenchmark {
+
+    private static final int MESES = 120;
+
+    @Param({"10", "100"})
+    private int registrosPorMes;
+
+    private YearMonth ultimo;
+    private List<LocalDate> adocoes;
+    private List<LocalDateTime> confirmados;
+    private List<ContagemMensal> adocoesPorMes;
+    private List<ContagemMensal> confirmadosPorMes;
+
+    @Setup
+    public void preparar() {
+        var aleatorio = new Random(42);
+        ultimo = YearMonth.of(2025, 12);
+        var inicio = ultimo.minusMonths(MESES - 1);
+        adocoes = new ArrayList<>();
+        confirmados = new ArrayList<>();
+        for (int i = 0; i < MESES * registrosPorMes; i++) {
+            var mes = inicio.plusMonths(aleatorio.nextInt(MESES));
+            adocoes.add(mes.atDay(1 + aleatorio.nextInt(28)));
+            confirmados.add(mes.atDay(1 + aleatorio.nextInt(28)).atTime(aleatorio.nextInt(24), 0));
+        }
+        adocoesPorMes = contagens(adocoes.stream().map(YearMonth::from));
+        confirmadosPorMes = contagens(confirmados.stream().map(YearMonth::from));
+    }
+
+    @Benchmark
+    public List<PublicDashboardMonthlyDTO> linhasPorMes() {
+        var firstMonth = Stream.concat(adocoes.stream().map(YearMonth::from), confirmados.stream().map(YearMonth::from))
+                .min(Comparator.naturalOrder());
+        var result = new ArrayList<PublicDashboardMonthlyDTO>();
+        var current = firstMonth.orElseThrow();
+        long adoptionTotal = 0;
+        long repairTotal = 0;
+        while (!current.isAfter(ultimo)) {
+            var month = current;
+            adoptionTotal += adocoes.stream().filter(date -> YearMonth.from(date).equals(month)).count();
+            repairTotal += confirmados.stream().filter(date -> YearMonth.from(date).equals(month)).count();
+            result.add(new PublicDashboardMonthlyDTO(month.toString(), adoptionTotal, repairTotal));
+            current = current.plusMonths(1);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<PublicDashboardMonthlyDTO> histogramaDasLinhas() {
+        return PublicDashboardService.buildMonthlyEvolution(
+                contagens(adocoes.stream().map(YearMonth::from)),
+                contagens(confirmados.stream().map(YearMonth::from)),
+                ultimo);
+    }
+
+    @Benchmark
+    public List<PublicDashboardMonthlyDTO> histogramaDasContagens() {
+        return PublicDashboardService.buildMonthlyEvolution(adocoesPorMes, confirmadosPorMes, ultimo);
+    }
+
+    private static List<ContagemMensal> contagens(Stream<YearMonth> meses) {
+        var totais = new HashMap<YearMonth, Long>();
+        meses.forEach(mes -> totais.merge(mes, 1L, Long::sum));
+        return totais.entrySet().stream()
+                .map(total -> PublicDashboardServiceTest.mes(total.getKey(), total.getValue()))
+                .toList();
+    }
+}
@@ -1,26 +1,17 @@
 package br.senai.sc.communitex.service;
 
-import br.senai.sc.communitex.enums.AtendimentoDenunciaStatus;
+import br.senai.sc.communitex.enums.EscopoMetrica;
 import br.senai.sc.communitex.enums.StatusAdocao;
-import br.senai.sc.communitex.enums.StatusPraca;
-import br.senai.sc.communitex.model.Adocao;
-import br.senai.sc.communitex.model.AtendimentoDenuncia;
-import br.senai.sc.communitex.model.Denuncia;
-import br.senai.sc.communitex.model.Praca;
-import br.senai.sc.communitex.repository.AdocaoRepository;
-import br.senai.sc.communitex.repository.AtendimentoDenunciaRepository;
-import br.senai.sc.communitex.repository.PracaRepository;
+import br.senai.sc.communitex.repository.projection.ContagemMensal;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.time.YearMonth;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.when;
@@ -28,12 +19,11 @@ import static org.mockito.Mockito.when;
 @ExtendWith(MockitoExtension.class)
 class PublicDashboardServiceTest {
 
+    private static final List<StatusAdocao> STATUS_HISTORICO = List.of(
+            StatusAdocao.APROVADA, StatusAdocao.CONCLUIDA, StatusAdocao.FINALIZADA);
+
     @Mock
-    private PracaRepository pracaRepository;
-    @Mock
-    private AdocaoRepository adocaoRepository;
-    @Mock
-    private AtendimentoDenunciaRepository atendimentoRepository;
+    private MetricasPainelService metricasService;
 
     @InjectMocks
     private PublicDashboardService dashboardService;
@@ -41,22 +31,11 @@ class PublicDashboardServiceTest {
     @Test
     void givenPlatformData_whenObterDashboard_thenCalculatesImpactAndFillsEmptyMonths() {
         var firstMonth = YearMonth.now().minusMonths(2);
-        var adoptedSquare = Praca.builder().status(StatusPraca.ADOTADA).metragemM2(1250.5).build();
-        var adoption = Adocao.builder().status(StatusAdocao.APROVADA).dataInicio(firstMonth.atDay(10)).build();
-        var confirmed = AtendimentoDenuncia.builder()
-                .denuncia(activeIssue())
-                .status(AtendimentoDenunciaStatus.CONFIRMADO_PELO_AUTOR)
-                .dataAceite(firstMonth.atDay(15).atTime(8, 0))
-                .dataConfirmacaoAutor(firstMonth.atDay(16).atTime(20, 0))
-                .build();
-        var active = AtendimentoDenuncia.builder().denuncia(activeIssue()).status(AtendimentoDenunciaStatus.EM_ANDAMENTO).build();
-
-        when(pracaRepository.count()).thenReturn(4L);
-        when(pracaRepository.findByStatus(StatusPraca.ADOTADA)).thenReturn(List.of(adoptedSquare));
-        when(adocaoRepository.findByStatusIn(Set.of(StatusAdocao.APROVADA, StatusAdocao.CONCLUIDA, StatusAdocao.FINALIZADA)))
-                .thenReturn(List.of(adoption));
-        when(atendimentoRepository.findByStatusNot(AtendimentoDenunciaStatus.CANCELADO))
-                .thenReturn(List.of(confirmed, active));
+        stub(Map.of(
+                        "PRACA:DISPONIVEL", 3.0, "PRACA:ADOTADA", 1.0, "PRACA_AREA:ADOTADA", 1250.5,
+                        "REPARO:EM_ANDAMENTO", 1.0, "REPARO:CONFIRMADO_PELO_AUTOR", 1.0, "REPARO:CANCELADO", 1.0,
+                        "REPARO_CONFIRMADO", 1.0, "REPARO_CONFIRMADO_MINUTOS", 36 * 60.0),
+                List.of(mes(firstMonth, 1)), List.of(mes(firstMonth, 1)));
 
         var result = dashboardService.obterDashboard();
 
@@ -74,10 +53,7 @@ class PublicDashboardServiceTest {
 
     @Test
     void givenNoData_whenObterDashboard_thenReturnsZerosAndEmptyEvolution() {
-        when(pracaRepository.findByStatus(StatusPraca.ADOTADA)).thenReturn(List.of());
-        when(adocaoRepository.findByStatusIn(Set.of(StatusAdocao.APROVADA, StatusAdocao.CONCLUIDA, StatusAdocao.FINALIZADA)))
-                .thenReturn(List.of());
-        when(atendimentoRepository.findByStatusNot(AtendimentoDenunciaStatus.CANCELADO)).thenReturn(List.of());
+        stub(Map.of(), List.of(), List.of());
 
         var result = dashboardService.obterDashboard();
 
@@ -89,29 +65,53 @@ class PublicDashboardServiceTest {
     }
 
     @Test
-    void givenTwoConfirmedRepairs_whenObterDashboard_thenAveragesDuration() {
-        var now = LocalDateTime.now();
-        var first = confirmed(now.minusHours(10), now);
-        var second = confirmed(now.minusHours(30), now);
-
-        when(pracaRepository.findByStatus(StatusPraca.ADOTADA)).thenReturn(List.of());
-        when(adocaoRepository.findByStatusIn(Set.of(StatusAdocao.APROVADA, StatusAdocao.CONCLUIDA, StatusAdocao.FINALIZADA)))
-                .thenReturn(List.of());
-        when(atendimentoRepository.findByStatusNot(AtendimentoDenunciaStatus.CANCELADO)).thenReturn(List.of(first, second));
+    void givenMonthlyCounts_whenObterDashboard_thenAccumulatesFromEarliestMonthOfEitherSeries() {
+        var now = YearMonth.now();
+        stub(Map.of(),
+                List.of(mes(now.minusMonths(1), 2), mes(now, 1)),
+                List.of(mes(now.minusMonths(3), 1), mes(now, 2)));
+
+        var evolucao = dashboardService.obterDashboard().evolucaoMensal();
+
+        assertThat(evolucao).extracting(dto -> dto.mes())
+                .containsExactly(now.minusMonths(3).toString(), now.minusMonths(2).toString(),
+                        now.minusMonths(1).toString(), now.toString());
+        assertThat(evolucao).extracting(dto -> dto.adocoesAcumuladas()).containsExactly(0L, 0L, 2L, 3L);
+        assertThat(evolucao).extracting(dto -> dto.reparosConfirmadosAcumulados()).containsExactly(1L, 1L, 1L, 3L);
+    }
 
-        assertThat(dashboardService.obterDashboard().tempoMedioReparoHoras()).isEqualTo(20);
+    @Test
+    void givenCountsAfterLastMonth_whenBuildMonthlyEvolution_thenIgnoresThem() {
+        var ultimo = YearMonth.of(2024, 12);
+
+        var evolucao = PublicDashboardService.buildMonthlyEvolution(
+                List.of(mes(YearMonth.of(2023, 11), 1), mes(YearMonth.of(2025, 1), 5)),
+                List.of(mes(YearMonth.of(2024, 12), 2)),
+                ultimo);
+
+        assertThat(evolucao).hasSize(14);
+        assertThat(evolucao.get(13).mes()).isEqualTo("2024-12");
+        assertThat(evolucao.get(13).adocoesAcumuladas()).isEqualTo(1);
+        assertThat(evolucao.get(13).reparosConfirmadosAcumulados()).isEqualTo(2);
+        assertThat(PublicDashboardService.buildMonthlyEvolution(List.of(mes(YearMonth.of(2025, 1), 1)), List.of(), ultimo))
+                .isEmpty();
     }
 
-    private AtendimentoDenuncia confirmed(LocalDateTime accepted, LocalDateTime confirmed) {
-        return AtendimentoDenuncia.builder()
-                .denuncia(activeIssue())
-                .status(AtendimentoDenunciaStatus.CONFIRMADO_PELO_AUTOR)
-                .dataAceite(accepted)
-                .dataConfirmacaoAutor(confirmed)
-                .build();
+    private void stub(Map<String, Double> totais,
+                      List<ContagemMensal> adocoesPorMes, List<ContagemMensal> confirmadosPorMes) {
+        when(metricasService.totais(EscopoMetrica.GERAL, MetricasPainelService.ESCOPO_GERAL_ID))
+                .thenReturn(new MetricasPainelService.Totais(totais));
+        when(metricasService.somarPorMes(EscopoMetrica.GERAL, MetricasPainelService.ESCOPO_GERAL_ID,
+                MetricasPainelService.metricas(MetricasPainelService.ADOCAO, STATUS_HISTORICO))).thenReturn(adocoesPorMes);
+        when(metricasService.somarPorMes(EscopoMetrica.GERAL, MetricasPainelService.ESCOPO_GERAL_ID,
+                List.of(MetricasPainelService.REPARO_CONFIRMADO))).thenReturn(confirmadosPorMes);
     }
 
-    private Denuncia activeIssue() {
-        return Denuncia.builder().ativa(true).build();
+    static ContagemMensal mes(YearMonth mes, long total) {
+        return new ContagemMensal() {
+            public Integer getAno() { return mes.getYear(); }
+            public Integer getMes() { return mes.getMonthValue(); }
+            public Long getTotal() { return total; }
+        };
     }
 }
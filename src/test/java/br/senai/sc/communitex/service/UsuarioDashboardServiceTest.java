@@ -1,14 +1,10 @@
 package br.senai.sc.communitex.service;
 
-import br.senai.sc.communitex.enums.InteractionType;
+import br.senai.sc.communitex.enums.EscopoMetrica;
 import br.senai.sc.communitex.enums.IssueStatus;
-import br.senai.sc.communitex.enums.StatusPraca;
 import br.senai.sc.communitex.model.Denuncia;
-import br.senai.sc.communitex.model.DenunciaInteracao;
 import br.senai.sc.communitex.model.PessoaFisica;
 import br.senai.sc.communitex.model.Usuario;
-import br.senai.sc.communitex.repository.DenunciaInteracaoRepository;
-import br.senai.sc.communitex.repository.AtendimentoDenunciaRepository;
 import br.senai.sc.communitex.repository.DenunciaRepository;
 import br.senai.sc.communitex.repository.PessoaFisicaRepository;
 import br.senai.sc.communitex.repository.PracaRepository;
@@ -23,6 +19,7 @@ import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -38,9 +35,7 @@ class UsuarioDashboardServiceTest {
     @Mock
     private DenunciaRepository denunciaRepository;
     @Mock
-    private DenunciaInteracaoRepository interacaoRepository;
-    @Mock
-    private AtendimentoDenunciaRepository atendimentoRepository;
+    private MetricasPainelService metricasService;
 
     @InjectMocks
     private UsuarioDashboardService dashboardService;
@@ -54,9 +49,8 @@ class UsuarioDashboardServiceTest {
     void givenUsuarioData_whenObterDashboard_thenCalculatesCommunityIndicators() {
         var usuario = Usuario.builder().id(7L).username("maria@email.com").nome("Maria").build();
         var pessoa = PessoaFisica.builder().id(3L).nome("Maria Silva").usuario(usuario).build();
-        var apoio = DenunciaInteracao.builder().tipo(InteractionType.APOIO).build();
         var resolvida = Denuncia.builder().id(1L).titulo("Iluminacao").descricao("Sem luz").latitude(-27.0).longitude(-48.0)
-                .status(IssueStatus.RESOLVIDA).dataCriacao(LocalDateTime.now()).autor(usuario).interacoes(List.of(apoio)).build();
+                .status(IssueStatus.RESOLVIDA).dataCriacao(LocalDateTime.now()).autor(usuario).totalInteracoes(1).totalApoios(1).build();
         var aberta = Denuncia.builder().id(2L).titulo("Buraco").descricao("Via danificada").latitude(-27.0).longitude(-48.0)
                 .status(IssueStatus.ABERTA).dataCriacao(LocalDateTime.now()).autor(usuario).interacoes(List.of()).build();
 
@@ -64,24 +58,25 @@ class UsuarioDashboardServiceTest {
                 UsernamePasswordAuthenticationToken.authenticated("maria@email.com", "secret", List.of())
         );
         when(pessoaFisicaRepository.findByUsuarioUsername("maria@email.com")).thenReturn(Optional.of(pessoa));
-        when(denunciaRepository.findByAutorIdAndAtivaTrue(7L)).thenReturn(List.of(resolvida, aberta));
         when(denunciaRepository.findTop5ByAutorIdAndAtivaTrueOrderByDataCriacaoDesc(7L)).thenReturn(List.of(resolvida, aberta));
-        when(pracaRepository.countByCadastradoPorId(3L)).thenReturn(2L);
-        when(pracaRepository.countByCadastradoPorIdAndStatus(3L, StatusPraca.DISPONIVEL)).thenReturn(1L);
-        when(pracaRepository.countByCadastradoPorIdAndStatus(3L, StatusPraca.EM_PROCESSO)).thenReturn(1L);
-        when(pracaRepository.countByCadastradoPorIdAndStatus(3L, StatusPraca.ADOTADA)).thenReturn(0L);
+        when(metricasService.totais(EscopoMetrica.PESSOA_FISICA, 3L)).thenReturn(new MetricasPainelService.Totais(
+                Map.of("PRACA:DISPONIVEL", 1.0, "PRACA:EM_PROCESSO", 1.0, "PRACA:ADOTADA", 0.0)));
+        when(metricasService.totais(EscopoMetrica.USUARIO, 7L)).thenReturn(new MetricasPainelService.Totais(Map.of(
+                "DENUNCIA:RESOLVIDA", 1.0, "DENUNCIA:ABERTA", 1.0, "DENUNCIA_APOIOS", 1.0,
+                "INTERACAO:APOIO", 4.0, "INTERACAO:COMENTARIO", 2.0, "REPARO:CONFIRMADO_PELO_AUTOR", 1.0)));
         when(pracaRepository.findTop5ByCadastradoPorIdOrderByIdDesc(3L)).thenReturn(List.of());
-        when(interacaoRepository.countByUsuarioIdAndTipo(7L, InteractionType.APOIO)).thenReturn(4L);
-        when(interacaoRepository.countByUsuarioIdAndTipo(7L, InteractionType.COMENTARIO)).thenReturn(2L);
 
         var result = dashboardService.obterDashboard();
 
         assertThat(result.usuarioNome()).isEqualTo("Maria Silva");
         assertThat(result.pracasCadastradas()).isEqualTo(2);
+        assertThat(result.pracasAdotadas()).isZero();
         assertThat(result.denunciasRealizadas()).isEqualTo(2);
         assertThat(result.denunciasResolvidas()).isEqualTo(1);
         assertThat(result.totalApoiosRecebidos()).isEqualTo(1);
         assertThat(result.apoiosRealizados()).isEqualTo(4);
+        assertThat(result.comentariosRealizados()).isEqualTo(2);
+        assertThat(result.reparosConfirmados()).isEqualTo(1);
         assertThat(result.taxaResolucao()).isEqualTo(50);
     }
 }
@@ -0,0 +1,140 @@
+package br.senai.sc.communitex.service;
+
+import br.senai.sc.communitex.dto.DenunciaClusterDTO;
+import br.senai.sc.communitex.enums.IssueStatus;
+import br.senai.sc.communitex.enums.IssueType;
+import br.senai.sc.communitex.enums.StatusPraca;
+import br.senai.sc.communitex.exception.BusinessException;
+import br.senai.sc.communitex.model.Praca;
+import br.senai.sc.communitex.repository.PracaRepository;
+import br.senai.sc.communitex.repository.projection.PracaGeometria;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class VectorTileServiceTest {
+
+    private static final String POLIGONO = "{\"type\":\"Polygon\",\"coordinates\":[[[-48.5500,-27.5970],"
+            + "[-48.5490,-27.5970],[-48.5490,-27.5960],[-48.5500,-27.5960],[-48.5500,-27.5970]]]}";
+
+    @Mock
+    private PracaRepository pracaRepository;
+
+    @Mock
+    private DenunciaClusterIndex clusterIndex;
+
+    private VectorTileService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new VectorTileService(pracaRepository, new PracaGeometryService(new ObjectMapper()), clusterIndex);
+    }
+
+    @Test
+    void dadaPracaEDenunciaNoTile_aoGerarTile_deveCodificarAsDuasCamadas() {
+        var praca = mock(PracaGeometria.class);
+        when(praca.getId()).thenReturn(1L);
+        when(praca.getNome()).thenReturn("Praca XV");
+        when(praca.getStatus()).thenReturn(StatusPraca.DISPONIVEL);
+        when(praca.getLatitude()).thenReturn(-27.5965);
+        when(praca.getLongitude()).thenReturn(-48.5495);
+        when(praca.getPoligonoGeoJson()).thenReturn(POLIGONO);
+        when(pracaRepository.findGeometrias()).thenReturn(List.of(praca));
+        when(clusterIndex.buscar(anyDouble(), anyDouble(), anyDouble(), anyDouble(), anyInt())).thenReturn(List.of(
+                new DenunciaClusterDTO(-27.5966, -48.5494, 1, IssueType.BURACO, Map.of(IssueStatus.ABERTA, 1), 7L)
+        ));
+
+        var tile = new String(service.gerarTile(14, 5982, 9499), StandardCharsets.ISO_8859_1);
+
+        assertTrue(tile.contains("pracas"));
+        assertTrue(tile.contains("Praca XV"));
+        assertTrue(tile.contains("denuncias"));
+        assertTrue(tile.contains("BURACO"));
+    }
+
+    @Test
+    void dadoTileEmCache_aoGerarNovamente_deveReutilizarAteDenunciaProximaMudar() {
+        when(pracaRepository.findGeometrias()).thenReturn(List.of());
+        when(clusterIndex.buscar(anyDouble(), anyDouble(), anyDouble(), anyDouble(), anyInt())).thenReturn(List.of());
+
+        var primeiro = service.gerarTile(14, 5982, 9499);
+        assertSame(primeiro, service.gerarTile(14, 5982, 9499));
+
+        service.aoAtualizarClusters(new DenunciaClusterIndex.Atualizacao(List.of(new DenunciaSpatialIndex.Alteracao(-10.0, 10.0))));
+        assertSame(primeiro, service.gerarTile(14, 5982, 9499));
+
+        service.aoAtualizarClusters(new DenunciaClusterIndex.Atualizacao(List.of(new DenunciaSpatialIndex.Alteracao(-27.5966, -48.5494))));
+        service.gerarTile(14, 5982, 9499);
+
+        verify(clusterIndex, times(2)).buscar(anyDouble(), anyDouble(), anyDouble(), anyDouble(), anyInt());
+    }
+
+    @Test
+    void dadaPracaAlterada_aoSincronizar_deveInvalidarTilesDaAreaAntigaENova() {
+        when(pracaRepository.findGeometrias()).thenReturn(List.of());
+        when(clusterIndex.buscar(anyDouble(), anyDouble(), anyDouble(), anyDouble(), anyInt())).thenReturn(List.of());
+        service.gerarTile(14, 5982, 9499);
+
+        service.sincronizarPraca(Praca.builder().id(1L).nome("Nova praca").status(StatusPraca.ADOTADA)
+                .latitude(-27.5965).longitude(-48.5495).poligonoGeoJson(POLIGONO).build());
+
+        var tile = new String(service.gerarTile(14, 5982, 9499), StandardCharsets.ISO_8859_1);
+        assertTrue(tile.contains("Nova praca"));
+
+        service.removerPraca(1L);
+        assertFalse(new String(service.gerarTile(14, 5982, 9499), StandardCharsets.ISO_8859_1).contains("Nova praca"));
+    }
+
+    @Test
+    void dadaPracaConfirmadaDuranteACarga_aoGerarTile_deveIncluiLaAposACarga() throws Exception {
+        var consultando = new CountDownLatch(1);
+        var liberar = new CountDownLatch(1);
+        when(pracaRepository.findGeometrias()).thenAnswer(invocation -> {
+            consultando.countDown();
+            assertTrue(liberar.await(5, TimeUnit.SECONDS));
+            return List.of();
+        });
+        when(clusterIndex.buscar(anyDouble(), anyDouble(), anyDouble(), anyDouble(), anyInt())).thenReturn(List.of());
+
+        var carga = CompletableFuture.runAsync(() -> service.gerarTile(14, 5982, 9499));
+        assertTrue(consultando.await(5, TimeUnit.SECONDS));
+        var alteracao = CompletableFuture.runAsync(() -> service.sincronizarPraca(Praca.builder().id(1L)
+                .nome("Nova praca").status(StatusPraca.ADOTADA).latitude(-27.5965).longitude(-48.5495)
+                .poligonoGeoJson(POLIGONO).build()));
+        liberar.countDown();
+        carga.get(5, TimeUnit.SECONDS);
+        alteracao.get(5, TimeUnit.SECONDS);
+
+        var tile = new String(service.gerarTile(14, 5982, 9499), StandardCharsets.ISO_8859_1);
+        assertTrue(tile.contains("Nova praca"));
+    }
+
+    @Test
+    void dadasCoordenadasForaDoZoom_aoGerarTile_deveLancarBusinessException() {
+        assertThrows(BusinessException.class, () -> service.gerarTile(23, 0, 0));
+        assertThrows(BusinessException.class, () -> service.gerarTile(2, 4, 0));
+        assertThrows(BusinessException.class, () -> service.gerarTile(2, 0, -1));
+    }
+}
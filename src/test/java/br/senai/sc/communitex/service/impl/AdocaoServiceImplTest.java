@@ -11,6 +11,7 @@ import br.senai.sc.communitex.model.Praca;
 import br.senai.sc.communitex.repository.AdocaoRepository;
 import br.senai.sc.communitex.repository.EmpresaRepository;
 import br.senai.sc.communitex.repository.PracaRepository;
+import br.senai.sc.communitex.service.MetricasPainelService;
 import br.senai.sc.communitex.service.NotificationService;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
@@ -49,6 +50,9 @@ class AdocaoServiceImplTest {
     @Mock
     private NotificationService notificationService;
 
+    @Mock
+    private MetricasPainelService metricasService;
+
     @InjectMocks
     private AdocaoServiceImpl adocaoService;
 
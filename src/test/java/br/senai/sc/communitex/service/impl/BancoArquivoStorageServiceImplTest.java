@@ -0,0 +1,78 @@
+package br.senai.sc.communitex.service.impl;
+
+import br.senai.sc.communitex.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BancoArquivoStorageServiceImplTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private BancoArquivoStorageServiceImpl storage;
+
+    @Test
+    void gravaConteudoComoStreamNaTabelaDeConteudo() throws Exception {
+        var conteudo = new ByteArrayInputStream(new byte[]{1, 2, 3});
+        storage.gravar(7L, conteudo, 3);
+
+        var setter = ArgumentCaptor.forClass(PreparedStatementSetter.class);
+        verify(jdbcTemplate).update(startsWith("INSERT INTO arquivos_conteudo"), setter.capture());
+        var statement = mock(PreparedStatement.class);
+        setter.getValue().setValues(statement);
+        verify(statement).setLong(1, 7L);
+        verify(statement).setBinaryStream(2, conteudo, 3L);
+    }
+
+    @Test
+    void transmiteConteudoDiretoDoJdbcParaASaida() throws Exception {
+        var conteudo = new byte[40 * 1024];
+        conteudo[conteudo.length - 1] = 9;
+        var resultSet = mock(ResultSet.class);
+        when(resultSet.getBinaryStream(1)).thenReturn(new ByteArrayInputStream(conteudo));
+        doAnswer(invocation -> {
+            invocation.getArgument(1, RowCallbackHandler.class).processRow(resultSet);
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), eq(7L));
+
+        var saida = new ByteArrayOutputStream();
+        storage.transmitir(7L, saida);
+
+        assertArrayEquals(conteudo, saida.toByteArray());
+    }
+
+    @Test
+    void conteudoSemLinhaNaTabelaViraNaoEncontrado() {
+        var saida = new ByteArrayOutputStream();
+
+        assertThrows(ResourceNotFoundException.class, () -> storage.transmitir(7L, saida));
+        assertThrows(ResourceNotFoundException.class, () -> storage.transmitir(7L, 0, 10, saida));
+        assertEquals(0, saida.size());
+    }
+}
@@ -0,0 +1,65 @@
+package br.senai.sc.communitex.service.impl;
+
+import br.senai.sc.communitex.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DiscoArquivoStorageServiceImplTest {
+
+    @TempDir
+    private Path diretorio;
+
+    @Test
+    void gravaTransmiteEExcluiArquivoEmDisco() throws Exception {
+        var storage = new DiscoArquivoStorageServiceImpl(diretorio);
+        var conteudo = new byte[100 * 1024];
+        conteudo[conteudo.length - 1] = 42;
+
+        storage.gravar(300L, new ByteArrayInputStream(conteudo), conteudo.length);
+        var caminho = storage.caminho(300L);
+        assertEquals(diretorio.resolve("2c").resolve("300"), caminho);
+        assertTrue(Files.exists(caminho));
+
+        var saida = new ByteArrayOutputStream();
+        storage.transmitir(300L, saida);
+        assertArrayEquals(conteudo, saida.toByteArray());
+
+        storage.excluir(300L);
+        assertFalse(Files.exists(caminho));
+        try (var arquivos = Files.list(caminho.getParent())) {
+            assertEquals(0, arquivos.count());
+        }
+    }
+
+    @Test
+    void transmiteApenasOIntervaloPedido() throws Exception {
+        var storage = new DiscoArquivoStorageServiceImpl(diretorio);
+        storage.gravar(5L, new ByteArrayInputStream(new byte[]{1, 2, 3, 4, 5}), 5);
+
+        var saida = new ByteArrayOutputStream();
+        storage.transmitir(5L, 1, 3, saida);
+
+        assertArrayEquals(new byte[]{2, 3, 4}, saida.toByteArray());
+    }
+
+    @Test
+    void arquivoAusenteLancaNaoEncontradoSemEscreverNada() throws Exception {
+        var storage = new DiscoArquivoStorageServiceImpl(diretorio);
+        var saida = new ByteArrayOutputStream();
+
+        assertThrows(ResourceNotFoundException.class, () -> storage.transmitir(1L, saida));
+
+        assertEquals(0, saida.size());
+    }
+}
@@ -1,13 +1,17 @@
 package br.senai.sc.communitex.service.impl;
 
+import br.senai.sc.communitex.dto.AdocaoResponseDTO;
 import br.senai.sc.communitex.dto.EmpresaRequestDTO;
 import br.senai.sc.communitex.dto.EmpresaResponseDTO;
+import br.senai.sc.communitex.enums.StatusAdocao;
 import br.senai.sc.communitex.exception.BusinessException;
 import br.senai.sc.communitex.exception.ResourceNotFoundException;
 import br.senai.sc.communitex.model.Empresa;
 import br.senai.sc.communitex.model.RepresentanteEmpresa;
 import br.senai.sc.communitex.model.Usuario;
+import br.senai.sc.communitex.repository.AdocaoRepository;
 import br.senai.sc.communitex.repository.EmpresaRepository;
+import br.senai.sc.communitex.repository.projection.EmpresaResumo;
 import br.senai.sc.communitex.service.UsuarioService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -31,6 +35,9 @@ class EmpresaServiceImplTest {
     @Mock
     private EmpresaRepository empresaRepository;
 
+    @Mock
+    private AdocaoRepository adocaoRepository;
+
     @Mock
     private UsuarioService usuarioService;
 
@@ -75,13 +82,22 @@ class EmpresaServiceImplTest {
 
     @Test
     void givenEmpresasCadastradas_whenFindAll_thenRetornaLista() {
-        when(empresaRepository.findAll()).thenReturn(List.of(empresa));
+        var resumo = mock(EmpresaResumo.class);
+        when(resumo.getId()).thenReturn(1L);
+        when(resumo.getRazaoSocial()).thenReturn("Tech Soluções LTDA");
+        when(resumo.getRepresentanteId()).thenReturn(5L);
+        when(resumo.getRepresentanteNome()).thenReturn("João Representante");
+        when(empresaRepository.findResumos()).thenReturn(List.of(resumo));
+        when(adocaoRepository.findRespostasByEmpresaIdIn(List.of(1L))).thenReturn(List.of(new AdocaoResponseDTO(
+                3L, null, null, "Projeto", StatusAdocao.APROVADA, 1L, "Tech Soluções", 2L, "Praça", "Floripa")));
 
         List<EmpresaResponseDTO> result = empresaService.listarTodas();
 
         assertEquals(1, result.size());
         assertEquals("Tech Soluções LTDA", result.get(0).razaoSocial());
-        verify(empresaRepository, times(1)).findAll();
+        assertEquals("João Representante", result.get(0).representante().nome());
+        assertEquals(1, result.get(0).adocoes().size());
+        verify(empresaRepository, never()).findAll();
     }
 
     @Test
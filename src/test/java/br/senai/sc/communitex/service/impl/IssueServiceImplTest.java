@@ -1,5 +1,6 @@
 package br.senai.sc.communitex.service.impl;
 
+import br.senai.sc.communitex.config.PostgisSupport;
 import br.senai.sc.communitex.dto.DenunciaInteracaoRequestDTO;
 import br.senai.sc.communitex.dto.DenunciaRequestDTO;
 import br.senai.sc.communitex.enums.InteractionType;
@@ -15,13 +16,19 @@ import br.senai.sc.communitex.model.Usuario;
 import br.senai.sc.communitex.repository.DenunciaInteracaoRepository;
 import br.senai.sc.communitex.repository.DenunciaRepository;
 import br.senai.sc.communitex.repository.UsuarioRepository;
+import br.senai.sc.communitex.repository.projection.DenunciaLocalizacao;
 import br.senai.sc.communitex.service.ArquivoService;
+import br.senai.sc.communitex.service.DenunciaClusterIndex;
+import br.senai.sc.communitex.service.DenunciaDuplicateLock;
+import br.senai.sc.communitex.service.DenunciaSpatialIndex;
+import br.senai.sc.communitex.service.MetricasPainelService;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 
@@ -30,11 +37,14 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyDouble;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.doubleThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -54,11 +64,27 @@ class IssueServiceImplTest {
     @Mock
     private ArquivoService arquivoService;
 
+    @Mock
+    private PostgisSupport postgisSupport;
+
+    @Mock
+    private DenunciaDuplicateLock duplicateLock;
+
+    @Mock
+    private DenunciaClusterIndex clusterIndex;
+
+    @Mock
+    private MetricasPainelService metricasService;
+
+    private DenunciaSpatialIndex spatialIndex;
+
     private DenunciaServiceImpl issueService;
 
     @BeforeEach
     void setUp() {
-        issueService = new DenunciaServiceImpl(issueRepository, interactionRepository, usuarioRepository, arquivoService);
+        spatialIndex = new DenunciaSpatialIndex(issueRepository, evento -> {});
+        issueService = new DenunciaServiceImpl(issueRepository, interactionRepository, usuarioRepository, arquivoService,
+                spatialIndex, postgisSupport, duplicateLock, clusterIndex, metricasService);
     }
 
     @AfterEach
@@ -72,7 +98,8 @@ class IssueServiceImplTest {
         var autor = usuario(1L, "cidadao@communitex.com", "Cidadao");
 
         when(usuarioRepository.findByUsername("cidadao@communitex.com")).thenReturn(Optional.of(autor));
-        when(issueRepository.findUnresolvedByType(eq(IssueType.BURACO), anyList())).thenReturn(List.of());
+        when(issueRepository.findUnresolvedByTypeNaArea(eq(IssueType.BURACO), anyList(),
+                anyDouble(), anyDouble(), anyDouble(), anyDouble())).thenReturn(List.of());
         when(issueRepository.save(any(Denuncia.class))).thenAnswer(invocation -> {
             var issue = invocation.getArgument(0, Denuncia.class);
             issue.setId(99L);
@@ -85,7 +112,8 @@ class IssueServiceImplTest {
                 "Existe um buraco perigoso",
                 -27.5969,
                 -48.5495,
-                IssueType.BURACO
+                IssueType.BURACO,
+                null
         ), null);
 
         assertEquals(99L, response.id());
@@ -93,6 +121,35 @@ class IssueServiceImplTest {
         assertEquals("Cidadao", response.autorNome());
     }
 
+    @Test
+    void dadoArquivoDeUploadRetomavel_aoCriar_deveReferenciarArquivo() {
+        autenticar("cidadao@communitex.com");
+        var autor = usuario(1L, "cidadao@communitex.com", "Cidadao");
+
+        when(usuarioRepository.findByUsername("cidadao@communitex.com")).thenReturn(Optional.of(autor));
+        when(issueRepository.findUnresolvedByTypeNaArea(eq(IssueType.BURACO), anyList(),
+                anyDouble(), anyDouble(), anyDouble(), anyDouble())).thenReturn(List.of());
+        when(arquivoService.referenciar(55L, "cidadao@communitex.com")).thenReturn(55L);
+        when(issueRepository.save(any(Denuncia.class))).thenAnswer(invocation -> {
+            var issue = invocation.getArgument(0, Denuncia.class);
+            issue.setId(99L);
+            issue.setDataCriacao(LocalDateTime.now());
+            return issue;
+        });
+
+        var response = issueService.criar(new DenunciaRequestDTO(
+                "Buraco grande",
+                "Existe um buraco perigoso",
+                -27.5969,
+                -48.5495,
+                IssueType.BURACO,
+                55L
+        ), null);
+
+        assertEquals("/api/arquivos/55/conteudo", response.fotoUrl());
+        verify(arquivoService, never()).salvarImagem(any());
+    }
+
     @Test
     void dadaEmpresaAutenticada_aoCriar_deveLancarForbiddenException() {
         autenticar("empresa@communitex.com");
@@ -106,7 +163,8 @@ class IssueServiceImplTest {
                 "Existe um buraco perigoso",
                 -27.5969,
                 -48.5495,
-                IssueType.BURACO
+                IssueType.BURACO,
+                null
         ), null));
 
         verify(issueRepository, never()).save(any());
@@ -116,22 +174,71 @@ class IssueServiceImplTest {
     void dadaDenunciaDuplicada_aoCriar_deveLancarDuplicateIssueException() {
         autenticar("cidadao@communitex.com");
         var autor = usuario(1L, "cidadao@communitex.com", "Cidadao");
-        var issueExistente = issue(10L, "Existente", -27.5969, -48.5495, autor, IssueStatus.EM_ANALISE);
+        var issueExistente = mock(DenunciaLocalizacao.class);
+        when(issueExistente.getId()).thenReturn(10L);
+        when(issueExistente.getLatitude()).thenReturn(-27.5969);
+        when(issueExistente.getLongitude()).thenReturn(-48.5495);
 
         when(usuarioRepository.findByUsername("cidadao@communitex.com")).thenReturn(Optional.of(autor));
-        when(issueRepository.findUnresolvedByType(eq(IssueType.BURACO), anyList())).thenReturn(List.of(issueExistente));
+        when(issueRepository.findUnresolvedByTypeNaArea(eq(IssueType.BURACO), anyList(),
+                doubleThat(minLat -> minLat < -27.5969 && minLat > -27.5971),
+                doubleThat(maxLat -> maxLat > -27.5969 && maxLat < -27.5967),
+                anyDouble(), anyDouble())).thenReturn(List.of(issueExistente));
 
         assertThrows(DuplicateIssueException.class, () -> issueService.criar(new DenunciaRequestDTO(
                 "Buraco novo",
                 "Muito perto",
                 -27.5969,
                 -48.5495,
-                IssueType.BURACO
+                IssueType.BURACO,
+                null
         ), null));
 
+        verify(duplicateLock).bloquearVizinhanca(IssueType.BURACO, -27.5969, -48.5495, 20.0);
         verify(issueRepository, never()).save(any());
     }
 
+    @Test
+    void dadoBboxValido_aoBuscarClusters_deveConsultarIndiceDeClusters() {
+        when(clusterIndex.buscar(-48.6, -27.7, -48.5, -27.5, 12)).thenReturn(List.of());
+
+        assertEquals(List.of(), issueService.buscarClusters("-48.6,-27.7,-48.5,-27.5", 12));
+    }
+
+    @Test
+    void dadoBboxInvalido_aoBuscarClusters_deveLancarBusinessException() {
+        assertThrows(BusinessException.class, () -> issueService.buscarClusters("-48.6,-27.7,-48.5", 12));
+        assertThrows(BusinessException.class, () -> issueService.buscarClusters("a,b,c,d", 12));
+        assertThrows(BusinessException.class, () -> issueService.buscarClusters("-48.6,-27.5,-48.5,-27.7", 12));
+        assertThrows(BusinessException.class, () -> issueService.buscarClusters("-48.6,-27.7,-48.5,-27.5", 23));
+    }
+
+    @Test
+    void dadasMaisDenunciasQueOLimite_aoListarPorCursor_deveRetornarCursorDaUltimaDenuncia() {
+        var autor = usuario(1L, "cidadao@communitex.com", "Cidadao");
+        var dataCriacao = LocalDateTime.of(2025, 3, 10, 14, 30, 15, 123_456_000);
+        var primeira = issue(3L, "Primeira", -27.5969, -48.5495, autor, IssueStatus.ABERTA);
+        var segunda = issue(2L, "Segunda", -27.5969, -48.5495, autor, IssueStatus.ABERTA);
+        segunda.setDataCriacao(dataCriacao);
+        var terceira = issue(1L, "Terceira", -27.5969, -48.5495, autor, IssueStatus.ABERTA);
+        when(issueRepository.findByAtivaTrueOrderByDataCriacaoDescIdDesc(Limit.of(3)))
+                .thenReturn(List.of(primeira, segunda, terceira));
+        when(issueRepository.findAtivasAposCursor(dataCriacao, 2L, Limit.of(3))).thenReturn(List.of(terceira));
+
+        var pagina = issueService.listarPorCursor(null, 2, false);
+        var proxima = issueService.listarPorCursor(pagina.proximoCursor(), 2, false);
+
+        assertEquals(List.of(3L, 2L), pagina.itens().stream().map(item -> item.id()).toList());
+        assertEquals(List.of(1L), proxima.itens().stream().map(item -> item.id()).toList());
+        assertNull(proxima.proximoCursor());
+    }
+
+    @Test
+    void dadoCursorInvalido_aoListarPorCursor_deveLancarBusinessException() {
+        assertThrows(BusinessException.class, () -> issueService.listarPorCursor("nao-e-um-cursor", 20, false));
+        assertThrows(BusinessException.class, () -> issueService.listarPorCursor(null, 0, false));
+    }
+
     @Test
     void dadaDenunciaInexistente_aoBuscarPorId_deveLancarResourceNotFoundException() {
         when(issueRepository.findById(55L)).thenReturn(Optional.empty());
@@ -212,6 +319,7 @@ class IssueServiceImplTest {
         assertEquals(101L, response.id());
         assertEquals(InteractionType.COMENTARIO, response.tipo());
         assertEquals("Cidadao", response.usuarioNome());
+        verify(issueRepository).incrementarContadores(10L, 1, 0, 0);
     }
 
     @Test
@@ -274,6 +382,23 @@ class IssueServiceImplTest {
         issueService.removerInteracao(10L, 20L);
 
         verify(interactionRepository).delete(interaction);
+        verify(issueRepository).incrementarContadores(10L, -1, 0, -1);
+    }
+
+    @Test
+    void dadaDenunciaComContadores_aoBuscarPorId_deveUsarContadoresSemCarregarInteracoes() {
+        var autor = usuario(1L, "cidadao@communitex.com", "Cidadao");
+        var issue = issue(10L, "Titulo", -27.6, -48.5, autor, IssueStatus.ABERTA);
+        issue.setTotalInteracoes(1500);
+        issue.setTotalApoios(320);
+        issue.setInteracoes(null);
+
+        when(issueRepository.findById(10L)).thenReturn(Optional.of(issue));
+
+        var response = issueService.buscarPorId(10L);
+
+        assertEquals(1500, response.totalInteracoes());
+        assertEquals(320, response.totalApoios());
     }
 
     @Test
@@ -288,9 +413,11 @@ class IssueServiceImplTest {
         var perto = issue(1L, "Perto", -27.5969, -48.5495, autor, IssueStatus.ABERTA);
         var longe = issue(2L, "Longe", -27.7000, -48.7000, autor, IssueStatus.ABERTA);
 
-        when(issueRepository.findByAtivaTrueAndLatitudeBetweenAndLongitudeBetween(
-                anyDouble(), anyDouble(), anyDouble(), anyDouble()
-        )).thenReturn(List.of(perto, longe));
+        when(issueRepository.findLocalizacoesAtivas()).thenReturn(List.of());
+        spatialIndex.recarregar();
+        spatialIndex.sincronizar(perto);
+        spatialIndex.sincronizar(longe);
+        when(issueRepository.findByIdIn(List.of(1L))).thenReturn(List.of(perto));
 
         var issues = issueService.buscarPorProximidade(-27.5969, -48.5495, 100.0);
 
@@ -298,6 +425,57 @@ class IssueServiceImplTest {
         assertEquals("Perto", issues.get(0).titulo());
     }
 
+    @Test
+    void dadaDenunciaInativada_aoBuscarPorProximidade_naoDeveRetornarDenuncia() {
+        var autor = usuario(1L, "cidadao@communitex.com", "Cidadao");
+        var issue = issue(1L, "Perto", -27.5969, -48.5495, autor, IssueStatus.ABERTA);
+
+        when(issueRepository.findLocalizacoesAtivas()).thenReturn(List.of());
+        when(issueRepository.findById(1L)).thenReturn(Optional.of(issue));
+        when(issueRepository.save(any(Denuncia.class))).thenAnswer(invocation -> invocation.getArgument(0, Denuncia.class));
+        spatialIndex.recarregar();
+        spatialIndex.sincronizar(issue);
+
+        issueService.inativar(1L);
+
+        assertEquals(0, issueService.buscarPorProximidade(-27.5969, -48.5495, 100.0).size());
+        verify(issueRepository, never()).findByIdIn(anyList());
+    }
+
+    @Test
+    void dadoPostgisDisponivel_aoBuscarMaisProximas_deveManterOrdemDaConsultaKnn() {
+        var autor = usuario(1L, "cidadao@communitex.com", "Cidadao");
+        var primeira = issue(2L, "Primeira", -27.5969, -48.5495, autor, IssueStatus.ABERTA);
+        var segunda = issue(1L, "Segunda", -27.5980, -48.5495, autor, IssueStatus.ABERTA);
+
+        when(postgisSupport.issuesDisponivel()).thenReturn(true);
+        when(issueRepository.findIdsAtivasMaisProximas(-27.5969, -48.5495, 2)).thenReturn(List.of(2L, 1L));
+        when(issueRepository.findByIdIn(List.of(2L, 1L))).thenReturn(List.of(segunda, primeira));
+
+        var issues = issueService.buscarMaisProximas(-27.5969, -48.5495, 2);
+
+        assertEquals(List.of("Primeira", "Segunda"), issues.stream().map(issue -> issue.titulo()).toList());
+        verify(issueRepository, never()).findLocalizacoesAtivas();
+    }
+
+    @Test
+    void dadoPostgisIndisponivel_aoBuscarMaisProximas_deveUsarIndiceEmMemoria() {
+        var autor = usuario(1L, "cidadao@communitex.com", "Cidadao");
+        var perto = issue(1L, "Perto", -27.5969, -48.5495, autor, IssueStatus.ABERTA);
+        var longe = issue(2L, "Longe", -27.7000, -48.7000, autor, IssueStatus.ABERTA);
+
+        when(issueRepository.findLocalizacoesAtivas()).thenReturn(List.of());
+        spatialIndex.recarregar();
+        spatialIndex.sincronizar(longe);
+        spatialIndex.sincronizar(perto);
+        when(issueRepository.findByIdIn(List.of(1L))).thenReturn(List.of(perto));
+
+        var issues = issueService.buscarMaisProximas(-27.5969, -48.5495, 1);
+
+        assertEquals(1, issues.size());
+        assertEquals("Perto", issues.get(0).titulo());
+    }
+
     private void autenticar(String username) {
         SecurityContextHolder.getContext().setAuthentication(
                 UsernamePasswordAuthenticationToken.authenticated(username, "secret", List.of())
@@ -322,7 +500,7 @@ class IssueServiceImplTest {
                 .longitude(longitude)
                 .status(status)
                 .tipo(IssueType.BURACO)
-                .arquivo(null)
+                .arquivoId(null)
                 .autor(autor)
                 .ativa(true)
                 .interacoes(List.of())
@@ -1,15 +1,20 @@
 package br.senai.sc.communitex.service.impl;
 
+import br.senai.sc.communitex.config.PostgisSupport;
 import br.senai.sc.communitex.dto.PracaRequestDTO;
 import br.senai.sc.communitex.dto.PracaResponseDTO;
 import br.senai.sc.communitex.enums.StatusPraca;
+import br.senai.sc.communitex.exception.BusinessException;
 import br.senai.sc.communitex.exception.ResourceNotFoundException;
 import br.senai.sc.communitex.model.PessoaFisica;
 import br.senai.sc.communitex.model.Praca;
 import br.senai.sc.communitex.repository.PracaRepository;
+import br.senai.sc.communitex.repository.projection.PracaResumo;
 import br.senai.sc.communitex.service.PessoaFisicaService;
 import br.senai.sc.communitex.service.ArquivoService;
+import br.senai.sc.communitex.service.MetricasPainelService;
 import br.senai.sc.communitex.service.PracaGeometryService;
+import br.senai.sc.communitex.service.VectorTileService;
 import br.senai.sc.communitex.model.Arquivo;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.AfterEach;
@@ -19,6 +24,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.mock.web.MockMultipartFile;
@@ -29,8 +35,12 @@ import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -48,6 +58,15 @@ class PracaServiceImplTest {
     @Mock
     private ArquivoService arquivoService;
 
+    @Mock
+    private PostgisSupport postgisSupport;
+
+    @Mock
+    private VectorTileService vectorTileService;
+
+    @Mock
+    private MetricasPainelService metricasService;
+
     private PracaServiceImpl pracaService;
 
     private final ObjectMapper objectMapper = new ObjectMapper();
@@ -58,7 +77,7 @@ class PracaServiceImplTest {
         var authentication = UsernamePasswordAuthenticationToken.authenticated("testuser", "password", List.of());
         SecurityContextHolder.getContext().setAuthentication(authentication);
         pracaService = new PracaServiceImpl(pracaRepository, pessoaFisicaService, arquivoService,
-                new PracaGeometryService(objectMapper));
+                new PracaGeometryService(objectMapper), postgisSupport, vectorTileService, metricasService);
     }
 
     @AfterEach
@@ -95,6 +114,29 @@ class PracaServiceImplTest {
         verify(pracaRepository, times(1)).save(any(Praca.class));
     }
 
+    @Test
+    void givenMaisPracasQueOLimite_whenFindAllPorCursor_thenRetornaCursorDaUltimaPraca() {
+        var primeira = resumo(1L, null);
+        var segunda = resumo(2L, null);
+        var terceira = resumo(3L, null);
+        when(pracaRepository.findResumosAposCursor(null, null, null, null, Limit.of(3)))
+                .thenReturn(List.of(primeira, segunda, terceira));
+        when(pracaRepository.findResumosAposCursor(null, null, null, 2L, Limit.of(3)))
+                .thenReturn(List.of(terceira));
+
+        var pagina = pracaService.findAllPorCursor(null, null, 2);
+        var proxima = pracaService.findAllPorCursor(null, pagina.proximoCursor(), 2);
+
+        assertEquals(List.of(1L, 2L), pagina.itens().stream().map(PracaResponseDTO::id).toList());
+        assertEquals(List.of(3L), proxima.itens().stream().map(PracaResponseDTO::id).toList());
+        assertNull(proxima.proximoCursor());
+    }
+
+    @Test
+    void givenCursorInvalido_whenFindAllPorCursor_thenLancaBusinessException() {
+        assertThrows(BusinessException.class, () -> pracaService.findAllPorCursor(null, "YWJj", 20));
+    }
+
     @Test
     void givenUsuarioNaoAutenticado_whenCreate_thenLancaForbiddenException() {
         SecurityContextHolder.clearContext();
@@ -155,23 +197,20 @@ class PracaServiceImplTest {
 
     @Test
     void givenPracasDisponiveis_whenFindAll_thenRetornaListaDePracas() {
-        Praca praca1 = new Praca();
-        praca1.setId(1L);
-        praca1.setNome("Praça 1");
+        var praca1 = resumo(1L, 7L);
+        var praca2 = resumo(2L, null);
 
-        Praca praca2 = new Praca();
-        praca2.setId(2L);
-        praca2.setNome("Praça 2");
-
-        when(pracaRepository.findAll(any(org.springframework.data.jpa.domain.Specification.class))).thenReturn(List.of(praca1, praca2));
+        when(pracaRepository.findResumos(null, "%central%", null)).thenReturn(List.of(praca1, praca2));
 
         var pesquisaDTO = new br.senai.sc.communitex.dto.PracaPesquisaDTO(
-                null, null, null
+                null, "Central", " "
         );
         var response = pracaService.findAll(pesquisaDTO);
 
         assertNotNull(response);
         assertEquals(2, response.size());
+        assertEquals("/api/arquivos/7/conteudo", response.get(0).fotoUrl());
+        assertNull(response.get(1).fotoUrl());
     }
 
     @Test
@@ -213,21 +252,57 @@ class PracaServiceImplTest {
     @Test
     void givenPracaExistente_whenDelete_thenRemovePraca() {
         Long id = 1L;
-        when(pracaRepository.existsById(id)).thenReturn(true);
+        var praca = Praca.builder().id(id).arquivoId(7L).build();
+        when(pracaRepository.findById(id)).thenReturn(Optional.of(praca));
 
         assertDoesNotThrow(() -> pracaService.delete(id));
-        verify(pracaRepository, times(1)).deleteById(id);
+        verify(pracaRepository, times(1)).delete(praca);
+        verify(arquivoService, times(1)).liberar(7L);
     }
 
     @Test
     void givenPracaInexistente_whenDelete_thenLancaResourceNotFoundException() {
         Long id = 1L;
-        when(pracaRepository.existsById(id)).thenReturn(false);
+        when(pracaRepository.findById(id)).thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class, () -> pracaService.delete(id));
-        verify(pracaRepository, never()).deleteById(any());
+        verify(pracaRepository, never()).delete(any());
     }
 
-}
+    @Test
+    void givenPostgisDisponivel_whenFindMaisProximas_thenMantemOrdemDaConsultaKnn() {
+        var perto = Praca.builder().id(2L).nome("Perto").cidade("Florianopolis").status(StatusPraca.DISPONIVEL).build();
+        var longe = Praca.builder().id(1L).nome("Longe").cidade("Florianopolis").status(StatusPraca.DISPONIVEL).build();
+        when(postgisSupport.pracasDisponivel()).thenReturn(true);
+        when(pracaRepository.findIdsMaisProximas(-27.59, -48.54, 2)).thenReturn(List.of(2L, 1L));
+        when(pracaRepository.findByIdIn(List.of(2L, 1L))).thenReturn(List.of(longe, perto));
+
+        var result = pracaService.findMaisProximas(-27.59, -48.54, 2);
+
+        assertEquals(List.of("Perto", "Longe"), result.stream().map(PracaResponseDTO::nome).toList());
+    }
+
+    @Test
+    void givenPostgisIndisponivel_whenFindMaisProximas_thenUsaConsultaAproximada() {
+        var praca = Praca.builder().id(2L).nome("Perto").cidade("Florianopolis").status(StatusPraca.DISPONIVEL).build();
+        when(pracaRepository.findMaisProximasAproximado(eq(-27.59), eq(-48.54), anyDouble(), any()))
+                .thenReturn(List.of(praca));
 
+        var result = pracaService.findMaisProximas(-27.59, -48.54, 5);
 
+        assertEquals(1, result.size());
+        verify(pracaRepository, never()).findIdsMaisProximas(anyDouble(), anyDouble(), any(Integer.class));
+    }
+
+    @Test
+    void givenLimiteInvalido_whenFindMaisProximas_thenLancaBusinessException() {
+        assertThrows(BusinessException.class, () -> pracaService.findMaisProximas(-27.59, -48.54, 500));
+    }
+
+    private PracaResumo resumo(Long id, Long arquivoId) {
+        var resumo = mock(PracaResumo.class);
+        when(resumo.getId()).thenReturn(id);
+        when(resumo.getArquivoId()).thenReturn(arquivoId);
+        return resumo;
+    }
+}
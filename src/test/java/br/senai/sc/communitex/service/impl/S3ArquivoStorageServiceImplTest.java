@@ -0,0 +1,70 @@
+package br.senai.sc.communitex.service.impl;
+
+import br.senai.sc.communitex.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.core.sync.ResponseTransformer;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class S3ArquivoStorageServiceImplTest {
+
+    @Mock
+    private S3Client s3Client;
+
+    @Test
+    void gravaObjetoNoBucketComChaveDoArquivo() throws Exception {
+        var storage = new S3ArquivoStorageServiceImpl(s3Client, "communitex", "arquivos/");
+
+        storage.gravar(7L, new ByteArrayInputStream(new byte[]{1, 2, 3}), 3);
+
+        var requisicao = ArgumentCaptor.forClass(PutObjectRequest.class);
+        var corpo = ArgumentCaptor.forClass(RequestBody.class);
+        verify(s3Client).putObject(requisicao.capture(), corpo.capture());
+        assertEquals("communitex", requisicao.getValue().bucket());
+        assertEquals("arquivos/7", requisicao.getValue().key());
+        assertEquals(3L, corpo.getValue().optionalContentLength().orElseThrow());
+        try (var conteudo = corpo.getValue().contentStreamProvider().newStream()) {
+            assertArrayEquals(new byte[]{1, 2, 3}, conteudo.readAllBytes());
+        }
+    }
+
+    @Test
+    void objetoAusenteNoBucketViraNaoEncontrado() {
+        var storage = new S3ArquivoStorageServiceImpl(s3Client, "communitex", "arquivos/");
+        when(s3Client.getObject(any(GetObjectRequest.class), any(ResponseTransformer.class)))
+                .thenThrow(NoSuchKeyException.builder().message("The specified key does not exist.").build());
+
+        assertThrows(ResourceNotFoundException.class, () -> storage.transmitir(7L, new ByteArrayOutputStream()));
+        assertThrows(ResourceNotFoundException.class, () -> storage.transmitir(7L, 0, 10, new ByteArrayOutputStream()));
+    }
+
+    @Test
+    void excluiObjetoDoBucket() {
+        var storage = new S3ArquivoStorageServiceImpl(s3Client, "communitex", "arquivos/");
+
+        storage.excluir(7L);
+
+        var requisicao = ArgumentCaptor.forClass(DeleteObjectRequest.class);
+        verify(s3Client).deleteObject(requisicao.capture());
+        assertEquals("arquivos/7", requisicao.getValue().key());
+    }
+}